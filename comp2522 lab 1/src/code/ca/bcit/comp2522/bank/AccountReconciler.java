@@ -0,0 +1,214 @@
+package ca.bcit.comp2522.bank;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reconciles two sets of {@link BankAccount} objects (for example the in-memory accounts
+ * and the accounts loaded back from storage after a crash) without comparing every account.
+ * Firstly, it spreads the accounts over a fixed number of partitions by account number.
+ * Secondly, it hashes every partition in parallel.
+ * Finally, it builds a {@link MerkleTree} over the partition hashes, so comparing two trees
+ * pinpoints the divergent partitions in O(log n) comparisons.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ * @version 1.0
+ */
+public class AccountReconciler
+{
+    private static final int MINIMUM_PARTITIONS = 1;
+    private static final int MAXIMUM_PARTITIONS = 1 << 20;
+
+    private static final int DATE_BYTES    = Integer.BYTES * 3;
+    private static final int ACCOUNT_BYTES = Long.BYTES + Integer.BYTES + DATE_BYTES * 2;
+    private static final int NO_DATE       = -1;
+
+    private static final Comparator<BankAccount> BY_ACCOUNT_NUMBER =
+            Comparator.comparing(BankAccount::getAccountNumber);
+
+    private final int partitionCount;
+
+    /**
+     * Creates a new AccountReconciler with the given number of partitions.
+     *
+     * @param partitionCount the number of partitions the accounts are spread over
+     */
+    public AccountReconciler(final int partitionCount)
+    {
+        validatePartitionCount(partitionCount);
+
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Gets the number of partitions.
+     *
+     * @return number of partitions.
+     */
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    /**
+     * Gets the partition that an account number belongs to.
+     *
+     * @param accountNumber the account number
+     * @return the partition index.
+     */
+    public int partitionOf(final String accountNumber)
+    {
+        return Math.floorMod(accountNumber.hashCode(), partitionCount);
+    }
+
+    /**
+     * Builds a Merkle tree over the given accounts.
+     * Firstly, it groups the accounts by partition.
+     * Secondly, it hashes each partition in parallel, in account number order,
+     * so the same accounts always give the same hash.
+     * Finally, it builds the tree from the partition hashes.
+     *
+     * @param accounts the accounts to hash
+     * @return the Merkle tree of the accounts.
+     */
+    public MerkleTree buildTree(final Collection<BankAccount> accounts)
+    {
+        validateAccounts(accounts);
+
+        final List<List<BankAccount>> partitions;
+        final byte[][]                partitionHashes;
+
+        partitions = partition(accounts);
+
+        partitionHashes = IntStream.range(0, partitionCount)
+                .parallel()
+                .mapToObj(index -> hashPartition(partitions.get(index)))
+                .toArray(byte[][]::new);
+
+        return new MerkleTree(partitionHashes);
+    }
+
+    /**
+     * Finds the partitions whose accounts differ between two sets of accounts.
+     *
+     * @param expected the accounts that are known to be correct
+     * @param actual   the accounts to check
+     * @return the indexes of the divergent partitions.
+     */
+    public List<Integer> reconcile(final Collection<BankAccount> expected,
+                                   final Collection<BankAccount> actual)
+    {
+        return buildTree(expected).findDivergentPartitions(buildTree(actual));
+    }
+
+    /* Method that groups the accounts by partition. */
+    private List<List<BankAccount>> partition(final Collection<BankAccount> accounts)
+    {
+        final List<List<BankAccount>> partitions;
+        partitions = new ArrayList<>(partitionCount);
+
+        for (int i = 0; i < partitionCount; i++)
+        {
+            partitions.add(new ArrayList<>());
+        }
+
+        for (final BankAccount account : accounts)
+        {
+            partitions.get(partitionOf(account.getAccountNumber())).add(account);
+        }
+
+        return partitions;
+    }
+
+    /* Method that hashes every account of one partition. */
+    private static byte[] hashPartition(final List<BankAccount> accounts)
+    {
+        final MessageDigest digest;
+        final ByteBuffer    buffer;
+        final ByteBuffer    length;
+
+        digest = MerkleTree.newDigest();
+        buffer = ByteBuffer.allocate(ACCOUNT_BYTES);
+        length = ByteBuffer.allocate(Integer.BYTES);
+
+        accounts.sort(BY_ACCOUNT_NUMBER);
+
+        for (final BankAccount account : accounts)
+        {
+            putText(digest, length, account.getAccountNumber());
+            putText(digest, length, account.getClient().getClientID());
+
+            buffer.clear();
+            buffer.putLong(Double.doubleToLongBits(account.getBalanceUsd()));
+            buffer.putInt(account.getPin());
+            putDate(buffer, account.getAccountOpened());
+            putDate(buffer, account.getAccountClosed());
+            buffer.flip();
+
+            digest.update(buffer);
+        }
+
+        return digest.digest();
+    }
+
+    /* Method that hashes a text after its length, so "ab" + "c" and "a" + "bc" hash differently. */
+    private static void putText(final MessageDigest digest,
+                                final ByteBuffer    length,
+                                final String        text)
+    {
+        final byte[] bytes;
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        length.clear();
+        length.putInt(bytes.length);
+        length.flip();
+
+        digest.update(length);
+        digest.update(bytes);
+    }
+
+    /* Method that writes a date (or a marker for no date) into the buffer. */
+    private static void putDate(final ByteBuffer buffer,
+                                final Date       date)
+    {
+        if (date == null)
+        {
+            buffer.putInt(NO_DATE);
+            buffer.putInt(NO_DATE);
+            buffer.putInt(NO_DATE);
+        }
+        else
+        {
+            buffer.putInt(date.getYear());
+            buffer.putInt(date.getMonth());
+            buffer.putInt(date.getDay());
+        }
+    }
+
+    /* Method that validates the partition count. */
+    private static void validatePartitionCount(final int partitionCount)
+    {
+        if (partitionCount < MINIMUM_PARTITIONS ||
+            partitionCount > MAXIMUM_PARTITIONS)
+        {
+            throw new IllegalArgumentException("Invalid partition count");
+        }
+    }
+
+    /* Method that validates the accounts. */
+    private static void validateAccounts(final Collection<BankAccount> accounts)
+    {
+        if (accounts == null)
+        {
+            throw new IllegalArgumentException("Invalid accounts");
+        }
+    }
+}
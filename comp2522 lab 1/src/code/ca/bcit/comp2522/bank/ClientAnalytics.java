@@ -0,0 +1,398 @@
+package ca.bcit.comp2522.bank;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Computes demographic breakdowns over a set of {@link BankClient} objects.
+ * Firstly, it copies the birth, signup and death dates of the clients into
+ * primitive columns of packed dates (see {@link IsoDateCodec#pack(Date)}).
+ * Secondly, it computes age-band, signup-cohort, alive/deceased and cohort
+ * retention breakdowns over those columns with parallel streams.
+ * Finally, it caches every result until a client is added or removed.
+ * Age-band results depend on the date asked for, so only the first
+ * {@value #MAXIMUM_CACHED_RESULTS} results of a snapshot are cached;
+ * later ones are computed on every call.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ * @version 1.0
+ */
+public class ClientAnalytics
+{
+    private static final int NO_DATE            = 0;
+    private static final int MINIMUM_BAND_YEARS = 1;
+    private static final int ALIVE              = 0;
+    private static final int DECEASED           = 1;
+    private static final int STATUS_COUNT       = 2;
+
+    private static final int MAXIMUM_CACHED_RESULTS = 64;
+
+    private static final String AGE_BANDS_KEY = "ageBands:";
+    private static final String COHORTS_KEY   = "cohorts";
+    private static final String STATUS_KEY    = "status";
+    private static final String RETENTION_KEY = "retention";
+
+    private final List<BankClient> clients;
+    private volatile Snapshot      snapshot;
+
+    /**
+     * Creates a new ClientAnalytics over the given clients.
+     *
+     * @param clients the clients to analyse
+     */
+    public ClientAnalytics(final Collection<BankClient> clients)
+    {
+        validateClients(clients);
+
+        this.clients = new ArrayList<>(clients);
+    }
+
+    /**
+     * Adds a client and clears the cached results.
+     *
+     * @param client the client to add
+     */
+    public synchronized void addClient(final BankClient client)
+    {
+        validateClient(client);
+
+        clients.add(client);
+        snapshot = null;
+    }
+
+    /**
+     * Removes a client and clears the cached results.
+     *
+     * @param client the client to remove
+     */
+    public synchronized void removeClient(final BankClient client)
+    {
+        if (clients.remove(client))
+        {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Counts the clients alive on the given date per age band. A client
+     * who died after that date is counted. The key of the map is the
+     * first age of the band, for example 20 for the 20 to 29 band when
+     * {@code bandYears} is 10.
+     *
+     * @param bandYears the number of years in each band
+     * @param asOf      the date the ages are computed on
+     * @return the number of clients per band, ordered by age
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, Long> getAgeBandHistogram(final int  bandYears,
+                                                  final Date asOf)
+    {
+        if (bandYears < MINIMUM_BAND_YEARS)
+        {
+            throw new IllegalArgumentException("Invalid band size");
+        }
+
+        validateDate(asOf);
+
+        final Snapshot current;
+        final int      asOfPacked;
+        final String   key;
+        final Object   cached;
+
+        current    = getSnapshot();
+        asOfPacked = IsoDateCodec.pack(asOf);
+        key        = AGE_BANDS_KEY + bandYears + ":" + asOfPacked;
+        cached     = current.cache.get(key);
+
+        if (cached != null)
+        {
+            return (Map<Integer, Long>) cached;
+        }
+
+        // every date asked for is a new key, so the cache stops growing at a fixed size
+        if (current.cache.size() >= MAXIMUM_CACHED_RESULTS)
+        {
+            return current.computeAgeBands(bandYears, asOfPacked);
+        }
+
+        return (Map<Integer, Long>) current.cache.computeIfAbsent(
+                key,
+                ignored -> current.computeAgeBands(bandYears, asOfPacked));
+    }
+
+    /**
+     * Counts the clients per signup year.
+     *
+     * @return the number of clients per signup year, ordered by year
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, Long> getSignupCohortHistogram()
+    {
+        final Snapshot current;
+        current = getSnapshot();
+
+        return (Map<Integer, Long>) current.cache.computeIfAbsent(
+                COHORTS_KEY,
+                key -> current.computeCohorts());
+    }
+
+    /**
+     * Gets the number of clients that are still alive.
+     *
+     * @return number of living clients.
+     */
+    public long getAliveCount()
+    {
+        return getStatusCounts()[ALIVE];
+    }
+
+    /**
+     * Gets the number of clients that have passed away.
+     *
+     * @return number of deceased clients.
+     */
+    public long getDeceasedCount()
+    {
+        return getStatusCounts()[DECEASED];
+    }
+
+    /**
+     * Computes, for every signup year, the share of the clients who signed up
+     * that year and are still alive.
+     *
+     * @return the retention (0.0 to 1.0) per signup year, ordered by year
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, Double> getCohortRetention()
+    {
+        final Snapshot current;
+        current = getSnapshot();
+
+        return (Map<Integer, Double>) current.cache.computeIfAbsent(
+                RETENTION_KEY,
+                key -> current.computeRetention());
+    }
+
+    /* Method that gets the cached alive and deceased counts. */
+    private long[] getStatusCounts()
+    {
+        final Snapshot current;
+        current = getSnapshot();
+
+        return (long[]) current.cache.computeIfAbsent(
+                STATUS_KEY,
+                key -> current.computeStatus());
+    }
+
+    /* Method that gets the columns, building them again after a change. */
+    private Snapshot getSnapshot()
+    {
+        Snapshot current;
+        current = snapshot;
+
+        if (current == null)
+        {
+            synchronized (this)
+            {
+                current = snapshot;
+
+                if (current == null)
+                {
+                    current  = new Snapshot(clients);
+                    snapshot = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /* Method that packs a date, or returns a marker for no date. */
+    private static int packOrNone(final Date date)
+    {
+        return date == null ? NO_DATE : IsoDateCodec.pack(date);
+    }
+
+    /* Method that validates the clients. */
+    private static void validateClients(final Collection<BankClient> clients)
+    {
+        if (clients == null)
+        {
+            throw new IllegalArgumentException("Invalid clients");
+        }
+
+        for (final BankClient client : clients)
+        {
+            validateClient(client);
+        }
+    }
+
+    /* Method that validates a client. */
+    private static void validateClient(final BankClient client)
+    {
+        if (client == null)
+        {
+            throw new IllegalArgumentException("Invalid client");
+        }
+    }
+
+    /* Method that validates a date. */
+    private static void validateDate(final Date date)
+    {
+        if (date == null)
+        {
+            throw new IllegalArgumentException("Invalid date");
+        }
+    }
+
+    /*
+     * The packed date columns of the clients at one point in time,
+     * together with the results computed from them.
+     */
+    private static final class Snapshot
+    {
+        private final int[]               birthDates;
+        private final int[]               signupDates;
+        private final int[]               deathDates;
+        private final Map<String, Object> cache;
+
+        private Snapshot(final List<BankClient> clients)
+        {
+            final int size;
+            size = clients.size();
+
+            this.birthDates  = new int[size];
+            this.signupDates = new int[size];
+            this.deathDates  = new int[size];
+            this.cache       = new ConcurrentHashMap<>();
+
+            for (int i = 0; i < size; i++)
+            {
+                final BankClient client;
+                client = clients.get(i);
+
+                birthDates[i]  = packOrNone(client.getBirthDate());
+                signupDates[i] = packOrNone(client.getSignupDate());
+                deathDates[i]  = packOrNone(client.getDeathDate());
+            }
+        }
+
+        private Map<Integer, Long> computeAgeBands(final int bandYears,
+                                                   final int asOf)
+        {
+            final int asOfYear;
+            final int asOfMonth;
+            final int asOfDay;
+
+            asOfYear  = IsoDateCodec.yearOf(asOf);
+            asOfMonth = IsoDateCodec.monthOf(asOf);
+            asOfDay   = IsoDateCodec.dayOf(asOf);
+
+            return toSortedMap(IntStream.range(0, birthDates.length)
+                    .parallel()
+                    .filter(i -> (deathDates[i] == NO_DATE || deathDates[i] > asOf) && birthDates[i] <= asOf)
+                    .map(i -> ageOn(birthDates[i], asOfYear, asOfMonth, asOfDay) / bandYears * bandYears)
+                    .collect(HashMap<Integer, Long>::new,
+                             (counts, band) -> counts.merge(band, 1L, Long::sum),
+                             (left, right) -> right.forEach((band, count) -> left.merge(band, count, Long::sum))));
+        }
+
+        private Map<Integer, Long> computeCohorts()
+        {
+            return toSortedMap(IntStream.range(0, signupDates.length)
+                    .parallel()
+                    .filter(i -> signupDates[i] != NO_DATE)
+                    .map(i -> IsoDateCodec.yearOf(signupDates[i]))
+                    .collect(HashMap<Integer, Long>::new,
+                             (counts, year) -> counts.merge(year, 1L, Long::sum),
+                             (left, right) -> right.forEach((year, count) -> left.merge(year, count, Long::sum))));
+        }
+
+        private long[] computeStatus()
+        {
+            return IntStream.range(0, deathDates.length)
+                    .parallel()
+                    .collect(() -> new long[STATUS_COUNT],
+                             (counts, i) -> counts[deathDates[i] == NO_DATE ? ALIVE : DECEASED]++,
+                             (left, right) ->
+                             {
+                                 left[ALIVE]    += right[ALIVE];
+                                 left[DECEASED] += right[DECEASED];
+                             });
+        }
+
+        private Map<Integer, Double> computeRetention()
+        {
+            final Map<Integer, long[]> totals;
+            final Map<Integer, Double> retention;
+
+            totals = IntStream.range(0, signupDates.length)
+                    .parallel()
+                    .filter(i -> signupDates[i] != NO_DATE)
+                    .collect(HashMap<Integer, long[]>::new,
+                             (counts, i) -> addToCohort(counts, i),
+                             (left, right) -> right.forEach((year, count) -> left.merge(year, count, Snapshot::sum)));
+
+            retention = new TreeMap<>();
+
+            totals.forEach((year, count) -> retention.put(year, (double) count[ALIVE] / (count[ALIVE] + count[DECEASED])));
+
+            return Collections.unmodifiableMap(retention);
+        }
+
+        private void addToCohort(final Map<Integer, long[]> counts,
+                                 final int                  index)
+        {
+            final long[] count;
+            count = counts.computeIfAbsent(IsoDateCodec.yearOf(signupDates[index]), year -> new long[STATUS_COUNT]);
+
+            count[deathDates[index] == NO_DATE ? ALIVE : DECEASED]++;
+        }
+
+        private static long[] sum(final long[] left,
+                                  final long[] right)
+        {
+            left[ALIVE]    += right[ALIVE];
+            left[DECEASED] += right[DECEASED];
+
+            return left;
+        }
+
+        private static int ageOn(final int birth,
+                                 final int year,
+                                 final int month,
+                                 final int day)
+        {
+            final int birthMonth;
+            final int birthDay;
+            int       age;
+
+            birthMonth = IsoDateCodec.monthOf(birth);
+            birthDay   = IsoDateCodec.dayOf(birth);
+            age        = year - IsoDateCodec.yearOf(birth);
+
+            // if the birthday for that year hasn't occurred yet, subtract 1
+            if (month < birthMonth ||
+                (month == birthMonth && day < birthDay))
+            {
+                age--;
+            }
+
+            return age;
+        }
+
+        private static <V> Map<Integer, V> toSortedMap(final Map<Integer, V> counts)
+        {
+            return Collections.unmodifiableMap(new TreeMap<>(counts));
+        }
+    }
+}
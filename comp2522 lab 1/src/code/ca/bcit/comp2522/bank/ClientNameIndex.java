@@ -0,0 +1,431 @@
+package ca.bcit.comp2522.bank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Search index over the names of {@link BankClient} objects, so branch staff can
+ * look up a client by a spoken or partly typed name.
+ * Firstly, it groups the clients in {@link Soundex} buckets for their first and last names.
+ * Secondly, it keeps a prefix trie for the normalized first and last names.
+ * Finally, adding and removing are synchronized, so a client is always either in
+ * every structure or in none once a change is done, while lookups take no lock:
+ * buckets and trie nodes are concurrent or replaced whole, so a lookup running
+ * during a change never blocks. Empty buckets and trie nodes are dropped on removal.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ * @version 1.0
+ */
+public class ClientNameIndex
+{
+    private static final int  MINIMUM_LIMIT = 1;
+    private static final char ROOT_LETTER   = '\0';
+
+    private final Map<String, Set<BankClient>> firstNameSounds;
+    private final Map<String, Set<BankClient>> lastNameSounds;
+    private final TrieNode                     firstNameTrie;
+    private final TrieNode                     lastNameTrie;
+    private final Set<BankClient>              clients;
+
+    /**
+     * Creates a new empty ClientNameIndex.
+     */
+    public ClientNameIndex()
+    {
+        this.firstNameSounds = new ConcurrentHashMap<>();
+        this.lastNameSounds  = new ConcurrentHashMap<>();
+        this.firstNameTrie   = new TrieNode(ROOT_LETTER);
+        this.lastNameTrie    = new TrieNode(ROOT_LETTER);
+        this.clients         = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Gets the number of clients in the index.
+     *
+     * @return number of clients.
+     */
+    public int size()
+    {
+        return clients.size();
+    }
+
+    /**
+     * Adds a client to the index.
+     *
+     * @param client the client to add
+     */
+    public synchronized void add(final BankClient client)
+    {
+        validateClient(client);
+
+        if (!clients.add(client))
+        {
+            return;
+        }
+
+        final Name name;
+        name = client.getName();
+
+        bucketOf(firstNameSounds, Soundex.encode(name.getFirst())).add(client);
+        bucketOf(lastNameSounds, Soundex.encode(name.getLast())).add(client);
+
+        firstNameTrie.add(normalize(name.getFirst()), client);
+        lastNameTrie.add(normalize(name.getLast()), client);
+    }
+
+    /**
+     * Removes a client from the index.
+     *
+     * @param client the client to remove
+     */
+    public synchronized void remove(final BankClient client)
+    {
+        validateClient(client);
+
+        if (!clients.remove(client))
+        {
+            return;
+        }
+
+        final Name name;
+        name = client.getName();
+
+        removeFromBucket(firstNameSounds, Soundex.encode(name.getFirst()), client);
+        removeFromBucket(lastNameSounds, Soundex.encode(name.getLast()), client);
+
+        firstNameTrie.remove(normalize(name.getFirst()), client);
+        lastNameTrie.remove(normalize(name.getLast()), client);
+    }
+
+    /**
+     * Finds the clients whose first name sounds like the given name.
+     *
+     * @param spokenName the name as it was heard
+     * @return the matching clients.
+     */
+    public Set<BankClient> findFirstNameSoundsLike(final String spokenName)
+    {
+        return findSoundsLike(firstNameSounds, spokenName);
+    }
+
+    /**
+     * Finds the clients whose last name sounds like the given name.
+     *
+     * @param spokenName the name as it was heard
+     * @return the matching clients.
+     */
+    public Set<BankClient> findLastNameSoundsLike(final String spokenName)
+    {
+        return findSoundsLike(lastNameSounds, spokenName);
+    }
+
+    /**
+     * Finds up to {@code limit} clients whose first name starts with the given prefix.
+     *
+     * @param prefix the start of the first name
+     * @param limit  the maximum number of clients to return
+     * @return the matching clients.
+     */
+    public List<BankClient> findFirstNamePrefix(final String prefix,
+                                                final int    limit)
+    {
+        return findPrefix(firstNameTrie, prefix, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} clients whose last name starts with the given prefix.
+     *
+     * @param prefix the start of the last name
+     * @param limit  the maximum number of clients to return
+     * @return the matching clients.
+     */
+    public List<BankClient> findLastNamePrefix(final String prefix,
+                                               final int    limit)
+    {
+        return findPrefix(lastNameTrie, prefix, limit);
+    }
+
+    /* Method that looks up one Soundex bucket. */
+    private static Set<BankClient> findSoundsLike(final Map<String, Set<BankClient>> sounds,
+                                                  final String                       spokenName)
+    {
+        if (spokenName == null)
+        {
+            throw new IllegalArgumentException("Invalid name");
+        }
+
+        final Set<BankClient> bucket;
+        bucket = sounds.get(Soundex.encode(spokenName));
+
+        if (bucket == null)
+        {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(bucket);
+    }
+
+    /* Method that collects the clients under one trie prefix. */
+    private static List<BankClient> findPrefix(final TrieNode root,
+                                               final String   prefix,
+                                               final int      limit)
+    {
+        if (prefix == null)
+        {
+            throw new IllegalArgumentException("Invalid prefix");
+        }
+
+        if (limit < MINIMUM_LIMIT)
+        {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+
+        final List<BankClient> found;
+        final TrieNode         node;
+
+        found = new ArrayList<>();
+        node  = root.find(normalize(prefix));
+
+        if (node != null)
+        {
+            node.collect(found, limit);
+        }
+
+        return found;
+    }
+
+    /* Method that gets or creates a Soundex bucket. */
+    private static Set<BankClient> bucketOf(final Map<String, Set<BankClient>> sounds,
+                                            final String                       code)
+    {
+        return sounds.computeIfAbsent(code, key -> ConcurrentHashMap.newKeySet());
+    }
+
+    /* Method that removes a client from a Soundex bucket, and the bucket once it is empty. */
+    private static void removeFromBucket(final Map<String, Set<BankClient>> sounds,
+                                         final String                       code,
+                                         final BankClient                   client)
+    {
+        final Set<BankClient> bucket;
+        bucket = sounds.get(code);
+
+        if (bucket != null &&
+            bucket.remove(client) &&
+            bucket.isEmpty())
+        {
+            sounds.remove(code);
+        }
+    }
+
+    /* Method that keeps only the lowercase letters of a name. */
+    private static String normalize(final String name)
+    {
+        final StringBuilder normalized;
+        final String        lower;
+
+        normalized = new StringBuilder(name.length());
+        lower      = name.trim().toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i < lower.length(); i++)
+        {
+            final char letter;
+            letter = lower.charAt(i);
+
+            if (Character.isLetter(letter))
+            {
+                normalized.append(letter);
+            }
+        }
+
+        return normalized.toString();
+    }
+
+    /* Method that validates the client. */
+    private static void validateClient(final BankClient client)
+    {
+        if (client == null ||
+            client.getName() == null)
+        {
+            throw new IllegalArgumentException("Invalid client");
+        }
+    }
+
+    /*
+     * One node of the prefix trie. Only the writer, which holds the lock of the
+     * index, changes a node. The children array is never changed in place but
+     * replaced by a new one, and the client set is only made for a node that ends
+     * a name, so a node costs two references instead of two concurrent maps.
+     */
+    private static final class TrieNode
+    {
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private final char               letter;
+        private volatile TrieNode[]      children;
+        private volatile Set<BankClient> clients;
+
+        private TrieNode(final char letter)
+        {
+            this.letter   = letter;
+            this.children = NO_CHILDREN;
+        }
+
+        private void add(final String     key,
+                         final BankClient client)
+        {
+            TrieNode node;
+            node = this;
+
+            for (int i = 0; i < key.length(); i++)
+            {
+                TrieNode child;
+                child = node.child(key.charAt(i));
+
+                if (child == null)
+                {
+                    final TrieNode[] grown;
+
+                    child = new TrieNode(key.charAt(i));
+                    grown = Arrays.copyOf(node.children, node.children.length + 1);
+
+                    grown[grown.length - 1] = child;
+                    node.children           = grown;
+                }
+
+                node = child;
+            }
+
+            if (node.clients == null)
+            {
+                node.clients = ConcurrentHashMap.newKeySet();
+            }
+
+            node.clients.add(client);
+        }
+
+        private void remove(final String     key,
+                            final BankClient client)
+        {
+            final TrieNode[] path;
+            TrieNode         node;
+
+            path = new TrieNode[key.length() + 1];
+            node = this;
+
+            path[0] = node;
+
+            for (int i = 0; i < key.length() && node != null; i++)
+            {
+                node        = node.child(key.charAt(i));
+                path[i + 1] = node;
+            }
+
+            if (node == null ||
+                node.clients == null ||
+                !node.clients.remove(client))
+            {
+                return;
+            }
+
+            if (node.clients.isEmpty())
+            {
+                node.clients = null;
+            }
+
+            // walk back up, unlinking every node left without clients or children
+            for (int i = key.length(); i > 0 && path[i].isEmpty(); i--)
+            {
+                path[i - 1].unlink(path[i]);
+            }
+        }
+
+        private TrieNode find(final String key)
+        {
+            TrieNode node;
+            node = this;
+
+            for (int i = 0; i < key.length() && node != null; i++)
+            {
+                node = node.child(key.charAt(i));
+            }
+
+            return node;
+        }
+
+        private void collect(final List<BankClient> found,
+                             final int              limit)
+        {
+            final Set<BankClient> ending;
+            ending = clients;
+
+            if (ending != null)
+            {
+                for (final BankClient client : ending)
+                {
+                    if (found.size() >= limit)
+                    {
+                        return;
+                    }
+                    found.add(client);
+                }
+            }
+
+            for (final TrieNode child : children)
+            {
+                if (found.size() >= limit)
+                {
+                    return;
+                }
+                child.collect(found, limit);
+            }
+        }
+
+        private TrieNode child(final char letter)
+        {
+            for (final TrieNode child : children)
+            {
+                if (child.letter == letter)
+                {
+                    return child;
+                }
+            }
+
+            return null;
+        }
+
+        private boolean isEmpty()
+        {
+            return clients == null &&
+                   children.length == 0;
+        }
+
+        private void unlink(final TrieNode child)
+        {
+            final TrieNode[] current;
+            final TrieNode[] shrunk;
+            int              next;
+
+            current = children;
+            shrunk  = new TrieNode[current.length - 1];
+            next    = 0;
+
+            for (final TrieNode other : current)
+            {
+                if (other != child)
+                {
+                    shrunk[next++] = other;
+                }
+            }
+
+            children = shrunk;
+        }
+    }
+}
@@ -145,21 +145,14 @@ public class Date
 
     /**
      * Creating method to print date in the format "YYYY-MM-DD".
+     * The month and day are zero padded, so the result can be read back
+     * with {@link IsoDateCodec}.
      *
      * @return formatted date
      */
     public String getYyyyMmDd()
     {
-        final StringBuilder yyyyMmDd;
-        yyyyMmDd = new StringBuilder();
-
-        yyyyMmDd.append(year);
-        yyyyMmDd.append("-");
-        yyyyMmDd.append(month);
-        yyyyMmDd.append("-");
-        yyyyMmDd.append(day);
-
-        return yyyyMmDd.toString();
+        return IsoDateCodec.format(this);
     }
 
     /**
@@ -398,15 +391,18 @@ public class Date
                                      final int month)
     {
         final int maxDay;
+        final int monthOffset;
+
+        monthOffset = month - MONTH_OFFSET;
 
-        if (month == APRIL     ||
-            month == JUNE      ||
-            month == SEPTEMBER ||
-            month == NOVEMBER)
+        if (monthOffset == APRIL     ||
+            monthOffset == JUNE      ||
+            monthOffset == SEPTEMBER ||
+            monthOffset == NOVEMBER)
         {
             maxDay = MAXIMUM_DAYS_IN_APRIL;
         }
-        else if (month == FEBRUARY)
+        else if (monthOffset == FEBRUARY)
         {
             maxDay = isLeapYear(year) ?
                      MAXIMUM_DAYS_IN_LEAP_YEAR :
@@ -420,6 +416,22 @@ public class Date
         return maxDay;
     }
 
+    /*
+     * Method that checks the year, month and day without throwing.
+     * It follows the same rules as the constructor.
+     */
+    static boolean isValid(final int year,
+                           final int month,
+                           final int day)
+    {
+        return year  >= MINIMUM_YEAR       &&
+               year  <= CURRENT_YEAR       &&
+               month >= MINIMUM_MONTH      &&
+               month <= MAXIMUM_MONTH      &&
+               day   >= FIRST_DAY_OF_MONTH &&
+               day   <= maxDayInMonth(year, month);
+    }
+
     /* Method to validate the year. */
     private static void validateYear(final int year)
     {
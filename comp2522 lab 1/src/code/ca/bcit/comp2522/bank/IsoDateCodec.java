@@ -0,0 +1,395 @@
+package ca.bcit.comp2522.bank;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes {@link Date} objects as ISO-8601 "YYYY-MM-DD" text directly in
+ * {@code byte[]} and {@link ByteBuffer} objects, for bulk import and export of bank data.
+ * Firstly, it can work on a packed {@code int} date (year, month and day in one value),
+ * so encoding and decoding do not allocate any objects.
+ * Secondly, the decoder checks the digits, the dashes and the calendar rules of
+ * {@link Date} while it reads the bytes, so a decoded value is always valid.
+ * Finally, it can still create and read {@link Date} objects when they are needed.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ * @version 1.0
+ */
+public final class IsoDateCodec
+{
+    /**
+     * The number of bytes of one encoded date.
+     */
+    public static final int ISO_DATE_LENGTH = 10;
+
+    private static final byte ZERO = '0';
+    private static final byte DASH = '-';
+
+    private static final int MAXIMUM_DIGIT = 9;
+    private static final int TEN           = 10;
+    private static final int HUNDRED       = 100;
+    private static final int THOUSAND      = 1000;
+
+    private static final int YEAR_OFFSET        = 0;
+    private static final int FIRST_DASH_OFFSET  = 4;
+    private static final int MONTH_OFFSET       = 5;
+    private static final int SECOND_DASH_OFFSET = 7;
+    private static final int DAY_OFFSET         = 8;
+
+    private static final int DAY_BITS   = 5;
+    private static final int MONTH_BITS = 4;
+    private static final int YEAR_SHIFT = DAY_BITS + MONTH_BITS;
+    private static final int DAY_MASK   = (1 << DAY_BITS) - 1;
+    private static final int MONTH_MASK = (1 << MONTH_BITS) - 1;
+
+    private IsoDateCodec()
+    {
+    }
+
+    /**
+     * Packs a year, month and day into one {@code int}.
+     *
+     * @param year  the year
+     * @param month the month (1 to 12)
+     * @param day   the day of the month
+     * @return the packed date
+     */
+    public static int pack(final int year,
+                           final int month,
+                           final int day)
+    {
+        if (!Date.isValid(year, month, day))
+        {
+            throw new IllegalArgumentException("Invalid date");
+        }
+
+        return (year << YEAR_SHIFT) | (month << DAY_BITS) | day;
+    }
+
+    /**
+     * Packs a {@link Date} into one {@code int}.
+     *
+     * @param date the date to pack
+     * @return the packed date
+     */
+    public static int pack(final Date date)
+    {
+        validateDate(date);
+
+        return (date.getYear() << YEAR_SHIFT) | (date.getMonth() << DAY_BITS) | date.getDay();
+    }
+
+    /**
+     * Gets the year of a packed date.
+     *
+     * @param packed the packed date
+     * @return the year
+     */
+    public static int yearOf(final int packed)
+    {
+        return packed >>> YEAR_SHIFT;
+    }
+
+    /**
+     * Gets the month of a packed date.
+     *
+     * @param packed the packed date
+     * @return the month (1 to 12)
+     */
+    public static int monthOf(final int packed)
+    {
+        return (packed >>> DAY_BITS) & MONTH_MASK;
+    }
+
+    /**
+     * Gets the day of a packed date.
+     *
+     * @param packed the packed date
+     * @return the day of the month
+     */
+    public static int dayOf(final int packed)
+    {
+        return packed & DAY_MASK;
+    }
+
+    /**
+     * Creates a {@link Date} from a packed date.
+     *
+     * @param packed the packed date
+     * @return the date
+     */
+    public static Date toDate(final int packed)
+    {
+        return new Date(yearOf(packed), monthOf(packed), dayOf(packed));
+    }
+
+    /**
+     * Writes a packed date as "YYYY-MM-DD" into the array.
+     *
+     * @param packed the packed date
+     * @param dst    the array to write to
+     * @param offset the index of the first byte to write
+     * @return the index after the last written byte
+     */
+    public static int encode(final int    packed,
+                             final byte[] dst,
+                             final int    offset)
+    {
+        validateRange(dst.length, offset);
+
+        final int year;
+        final int month;
+        final int day;
+
+        year  = yearOf(packed);
+        month = monthOf(packed);
+        day   = dayOf(packed);
+
+        dst[offset + YEAR_OFFSET]            = digit(year / THOUSAND);
+        dst[offset + YEAR_OFFSET + 1]        = digit(year / HUNDRED % TEN);
+        dst[offset + YEAR_OFFSET + 2]        = digit(year / TEN % TEN);
+        dst[offset + YEAR_OFFSET + 3]        = digit(year % TEN);
+        dst[offset + FIRST_DASH_OFFSET]      = DASH;
+        dst[offset + MONTH_OFFSET]           = digit(month / TEN);
+        dst[offset + MONTH_OFFSET + 1]       = digit(month % TEN);
+        dst[offset + SECOND_DASH_OFFSET]     = DASH;
+        dst[offset + DAY_OFFSET]             = digit(day / TEN);
+        dst[offset + DAY_OFFSET + 1]         = digit(day % TEN);
+
+        return offset + ISO_DATE_LENGTH;
+    }
+
+    /**
+     * Writes a {@link Date} as "YYYY-MM-DD" into the array.
+     *
+     * @param date   the date to write
+     * @param dst    the array to write to
+     * @param offset the index of the first byte to write
+     * @return the index after the last written byte
+     */
+    public static int encode(final Date   date,
+                             final byte[] dst,
+                             final int    offset)
+    {
+        return encode(pack(date), dst, offset);
+    }
+
+    /**
+     * Writes a packed date as "YYYY-MM-DD" at the position of the buffer,
+     * then moves the position past it.
+     *
+     * @param packed the packed date
+     * @param dst    the buffer to write to
+     */
+    public static void encode(final int        packed,
+                              final ByteBuffer dst)
+    {
+        final int position;
+        position = dst.position();
+
+        validateRange(dst.limit(), position);
+
+        if (dst.hasArray())
+        {
+            encode(packed, dst.array(), dst.arrayOffset() + position);
+        }
+        else
+        {
+            final int year;
+            final int month;
+            final int day;
+
+            year  = yearOf(packed);
+            month = monthOf(packed);
+            day   = dayOf(packed);
+
+            dst.put(position + YEAR_OFFSET, digit(year / THOUSAND));
+            dst.put(position + YEAR_OFFSET + 1, digit(year / HUNDRED % TEN));
+            dst.put(position + YEAR_OFFSET + 2, digit(year / TEN % TEN));
+            dst.put(position + YEAR_OFFSET + 3, digit(year % TEN));
+            dst.put(position + FIRST_DASH_OFFSET, DASH);
+            dst.put(position + MONTH_OFFSET, digit(month / TEN));
+            dst.put(position + MONTH_OFFSET + 1, digit(month % TEN));
+            dst.put(position + SECOND_DASH_OFFSET, DASH);
+            dst.put(position + DAY_OFFSET, digit(day / TEN));
+            dst.put(position + DAY_OFFSET + 1, digit(day % TEN));
+        }
+
+        dst.position(position + ISO_DATE_LENGTH);
+    }
+
+    /**
+     * Reads a "YYYY-MM-DD" date from the array into a packed date.
+     * The digits, the dashes and the calendar rules are all checked.
+     *
+     * @param src    the array to read from
+     * @param offset the index of the first byte to read
+     * @return the packed date
+     * @throws IllegalArgumentException if the bytes are not a valid date
+     */
+    public static int decode(final byte[] src,
+                             final int    offset)
+    {
+        validateRange(src.length, offset);
+
+        if (src[offset + FIRST_DASH_OFFSET] != DASH ||
+            src[offset + SECOND_DASH_OFFSET] != DASH)
+        {
+            throw new IllegalArgumentException("Invalid date");
+        }
+
+        final int year;
+        final int month;
+        final int day;
+
+        year  = value(src[offset + YEAR_OFFSET]) * THOUSAND +
+                value(src[offset + YEAR_OFFSET + 1]) * HUNDRED +
+                value(src[offset + YEAR_OFFSET + 2]) * TEN +
+                value(src[offset + YEAR_OFFSET + 3]);
+        month = value(src[offset + MONTH_OFFSET]) * TEN +
+                value(src[offset + MONTH_OFFSET + 1]);
+        day   = value(src[offset + DAY_OFFSET]) * TEN +
+                value(src[offset + DAY_OFFSET + 1]);
+
+        return pack(year, month, day);
+    }
+
+    /**
+     * Reads a "YYYY-MM-DD" date at the position of the buffer into a packed date,
+     * then moves the position past it.
+     *
+     * @param src the buffer to read from
+     * @return the packed date
+     * @throws IllegalArgumentException if the bytes are not a valid date
+     */
+    public static int decode(final ByteBuffer src)
+    {
+        final int position;
+        final int packed;
+
+        position = src.position();
+
+        validateRange(src.limit(), position);
+
+        if (src.hasArray())
+        {
+            packed = decode(src.array(), src.arrayOffset() + position);
+        }
+        else
+        {
+            if (src.get(position + FIRST_DASH_OFFSET) != DASH ||
+                src.get(position + SECOND_DASH_OFFSET) != DASH)
+            {
+                throw new IllegalArgumentException("Invalid date");
+            }
+
+            final int year;
+            final int month;
+            final int day;
+
+            year  = value(src.get(position + YEAR_OFFSET)) * THOUSAND +
+                    value(src.get(position + YEAR_OFFSET + 1)) * HUNDRED +
+                    value(src.get(position + YEAR_OFFSET + 2)) * TEN +
+                    value(src.get(position + YEAR_OFFSET + 3));
+            month = value(src.get(position + MONTH_OFFSET)) * TEN +
+                    value(src.get(position + MONTH_OFFSET + 1));
+            day   = value(src.get(position + DAY_OFFSET)) * TEN +
+                    value(src.get(position + DAY_OFFSET + 1));
+
+            packed = pack(year, month, day);
+        }
+
+        src.position(position + ISO_DATE_LENGTH);
+
+        return packed;
+    }
+
+    /**
+     * Reads a "YYYY-MM-DD" date from the array into a new {@link Date}.
+     *
+     * @param src    the array to read from
+     * @param offset the index of the first byte to read
+     * @return the date
+     */
+    public static Date decodeDate(final byte[] src,
+                                  final int    offset)
+    {
+        return toDate(decode(src, offset));
+    }
+
+    /**
+     * Formats a {@link Date} as a "YYYY-MM-DD" string.
+     *
+     * @param date the date to format
+     * @return the formatted date
+     */
+    public static String format(final Date date)
+    {
+        final byte[] text;
+        text = new byte[ISO_DATE_LENGTH];
+
+        encode(date, text, 0);
+
+        return new String(text, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses a "YYYY-MM-DD" string into a new {@link Date}.
+     *
+     * @param text the text to parse
+     * @return the date
+     */
+    public static Date parse(final String text)
+    {
+        if (text == null ||
+            text.length() != ISO_DATE_LENGTH)
+        {
+            throw new IllegalArgumentException("Invalid date");
+        }
+
+        return decodeDate(text.getBytes(StandardCharsets.US_ASCII), 0);
+    }
+
+    /* Method that turns a number from 0 to 9 into its ASCII digit. */
+    private static byte digit(final int value)
+    {
+        return (byte) (ZERO + value);
+    }
+
+    /* Method that turns an ASCII digit into its number. */
+    private static int value(final byte digit)
+    {
+        final int value;
+        value = digit - ZERO;
+
+        if (value < 0 ||
+            value > MAXIMUM_DIGIT)
+        {
+            throw new IllegalArgumentException("Invalid date");
+        }
+
+        return value;
+    }
+
+    /* Method that checks there is room for one date. */
+    private static void validateRange(final int length,
+                                      final int offset)
+    {
+        if (offset < 0 ||
+            offset > length - ISO_DATE_LENGTH)
+        {
+            throw new IllegalArgumentException("Invalid offset");
+        }
+    }
+
+    /* Method that validates the date. */
+    private static void validateDate(final Date date)
+    {
+        if (date == null)
+        {
+            throw new IllegalArgumentException("Invalid date");
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ca.bcit.comp2522.bank;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a binary Merkle tree built over a fixed number of partition hashes.
+ * Firstly, it stores the partition (leaf) hashes at the bottom level.
+ * Secondly, each parent node holds the hash of its two children.
+ * Finally, two trees with the same number of partitions can be compared from the
+ * root down, only visiting the branches whose hashes differ, so a single divergent
+ * partition is found in O(log n) comparisons.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ * @version 1.0
+ */
+public class MerkleTree
+{
+    static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final int ROOT_LEVEL_SIZE = 1;
+    private static final int LEAF_LEVEL      = 0;
+    private static final int ROOT_INDEX      = 0;
+    private static final int CHILDREN        = 2;
+    private static final int RIGHT_CHILD     = 1;
+    private static final int MINIMUM_LEAVES  = 1;
+
+    private final int        partitionCount;
+    private final byte[][][] levels;
+
+    /**
+     * Creates a new MerkleTree from the given partition hashes.
+     * Firstly, it validates the leaves.
+     * Secondly, it pads the leaves up to a power of two with empty hashes.
+     * Finally, it hashes every pair of nodes up to the root.
+     *
+     * @param partitionHashes one hash per partition, in partition order
+     */
+    public MerkleTree(final byte[][] partitionHashes)
+    {
+        validatePartitionHashes(partitionHashes);
+
+        final int          leafCount;
+        final MessageDigest digest;
+        final List<byte[][]> builtLevels;
+
+        leafCount   = nextPowerOfTwo(partitionHashes.length);
+        digest      = newDigest();
+        builtLevels = new ArrayList<>();
+
+        byte[][] level;
+        level = Arrays.copyOf(partitionHashes, leafCount);
+
+        for (int i = partitionHashes.length; i < leafCount; i++)
+        {
+            level[i] = digest.digest();
+        }
+
+        builtLevels.add(level);
+
+        while (level.length > ROOT_LEVEL_SIZE)
+        {
+            final byte[][] parents;
+            parents = new byte[level.length / CHILDREN][];
+
+            for (int i = 0; i < parents.length; i++)
+            {
+                digest.update(level[i * CHILDREN]);
+                digest.update(level[i * CHILDREN + RIGHT_CHILD]);
+                parents[i] = digest.digest();
+            }
+
+            builtLevels.add(parents);
+            level = parents;
+        }
+
+        this.partitionCount = partitionHashes.length;
+        this.levels         = builtLevels.toArray(new byte[0][][]);
+    }
+
+    /**
+     * Gets the number of partitions covered by this tree.
+     *
+     * @return the number of partitions.
+     */
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    /**
+     * Gets a copy of the root hash of this tree.
+     *
+     * @return the root hash.
+     */
+    public byte[] getRootHash()
+    {
+        return levels[levels.length - 1][ROOT_INDEX].clone();
+    }
+
+    /**
+     * Gets a copy of the hash of one partition.
+     *
+     * @param partition the partition index
+     * @return the hash of that partition.
+     */
+    public byte[] getPartitionHash(final int partition)
+    {
+        validatePartition(partition);
+
+        return levels[LEAF_LEVEL][partition].clone();
+    }
+
+    /**
+     * Compares this tree with another tree and finds the partitions that differ.
+     * Only the branches whose hashes do not match are visited.
+     *
+     * @param other the tree to compare against
+     * @return the indexes of the divergent partitions, in ascending order
+     */
+    public List<Integer> findDivergentPartitions(final MerkleTree other)
+    {
+        if (other == null ||
+            other.partitionCount != partitionCount)
+        {
+            throw new IllegalArgumentException("Trees must cover the same number of partitions");
+        }
+
+        final List<Integer> divergent;
+        divergent = new ArrayList<>();
+
+        collectDivergent(other, levels.length - 1, ROOT_INDEX, divergent);
+
+        return divergent;
+    }
+
+    /* Method that walks down the branches whose hashes differ. */
+    private void collectDivergent(final MerkleTree    other,
+                                  final int           level,
+                                  final int           index,
+                                  final List<Integer> divergent)
+    {
+        if (MessageDigest.isEqual(levels[level][index], other.levels[level][index]))
+        {
+            return;
+        }
+
+        if (level == LEAF_LEVEL)
+        {
+            if (index < partitionCount)
+            {
+                divergent.add(index);
+            }
+            return;
+        }
+
+        collectDivergent(other, level - 1, index * CHILDREN, divergent);
+        collectDivergent(other, level - 1, index * CHILDREN + RIGHT_CHILD, divergent);
+    }
+
+    /* Method that creates a new digest for the hash algorithm. */
+    static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    /* Method that rounds the leaf count up to a power of two. */
+    private static int nextPowerOfTwo(final int count)
+    {
+        final int highest;
+        highest = Integer.highestOneBit(count);
+
+        return highest == count ? count : highest * CHILDREN;
+    }
+
+    /* Method that validates the partition hashes. */
+    private static void validatePartitionHashes(final byte[][] partitionHashes)
+    {
+        if (partitionHashes == null ||
+            partitionHashes.length < MINIMUM_LEAVES)
+        {
+            throw new IllegalArgumentException("Invalid partition hashes");
+        }
+
+        for (final byte[] hash : partitionHashes)
+        {
+            if (hash == null)
+            {
+                throw new IllegalArgumentException("Invalid partition hash");
+            }
+        }
+    }
+
+    /* Method that validates a partition index. */
+    private void validatePartition(final int partition)
+    {
+        if (partition < 0 ||
+            partition >= partitionCount)
+        {
+            throw new IllegalArgumentException("Invalid partition");
+        }
+    }
+}
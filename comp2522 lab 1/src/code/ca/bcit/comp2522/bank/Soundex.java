@@ -0,0 +1,93 @@
+package ca.bcit.comp2522.bank;
+
+/**
+ * Creates American Soundex codes for names, so names that sound alike
+ * (for example "Robert" and "Rupert") get the same four character code.
+ * Firstly, it keeps the first letter of the name.
+ * Secondly, it replaces the following consonants with digits, skipping vowels
+ * and letters that have the same digit as the letter before them.
+ * Finally, it pads or cuts the code to {@value CODE_LENGTH} characters.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ * @version 1.0
+ */
+public final class Soundex
+{
+    private static final int  CODE_LENGTH  = 4;
+    private static final char PADDING      = '0';
+    private static final char NO_CODE      = '0';
+    private static final char SEPARATOR_H  = 'h';
+    private static final char SEPARATOR_W  = 'w';
+
+    /* Digit for every letter from 'a' to 'z'; vowels and y are '0'. */
+    private static final String CODES = "01230120022455012623010202";
+
+    private Soundex()
+    {
+    }
+
+    /**
+     * Creates the Soundex code of a name.
+     *
+     * @param name the name to encode
+     * @return the Soundex code, or an empty string if the name has no letters
+     */
+    public static String encode(final String name)
+    {
+        if (name == null)
+        {
+            throw new IllegalArgumentException("Invalid name");
+        }
+
+        final char[] code;
+        int          length;
+        char         previous;
+
+        code     = new char[CODE_LENGTH];
+        length   = 0;
+        previous = NO_CODE;
+
+        for (int i = 0; i < name.length() && length < CODE_LENGTH; i++)
+        {
+            final char letter;
+            letter = Character.toLowerCase(name.charAt(i));
+
+            if (letter < 'a' || letter > 'z')
+            {
+                continue;
+            }
+
+            final char digit;
+            digit = CODES.charAt(letter - 'a');
+
+            if (length == 0)
+            {
+                code[length++] = Character.toUpperCase(letter);
+            }
+            else if (digit != NO_CODE && digit != previous)
+            {
+                code[length++] = digit;
+            }
+
+            // h and w do not separate letters with the same code
+            if (letter != SEPARATOR_H && letter != SEPARATOR_W)
+            {
+                previous = digit;
+            }
+        }
+
+        if (length == 0)
+        {
+            return "";
+        }
+
+        while (length < CODE_LENGTH)
+        {
+            code[length++] = PADDING;
+        }
+
+        return new String(code);
+    }
+}
@@ -0,0 +1,239 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The Ability class is an attack defined by numbers instead of code:
+ * the resource it needs, the resource it spends or gains, the damage it
+ * deals and an optional bonus when the resource is high. The numbers are
+ * compiled once, when the ability is created, into a small lambda that
+ * only does the steps this ability needs, with every number captured as
+ * a constant. Using an ability is then as cheap as calling
+ * {@link Dragon#tryBreatheFire(Creature)} or the other direct methods.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class Ability
+{
+    private static final int MINIMUM_VALUE      = 0;
+    private static final int MINIMUM_MULTIPLIER = 1;
+    private static final int NO_BONUS           = Integer.MAX_VALUE;
+
+    private final String name;
+    private final int    required;
+    private final int    cost;
+    private final int    gain;
+    private final int    damage;
+    private final int    bonusThreshold;
+    private final int    bonusMultiplier;
+    private final Action action;
+
+    /**
+     * Constructor for the Ability class.
+     *
+     * @param name The name of the ability
+     * @param required The resource needed to use the ability
+     * @param cost The resource spent when the ability is used
+     * @param gain The resource gained when the ability is used
+     * @param damage The damage dealt to the target
+     * @param bonusThreshold The resource after use above which the damage is multiplied
+     * @param bonusMultiplier The multiplier of the damage, 1 for no bonus
+     * @throws IllegalArgumentException if the name is empty or a number is negative
+     */
+    public Ability(final String name,
+                   final int    required,
+                   final int    cost,
+                   final int    gain,
+                   final int    damage,
+                   final int    bonusThreshold,
+                   final int    bonusMultiplier)
+    {
+        if (name == null ||
+            name.trim().isEmpty())
+        {
+            throw new IllegalArgumentException(
+                    "Ability name cannot be null or empty.");
+        }
+
+        validateValue(name, "required", required);
+        validateValue(name, "cost", cost);
+        validateValue(name, "gain", gain);
+        validateValue(name, "damage", damage);
+        validateValue(name, "bonusThreshold", bonusThreshold);
+
+        if (bonusMultiplier < MINIMUM_MULTIPLIER)
+        {
+            throw new IllegalArgumentException(
+                    "Bonus multiplier of " + name + " cannot be less than " + MINIMUM_MULTIPLIER + ".");
+        }
+
+        this.name            = name;
+        this.required        = required;
+        this.cost            = cost;
+        this.gain            = gain;
+        this.damage          = damage;
+        this.bonusThreshold  = bonusMultiplier == MINIMUM_MULTIPLIER ? NO_BONUS : bonusThreshold;
+        this.bonusMultiplier = bonusMultiplier;
+        this.action          = compile();
+    }
+
+    /**
+     * Uses the ability.
+     *
+     * @param user The creature that uses the ability
+     * @param target The creature attacked
+     * @return {@link ActionResult#SUCCESS} if the ability was used, or
+     * {@link ActionResult#NOT_ENOUGH_RESOURCE} if the user has less than the required resource
+     */
+    public ActionResult use(final ConfiguredCreature user,
+                            final Creature           target)
+    {
+        return action.apply(user, target);
+    }
+
+    /**
+     * Gets the name of the ability.
+     *
+     * @return the name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the resource needed to use the ability.
+     *
+     * @return the required resource
+     */
+    public int getRequired()
+    {
+        return required;
+    }
+
+    /**
+     * Gets the resource spent when the ability is used.
+     *
+     * @return the cost
+     */
+    public int getCost()
+    {
+        return cost;
+    }
+
+    /**
+     * Gets the resource gained when the ability is used.
+     *
+     * @return the gain
+     */
+    public int getGain()
+    {
+        return gain;
+    }
+
+    /**
+     * Gets the damage dealt without the bonus.
+     *
+     * @return the damage
+     */
+    public int getDamage()
+    {
+        return damage;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Ability[" + name + "]";
+    }
+
+    /**
+     * Builds the lambda that uses the ability. Only the steps this
+     * ability needs are kept, and every number is a captured constant.
+     *
+     * @return the compiled action
+     */
+    private Action compile()
+    {
+        final int required;
+        final int change;
+        final int damage;
+        final int bonusThreshold;
+        final int bonusDamage;
+
+        required       = this.required;
+        change         = this.gain - this.cost;
+        damage         = this.damage;
+        bonusThreshold = this.bonusThreshold;
+        bonusDamage    = this.damage * this.bonusMultiplier;
+
+        if (damage == MINIMUM_VALUE)
+        {
+            return (user, target) ->
+                    user.pay(required, change) == ConfiguredCreature.NOT_PAID ?
+                    ActionResult.NOT_ENOUGH_RESOURCE :
+                    ActionResult.SUCCESS;
+        }
+
+        if (bonusThreshold == NO_BONUS)
+        {
+            return (user, target) ->
+            {
+                if (user.pay(required, change) == ConfiguredCreature.NOT_PAID)
+                {
+                    return ActionResult.NOT_ENOUGH_RESOURCE;
+                }
+
+                target.takeDamage(damage);
+
+                return ActionResult.SUCCESS;
+            };
+        }
+
+        return (user, target) ->
+        {
+            final int resource;
+            resource = user.pay(required, change);
+
+            if (resource == ConfiguredCreature.NOT_PAID)
+            {
+                return ActionResult.NOT_ENOUGH_RESOURCE;
+            }
+
+            target.takeDamage(resource > bonusThreshold ? bonusDamage : damage);
+
+            return ActionResult.SUCCESS;
+        };
+    }
+
+    /**
+     * Validates one number of the ability.
+     *
+     * @param ability The name of the ability
+     * @param property The name of the number
+     * @param value The number to validate
+     * @throws IllegalArgumentException if the number is negative
+     */
+    private static void validateValue(final String ability,
+                                      final String property,
+                                      final int    value)
+    {
+        if (value < MINIMUM_VALUE)
+        {
+            throw new IllegalArgumentException(
+                    "The " + property + " of " + ability + " cannot be less than " + MINIMUM_VALUE + ".");
+        }
+    }
+
+    /**
+     * The compiled steps of an ability.
+     */
+    @FunctionalInterface
+    private interface Action
+    {
+        ActionResult apply(final ConfiguredCreature user,
+                           final Creature           target);
+    }
+}
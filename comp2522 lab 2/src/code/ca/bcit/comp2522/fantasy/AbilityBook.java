@@ -0,0 +1,289 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * The AbilityBook class reads creature kinds and their abilities from a
+ * properties file, so a new kind of creature needs a few lines of config
+ * instead of a new subclass. The format is described in the default file,
+ * {@code abilities.properties}, which defines the same dragon, elf and orc
+ * as the {@link Dragon}, {@link Elf} and {@link Orc} classes.
+ * Every ability is compiled once, when the book is loaded.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class AbilityBook
+{
+    private static final String DEFAULT_RESOURCE = "abilities.properties";
+
+    private static final String KIND_PREFIX    = "kind.";
+    private static final String ABILITY_PREFIX = "ability.";
+    private static final char   KEY_SEPARATOR  = '.';
+    private static final String LIST_SEPARATOR = ",";
+
+    private static final String RESOURCE_NAME    = ".resource.name";
+    private static final String RESOURCE_MINIMUM = ".resource.minimum";
+    private static final String RESOURCE_MAXIMUM = ".resource.maximum";
+    private static final String ABILITIES        = ".abilities";
+
+    private static final String REQUIRED         = ".required";
+    private static final String COST             = ".cost";
+    private static final String GAIN             = ".gain";
+    private static final String DAMAGE           = ".damage";
+    private static final String BONUS_THRESHOLD  = ".bonusThreshold";
+    private static final String BONUS_MULTIPLIER = ".bonusMultiplier";
+
+    private static final String DEFAULT_RESOURCE_NAME    = "Resource";
+    private static final int    DEFAULT_VALUE            = 0;
+    private static final int    DEFAULT_BONUS_MULTIPLIER = 1;
+
+    private AbilityBook()
+    {
+    }
+
+    /**
+     * Loads the default kinds: dragon, elf and orc.
+     *
+     * @return the kinds, by name
+     */
+    public static Map<String, CreatureKind> loadDefaults()
+    {
+        try (InputStream in = AbilityBook.class.getResourceAsStream(DEFAULT_RESOURCE))
+        {
+            if (in == null)
+            {
+                throw new IllegalStateException(
+                        DEFAULT_RESOURCE + " was not found next to " + AbilityBook.class.getName() + ".");
+            }
+
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads kinds and abilities from a properties file.
+     *
+     * @param reader The reader of the file
+     * @return the kinds, by name, in the order of their names
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not valid
+     */
+    public static Map<String, CreatureKind> load(final Reader reader)
+            throws IOException
+    {
+        if (reader == null)
+        {
+            throw new IllegalArgumentException(
+                    "Reader cannot be null.");
+        }
+
+        final Properties properties;
+        properties = new Properties();
+        properties.load(reader);
+
+        return load(properties);
+    }
+
+    /**
+     * Builds kinds and abilities from properties.
+     *
+     * @param properties The properties that define the kinds and abilities
+     * @return the kinds, by name, in the order of their names
+     * @throws IllegalArgumentException if the properties are not valid
+     */
+    public static Map<String, CreatureKind> load(final Properties properties)
+    {
+        if (properties == null)
+        {
+            throw new IllegalArgumentException(
+                    "Properties cannot be null.");
+        }
+
+        final Map<String, Ability>      abilities;
+        final Map<String, CreatureKind> kinds;
+
+        abilities = new HashMap<>();
+        kinds     = new LinkedHashMap<>();
+
+        for (final String abilityName : namesWithPrefix(properties, ABILITY_PREFIX))
+        {
+            abilities.put(abilityName, readAbility(properties, abilityName));
+        }
+
+        for (final String kindName : namesWithPrefix(properties, KIND_PREFIX))
+        {
+            kinds.put(kindName, readKind(properties, kindName, abilities));
+        }
+
+        return Collections.unmodifiableMap(kinds);
+    }
+
+    /**
+     * Reads one ability.
+     *
+     * @param properties The properties
+     * @param name The name of the ability
+     * @return the compiled ability
+     */
+    private static Ability readAbility(final Properties properties,
+                                       final String     name)
+    {
+        final String prefix;
+        final int    cost;
+
+        prefix = ABILITY_PREFIX + name;
+        cost   = readInt(properties, prefix + COST, DEFAULT_VALUE);
+
+        return new Ability(name,
+                           readInt(properties, prefix + REQUIRED, cost),
+                           cost,
+                           readInt(properties, prefix + GAIN, DEFAULT_VALUE),
+                           readInt(properties, prefix + DAMAGE, DEFAULT_VALUE),
+                           readInt(properties, prefix + BONUS_THRESHOLD, DEFAULT_VALUE),
+                           readInt(properties, prefix + BONUS_MULTIPLIER, DEFAULT_BONUS_MULTIPLIER));
+    }
+
+    /**
+     * Reads one kind.
+     *
+     * @param properties The properties
+     * @param name The name of the kind
+     * @param abilities All the abilities, by name
+     * @return the kind
+     */
+    private static CreatureKind readKind(final Properties           properties,
+                                         final String               name,
+                                         final Map<String, Ability> abilities)
+    {
+        final String        prefix;
+        final String        abilityList;
+        final List<Ability> kindAbilities;
+
+        prefix        = KIND_PREFIX + name;
+        abilityList   = properties.getProperty(prefix + ABILITIES, "");
+        kindAbilities = new ArrayList<>();
+
+        for (final String abilityName : abilityList.split(LIST_SEPARATOR))
+        {
+            final String trimmed;
+            trimmed = abilityName.trim();
+
+            if (trimmed.isEmpty())
+            {
+                continue;
+            }
+
+            final Ability ability;
+            ability = abilities.get(trimmed);
+
+            if (ability == null)
+            {
+                throw new IllegalArgumentException(
+                        "Kind " + name + " uses unknown ability " + trimmed + ".");
+            }
+
+            kindAbilities.add(ability);
+        }
+
+        if (properties.getProperty(prefix + RESOURCE_MAXIMUM) == null)
+        {
+            throw new IllegalArgumentException(
+                    prefix + RESOURCE_MAXIMUM + " is missing.");
+        }
+
+        return new CreatureKind(name,
+                                properties.getProperty(prefix + RESOURCE_NAME, DEFAULT_RESOURCE_NAME).trim(),
+                                readInt(properties, prefix + RESOURCE_MINIMUM, DEFAULT_VALUE),
+                                readInt(properties, prefix + RESOURCE_MAXIMUM, DEFAULT_VALUE),
+                                kindAbilities);
+    }
+
+    /**
+     * Finds the names used after a prefix, such as the kind names in
+     * {@code kind.<name>.abilities}.
+     *
+     * @param properties The properties
+     * @param prefix The prefix of the keys
+     * @return the names, sorted
+     */
+    private static TreeSet<String> namesWithPrefix(final Properties properties,
+                                                   final String     prefix)
+    {
+        final TreeSet<String> names;
+        names = new TreeSet<>();
+
+        for (final String key : properties.stringPropertyNames())
+        {
+            if (!key.startsWith(prefix))
+            {
+                continue;
+            }
+
+            final int end;
+            end = key.indexOf(KEY_SEPARATOR, prefix.length());
+
+            if (end <= prefix.length())
+            {
+                throw new IllegalArgumentException(
+                        "Key " + key + " has no property after the name.");
+            }
+
+            names.add(key.substring(prefix.length(), end));
+        }
+
+        return names;
+    }
+
+    /**
+     * Reads an int property.
+     *
+     * @param properties The properties
+     * @param key The key of the property
+     * @param defaultValue The value when the property is missing
+     * @return the value
+     * @throws IllegalArgumentException if the property is not a number
+     */
+    private static int readInt(final Properties properties,
+                               final String     key,
+                               final int        defaultValue)
+    {
+        final String value;
+        value = properties.getProperty(key);
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(
+                    key + " must be a whole number, not " + value + ".");
+        }
+    }
+}
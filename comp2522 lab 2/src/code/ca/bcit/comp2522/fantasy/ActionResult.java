@@ -0,0 +1,26 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The ActionResult enum is returned by the non-throwing actions
+ * ({@link Dragon#tryBreatheFire(Creature)}, {@link Elf#tryCastSpell(Creature)}
+ * and {@link Orc#tryBerserk(Creature)}) to tell if the action happened.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public enum ActionResult
+{
+    /**
+     * The action happened and the target took damage.
+     */
+    SUCCESS,
+
+    /**
+     * The creature did not have enough firepower, mana or rage,
+     * so nothing changed.
+     */
+    NOT_ENOUGH_RESOURCE
+}
@@ -0,0 +1,631 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+
+/**
+ * The ArenaSimulation class runs tick-based battles over many creatures
+ * without creating one object per creature. Health, mana, rage and
+ * firePower are kept in parallel primitive arrays, and every creature is
+ * identified by its index in those arrays.
+ * On every tick each living creature uses its attack on its target with the
+ * same rules as {@link Dragon#breatheFire(Creature)},
+ * {@link Elf#castSpell(Creature)} and {@link Orc#berserk(Creature)}.
+ * Creatures stunned by {@link #applyEffects(StatusEffects)} do not attack.
+ * An attack that does not have enough resource is counted as failed
+ * instead of throwing an exception.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class ArenaSimulation
+{
+    /**
+     * Target value for a creature that does not attack.
+     */
+    public static final int NO_TARGET = -1;
+
+    private static final int MINIMUM_CAPACITY = 1;
+    private static final int GROWTH_FACTOR    = 2;
+    private static final int NO_RESOURCE      = 0;
+
+    private static final byte DRAGON = (byte) CreatureType.DRAGON.ordinal();
+    private static final byte ELF    = (byte) CreatureType.ELF.ordinal();
+    private static final byte ORC    = (byte) CreatureType.ORC.ordinal();
+
+    private byte[] types;
+    private int[]  health;
+    private int[]  mana;
+    private int[]  rage;
+    private int[]  firePower;
+    private int[]  targets;
+    private long[] stunned;
+    private int    size;
+
+    private long tick;
+    private long successfulActions;
+    private long failedActions;
+
+    /**
+     * Constructor for the ArenaSimulation class.
+     *
+     * @param capacity The number of creatures to make room for
+     * @throws IllegalArgumentException if capacity is less than {@value MINIMUM_CAPACITY}
+     */
+    public ArenaSimulation(final int capacity)
+    {
+        if (capacity < MINIMUM_CAPACITY)
+        {
+            throw new IllegalArgumentException(
+                    "Capacity cannot be less than " + MINIMUM_CAPACITY + ".");
+        }
+
+        this.types     = new byte[capacity];
+        this.health    = new int[capacity];
+        this.mana      = new int[capacity];
+        this.rage      = new int[capacity];
+        this.firePower = new int[capacity];
+        this.targets   = new int[capacity];
+        this.stunned   = new long[BulkHealth.words(capacity)];
+    }
+
+    /**
+     * Adds a copy of the state of an existing creature to the arena.
+     * The creature may be hurt below the health a new creature needs,
+     * or dead. The arena attacks with the numbers of
+     * {@link BalanceProfile#DEFAULT}, so the creature must fight with them too.
+     *
+     * @param creature The Dragon, Elf or Orc to copy
+     * @return the index of the creature in the arena
+     * @throws IllegalArgumentException if the creature is not a Dragon, Elf or Orc,
+     *                                  or has a balance profile other than the default one
+     */
+    public int add(final Creature creature)
+    {
+        final CreatureType type;
+        final int          health;
+
+        type   = CreatureType.of(creature);
+        health = creature.getHealth();
+
+        validateRange(health, Creature.DEAD_HEALTH, Creature.MAXIMUM_HEALTH, "Health");
+
+        switch (type)
+        {
+            case DRAGON:
+                final Dragon dragon;
+                dragon = (Dragon) creature;
+                validateProfile(dragon.getBalanceProfile());
+                return add(DRAGON, health, NO_RESOURCE, NO_RESOURCE, dragon.getFirePower());
+            case ELF:
+                final Elf elf;
+                elf = (Elf) creature;
+                validateProfile(elf.getBalanceProfile());
+                return add(ELF, health, elf.getMana(), NO_RESOURCE, NO_RESOURCE);
+            default:
+                final Orc orc;
+                orc = (Orc) creature;
+                validateProfile(orc.getBalanceProfile());
+                return add(ORC, health, NO_RESOURCE, orc.getRage(), NO_RESOURCE);
+        }
+    }
+
+    /**
+     * Adds a dragon to the arena.
+     *
+     * @param health The health of the dragon
+     * @param firePower The firepower of the dragon
+     * @return the index of the dragon in the arena
+     */
+    public int addDragon(final int health,
+                         final int firePower)
+    {
+        validateRange(health, Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH, "Health");
+        validateRange(firePower, Dragon.MINIMUM_FIRE_POWER, Dragon.MAXIMUM_FIRE_POWER, "Fire power");
+
+        return add(DRAGON, health, NO_RESOURCE, NO_RESOURCE, firePower);
+    }
+
+    /**
+     * Adds an elf to the arena.
+     *
+     * @param health The health of the elf
+     * @param mana The mana of the elf
+     * @return the index of the elf in the arena
+     */
+    public int addElf(final int health,
+                      final int mana)
+    {
+        validateRange(health, Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH, "Health");
+        validateRange(mana, Elf.MINIMUM_MANA, Elf.MAXIMUM_MANA, "Mana");
+
+        return add(ELF, health, mana, NO_RESOURCE, NO_RESOURCE);
+    }
+
+    /**
+     * Adds an orc to the arena.
+     *
+     * @param health The health of the orc
+     * @param rage The rage of the orc
+     * @return the index of the orc in the arena
+     */
+    public int addOrc(final int health,
+                      final int rage)
+    {
+        validateRange(health, Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH, "Health");
+        validateRange(rage, Orc.MINIMUM_RAGE, Orc.MAXIMUM_RAGE, "Rage");
+
+        return add(ORC, health, NO_RESOURCE, rage, NO_RESOURCE);
+    }
+
+    /**
+     * Sets the creature that another creature attacks on every tick.
+     *
+     * @param attacker The index of the attacking creature
+     * @param target The index of the target, or {@value NO_TARGET}
+     */
+    public void setTarget(final int attacker,
+                          final int target)
+    {
+        validateIndex(attacker);
+
+        if (target != NO_TARGET)
+        {
+            validateIndex(target);
+        }
+
+        targets[attacker] = target;
+    }
+
+    /**
+     * Makes every creature attack the next creature in the arena,
+     * and the last creature attack the first one.
+     */
+    public void targetNextCreature()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            targets[i] = size > MINIMUM_CAPACITY ? (i + 1) % size : NO_TARGET;
+        }
+    }
+
+    /**
+     * Runs one tick of the battle. Every living creature that is not
+     * stunned and has a living target uses its attack once, in index order.
+     *
+     * @return the number of attacks that succeeded in this tick
+     */
+    public int tick()
+    {
+        final byte[] types;
+        final int[]  health;
+        final int[]  mana;
+        final int[]  rage;
+        final int[]  firePower;
+        final int[]  targets;
+        final long[] stunned;
+        int          succeeded;
+        int          failed;
+
+        types     = this.types;
+        health    = this.health;
+        mana      = this.mana;
+        rage      = this.rage;
+        firePower = this.firePower;
+        targets   = this.targets;
+        stunned   = this.stunned;
+        succeeded = 0;
+        failed    = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            final int target;
+            target = targets[i];
+
+            if (health[i] <= Creature.DEAD_HEALTH ||
+                target == NO_TARGET ||
+                health[target] <= Creature.DEAD_HEALTH ||
+                BulkHealth.isSet(stunned, i))
+            {
+                continue;
+            }
+
+            final int damage;
+
+            if (types[i] == DRAGON)
+            {
+                if (firePower[i] < Dragon.FIRE_POWER_DECREMENT)
+                {
+                    failed++;
+                    continue;
+                }
+                firePower[i] -= Dragon.FIRE_POWER_DECREMENT;
+                damage = Dragon.BREATHE_FIRE_DAMAGE;
+            }
+            else if (types[i] == ELF)
+            {
+                if (mana[i] < Elf.MANA_COST_PER_SPELL)
+                {
+                    failed++;
+                    continue;
+                }
+                mana[i] -= Elf.MANA_COST_PER_SPELL;
+                damage = Elf.SPELL_DAMAGE;
+            }
+            else
+            {
+                if (rage[i] < Orc.MINIMUM_BERSERK_RAGE)
+                {
+                    failed++;
+                    continue;
+                }
+                rage[i] = Math.min(rage[i] + Orc.RAGE_INCREMENT, Orc.MAXIMUM_RAGE);
+                damage  = rage[i] > Orc.DOUBLE_DAMAGE_RAGE ?
+                          Orc.BERSERK_DAMAGE * Orc.DOUBLE_DAMAGE :
+                          Orc.BERSERK_DAMAGE;
+            }
+
+            health[target] = Math.max(health[target] - damage, Creature.DEAD_HEALTH);
+            succeeded++;
+        }
+
+        tick++;
+        successfulActions += succeeded;
+        failedActions     += failed;
+
+        return succeeded;
+    }
+
+    /**
+     * Runs the given number of ticks.
+     *
+     * @param ticks The number of ticks to run
+     * @return the number of attacks that succeeded
+     */
+    public long run(final int ticks)
+    {
+        long succeeded;
+        succeeded = 0;
+
+        for (int i = 0; i < ticks; i++)
+        {
+            succeeded += tick();
+        }
+
+        return succeeded;
+    }
+
+    /**
+     * Takes the same damage from every creature in a range of the arena
+     * at once, as an area effect or a poison tick would, and sets the
+     * bit of every creature it kills in a mask.
+     *
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @param damage The damage
+     * @param newlyDead The bitmask of creatures that died, at least
+     * {@link BulkHealth#words(int) BulkHealth.words(to)} long
+     * @return the number of creatures that died
+     * @throws DamageException if the damage is negative
+     * @throws IllegalArgumentException if the range is not within the arena or the mask is too short
+     */
+    public int damageAll(final int    from,
+                         final int    to,
+                         final int    damage,
+                         final long[] newlyDead)
+    {
+        validateRange(to, from, size, "End of range");
+
+        return BulkHealth.applyDamage(health, from, to, damage, newlyDead);
+    }
+
+    /**
+     * Heals every living creature in a range of the arena at once.
+     * Dead creatures stay dead.
+     *
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @param amount The healing
+     * @throws HealingException if the amount is negative
+     * @throws IllegalArgumentException if the range is not within the arena
+     */
+    public void healAll(final int from,
+                        final int to,
+                        final int amount)
+    {
+        validateRange(to, from, size, "End of range");
+
+        BulkHealth.applyHealing(health, from, to, amount);
+    }
+
+    /**
+     * Applies one tick of status effects to the arena. Burn and poison
+     * damage and regeneration heal the creatures they target, and the
+     * creatures with a stun do not attack until the next call.
+     *
+     * @param effects The status effects on creatures of this arena
+     * @return the number of creatures the effects killed
+     * @throws IllegalArgumentException if effects is null or targets a creature
+     * that is not in the arena
+     */
+    public int applyEffects(final StatusEffects effects)
+    {
+        if (effects == null)
+        {
+            throw new IllegalArgumentException(
+                    "Effects cannot be null.");
+        }
+
+        Arrays.fill(stunned, 0L);
+
+        return effects.tick(health, size, stunned);
+    }
+
+    /**
+     * Gets the number of creatures in the arena.
+     *
+     * @return the number of creatures
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Counts the creatures that are still alive.
+     *
+     * @return the number of living creatures
+     */
+    public int getAliveCount()
+    {
+        int alive;
+        alive = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            if (health[i] > Creature.DEAD_HEALTH)
+            {
+                alive++;
+            }
+        }
+
+        return alive;
+    }
+
+    /**
+     * Gets the type of a creature.
+     *
+     * @param index The index of the creature
+     * @return the type of the creature
+     */
+    public CreatureType getType(final int index)
+    {
+        validateIndex(index);
+
+        return CreatureType.fromOrdinal(types[index]);
+    }
+
+    /**
+     * Gets the health of a creature.
+     *
+     * @param index The index of the creature
+     * @return the health of the creature
+     */
+    public int getHealth(final int index)
+    {
+        validateIndex(index);
+
+        return health[index];
+    }
+
+    /**
+     * Gets the mana of a creature (0 for creatures other than elves).
+     *
+     * @param index The index of the creature
+     * @return the mana of the creature
+     */
+    public int getMana(final int index)
+    {
+        validateIndex(index);
+
+        return mana[index];
+    }
+
+    /**
+     * Gets the rage of a creature (0 for creatures other than orcs).
+     *
+     * @param index The index of the creature
+     * @return the rage of the creature
+     */
+    public int getRage(final int index)
+    {
+        validateIndex(index);
+
+        return rage[index];
+    }
+
+    /**
+     * Gets the firepower of a creature (0 for creatures other than dragons).
+     *
+     * @param index The index of the creature
+     * @return the firepower of the creature
+     */
+    public int getFirePower(final int index)
+    {
+        validateIndex(index);
+
+        return firePower[index];
+    }
+
+    /**
+     * Checks if a creature is alive.
+     *
+     * @param index The index of the creature
+     * @return true if the creature is alive, false otherwise
+     */
+    public boolean isAlive(final int index)
+    {
+        return getHealth(index) > Creature.DEAD_HEALTH;
+    }
+
+    /**
+     * Checks if a creature was stunned by the last status effects applied.
+     *
+     * @param index The index of the creature
+     * @return true if the creature cannot attack, false otherwise
+     */
+    public boolean isStunned(final int index)
+    {
+        validateIndex(index);
+
+        return BulkHealth.isSet(stunned, index);
+    }
+
+    /**
+     * Gets the number of ticks that have been run.
+     *
+     * @return the number of ticks
+     */
+    public long getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Gets the number of attacks that succeeded since the arena was created.
+     *
+     * @return the number of successful attacks
+     */
+    public long getSuccessfulActions()
+    {
+        return successfulActions;
+    }
+
+    /**
+     * Gets the number of attacks that failed because the attacker
+     * did not have enough resource.
+     *
+     * @return the number of failed attacks
+     */
+    public long getFailedActions()
+    {
+        return failedActions;
+    }
+
+    /**
+     * Adds one creature to the end of every column.
+     *
+     * @param type The type of the creature
+     * @param health The health of the creature
+     * @param mana The mana of the creature
+     * @param rage The rage of the creature
+     * @param firePower The firepower of the creature
+     * @return the index of the new creature
+     */
+    private int add(final byte type,
+                    final int health,
+                    final int mana,
+                    final int rage,
+                    final int firePower)
+    {
+        if (size == types.length)
+        {
+            grow();
+        }
+
+        final int index;
+        index = size;
+
+        this.types[index]     = type;
+        this.health[index]    = health;
+        this.mana[index]      = mana;
+        this.rage[index]      = rage;
+        this.firePower[index] = firePower;
+        this.targets[index]   = NO_TARGET;
+
+        size++;
+
+        return index;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow()
+    {
+        final int capacity;
+        capacity = types.length * GROWTH_FACTOR;
+
+        types     = Arrays.copyOf(types, capacity);
+        health    = Arrays.copyOf(health, capacity);
+        mana      = Arrays.copyOf(mana, capacity);
+        rage      = Arrays.copyOf(rage, capacity);
+        firePower = Arrays.copyOf(firePower, capacity);
+        targets   = Arrays.copyOf(targets, capacity);
+        stunned   = Arrays.copyOf(stunned, BulkHealth.words(capacity));
+    }
+
+    /**
+     * Validates the index of a creature.
+     *
+     * @param index The index to validate
+     * @throws IllegalArgumentException if there is no creature with that index
+     */
+    private void validateIndex(final int index)
+    {
+        if (index < 0 ||
+            index >= size)
+        {
+            throw new IllegalArgumentException(
+                    "No creature with index " + index + ".");
+        }
+    }
+
+    /**
+     * Validates that a copied creature fights with the numbers of the arena.
+     *
+     * @param profile The balance profile of the creature
+     * @throws IllegalArgumentException if the profile is not the default one
+     */
+    private static void validateProfile(final BalanceProfile profile)
+    {
+        if (!BalanceProfile.DEFAULT.equals(profile))
+        {
+            throw new IllegalArgumentException(
+                    "Only creatures with the default balance profile can be copied into an arena.");
+        }
+    }
+
+    /**
+     * Validates that a value is within a range.
+     *
+     * @param value The value to validate
+     * @param minimum The smallest allowed value
+     * @param maximum The largest allowed value
+     * @param label The name of the value for the error message
+     * @throws IllegalArgumentException if the value is out of range
+     */
+    private static void validateRange(final int    value,
+                                      final int    minimum,
+                                      final int    maximum,
+                                      final String label)
+    {
+        if (value < minimum ||
+            value > maximum)
+        {
+            final StringBuilder errorMessages;
+            errorMessages = new StringBuilder();
+
+            errorMessages.append(label);
+            errorMessages.append(" must be between ");
+            errorMessages.append(minimum);
+            errorMessages.append(" and ");
+            errorMessages.append(maximum);
+            errorMessages.append(".");
+
+            throw new IllegalArgumentException(errorMessages.toString());
+        }
+    }
+}
@@ -0,0 +1,681 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ArenaSnapshot class saves the state of many creatures to a file and
+ * reads it back. The file is a header, then one fixed-width record per
+ * creature, then every different balance profile once, then the names:
+ * <pre>
+ * header:  magic, version, count, profile count    (4 ints)
+ * record:  type, name offset, name length,
+ *          birth epoch day, health, resource,
+ *          initial health, initial resource,
+ *          profile index                            (9 ints)
+ * profile: breathe fire damage, firepower cost,
+ *          spell damage, mana cost,
+ *          berserk damage, rage increment           (6 ints)
+ * names:   the UTF-8 bytes of every name
+ * </pre>
+ * Both saving and loading map the file into memory. Loading only checks
+ * the header, so it takes the same time for any number of creatures.
+ * The snapshot then reads the fields of a record straight from the
+ * mapped file, and creates the creature of a record, or a balance
+ * profile, only when it is first asked for, so a damaged record is only
+ * found then and is reported with an IllegalStateException.
+ * Dragons, Elves and Orcs can be saved.
+ * A loaded snapshot is meant to be used by one thread.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class ArenaSnapshot
+{
+    private static final int MAGIC   = 0x41524E41;
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES  = 16;
+    private static final int RECORD_BYTES  = 36;
+    private static final int PROFILE_BYTES = 24;
+
+    private static final int MAGIC_OFFSET         = 0;
+    private static final int VERSION_OFFSET       = 4;
+    private static final int COUNT_OFFSET         = 8;
+    private static final int PROFILE_COUNT_OFFSET = 12;
+
+    private static final int TYPE_OFFSET             = 0;
+    private static final int NAME_OFFSET_OFFSET      = 4;
+    private static final int NAME_LENGTH_OFFSET      = 8;
+    private static final int BIRTH_EPOCH_DAY_OFFSET  = 12;
+    private static final int HEALTH_OFFSET           = 16;
+    private static final int RESOURCE_OFFSET         = 20;
+    private static final int INITIAL_HEALTH_OFFSET   = 24;
+    private static final int INITIAL_RESOURCE_OFFSET = 28;
+    private static final int PROFILE_INDEX_OFFSET    = 32;
+
+    private static final int BREATHE_FIRE_DAMAGE_OFFSET = 0;
+    private static final int FIRE_POWER_COST_OFFSET     = 4;
+    private static final int SPELL_DAMAGE_OFFSET        = 8;
+    private static final int MANA_COST_OFFSET           = 12;
+    private static final int BERSERK_DAMAGE_OFFSET      = 16;
+    private static final int RAGE_INCREMENT_OFFSET      = 20;
+
+    private static final int TYPES = CreatureType.values().length;
+
+    private final ByteBuffer       buffer;
+    private final int              count;
+    private final Creature[]       creatures;
+    private final BalanceProfile[] profiles;
+
+    /**
+     * Constructor for the ArenaSnapshot class.
+     *
+     * @param buffer The mapped file
+     * @param count The number of records
+     * @param profileCount The number of balance profiles
+     */
+    private ArenaSnapshot(final ByteBuffer buffer,
+                          final int        count,
+                          final int        profileCount)
+    {
+        this.buffer    = buffer;
+        this.count     = count;
+        this.creatures = new Creature[count];
+        this.profiles  = new BalanceProfile[profileCount];
+    }
+
+    /**
+     * Saves the state of creatures to a file, replacing the file if it exists.
+     *
+     * @param file The file to write
+     * @param creatures The creatures to save
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if creatures is null, holds a creature that
+     *                                  is not a Dragon, Elf or Orc, or does not fit in one file
+     */
+    public static void save(final Path                     file,
+                            final List<? extends Creature> creatures)
+            throws IOException
+    {
+        if (file == null ||
+            creatures == null)
+        {
+            throw new IllegalArgumentException(
+                    "File and creatures cannot be null.");
+        }
+
+        final int                          count;
+        final byte[][]                     names;
+        final int[]                        profileIndexes;
+        final List<BalanceProfile>         profiles;
+        final Map<BalanceProfile, Integer> profileIndexOf;
+        final long                         profilesStart;
+        final long                         namesStart;
+        long                               fileBytes;
+
+        count          = creatures.size();
+        names          = new byte[count][];
+        profileIndexes = new int[count];
+        profiles       = new ArrayList<>();
+        profileIndexOf = new HashMap<>();
+        fileBytes      = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            final Creature       creature;
+            final BalanceProfile profile;
+            Integer              profileIndex;
+
+            creature = creatures.get(i);
+
+            if (creature == null)
+            {
+                throw new IllegalArgumentException(
+                        "Creatures cannot be null.");
+            }
+
+            CreatureType.of(creature);
+
+            profile      = profileOf(creature);
+            profileIndex = profileIndexOf.get(profile);
+
+            if (profileIndex == null)
+            {
+                profileIndex = profiles.size();
+                profiles.add(profile);
+                profileIndexOf.put(profile, profileIndex);
+            }
+
+            names[i]          = creature.getName().getBytes(StandardCharsets.UTF_8);
+            profileIndexes[i] = profileIndex;
+            fileBytes        += names[i].length;
+        }
+
+        profilesStart = HEADER_BYTES + (long) count * RECORD_BYTES;
+        namesStart    = profilesStart + (long) profiles.size() * PROFILE_BYTES;
+        fileBytes    += namesStart;
+
+        if (fileBytes > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                    "A snapshot cannot be larger than " + Integer.MAX_VALUE + " bytes.");
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE))
+        {
+            final MappedByteBuffer out;
+            int                    nameOffset;
+
+            out        = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            nameOffset = (int) namesStart;
+
+            out.putInt(MAGIC_OFFSET, MAGIC);
+            out.putInt(VERSION_OFFSET, VERSION);
+            out.putInt(COUNT_OFFSET, count);
+            out.putInt(PROFILE_COUNT_OFFSET, profiles.size());
+
+            for (int i = 0; i < count; i++)
+            {
+                final Creature creature;
+                final int      record;
+
+                creature = creatures.get(i);
+                record   = HEADER_BYTES + i * RECORD_BYTES;
+
+                out.putInt(record + TYPE_OFFSET, CreatureType.of(creature).ordinal());
+                out.putInt(record + NAME_OFFSET_OFFSET, nameOffset);
+                out.putInt(record + NAME_LENGTH_OFFSET, names[i].length);
+                out.putInt(record + BIRTH_EPOCH_DAY_OFFSET, (int) creature.getBirthEpochDay());
+                out.putInt(record + HEALTH_OFFSET, creature.getHealth());
+                out.putInt(record + RESOURCE_OFFSET, resourceOf(creature));
+                out.putInt(record + INITIAL_HEALTH_OFFSET, creature.getInitialHealth());
+                out.putInt(record + INITIAL_RESOURCE_OFFSET, initialResourceOf(creature));
+                out.putInt(record + PROFILE_INDEX_OFFSET, profileIndexes[i]);
+
+                out.put(nameOffset, names[i]);
+                nameOffset += names[i].length;
+            }
+
+            for (int i = 0; i < profiles.size(); i++)
+            {
+                final BalanceProfile profile;
+                final int            entry;
+
+                profile = profiles.get(i);
+                entry   = (int) profilesStart + i * PROFILE_BYTES;
+
+                out.putInt(entry + BREATHE_FIRE_DAMAGE_OFFSET, profile.getBreatheFireDamage());
+                out.putInt(entry + FIRE_POWER_COST_OFFSET, profile.getFirePowerCost());
+                out.putInt(entry + SPELL_DAMAGE_OFFSET, profile.getSpellDamage());
+                out.putInt(entry + MANA_COST_OFFSET, profile.getManaCost());
+                out.putInt(entry + BERSERK_DAMAGE_OFFSET, profile.getBerserkDamage());
+                out.putInt(entry + RAGE_INCREMENT_OFFSET, profile.getRageIncrement());
+            }
+
+            out.force();
+        }
+    }
+
+    /**
+     * Loads a snapshot. Only the header is read; records are read when
+     * they are asked for.
+     *
+     * @param file The file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static ArenaSnapshot load(final Path file)
+            throws IOException
+    {
+        if (file == null)
+        {
+            throw new IllegalArgumentException(
+                    "File cannot be null.");
+        }
+
+        final MappedByteBuffer in;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            // the mapping stays valid after the channel is closed
+            if (channel.size() < HEADER_BYTES ||
+                channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException(
+                        file + " is not an arena snapshot.");
+            }
+
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        final int count;
+        final int profileCount;
+
+        count        = in.getInt(COUNT_OFFSET);
+        profileCount = in.getInt(PROFILE_COUNT_OFFSET);
+
+        if (in.getInt(MAGIC_OFFSET) != MAGIC ||
+            in.getInt(VERSION_OFFSET) != VERSION ||
+            count < 0 ||
+            profileCount < 0 ||
+            HEADER_BYTES + (long) count * RECORD_BYTES + (long) profileCount * PROFILE_BYTES > in.capacity())
+        {
+            throw new IOException(
+                    file + " is not an arena snapshot.");
+        }
+
+        return new ArenaSnapshot(in, count, profileCount);
+    }
+
+    /**
+     * Gets the number of creatures in the snapshot.
+     *
+     * @return the number of creatures
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Gets the type of a creature.
+     *
+     * @param index The index of the creature
+     * @return the type
+     * @throws IllegalStateException if the record holds an unknown type
+     */
+    public CreatureType getType(final int index)
+    {
+        final int ordinal;
+        ordinal = field(index, TYPE_OFFSET);
+
+        if (ordinal < 0 ||
+            ordinal >= TYPES)
+        {
+            throw damaged(index, "unknown creature type " + ordinal + ".");
+        }
+
+        return CreatureType.fromOrdinal(ordinal);
+    }
+
+    /**
+     * Gets the name of a creature.
+     *
+     * @param index The index of the creature
+     * @return the name
+     * @throws IllegalStateException if the record points to a name outside the names in the file
+     */
+    public String getName(final int index)
+    {
+        final int    nameOffset;
+        final int    nameLength;
+        final byte[] bytes;
+
+        nameOffset = field(index, NAME_OFFSET_OFFSET);
+        nameLength = field(index, NAME_LENGTH_OFFSET);
+
+        if (nameLength < 0 ||
+            nameOffset < namesStart() ||
+            (long) nameOffset + nameLength > buffer.capacity())
+        {
+            throw damaged(index, "a name of " + nameLength + " bytes at " + nameOffset + " is outside the names.");
+        }
+
+        bytes = new byte[nameLength];
+        buffer.get(nameOffset, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the day a creature was born.
+     *
+     * @param index The index of the creature
+     * @return the number of days from 1970-01-01 to the date of birth
+     */
+    public long getBirthEpochDay(final int index)
+    {
+        return field(index, BIRTH_EPOCH_DAY_OFFSET);
+    }
+
+    /**
+     * Gets the saved health of a creature.
+     *
+     * @param index The index of the creature
+     * @return the health
+     */
+    public int getHealth(final int index)
+    {
+        return field(index, HEALTH_OFFSET);
+    }
+
+    /**
+     * Gets the saved firepower, mana or rage of a creature.
+     *
+     * @param index The index of the creature
+     * @return the resource
+     */
+    public int getResource(final int index)
+    {
+        return field(index, RESOURCE_OFFSET);
+    }
+
+    /**
+     * Gets the balance profile a creature fights with. Creatures that
+     * share a profile get the same object.
+     *
+     * @param index The index of the creature
+     * @return the balance profile
+     * @throws IllegalStateException if the record names a profile that is not in the file,
+     *                               or the profile holds a number out of range
+     */
+    public BalanceProfile getBalanceProfile(final int index)
+    {
+        final int      profileIndex;
+        BalanceProfile profile;
+
+        profileIndex = field(index, PROFILE_INDEX_OFFSET);
+
+        if (profileIndex < 0 ||
+            profileIndex >= profiles.length)
+        {
+            throw damaged(index, "unknown balance profile " + profileIndex + ".");
+        }
+
+        profile = profiles[profileIndex];
+
+        if (profile == null)
+        {
+            try
+            {
+                profile = readProfile(profileIndex);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw damaged(index, e.getMessage());
+            }
+
+            profiles[profileIndex] = profile;
+        }
+
+        return profile;
+    }
+
+    /**
+     * Gets a creature, creating it from its record the first time.
+     * The creature has the saved state, and {@link Creature#reset()}
+     * takes it back to the state it was first created in.
+     *
+     * @param index The index of the creature
+     * @return the creature
+     * @throws IllegalStateException if the record of the creature is damaged
+     */
+    public Creature get(final int index)
+    {
+        validateIndex(index);
+
+        Creature creature;
+        creature = creatures[index];
+
+        if (creature == null)
+        {
+            try
+            {
+                creature = create(index);
+            }
+            catch (IllegalArgumentException e)
+            {
+                // the record holds a health, resource or birth day no creature can have
+                throw damaged(index, e.getMessage());
+            }
+
+            creatures[index] = creature;
+        }
+
+        return creature;
+    }
+
+    /**
+     * Creates the creature of a record.
+     *
+     * @param index The index of the creature
+     * @return the new creature
+     */
+    private Creature create(final int index)
+    {
+        final String         name;
+        final Date           dateOfBirth;
+        final int            initialHealth;
+        final int            initialResource;
+        final int            resource;
+        final BalanceProfile profile;
+        final Creature       creature;
+
+        name            = getName(index);
+        dateOfBirth     = dateOf(getBirthEpochDay(index));
+        initialHealth   = field(index, INITIAL_HEALTH_OFFSET);
+        initialResource = field(index, INITIAL_RESOURCE_OFFSET);
+        resource        = getResource(index);
+        profile         = getBalanceProfile(index);
+
+        switch (getType(index))
+        {
+            case DRAGON:
+                final Dragon dragon;
+                dragon = new Dragon(name, dateOfBirth, initialHealth, initialResource, profile);
+                validateSaved(index, resource, Dragon.MINIMUM_FIRE_POWER, Dragon.MAXIMUM_FIRE_POWER, "firepower");
+                dragon.loadFirePower(resource);
+                creature = dragon;
+                break;
+            case ELF:
+                final Elf elf;
+                elf = new Elf(name, dateOfBirth, initialHealth, initialResource, profile);
+                validateSaved(index, resource, Elf.MINIMUM_MANA, Elf.MAXIMUM_MANA, "mana");
+                elf.loadMana(resource);
+                creature = elf;
+                break;
+            default:
+                final Orc orc;
+                orc = new Orc(name, dateOfBirth, initialHealth, initialResource, profile);
+                validateSaved(index, resource, Orc.MINIMUM_RAGE, Orc.MAXIMUM_RAGE, "rage");
+                orc.loadRage(resource);
+                creature = orc;
+                break;
+        }
+
+        validateSaved(index, getHealth(index), Creature.DEAD_HEALTH, Creature.MAXIMUM_HEALTH, "health");
+        creature.loadHealth(getHealth(index));
+
+        return creature;
+    }
+
+    /**
+     * Reads a balance profile from the profile table.
+     *
+     * @param profileIndex The index of the profile in the table
+     * @return the new profile
+     */
+    private BalanceProfile readProfile(final int profileIndex)
+    {
+        final int entry;
+        entry = HEADER_BYTES + count * RECORD_BYTES + profileIndex * PROFILE_BYTES;
+
+        return BalanceProfile.DEFAULT
+                .withBreatheFireDamage(buffer.getInt(entry + BREATHE_FIRE_DAMAGE_OFFSET))
+                .withFirePowerCost(buffer.getInt(entry + FIRE_POWER_COST_OFFSET))
+                .withSpellDamage(buffer.getInt(entry + SPELL_DAMAGE_OFFSET))
+                .withManaCost(buffer.getInt(entry + MANA_COST_OFFSET))
+                .withBerserkDamage(buffer.getInt(entry + BERSERK_DAMAGE_OFFSET))
+                .withRageIncrement(buffer.getInt(entry + RAGE_INCREMENT_OFFSET));
+    }
+
+    /**
+     * Reads one int field of a record.
+     *
+     * @param index The index of the creature
+     * @param offset The offset of the field in the record
+     * @return the value of the field
+     */
+    private int field(final int index,
+                      final int offset)
+    {
+        validateIndex(index);
+
+        return buffer.getInt(HEADER_BYTES + index * RECORD_BYTES + offset);
+    }
+
+    /**
+     * Gets where the names start, after the records and the profiles.
+     *
+     * @return the offset of the first name in the file
+     */
+    private int namesStart()
+    {
+        return HEADER_BYTES + count * RECORD_BYTES + profiles.length * PROFILE_BYTES;
+    }
+
+    /**
+     * Validates a saved value that is loaded into a creature without the
+     * checks of its constructor.
+     *
+     * @param index The index of the creature
+     * @param value The saved value
+     * @param minimum The smallest value a creature can have
+     * @param maximum The largest value a creature can have
+     * @param label The name of the value
+     * @throws IllegalStateException if the value is out of range
+     */
+    private static void validateSaved(final int    index,
+                                      final int    value,
+                                      final int    minimum,
+                                      final int    maximum,
+                                      final String label)
+    {
+        if (value < minimum ||
+            value > maximum)
+        {
+            throw damaged(index, "a " + label + " of " + value + " is not between " + minimum + " and " + maximum + ".");
+        }
+    }
+
+    /**
+     * Creates the exception for a record that cannot be read.
+     *
+     * @param index The index of the creature
+     * @param problem What is wrong with the record
+     * @return the exception to throw
+     */
+    private static IllegalStateException damaged(final int    index,
+                                                 final String problem)
+    {
+        return new IllegalStateException(
+                "The record of creature " + index + " in the snapshot is damaged: " + problem);
+    }
+
+    /**
+     * Validates the index of a creature.
+     *
+     * @param index The index to validate
+     * @throws IndexOutOfBoundsException if there is no creature at the index
+     */
+    private void validateIndex(final int index)
+    {
+        if (index < 0 ||
+            index >= count)
+        {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of a snapshot of " + count + " creatures.");
+        }
+    }
+
+    /**
+     * Gets the start of a day, in the time zone of the creatures' clock,
+     * so a new creature gets the same birth day back.
+     *
+     * @param epochDay The number of days from 1970-01-01
+     * @return the date
+     */
+    private static Date dateOf(final long epochDay)
+    {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(Creature.getClock().getZone()).toInstant());
+    }
+
+    /**
+     * Gets the current resource of a creature.
+     *
+     * @param creature A Dragon, Elf or Orc
+     * @return the firepower, mana or rage
+     */
+    private static int resourceOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getFirePower();
+        }
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getMana();
+        }
+
+        return ((Orc) creature).getRage();
+    }
+
+    /**
+     * Gets the balance profile of a creature.
+     *
+     * @param creature A Dragon, Elf or Orc
+     * @return the balance profile
+     */
+    private static BalanceProfile profileOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getBalanceProfile();
+        }
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getBalanceProfile();
+        }
+
+        return ((Orc) creature).getBalanceProfile();
+    }
+
+    /**
+     * Gets the resource a creature was created with.
+     *
+     * @param creature A Dragon, Elf or Orc
+     * @return the initial firepower, mana or rage
+     */
+    private static int initialResourceOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getInitialFirePower();
+        }
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getInitialMana();
+        }
+
+        return ((Orc) creature).getInitialRage();
+    }
+}
@@ -0,0 +1,309 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The BalanceProfile class holds the numbers that decide how strong the
+ * attacks of Dragons, Elves and Orcs are: the damage of every attack,
+ * the firepower and mana each attack costs, and the rage an Orc gains
+ * when it goes berserk. A profile is immutable. The {@code with}
+ * methods return a copy with one number changed, so a profile can be
+ * shared by every creature and thread that fights with it.
+ * {@link #DEFAULT} holds the numbers creatures fight with when they are
+ * not given a profile.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class BalanceProfile
+{
+    /**
+     * The numbers creatures fight with when they are not given a profile.
+     */
+    public static final BalanceProfile DEFAULT = new BalanceProfile(Dragon.BREATHE_FIRE_DAMAGE,
+                                                                    Dragon.FIRE_POWER_DECREMENT,
+                                                                    Elf.SPELL_DAMAGE,
+                                                                    Elf.MANA_COST_PER_SPELL,
+                                                                    Orc.BERSERK_DAMAGE,
+                                                                    Orc.RAGE_INCREMENT);
+
+    private static final int MINIMUM_DAMAGE         = 0;
+    private static final int MINIMUM_COST           = 1;
+    private static final int MINIMUM_RAGE_INCREMENT = 0;
+    private static final int HASH_MULTIPLIER        = 31;
+
+    private final int breatheFireDamage;
+    private final int firePowerCost;
+    private final int spellDamage;
+    private final int manaCost;
+    private final int berserkDamage;
+    private final int rageIncrement;
+
+    /**
+     * Constructor for the BalanceProfile class.
+     *
+     * @param breatheFireDamage The damage of a Dragon's fire
+     * @param firePowerCost The firepower one breath of fire costs
+     * @param spellDamage The damage of an Elf's spell
+     * @param manaCost The mana one spell costs
+     * @param berserkDamage The damage of an Orc going berserk, before it is doubled
+     * @param rageIncrement The rage an Orc gains when it goes berserk
+     * @throws IllegalArgumentException if a number is out of range
+     */
+    private BalanceProfile(final int breatheFireDamage,
+                           final int firePowerCost,
+                           final int spellDamage,
+                           final int manaCost,
+                           final int berserkDamage,
+                           final int rageIncrement)
+    {
+        validate("Breathe fire damage", breatheFireDamage, MINIMUM_DAMAGE, Creature.MAXIMUM_HEALTH);
+        validate("Fire power cost", firePowerCost, MINIMUM_COST, Dragon.MAXIMUM_FIRE_POWER);
+        validate("Spell damage", spellDamage, MINIMUM_DAMAGE, Creature.MAXIMUM_HEALTH);
+        validate("Mana cost", manaCost, MINIMUM_COST, Elf.MAXIMUM_MANA);
+        validate("Berserk damage", berserkDamage, MINIMUM_DAMAGE, Creature.MAXIMUM_HEALTH);
+        validate("Rage increment", rageIncrement, MINIMUM_RAGE_INCREMENT, Orc.MAXIMUM_RAGE);
+
+        this.breatheFireDamage = breatheFireDamage;
+        this.firePowerCost     = firePowerCost;
+        this.spellDamage       = spellDamage;
+        this.manaCost          = manaCost;
+        this.berserkDamage     = berserkDamage;
+        this.rageIncrement     = rageIncrement;
+    }
+
+    /**
+     * Gets the damage of a Dragon's fire.
+     *
+     * @return the damage of one breath of fire
+     */
+    public int getBreatheFireDamage()
+    {
+        return breatheFireDamage;
+    }
+
+    /**
+     * Gets the firepower one breath of fire costs.
+     *
+     * @return the firepower cost
+     */
+    public int getFirePowerCost()
+    {
+        return firePowerCost;
+    }
+
+    /**
+     * Gets the damage of an Elf's spell.
+     *
+     * @return the damage of one spell
+     */
+    public int getSpellDamage()
+    {
+        return spellDamage;
+    }
+
+    /**
+     * Gets the mana one spell costs.
+     *
+     * @return the mana cost
+     */
+    public int getManaCost()
+    {
+        return manaCost;
+    }
+
+    /**
+     * Gets the damage of an Orc going berserk, before it is doubled
+     * by high rage.
+     *
+     * @return the berserk damage
+     */
+    public int getBerserkDamage()
+    {
+        return berserkDamage;
+    }
+
+    /**
+     * Gets the rage an Orc gains when it goes berserk.
+     *
+     * @return the rage increment
+     */
+    public int getRageIncrement()
+    {
+        return rageIncrement;
+    }
+
+    /**
+     * Returns a copy of this profile with another fire damage.
+     *
+     * @param damage The damage of one breath of fire
+     * @return the new profile
+     * @throws IllegalArgumentException if the damage is out of range
+     */
+    public BalanceProfile withBreatheFireDamage(final int damage)
+    {
+        return new BalanceProfile(damage, firePowerCost, spellDamage, manaCost, berserkDamage, rageIncrement);
+    }
+
+    /**
+     * Returns a copy of this profile with another firepower cost.
+     *
+     * @param cost The firepower one breath of fire costs
+     * @return the new profile
+     * @throws IllegalArgumentException if the cost is out of range
+     */
+    public BalanceProfile withFirePowerCost(final int cost)
+    {
+        return new BalanceProfile(breatheFireDamage, cost, spellDamage, manaCost, berserkDamage, rageIncrement);
+    }
+
+    /**
+     * Returns a copy of this profile with another spell damage.
+     *
+     * @param damage The damage of one spell
+     * @return the new profile
+     * @throws IllegalArgumentException if the damage is out of range
+     */
+    public BalanceProfile withSpellDamage(final int damage)
+    {
+        return new BalanceProfile(breatheFireDamage, firePowerCost, damage, manaCost, berserkDamage, rageIncrement);
+    }
+
+    /**
+     * Returns a copy of this profile with another mana cost.
+     *
+     * @param cost The mana one spell costs
+     * @return the new profile
+     * @throws IllegalArgumentException if the cost is out of range
+     */
+    public BalanceProfile withManaCost(final int cost)
+    {
+        return new BalanceProfile(breatheFireDamage, firePowerCost, spellDamage, cost, berserkDamage, rageIncrement);
+    }
+
+    /**
+     * Returns a copy of this profile with another berserk damage.
+     *
+     * @param damage The damage of an Orc going berserk
+     * @return the new profile
+     * @throws IllegalArgumentException if the damage is out of range
+     */
+    public BalanceProfile withBerserkDamage(final int damage)
+    {
+        return new BalanceProfile(breatheFireDamage, firePowerCost, spellDamage, manaCost, damage, rageIncrement);
+    }
+
+    /**
+     * Returns a copy of this profile with another rage increment.
+     *
+     * @param increment The rage an Orc gains when it goes berserk
+     * @return the new profile
+     * @throws IllegalArgumentException if the increment is out of range
+     */
+    public BalanceProfile withRageIncrement(final int increment)
+    {
+        return new BalanceProfile(breatheFireDamage, firePowerCost, spellDamage, manaCost, berserkDamage, increment);
+    }
+
+    /**
+     * Checks if another object is a profile with the same numbers.
+     *
+     * @param other The object to compare with
+     * @return true if every number is the same, false otherwise
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+
+        if (!(other instanceof BalanceProfile))
+        {
+            return false;
+        }
+
+        final BalanceProfile profile;
+        profile = (BalanceProfile) other;
+
+        return breatheFireDamage == profile.breatheFireDamage &&
+               firePowerCost == profile.firePowerCost &&
+               spellDamage == profile.spellDamage &&
+               manaCost == profile.manaCost &&
+               berserkDamage == profile.berserkDamage &&
+               rageIncrement == profile.rageIncrement;
+    }
+
+    /**
+     * Computes a hash code from every number of the profile.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        int hash;
+
+        hash = breatheFireDamage;
+        hash = hash * HASH_MULTIPLIER + firePowerCost;
+        hash = hash * HASH_MULTIPLIER + spellDamage;
+        hash = hash * HASH_MULTIPLIER + manaCost;
+        hash = hash * HASH_MULTIPLIER + berserkDamage;
+        hash = hash * HASH_MULTIPLIER + rageIncrement;
+
+        return hash;
+    }
+
+    /**
+     * Returns a short description such as
+     * "fire=20/10, spell=10/5, berserk=15/+5": the damage and cost of
+     * every attack, and the rage an Orc gains.
+     *
+     * @return the description of the profile
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder description;
+        description = new StringBuilder();
+
+        description.append("fire=");
+        description.append(breatheFireDamage);
+        description.append("/");
+        description.append(firePowerCost);
+        description.append(", spell=");
+        description.append(spellDamage);
+        description.append("/");
+        description.append(manaCost);
+        description.append(", berserk=");
+        description.append(berserkDamage);
+        description.append("/+");
+        description.append(rageIncrement);
+
+        return description.toString();
+    }
+
+    /**
+     * Validates one number of a profile.
+     *
+     * @param name The name of the number, for the message
+     * @param value The number
+     * @param minimum The smallest value allowed
+     * @param maximum The largest value allowed
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    private static void validate(final String name,
+                                 final int    value,
+                                 final int    minimum,
+                                 final int    maximum)
+    {
+        if (value < minimum ||
+            value > maximum)
+        {
+            throw new IllegalArgumentException(
+                    name + " must be between " + minimum + " and " + maximum + ".");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The BalanceResult class holds what a {@link BalanceSweep} found out
+ * about one balance profile: the stats of every pairing of its
+ * tournament, how far the pairings are from even fights on average, and
+ * how long the fights are on average. Both numbers are better when they
+ * are lower.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class BalanceResult
+{
+    private static final double EVEN_WIN_RATE = 0.5;
+    private static final long   NO_DUELS      = 0L;
+
+    private final BalanceProfile     profile;
+    private final List<PairingStats> pairings;
+    private final double             imbalance;
+    private final double             averageTurns;
+
+    /**
+     * Constructor for the BalanceResult class.
+     *
+     * @param profile The profile that was evaluated
+     * @param pairings The stats of every pairing of its tournament
+     */
+    BalanceResult(final BalanceProfile     profile,
+                  final List<PairingStats> pairings)
+    {
+        double deviation;
+        double turns;
+        long   duels;
+
+        deviation = 0.0;
+        turns     = 0.0;
+        duels     = NO_DUELS;
+
+        for (final PairingStats stats : pairings)
+        {
+            deviation += Math.abs(stats.getFirstWinRate() - EVEN_WIN_RATE);
+            turns     += stats.getAverageTurns() * stats.getDuels();
+            duels     += stats.getDuels();
+        }
+
+        this.profile      = profile;
+        this.pairings     = Collections.unmodifiableList(new ArrayList<>(pairings));
+        this.imbalance    = pairings.isEmpty() ? 0.0 : deviation / pairings.size();
+        this.averageTurns = duels == NO_DUELS ? 0.0 : turns / duels;
+    }
+
+    /**
+     * Gets the profile that was evaluated.
+     *
+     * @return the balance profile
+     */
+    public BalanceProfile getProfile()
+    {
+        return profile;
+    }
+
+    /**
+     * Gets the stats of every pairing of the tournament.
+     *
+     * @return the pairing stats
+     */
+    public List<PairingStats> getPairings()
+    {
+        return pairings;
+    }
+
+    /**
+     * Gets how far the win rates of the pairings are from 0.5, on average.
+     *
+     * @return the imbalance, from 0.0 for fair fights to 0.5 for one-sided ones
+     */
+    public double getImbalance()
+    {
+        return imbalance;
+    }
+
+    /**
+     * Gets the average number of turns of a duel, over every pairing.
+     *
+     * @return the average fight length
+     */
+    public double getAverageTurns()
+    {
+        return averageTurns;
+    }
+
+    /**
+     * Checks if this result is at least as good as another one on both
+     * imbalance and fight length, and better on one of them.
+     *
+     * @param other The result to compare with
+     * @return true if this result dominates the other one
+     */
+    public boolean dominates(final BalanceResult other)
+    {
+        return imbalance <= other.imbalance &&
+               averageTurns <= other.averageTurns &&
+               (imbalance < other.imbalance ||
+                averageTurns < other.averageTurns);
+    }
+
+    /**
+     * Returns one line with the profile, its imbalance and its
+     * average fight length.
+     *
+     * @return the description of the result
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s: imbalance %.4f, avg turns %.2f",
+                             profile,
+                             imbalance,
+                             averageTurns);
+    }
+}
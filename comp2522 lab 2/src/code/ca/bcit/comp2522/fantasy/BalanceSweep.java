@@ -0,0 +1,321 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The BalanceSweep class tries many balance profiles and finds the ones
+ * worth keeping. For every profile, the same creature configurations
+ * fight a {@link Tournament} with that profile. The profiles are
+ * evaluated at the same time on a fork-join pool, and the duels of every
+ * tournament are split over the same pool. Every tournament uses the
+ * same seed, so two profiles are compared on the same random numbers
+ * and the results do not depend on the number of threads.
+ * {@link #paretoFront(List)} then keeps the profiles that no other
+ * profile beats on both fairness and fight length.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class BalanceSweep
+{
+    private static final int MINIMUM_PROFILES = 1;
+    private static final int RANDOM_SCALE     = 2;
+    private static final int MINIMUM_DRAWN    = 1;
+
+    private final List<CreatureSpec> specs;
+    private final int                duelsPerPairing;
+    private final int                maximumTurns;
+    private final long               seed;
+
+    /**
+     * Constructor for the BalanceSweep class.
+     *
+     * @param specs The creature configurations that fight; their own profiles are replaced
+     * @param duelsPerPairing The number of duels between every two configurations, per profile
+     * @param maximumTurns The number of turns after which a duel is a draw
+     * @param seed The seed of the random numbers of every tournament
+     */
+    public BalanceSweep(final List<CreatureSpec> specs,
+                        final int                duelsPerPairing,
+                        final int                maximumTurns,
+                        final long               seed)
+    {
+        // creating one tournament runs all the validation of the arguments
+        new Tournament(specs, duelsPerPairing, maximumTurns, seed);
+
+        this.specs           = new ArrayList<>(specs);
+        this.duelsPerPairing = duelsPerPairing;
+        this.maximumTurns    = maximumTurns;
+        this.seed            = seed;
+    }
+
+    /**
+     * Builds every combination of the given attack numbers, with the
+     * costs of the base profile.
+     *
+     * @param base The profile whose other numbers are kept
+     * @param breatheFireDamages The fire damages to try
+     * @param spellDamages The spell damages to try
+     * @param berserkDamages The berserk damages to try
+     * @param rageIncrements The rage increments to try
+     * @return one profile per combination
+     * @throws IllegalArgumentException if a number is out of range
+     */
+    public static List<BalanceProfile> grid(final BalanceProfile base,
+                                            final int[]          breatheFireDamages,
+                                            final int[]          spellDamages,
+                                            final int[]          berserkDamages,
+                                            final int[]          rageIncrements)
+    {
+        if (base == null ||
+            breatheFireDamages == null ||
+            spellDamages == null ||
+            berserkDamages == null ||
+            rageIncrements == null)
+        {
+            throw new IllegalArgumentException(
+                    "Base profile and values cannot be null.");
+        }
+
+        final List<BalanceProfile> profiles;
+        profiles = new ArrayList<>();
+
+        for (final int fire : breatheFireDamages)
+        {
+            for (final int spell : spellDamages)
+            {
+                for (final int berserk : berserkDamages)
+                {
+                    for (final int rage : rageIncrements)
+                    {
+                        profiles.add(base.withBreatheFireDamage(fire)
+                                         .withSpellDamage(spell)
+                                         .withBerserkDamage(berserk)
+                                         .withRageIncrement(rage));
+                    }
+                }
+            }
+        }
+
+        return profiles;
+    }
+
+    /**
+     * Draws random profiles around a base profile. Every attack damage
+     * and the rage increment are drawn between half and twice their
+     * value in the base profile; the costs are kept.
+     *
+     * @param base The profile to draw around
+     * @param count The number of profiles
+     * @param seed The seed of the random numbers
+     * @return the profiles
+     * @throws IllegalArgumentException if base is null or count is less than {@value MINIMUM_PROFILES}
+     */
+    public static List<BalanceProfile> random(final BalanceProfile base,
+                                              final int            count,
+                                              final long           seed)
+    {
+        if (base == null)
+        {
+            throw new IllegalArgumentException(
+                    "Base profile cannot be null.");
+        }
+
+        if (count < MINIMUM_PROFILES)
+        {
+            throw new IllegalArgumentException(
+                    "Count cannot be less than " + MINIMUM_PROFILES + ".");
+        }
+
+        final SplittableRandom     random;
+        final List<BalanceProfile> profiles;
+
+        random   = new SplittableRandom(seed);
+        profiles = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            profiles.add(base.withBreatheFireDamage(around(base.getBreatheFireDamage(), random))
+                             .withSpellDamage(around(base.getSpellDamage(), random))
+                             .withBerserkDamage(around(base.getBerserkDamage(), random))
+                             .withRageIncrement(Math.min(Orc.MAXIMUM_RAGE,
+                                                         around(base.getRageIncrement(), random))));
+        }
+
+        return profiles;
+    }
+
+    /**
+     * Keeps the results that no other result dominates: for every
+     * imbalance, the shortest fights, and for every fight length, the
+     * fairest ones.
+     *
+     * @param results The results of a sweep
+     * @return the Pareto front, from the fairest to the shortest fights
+     * @throws IllegalArgumentException if results is null
+     */
+    public static List<BalanceResult> paretoFront(final List<BalanceResult> results)
+    {
+        if (results == null)
+        {
+            throw new IllegalArgumentException(
+                    "Results cannot be null.");
+        }
+
+        final List<BalanceResult> sorted;
+        final List<BalanceResult> front;
+
+        sorted = new ArrayList<>(results);
+        front  = new ArrayList<>();
+
+        sorted.sort(Comparator.comparingDouble(BalanceResult::getImbalance)
+                              .thenComparingDouble(BalanceResult::getAverageTurns));
+
+        // sorted by imbalance, a result is on the front only if its fights are shorter than all before it
+        for (final BalanceResult result : sorted)
+        {
+            if (front.isEmpty() ||
+                result.getAverageTurns() < front.get(front.size() - 1).getAverageTurns())
+            {
+                front.add(result);
+            }
+        }
+
+        return front;
+    }
+
+    /**
+     * Evaluates profiles on the common fork-join pool.
+     *
+     * @param profiles The profiles to evaluate
+     * @return one result per profile, in the same order
+     */
+    public List<BalanceResult> evaluate(final List<BalanceProfile> profiles)
+    {
+        return evaluate(profiles, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates profiles on the given pool, all at the same time.
+     *
+     * @param profiles The profiles to evaluate
+     * @param pool The pool that runs the tournaments
+     * @return one result per profile, in the same order
+     * @throws IllegalArgumentException if profiles or pool is null, or a profile is null
+     */
+    public List<BalanceResult> evaluate(final List<BalanceProfile> profiles,
+                                        final ForkJoinPool         pool)
+    {
+        if (profiles == null ||
+            pool == null)
+        {
+            throw new IllegalArgumentException(
+                    "Profiles and pool cannot be null.");
+        }
+
+        final List<ProfileTask>   tasks;
+        final List<BalanceResult> results;
+
+        tasks   = new ArrayList<>(profiles.size());
+        results = new ArrayList<>(profiles.size());
+
+        for (final BalanceProfile profile : profiles)
+        {
+            if (profile == null)
+            {
+                throw new IllegalArgumentException(
+                        "Profiles cannot be null.");
+            }
+
+            tasks.add(new ProfileTask(profile, pool));
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        for (final ProfileTask task : tasks)
+        {
+            results.add(task.join());
+        }
+
+        return results;
+    }
+
+    /**
+     * Evaluates one profile.
+     *
+     * @param profile The profile
+     * @param pool The pool that runs the duels
+     * @return the result of the profile
+     */
+    private BalanceResult evaluate(final BalanceProfile profile,
+                                   final ForkJoinPool   pool)
+    {
+        final List<CreatureSpec> profiled;
+        final Tournament         tournament;
+
+        profiled = new ArrayList<>(specs.size());
+
+        for (final CreatureSpec spec : specs)
+        {
+            profiled.add(spec.withProfile(profile));
+        }
+
+        tournament = new Tournament(profiled, duelsPerPairing, maximumTurns, seed);
+
+        return new BalanceResult(profile, tournament.run(pool));
+    }
+
+    /**
+     * Draws a number between half and twice a base value.
+     *
+     * @param value The base value
+     * @param random The source of randomness
+     * @return the number drawn, at least {@value MINIMUM_DRAWN}
+     */
+    private static int around(final int              value,
+                              final SplittableRandom random)
+    {
+        final int low;
+        final int high;
+
+        low  = Math.max(MINIMUM_DRAWN, value / RANDOM_SCALE);
+        high = Math.max(low, value * RANDOM_SCALE);
+
+        return random.nextInt(low, high + 1);
+    }
+
+    /**
+     * A fork-join task that runs the tournament of one profile. The
+     * tournament forks its own duel tasks into the same pool. Tasks are
+     * never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class ProfileTask
+            extends RecursiveTask<BalanceResult>
+    {
+        private final BalanceProfile profile;
+        private final ForkJoinPool   pool;
+
+        private ProfileTask(final BalanceProfile profile,
+                            final ForkJoinPool   pool)
+        {
+            this.profile = profile;
+            this.pool    = pool;
+        }
+
+        @Override
+        protected BalanceResult compute()
+        {
+            return evaluate(profile, pool);
+        }
+    }
+}
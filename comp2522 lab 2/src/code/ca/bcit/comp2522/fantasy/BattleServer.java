@@ -0,0 +1,299 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The BattleServer class hosts many fights at once on the loopback
+ * address. Every client connection gets its own {@link BattleSession}
+ * and its own thread. On a Java version with virtual threads every
+ * session runs on a virtual thread, so thousands of mostly idle
+ * sessions cost little; on older versions a cached pool of platform
+ * threads is used instead.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class BattleServer
+        implements AutoCloseable
+{
+    private static final String VIRTUAL_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+    private static final int    ANY_PORT         = 0;
+    private static final int    MAXIMUM_PORT     = 65_535;
+    private static final int    BACKLOG          = 1024;
+    private static final long   FIRST_BACKOFF    = 10L;
+    private static final long   MAXIMUM_BACKOFF  = 1_000L;
+    private static final int    BACKOFF_FACTOR   = 2;
+
+    private final int             port;
+    private final ExecutorService sessions;
+    private final boolean         virtual;
+    private final Set<Socket>     open;
+    private final AtomicInteger   active;
+    private final AtomicInteger   peak;
+    private final AtomicLong      total;
+    private       ServerSocket    serverSocket;
+
+    /**
+     * Constructor for the BattleServer class.
+     *
+     * @param port The port to listen on, or {@value ANY_PORT} for any free port
+     * @throws IllegalArgumentException if the port is out of range
+     */
+    public BattleServer(final int port)
+    {
+        if (port < ANY_PORT ||
+            port > MAXIMUM_PORT)
+        {
+            throw new IllegalArgumentException(
+                    "Port must be between " + ANY_PORT + " and " + MAXIMUM_PORT + ".");
+        }
+
+        final ExecutorService virtualSessions;
+        virtualSessions = newVirtualExecutor();
+
+        this.port     = port;
+        this.virtual  = virtualSessions != null;
+        this.sessions = virtual ? virtualSessions : Executors.newCachedThreadPool();
+        this.open     = ConcurrentHashMap.newKeySet();
+        this.active   = new AtomicInteger();
+        this.peak     = new AtomicInteger();
+        this.total    = new AtomicLong();
+    }
+
+    /**
+     * Starts listening for clients.
+     *
+     * @throws IOException if the port cannot be opened
+     * @throws IllegalStateException if the server was already started
+     */
+    public synchronized void start()
+            throws IOException
+    {
+        if (serverSocket != null)
+        {
+            throw new IllegalStateException(
+                    "The server was already started.");
+        }
+
+        final Thread acceptor;
+
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        acceptor     = new Thread(this::acceptClients, "battle-server-acceptor");
+
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port, which is only known after {@link #start()} if {@value ANY_PORT} was asked for
+     */
+    public synchronized int getPort()
+    {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
+
+    /**
+     * Checks if sessions run on virtual threads.
+     *
+     * @return true on a Java version with virtual threads, false otherwise
+     */
+    public boolean usesVirtualThreads()
+    {
+        return virtual;
+    }
+
+    /**
+     * Gets the number of sessions open right now.
+     *
+     * @return the number of active sessions
+     */
+    public int getActiveSessions()
+    {
+        return active.get();
+    }
+
+    /**
+     * Gets the largest number of sessions that were open at the same time.
+     *
+     * @return the peak number of sessions
+     */
+    public int getPeakSessions()
+    {
+        return peak.get();
+    }
+
+    /**
+     * Gets the number of sessions since the server started.
+     *
+     * @return the total number of sessions
+     */
+    public long getTotalSessions()
+    {
+        return total.get();
+    }
+
+    /**
+     * Stops listening and closes every open session.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public synchronized void close()
+            throws IOException
+    {
+        if (serverSocket != null)
+        {
+            serverSocket.close();
+        }
+
+        for (final Socket socket : open)
+        {
+            socket.close();
+        }
+
+        sessions.shutdown();
+    }
+
+    /**
+     * Called by a session when its connection is closed.
+     *
+     * @param socket The connection of the session
+     */
+    void sessionEnded(final Socket socket)
+    {
+        if (open.remove(socket))
+        {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Accepts clients until the server socket is closed, giving each one a session.
+     * After a failed accept on an open socket, such as when no more files can be
+     * opened, it waits before trying again, longer after every failure in a row.
+     */
+    private void acceptClients()
+    {
+        long backoff;
+        backoff = FIRST_BACKOFF;
+
+        while (true)
+        {
+            final Socket socket;
+
+            try
+            {
+                socket = serverSocket.accept();
+            }
+            catch (IOException e)
+            {
+                if (serverSocket.isClosed() ||
+                    !pause(backoff))
+                {
+                    return;
+                }
+
+                backoff = Math.min(backoff * BACKOFF_FACTOR, MAXIMUM_BACKOFF);
+                continue;
+            }
+
+            backoff = FIRST_BACKOFF;
+
+            try
+            {
+                socket.setTcpNoDelay(true);
+            }
+            catch (SocketException e)
+            {
+                // replies may then wait for more data before they are sent, which is only slower
+            }
+
+            open.add(socket);
+            total.incrementAndGet();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+
+            try
+            {
+                sessions.execute(new BattleSession(socket, this));
+            }
+            catch (RejectedExecutionException e)
+            {
+                // the server is closing
+                sessionEnded(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Waits before accepting again.
+     *
+     * @param millis The time to wait, in milliseconds
+     * @return true if the wait ended, false if the acceptor was interrupted
+     */
+    private static boolean pause(final long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+            return true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Closes a connection that is no longer wanted.
+     *
+     * @param socket The connection
+     */
+    private static void closeQuietly(final Socket socket)
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException e)
+        {
+            // nothing more can be done with the connection
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task, if this
+     * Java version has virtual threads. It is looked up by reflection so
+     * the server also compiles and runs on versions without them.
+     *
+     * @return the executor, or null if virtual threads are not available
+     */
+    private static ExecutorService newVirtualExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod(VIRTUAL_EXECUTOR).invoke(null);
+        }
+        catch (ReflectiveOperationException | UnsupportedOperationException e)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The BattleSession class runs one player-versus-player fight for a
+ * client of a {@link BattleServer}. The client sends one command per
+ * line and gets one reply per line:
+ * <pre>
+ * FIGHT type health resource type health resource   OK
+ * ATTACK player                                      OK health | NO_RESOURCE | WIN player
+ * RECOVER player amount                              OK resource
+ * WAIT player                                        OK
+ * STATUS                                             OK health resource health resource
+ * QUIT                                               BYE
+ * </pre>
+ * Players are 1 and 2 and take turns, starting with player 1. An attack
+ * without enough resource does not use the turn; a player that cannot
+ * attack or recover, such as an Orc without enough rage, can WAIT to
+ * give the turn away. Any other mistake is answered with ERROR and a
+ * message, and leaves the session as it was.
+ * A session ends when its client sends nothing for
+ * {@value IDLE_TIMEOUT} milliseconds, or sends a line longer than
+ * {@value MAXIMUM_LINE_LENGTH} characters, which is answered with ERROR.
+ * Every session creates its own creatures, so nothing is shared with
+ * other sessions and no locking is needed.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+final class BattleSession
+        implements Runnable
+{
+    static final String OK          = "OK";
+    static final String NO_RESOURCE = "NO_RESOURCE";
+    static final String WIN         = "WIN";
+    static final String BYE         = "BYE";
+    static final String ERROR       = "ERROR";
+
+    static final int MAXIMUM_LINE_LENGTH = 256;
+
+    private static final String FIGHT   = "FIGHT";
+    private static final String ATTACK  = "ATTACK";
+    private static final String RECOVER = "RECOVER";
+    private static final String WAIT    = "WAIT";
+    private static final String STATUS  = "STATUS";
+    private static final String QUIT    = "QUIT";
+
+    private static final String SEPARATOR         = " ";
+    private static final int    FIGHT_ARGUMENTS   = 7;
+    private static final int    RECOVER_ARGUMENTS = 3;
+    private static final int    PLAYER_INDEX      = 1;
+    private static final int    AMOUNT_INDEX      = 2;
+    private static final int    FIRST_SPEC_INDEX  = 1;
+    private static final int    SECOND_SPEC_INDEX = 4;
+    private static final int    FIRST_PLAYER      = 1;
+    private static final int    SECOND_PLAYER     = 2;
+    private static final int    PLAYERS           = 2;
+    private static final int    IDLE_TIMEOUT      = 300_000;
+
+    private final Socket       socket;
+    private final BattleServer server;
+    private final Creature[]   players;
+    private       int          turn;
+    private       boolean      over;
+
+    /**
+     * Constructor for the BattleSession class.
+     *
+     * @param socket The connection to the client, or null to only use {@link #handle(String)}
+     * @param server The server to tell when the session ends, or null
+     */
+    BattleSession(final Socket       socket,
+                  final BattleServer server)
+    {
+        this.socket  = socket;
+        this.server  = server;
+        this.players = new Creature[PLAYERS];
+    }
+
+    /**
+     * Reads commands and writes replies until the client quits or
+     * the connection is closed.
+     */
+    @Override
+    public void run()
+    {
+        try (Socket connection = socket;
+             Reader reader     = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
+             Writer out        = new BufferedWriter(new OutputStreamWriter(
+                     connection.getOutputStream(), StandardCharsets.UTF_8)))
+        {
+            final LineReader in;
+            String           line;
+
+            in = new LineReader(reader);
+
+            connection.setSoTimeout(IDLE_TIMEOUT);
+
+            while ((line = in.readLine()) != null)
+            {
+                final boolean tooLong;
+                final String  reply;
+
+                tooLong = line.length() > MAXIMUM_LINE_LENGTH;
+                reply   = tooLong ? ERROR + SEPARATOR + "A command cannot be longer than " +
+                                    MAXIMUM_LINE_LENGTH + " characters." : handle(line);
+
+                out.write(reply);
+                out.write('\n');
+                out.flush();
+
+                // the rest of a line that is too long cannot be told apart from the next command
+                if (tooLong ||
+                    reply.equals(BYE))
+                {
+                    break;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            // the client went away or the server is closing; the session just ends
+        }
+        finally
+        {
+            if (server != null)
+            {
+                server.sessionEnded(socket);
+            }
+        }
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param line The command
+     * @return the reply, without a line break
+     */
+    String handle(final String line)
+    {
+        final String[] words;
+        words = line.trim().split(SEPARATOR);
+
+        try
+        {
+            switch (words[0])
+            {
+                case FIGHT:
+                    return fight(words);
+                case ATTACK:
+                    return attack(words);
+                case RECOVER:
+                    return recover(words);
+                case WAIT:
+                    return waitTurn(words);
+                case STATUS:
+                    return status();
+                case QUIT:
+                    return BYE;
+                default:
+                    return ERROR + SEPARATOR + "Unknown command: " + words[0] + ".";
+            }
+        }
+        catch (IllegalArgumentException | IllegalStateException e)
+        {
+            return ERROR + SEPARATOR + e.getMessage();
+        }
+    }
+
+    /**
+     * Starts a new fight between two new creatures.
+     *
+     * @param words The command and its arguments
+     * @return the reply
+     */
+    private String fight(final String[] words)
+    {
+        if (words.length != FIGHT_ARGUMENTS)
+        {
+            throw new IllegalArgumentException(
+                    "FIGHT needs a type, health and resource for both players.");
+        }
+
+        final Creature first;
+        final Creature second;
+
+        // both are built before either is stored, so a bad second player keeps the old fight
+        first  = spec(words, FIRST_SPEC_INDEX).create("Player " + FIRST_PLAYER);
+        second = spec(words, SECOND_SPEC_INDEX).create("Player " + SECOND_PLAYER);
+
+        players[0] = first;
+        players[1] = second;
+        turn       = FIRST_PLAYER;
+        over       = false;
+
+        return OK;
+    }
+
+    /**
+     * Attacks the other player with the player's own action.
+     *
+     * @param words The command and its arguments
+     * @return the reply
+     */
+    private String attack(final String[] words)
+    {
+        final int      player;
+        final Creature target;
+
+        player = playerOnTurn(words);
+        target = players[SECOND_PLAYER - player];
+
+        if (Duel.attack(players[player - 1], target) != ActionResult.SUCCESS)
+        {
+            return NO_RESOURCE;
+        }
+
+        if (!target.isAlive())
+        {
+            over = true;
+
+            return WIN + SEPARATOR + player;
+        }
+
+        endTurn();
+
+        return OK + SEPARATOR + target.getHealth();
+    }
+
+    /**
+     * Restores the firepower or mana of the player.
+     *
+     * @param words The command and its arguments
+     * @return the reply
+     */
+    private String recover(final String[] words)
+    {
+        final int      player;
+        final int      amount;
+        final Creature creature;
+
+        player = playerOnTurn(words);
+
+        if (words.length != RECOVER_ARGUMENTS)
+        {
+            throw new IllegalArgumentException(
+                    "RECOVER needs a player and an amount.");
+        }
+
+        amount   = Integer.parseInt(words[AMOUNT_INDEX]);
+        creature = players[player - 1];
+
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).restoreFirePower(amount);
+        }
+        else if (creature instanceof Elf)
+        {
+            ((Elf) creature).restoreMana(amount);
+        }
+        else
+        {
+            throw new IllegalArgumentException(
+                    "Only a Dragon or an Elf can recover.");
+        }
+
+        endTurn();
+
+        return OK + SEPARATOR + resourceOf(creature);
+    }
+
+    /**
+     * Gives the turn to the other player without doing anything.
+     *
+     * @param words The command and its arguments
+     * @return the reply
+     */
+    private String waitTurn(final String[] words)
+    {
+        playerOnTurn(words);
+        endTurn();
+
+        return OK;
+    }
+
+    /**
+     * Describes both players.
+     *
+     * @return the reply
+     */
+    private String status()
+    {
+        validateFight();
+
+        return OK + SEPARATOR +
+               players[0].getHealth() + SEPARATOR + resourceOf(players[0]) + SEPARATOR +
+               players[1].getHealth() + SEPARATOR + resourceOf(players[1]);
+    }
+
+    /**
+     * Reads the player of an action and checks that it is that player's turn.
+     *
+     * @param words The command and its arguments
+     * @return the player, 1 or 2
+     */
+    private int playerOnTurn(final String[] words)
+    {
+        validateFight();
+
+        if (words.length <= PLAYER_INDEX)
+        {
+            throw new IllegalArgumentException(
+                    words[0] + " needs a player.");
+        }
+
+        final int player;
+        player = Integer.parseInt(words[PLAYER_INDEX]);
+
+        if (over)
+        {
+            throw new IllegalStateException(
+                    "The fight is over.");
+        }
+
+        if (player != turn)
+        {
+            throw new IllegalStateException(
+                    "It is player " + turn + "'s turn.");
+        }
+
+        return player;
+    }
+
+    /**
+     * Gives the turn to the other player.
+     */
+    private void endTurn()
+    {
+        turn = turn == FIRST_PLAYER ? SECOND_PLAYER : FIRST_PLAYER;
+    }
+
+    /**
+     * Checks that a fight has started.
+     *
+     * @throws IllegalStateException if there was no FIGHT command yet
+     */
+    private void validateFight()
+    {
+        if (players[0] == null)
+        {
+            throw new IllegalStateException(
+                    "Start a fight with FIGHT first.");
+        }
+    }
+
+    /**
+     * Reads the type, health and resource of a player.
+     *
+     * @param words The command and its arguments
+     * @param first The index of the type
+     * @return the configuration
+     */
+    private static CreatureSpec spec(final String[] words,
+                                     final int      first)
+    {
+        return new CreatureSpec(CreatureType.valueOf(words[first]),
+                                Integer.parseInt(words[first + 1]),
+                                Integer.parseInt(words[first + 2]));
+    }
+
+    /**
+     * Gets the resource of a creature.
+     *
+     * @param creature A Dragon, Elf or Orc
+     * @return the firepower, mana or rage
+     */
+    private static int resourceOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getFirePower();
+        }
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getMana();
+        }
+
+        return ((Orc) creature).getRage();
+    }
+
+    /**
+     * Reads the lines a client sends, a block of characters at a time.
+     * A line is read only up to one character past
+     * {@value MAXIMUM_LINE_LENGTH}, so a client cannot make the session
+     * hold a line of any length; a line that is too long is returned cut
+     * short but still longer than the limit.
+     */
+    private static final class LineReader
+    {
+        private static final int BUFFER_SIZE = 1024;
+
+        private final Reader in;
+        private final char[] buffer;
+        private       int    position;
+        private       int    limit;
+
+        private LineReader(final Reader in)
+        {
+            this.in     = in;
+            this.buffer = new char[BUFFER_SIZE];
+        }
+
+        /**
+         * Reads one line, without its line break.
+         *
+         * @return the line, or null if the stream ended before a line started
+         * @throws IOException if the line cannot be read or the client is idle for too long
+         */
+        private String readLine()
+                throws IOException
+        {
+            final StringBuilder line;
+            boolean             started;
+
+            line    = new StringBuilder();
+            started = false;
+
+            while (line.length() <= MAXIMUM_LINE_LENGTH)
+            {
+                final int start;
+
+                if (position == limit)
+                {
+                    position = 0;
+                    limit    = Math.max(in.read(buffer), 0);
+
+                    if (limit == 0)
+                    {
+                        return started ? line.toString() : null;
+                    }
+                }
+
+                start   = position;
+                started = true;
+
+                while (position < limit &&
+                       buffer[position] != '\n')
+                {
+                    position++;
+                }
+
+                line.append(buffer, start, position - start);
+
+                if (position < limit)
+                {
+                    // skip the line break
+                    position++;
+                    break;
+                }
+            }
+
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The BulkHealth class applies the same damage or healing to a range of
+ * a primitive health array, such as the health column of an
+ * {@link ArenaSimulation}. Health is kept between
+ * {@value Creature#DEAD_HEALTH} and {@value Creature#MAXIMUM_HEALTH}
+ * like {@link Creature#takeDamage(int)} and {@link Creature#heal(int)}
+ * do, but every loop is a plain pass over the array with no branch, so
+ * the JIT compiles it to SIMD instructions.
+ * Damage can also report the creatures it kills in a bitmask with one
+ * bit per creature: bit {@code i % 64} of word {@code i / 64} is set
+ * when creature {@code i} was alive before and is dead after.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class BulkHealth
+{
+    private static final int MINIMUM_AMOUNT = 0;
+    private static final int WORD_SHIFT     = 6;
+    private static final int WORD_BITS      = 1 << WORD_SHIFT;
+    private static final int SIGN_SHIFT     = 63;
+    private static final int ALIVE_SHIFT    = 31;
+
+    /**
+     * Constructor for the BulkHealth class. It only has static methods.
+     */
+    private BulkHealth()
+    {
+    }
+
+    /**
+     * Gets the number of words a bitmask needs for a number of creatures.
+     *
+     * @param creatures The number of creatures
+     * @return the length of the long array
+     */
+    public static int words(final int creatures)
+    {
+        return (creatures + WORD_BITS - 1) >>> WORD_SHIFT;
+    }
+
+    /**
+     * Checks if the bit of a creature is set in a bitmask.
+     *
+     * @param mask The bitmask
+     * @param index The index of the creature
+     * @return true if the bit is set, false otherwise
+     */
+    public static boolean isSet(final long[] mask,
+                                final int    index)
+    {
+        return (mask[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * Takes damage from the health of every creature in a range.
+     *
+     * @param health The health array
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @param damage The damage
+     * @throws DamageException if damage is less than {@value MINIMUM_AMOUNT}
+     * @throws IllegalArgumentException if the array is null or the range is out of it
+     */
+    public static void applyDamage(final int[] health,
+                                   final int   from,
+                                   final int   to,
+                                   final int   damage)
+    {
+        validateRange(health, from, to);
+        validateDamage(damage);
+
+        clampDamage(health, from, to, damage);
+    }
+
+    /**
+     * Takes damage from the health of every creature in a range, and
+     * sets the bit of every creature that was alive and is now dead.
+     * The other bits of the mask are left as they are, so one mask can
+     * collect the deaths of several calls.
+     *
+     * @param health The health array
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @param damage The damage
+     * @param newlyDead The bitmask, at least {@link #words(int) words(to)} long
+     * @return the number of creatures that died
+     * @throws DamageException if damage is less than {@value MINIMUM_AMOUNT}
+     * @throws IllegalArgumentException if an array is null, the range is out of
+     * the health array or the mask is too short
+     */
+    public static int applyDamage(final int[]  health,
+                                  final int    from,
+                                  final int    to,
+                                  final int    damage,
+                                  final long[] newlyDead)
+    {
+        validateRange(health, from, to);
+        validateDamage(damage);
+
+        if (newlyDead == null ||
+            newlyDead.length < words(to))
+        {
+            throw new IllegalArgumentException(
+                    "The mask needs room for " + to + " creatures.");
+        }
+
+        int died;
+        died = 0;
+
+        // one word of the mask at a time: find who dies, then clamp the same 64 creatures while they are in cache
+        for (int start = from; start < to; )
+        {
+            final int  word;
+            final int  end;
+            final long bits;
+
+            word = start >>> WORD_SHIFT;
+            end  = Math.min(to, (word + 1) << WORD_SHIFT);
+            bits = deaths(health, start, end, damage);
+
+            clampDamage(health, start, end, damage);
+
+            newlyDead[word] |= bits;
+            died            += Long.bitCount(bits);
+            start            = end;
+        }
+
+        return died;
+    }
+
+    /**
+     * Heals every living creature in a range. Dead creatures stay dead.
+     *
+     * @param health The health array
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @param amount The healing
+     * @throws HealingException if amount is less than {@value MINIMUM_AMOUNT}
+     * @throws IllegalArgumentException if the array is null or the range is out of it
+     */
+    public static void applyHealing(final int[] health,
+                                    final int   from,
+                                    final int   to,
+                                    final int   amount)
+    {
+        validateRange(health, from, to);
+
+        if (amount < MINIMUM_AMOUNT)
+        {
+            throw new HealingException(
+                    "Healing amount cannot be less than " + MINIMUM_AMOUNT + ".");
+        }
+
+        final int capped;
+        capped = Math.min(amount, Creature.MAXIMUM_HEALTH);
+
+        for (int i = from; i < to; i++)
+        {
+            final int current;
+            current = health[i];
+
+            // (-current) >>> 31 is 1 for a living creature and 0 for a dead one
+            health[i] = Math.min(current + capped * ((-current) >>> ALIVE_SHIFT), Creature.MAXIMUM_HEALTH);
+        }
+    }
+
+    /**
+     * Takes damage from a range, without checks.
+     *
+     * @param health The health array
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @param damage The damage
+     */
+    private static void clampDamage(final int[] health,
+                                    final int   from,
+                                    final int   to,
+                                    final int   damage)
+    {
+        for (int i = from; i < to; i++)
+        {
+            health[i] = Math.max(health[i] - damage, Creature.DEAD_HEALTH);
+        }
+    }
+
+    /**
+     * Finds the creatures of at most one mask word that a damage kills.
+     * A creature dies if its health is above {@value Creature#DEAD_HEALTH}
+     * and at most the damage; both tests are sign bits, so there is no
+     * branch per creature. Most words have no death, and for them only
+     * the first, vectorized pass runs.
+     *
+     * @param health The health array
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive, in the same word as from
+     * @param damage The damage
+     * @return the bits of the creatures that die, at their place in the word
+     */
+    private static long deaths(final int[] health,
+                               final int   from,
+                               final int   to,
+                               final int   damage)
+    {
+        int  dying;
+        long bits;
+
+        dying = 0;
+        bits  = 0L;
+
+        // a quick pass that only tells if anyone dies; it is an OR reduction the JIT vectorizes
+        for (int i = from; i < to; i++)
+        {
+            final int current;
+            current = health[i];
+
+            dying |= (current - 1 - damage) & -current;
+        }
+
+        if (dying >= 0)
+        {
+            return bits;
+        }
+
+        for (int i = from; i < to; i++)
+        {
+            final long current;
+            current = health[i];
+
+            bits |= (((current - 1 - damage) & -current) >>> SIGN_SHIFT) << i;
+        }
+
+        return bits;
+    }
+
+    /**
+     * Validates a range of a health array.
+     *
+     * @param health The health array
+     * @param from The index of the first creature, inclusive
+     * @param to The index of the last creature, exclusive
+     * @throws IllegalArgumentException if the array is null or the range is out of it
+     */
+    private static void validateRange(final int[] health,
+                                      final int   from,
+                                      final int   to)
+    {
+        if (health == null)
+        {
+            throw new IllegalArgumentException(
+                    "Health cannot be null.");
+        }
+
+        if (from < 0 ||
+            from > to ||
+            to > health.length)
+        {
+            throw new IllegalArgumentException(
+                    "Range " + from + " to " + to + " is not within " + health.length + " creatures.");
+        }
+    }
+
+    /**
+     * Validates a damage.
+     *
+     * @param damage The damage
+     * @throws DamageException if damage is less than {@value MINIMUM_AMOUNT}
+     */
+    private static void validateDamage(final int damage)
+    {
+        if (damage < MINIMUM_AMOUNT)
+        {
+            throw new DamageException(
+                    "Damage cannot be less than " + MINIMUM_AMOUNT + ".");
+        }
+    }
+}
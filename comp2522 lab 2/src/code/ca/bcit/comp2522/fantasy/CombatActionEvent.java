@@ -0,0 +1,49 @@
+package ca.bcit.comp2522.fantasy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The CombatActionEvent class is a Flight Recorder event for one
+ * breatheFire, castSpell or berserk, timed from start to end, whether
+ * it succeeded or not. It is off unless a recording enables it, for
+ * example with {@link CombatEvents#enable(jdk.jfr.Recording)}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+@Name(CombatActionEvent.NAME)
+@Label("Combat Action")
+@Description("A creature attacked, or tried to")
+@Category({"Fantasy", "Combat"})
+@Enabled(false)
+@StackTrace(false)
+final class CombatActionEvent
+        extends jdk.jfr.Event
+{
+    static final String NAME = "ca.bcit.comp2522.fantasy.CombatAction";
+
+    @Label("Attacker Type")
+    String attackerType;
+
+    @Label("Action")
+    String action;
+
+    @Label("Target Type")
+    String targetType;
+
+    @Label("Succeeded")
+    @Description("False if the attacker did not have enough resource")
+    boolean succeeded;
+
+    @Label("Damage")
+    @Description("Damage dealt to all targets")
+    int damage;
+}
@@ -0,0 +1,127 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The CombatEventBatch class is a batch of events delivered by a
+ * {@link CombatEventBus}. It reads the events straight from the ring
+ * buffer they were written to, without copying them, so it is only
+ * valid while the subscriber that received it is running.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class CombatEventBatch
+{
+    private Creature[] watched;
+    private long[]     events;
+    private long       start;
+    private int        mask;
+    private int        size;
+
+    /**
+     * Gets the number of events in the batch.
+     *
+     * @return the number of events
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the creature of an event.
+     *
+     * @param index The index of the event
+     * @return the creature
+     */
+    public Creature getCreature(final int index)
+    {
+        return watched[(int) (event(index) >>> CombatEventBus.ID_SHIFT)];
+    }
+
+    /**
+     * Gets the type of an event.
+     *
+     * @param index The index of the event
+     * @return the type
+     */
+    public CombatEventType getType(final int index)
+    {
+        return CombatEventType.fromOrdinal((int) (event(index) >>> CombatEventBus.TYPE_SHIFT) &
+                                           CombatEventBus.TYPE_MASK);
+    }
+
+    /**
+     * Gets the amount of an event.
+     *
+     * @param index The index of the event
+     * @return the damage or healing, or 0 for a death
+     */
+    public int getAmount(final int index)
+    {
+        return (int) event(index);
+    }
+
+    /**
+     * Points the batch at events of a ring buffer.
+     *
+     * @param watched The creatures of the bus, by id
+     * @param events The packed events of the ring buffer
+     * @param start The position of the first event
+     * @param mask The capacity of the ring buffer minus one
+     * @param size The number of events
+     */
+    void view(final Creature[] watched,
+              final long[]     events,
+              final long       start,
+              final int        mask,
+              final int        size)
+    {
+        this.watched = watched;
+        this.events  = events;
+        this.start   = start;
+        this.mask    = mask;
+        this.size    = size;
+    }
+
+    /**
+     * Empties the batch, letting go of the ring buffer.
+     */
+    void clear()
+    {
+        watched = null;
+        events  = null;
+        size    = 0;
+    }
+
+    /**
+     * Gets one packed event from the ring buffer.
+     *
+     * @param index The index of the event in the batch
+     * @return the packed event
+     */
+    private long event(final int index)
+    {
+        validateIndex(index);
+
+        return events[(int) (start + index) & mask];
+    }
+
+    /**
+     * Validates the index of an event.
+     *
+     * @param index The index to validate
+     * @throws IndexOutOfBoundsException if there is no event at the index
+     */
+    private void validateIndex(final int index)
+    {
+        if (index < 0 ||
+            index >= size)
+        {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of a batch of " + size + " events.");
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The CombatEventBus class tells subscribers such as the UI, achievements
+ * and telemetry when creatures take damage, heal or die, without slowing
+ * down combat. A watched creature only writes the event, packed into one
+ * long, into a ring buffer owned by the current thread, which takes a few
+ * nanoseconds. At the end of
+ * every tick, {@link #endTick()} delivers the buffered events to every
+ * subscriber in batches, one batch per thread that produced events.
+ * If a buffer fills up before the end of the tick, the thread that fills it
+ * delivers it right away, so no event is ever lost.
+ * Subscribers are never called by two threads at the same time, and
+ * must not damage or heal watched creatures while they are called.
+ * The bus keeps a reference to every creature it watches. The buffer of
+ * a thread that has ended is dropped once its events are delivered.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatEventBus
+{
+    private static final int  MINIMUM_CAPACITY  = 2;
+    private static final int  INITIAL_WATCHED   = 16;
+    private static final int  GROWTH_FACTOR     = 2;
+    private static final int  NO_AMOUNT         = 0;
+    private static final byte DAMAGE            = (byte) CombatEventType.DAMAGE.ordinal();
+    private static final byte HEAL              = (byte) CombatEventType.HEAL.ordinal();
+    private static final byte DEATH             = (byte) CombatEventType.DEATH.ordinal();
+
+    static final int  ID_SHIFT    = 40;
+    static final int  TYPE_SHIFT  = 32;
+    static final int  TYPE_MASK   = 0xFF;
+    static final long AMOUNT_MASK = 0xFFFFFFFFL;
+    static final int  MAXIMUM_ID  = (1 << (Long.SIZE - ID_SHIFT - 1)) - 1;
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static
+    {
+        final MethodHandles.Lookup lookup;
+        lookup = MethodHandles.lookup();
+
+        try
+        {
+            HEAD = lookup.findVarHandle(RingBuffer.class, "head", long.class);
+            TAIL = lookup.findVarHandle(RingBuffer.class, "tail", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int                         capacity;
+    private final List<CombatEventSubscriber> subscribers;
+    private final List<RingBuffer>            buffers;
+    private final ThreadLocal<RingBuffer>     threadBuffer;
+    private final CombatEventBatch            batch;
+    private final Object                      deliveryLock;
+
+    private volatile Creature[] watched;
+    private          int        watchedCount;
+
+    /**
+     * Constructor for the CombatEventBus class.
+     *
+     * @param capacityPerThread The number of events each thread can buffer
+     *                          in one tick, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is less than {@value MINIMUM_CAPACITY}
+     */
+    public CombatEventBus(final int capacityPerThread)
+    {
+        if (capacityPerThread < MINIMUM_CAPACITY)
+        {
+            throw new IllegalArgumentException(
+                    "Capacity cannot be less than " + MINIMUM_CAPACITY + ".");
+        }
+
+        this.capacity     = Integer.highestOneBit(capacityPerThread - 1) << 1;
+        this.subscribers  = new CopyOnWriteArrayList<>();
+        this.buffers      = new CopyOnWriteArrayList<>();
+        this.threadBuffer = ThreadLocal.withInitial(this::newBuffer);
+        this.batch        = new CombatEventBatch();
+        this.deliveryLock = new Object();
+        this.watched      = new Creature[INITIAL_WATCHED];
+    }
+
+    /**
+     * Adds a subscriber.
+     *
+     * @param subscriber The subscriber to add
+     */
+    public void subscribe(final CombatEventSubscriber subscriber)
+    {
+        if (subscriber == null)
+        {
+            throw new IllegalArgumentException(
+                    "Subscriber cannot be null.");
+        }
+
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param subscriber The subscriber to remove
+     * @return true if it was subscribed, false otherwise
+     */
+    public boolean unsubscribe(final CombatEventSubscriber subscriber)
+    {
+        return subscribers.remove(subscriber);
+    }
+
+    /**
+     * Starts sending the events of a creature to this bus. A listener the
+     * creature already has is kept and called first.
+     *
+     * @param creature The creature to watch
+     * @throws IllegalArgumentException if the creature is null or too many creatures are watched
+     */
+    public void watch(final Creature creature)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creature cannot be null.");
+        }
+
+        final int id;
+
+        synchronized (deliveryLock)
+        {
+            if (watchedCount > MAXIMUM_ID)
+            {
+                throw new IllegalArgumentException(
+                        "A bus cannot watch more than " + (MAXIMUM_ID + 1) + " creatures.");
+            }
+
+            Creature[] creatures;
+            creatures = watched;
+
+            if (watchedCount == creatures.length)
+            {
+                creatures = Arrays.copyOf(creatures, creatures.length * GROWTH_FACTOR);
+            }
+
+            id            = watchedCount++;
+            creatures[id] = creature;
+            watched       = creatures;
+        }
+
+        creature.setCombatListener(CombatListener.combine(creature.getCombatListener(), new Watcher(id)));
+    }
+
+    /**
+     * Delivers every buffered event to the subscribers, then drops the
+     * buffers of threads that have ended. Call it once at the end of
+     * every tick, from any thread.
+     *
+     * @return the number of events delivered
+     */
+    public int endTick()
+    {
+        int delivered;
+        delivered = 0;
+
+        synchronized (deliveryLock)
+        {
+            for (final RingBuffer buffer : buffers)
+            {
+                final boolean ended;
+
+                // checked before delivering, so an ended thread cannot have written after the delivery
+                ended      = !buffer.owner.isAlive();
+                delivered += deliver(buffer);
+
+                if (ended)
+                {
+                    buffers.remove(buffer);
+                }
+            }
+        }
+
+        return delivered;
+    }
+
+    /**
+     * Gets the number of threads whose ring buffer the bus still keeps.
+     *
+     * @return the number of buffers
+     */
+    int getBufferCount()
+    {
+        return buffers.size();
+    }
+
+    /**
+     * Gets the ring buffer of the current thread. Every thread looks up
+     * its own buffer, so threads writing at the same time share no field.
+     *
+     * @return the buffer of the current thread
+     */
+    private RingBuffer buffer()
+    {
+        return threadBuffer.get();
+    }
+
+    /**
+     * Creates and registers the ring buffer of the current thread.
+     *
+     * @return the new buffer
+     */
+    private RingBuffer newBuffer()
+    {
+        final RingBuffer buffer;
+        buffer = new RingBuffer(Thread.currentThread(), capacity);
+
+        buffers.add(buffer);
+
+        return buffer;
+    }
+
+    /**
+     * Gives the events of one buffer to every subscriber, then frees them.
+     * Must be called while holding the delivery lock.
+     *
+     * @param buffer The buffer to empty
+     * @return the number of events delivered
+     */
+    private int deliver(final RingBuffer buffer)
+    {
+        final long first;
+        final long last;
+        final int  count;
+
+        first = buffer.head;
+        last  = (long) TAIL.getAcquire(buffer);
+        count = (int) (last - first);
+
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        batch.view(watched, buffer.events, first, buffer.mask, count);
+
+        try
+        {
+            for (final CombatEventSubscriber subscriber : subscribers)
+            {
+                subscriber.onEvents(batch);
+            }
+        }
+        finally
+        {
+            batch.clear();
+            HEAD.setRelease(buffer, last);
+        }
+
+        return count;
+    }
+
+    /**
+     * Packs an event into one long: the creature id in the top bits,
+     * then the type, then the amount in the low 32 bits.
+     *
+     * @param id The id of the creature
+     * @param type The ordinal of the event type
+     * @param amount The amount of the event
+     * @return the packed event
+     */
+    private static long pack(final int  id,
+                             final byte type,
+                             final int  amount)
+    {
+        return ((long) id << ID_SHIFT) | ((long) type << TYPE_SHIFT) | (amount & AMOUNT_MASK);
+    }
+
+    /**
+     * The listener set on every watched creature. It knows the id of its
+     * creature, so the ring buffer only holds numbers.
+     */
+    private final class Watcher
+            implements CombatListener
+    {
+        private final int id;
+
+        private Watcher(final int id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public void onDamage(final Creature creature,
+                             final int      damage)
+        {
+            buffer().add(pack(id, DAMAGE, damage));
+        }
+
+        @Override
+        public void onHeal(final Creature creature,
+                           final int      healAmount)
+        {
+            buffer().add(pack(id, HEAL, healAmount));
+        }
+
+        @Override
+        public void onResourceSpent(final Creature creature,
+                                    final int      amount)
+        {
+            // resources are not published on the bus
+        }
+
+        @Override
+        public void onResourceRestored(final Creature creature,
+                                       final int      amount)
+        {
+            // resources are not published on the bus
+        }
+
+        @Override
+        public void onDeath(final Creature creature)
+        {
+            buffer().add(pack(id, DEATH, NO_AMOUNT));
+        }
+    }
+
+    /**
+     * A ring buffer written by one thread only. The writer publishes
+     * events by moving the tail, and the deliverer frees them by moving
+     * the head, so neither needs a lock for the common case. The writer
+     * keeps its own copy of how far it may write, and only reads the
+     * head again when it gets there.
+     */
+    private final class RingBuffer
+    {
+        private final Thread owner;
+        private final long[] events;
+        private final int    mask;
+        private       long   head;
+        private       long   tail;
+        private       long   limit;
+
+        private RingBuffer(final Thread owner,
+                           final int    capacity)
+        {
+            this.owner  = owner;
+            this.events = new long[capacity];
+            this.mask   = capacity - 1;
+            this.limit  = capacity;
+        }
+
+        /* Called by the owner thread only. */
+        private void add(final long event)
+        {
+            final long position;
+            position = tail;
+
+            if (position == limit)
+            {
+                limit = (long) HEAD.getAcquire(this) + events.length;
+
+                if (position == limit)
+                {
+                    synchronized (deliveryLock)
+                    {
+                        deliver(this);
+                    }
+
+                    limit = position + events.length;
+                }
+            }
+
+            events[(int) position & mask] = event;
+
+            TAIL.setRelease(this, position + 1);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The CombatEventLog class records every change of health and resource
+ * of the creatures of a fight into a compact, append-only binary log,
+ * so the fight can be replayed later with {@link CombatReplayer}.
+ * Every event is one opcode byte followed by the creature id and the
+ * amount, both written as variable-length integers (7 bits per byte),
+ * so most events take only three bytes. A creature that is reset, for
+ * example by a {@link PooledArena}, is spawned again under the same id.
+ * A log is meant to be used by one thread at a time.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatEventLog
+{
+    static final byte TICK    = 0;
+    static final byte SPAWN   = 1;
+    static final byte DAMAGE  = 2;
+    static final byte HEAL    = 3;
+    static final byte SPEND   = 4;
+    static final byte RESTORE = 5;
+
+    static final int VARINT_DATA_BITS = 7;
+    static final int VARINT_DATA_MASK = 0x7F;
+    static final int VARINT_MORE_BIT  = 0x80;
+    static final int MAXIMUM_VARINT   = 5;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int GROWTH_FACTOR    = 2;
+
+    private byte[] bytes;
+    private int    size;
+    private int    creatureCount;
+    private long   tickCount;
+
+    /**
+     * Constructor for the CombatEventLog class.
+     */
+    public CombatEventLog()
+    {
+        this.bytes = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a creature to the fight. Its type and current state are
+     * written to the log, and from now on its changes are recorded.
+     * A listener the creature already has keeps being called.
+     *
+     * @param creature The Dragon, Elf or Orc to record
+     * @return the id of the creature in the log
+     * @throws IllegalArgumentException if the creature is null or not a Dragon, Elf or Orc
+     */
+    public int register(final Creature creature)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creature cannot be null.");
+        }
+
+        final CreatureType type;
+        final int          id;
+
+        // the type is checked before the id is taken, so a rejected creature leaves no gap in the ids
+        type = CreatureType.of(creature);
+        id   = creatureCount++;
+
+        spawn(id, type, creature);
+
+        creature.setCombatListener(CombatListener.combine(creature.getCombatListener(), new Recorder(id, type)));
+
+        return id;
+    }
+
+    /**
+     * Marks the end of a tick. A replay can jump to the state
+     * at the end of any tick.
+     */
+    public void endTick()
+    {
+        ensureCapacity(1);
+        bytes[size++] = TICK;
+        tickCount++;
+    }
+
+    /**
+     * Gets the number of creatures registered.
+     *
+     * @return the number of creatures
+     */
+    public int getCreatureCount()
+    {
+        return creatureCount;
+    }
+
+    /**
+     * Gets the number of ticks ended.
+     *
+     * @return the number of ticks
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    /**
+     * Gets the size of the log in bytes.
+     *
+     * @return the number of bytes written
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets a copy of the bytes of the log.
+     *
+     * @return the bytes of the log
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * Writes the bytes of the log to a stream.
+     *
+     * @param out The stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(final OutputStream out)
+            throws IOException
+    {
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * Writes the type and the current state of a creature.
+     *
+     * @param id The id of the creature
+     * @param type The type of the creature
+     * @param creature The Dragon, Elf or Orc
+     */
+    private void spawn(final int          id,
+                       final CreatureType type,
+                       final Creature     creature)
+    {
+        final int resource;
+
+        switch (type)
+        {
+            case DRAGON:
+                resource = ((Dragon) creature).getFirePower();
+                break;
+            case ELF:
+                resource = ((Elf) creature).getMana();
+                break;
+            default:
+                resource = ((Orc) creature).getRage();
+                break;
+        }
+
+        ensureCapacity(1 + MAXIMUM_VARINT * 4);
+        bytes[size++] = SPAWN;
+        writeVarint(id);
+        writeVarint(type.ordinal());
+        writeVarint(creature.getHealth());
+        writeVarint(resource);
+    }
+
+    /**
+     * Appends one event.
+     *
+     * @param opcode The kind of event
+     * @param id The id of the creature
+     * @param amount The amount of the event
+     */
+    private void append(final byte opcode,
+                        final int  id,
+                        final int  amount)
+    {
+        ensureCapacity(1 + MAXIMUM_VARINT * 2);
+        bytes[size++] = opcode;
+        writeVarint(id);
+        writeVarint(amount);
+    }
+
+    /**
+     * Writes a non-negative number 7 bits at a time, lowest bits first.
+     * The top bit of every byte but the last one is set.
+     *
+     * @param value The number to write
+     */
+    private void writeVarint(final int value)
+    {
+        int remaining;
+        remaining = value;
+
+        while ((remaining & ~VARINT_DATA_MASK) != 0)
+        {
+            bytes[size++] = (byte) ((remaining & VARINT_DATA_MASK) | VARINT_MORE_BIT);
+            remaining >>>= VARINT_DATA_BITS;
+        }
+
+        bytes[size++] = (byte) remaining;
+    }
+
+    /**
+     * Makes sure there is room for the given number of bytes.
+     *
+     * @param extra The number of bytes about to be written
+     */
+    private void ensureCapacity(final int extra)
+    {
+        if (size + extra > bytes.length)
+        {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * GROWTH_FACTOR, size + extra));
+        }
+    }
+
+    /**
+     * The listener set on every registered creature. It knows the
+     * id and the type of its creature, so recording needs no lookup.
+     */
+    private final class Recorder
+            implements CombatListener
+    {
+        private final int          id;
+        private final CreatureType type;
+
+        private Recorder(final int          id,
+                         final CreatureType type)
+        {
+            this.id   = id;
+            this.type = type;
+        }
+
+        @Override
+        public void onDamage(final Creature creature,
+                             final int      damage)
+        {
+            append(DAMAGE, id, damage);
+        }
+
+        @Override
+        public void onHeal(final Creature creature,
+                           final int      healAmount)
+        {
+            append(HEAL, id, healAmount);
+        }
+
+        @Override
+        public void onResourceSpent(final Creature creature,
+                                    final int      amount)
+        {
+            append(SPEND, id, amount);
+        }
+
+        @Override
+        public void onResourceRestored(final Creature creature,
+                                       final int      amount)
+        {
+            append(RESTORE, id, amount);
+        }
+
+        @Override
+        public void onReset(final Creature creature)
+        {
+            spawn(id, type, creature);
+        }
+    }
+}
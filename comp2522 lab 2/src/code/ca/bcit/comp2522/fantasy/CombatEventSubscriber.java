@@ -0,0 +1,23 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * A CombatEventSubscriber receives the events of a {@link CombatEventBus}
+ * in batches, at the end of every tick.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface CombatEventSubscriber
+{
+    /**
+     * Called with a batch of events. The batch is reused for the next
+     * delivery, so it must not be kept after this method returns.
+     *
+     * @param batch The events, in the order they happened on one thread
+     */
+    void onEvents(final CombatEventBatch batch);
+}
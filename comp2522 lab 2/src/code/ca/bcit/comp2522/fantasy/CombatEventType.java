@@ -0,0 +1,43 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The CombatEventType enum lists the events that the
+ * {@link CombatEventBus} delivers to its subscribers.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public enum CombatEventType
+{
+    /**
+     * A creature took damage. The amount is the damage asked for.
+     */
+    DAMAGE,
+
+    /**
+     * A creature was healed. The amount is the healing asked for.
+     */
+    HEAL,
+
+    /**
+     * A creature died. The amount is always 0.
+     */
+    DEATH;
+
+    private static final CombatEventType[] VALUES = values();
+
+    /**
+     * Gets the event type with the given ordinal, without copying
+     * the array that {@link #values()} returns.
+     *
+     * @param ordinal The ordinal of the event type
+     * @return the event type with that ordinal
+     */
+    static CombatEventType fromOrdinal(final int ordinal)
+    {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,190 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+
+/**
+ * The CombatEvents class writes the Flight Recorder events of combat.
+ * Every event is disabled by default. While it is disabled, creating
+ * the event, checking it and skipping it is compiled down to one check
+ * of a flag, and the fields are never filled in, so instrumented code
+ * runs as fast as it did before.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class CombatEvents
+{
+    static final String TAKE_DAMAGE  = "takeDamage";
+    static final String HEAL         = "heal";
+    static final String BREATHE_FIRE = "breatheFire";
+    static final String CAST_SPELL   = "castSpell";
+    static final String BERSERK      = "berserk";
+    static final String AREA         = "Area";
+    static final int    NO_DAMAGE    = 0;
+
+    private static final List<String> EVENT_NAMES = List.of(DamageEvent.NAME,
+                                                            HealEvent.NAME,
+                                                            CombatActionEvent.NAME,
+                                                            CombatFailureEvent.NAME);
+
+    /**
+     * Constructor for the CombatEvents class. It only has static methods.
+     */
+    private CombatEvents()
+    {
+    }
+
+    /**
+     * Turns every combat event on in a recording, with no threshold.
+     *
+     * @param recording The recording, before it is started
+     * @throws IllegalArgumentException if the recording is null
+     */
+    public static void enable(final Recording recording)
+    {
+        if (recording == null)
+        {
+            throw new IllegalArgumentException(
+                    "Recording cannot be null.");
+        }
+
+        for (final String name : EVENT_NAMES)
+        {
+            recording.enable(name).withThreshold(Duration.ZERO);
+        }
+    }
+
+    /**
+     * Gets the names of the combat events.
+     *
+     * @return the event names
+     */
+    public static List<String> getEventNames()
+    {
+        return EVENT_NAMES;
+    }
+
+    /**
+     * Records damage taken.
+     *
+     * @param creature The creature that took the damage
+     * @param damage The damage
+     */
+    static void damage(final Creature creature,
+                       final int      damage)
+    {
+        final DamageEvent event;
+        event = new DamageEvent();
+
+        if (event.isEnabled())
+        {
+            event.creatureType = typeOf(creature);
+            event.damage       = damage;
+            event.health       = creature.getHealth();
+            event.commit();
+        }
+    }
+
+    /**
+     * Records healing.
+     *
+     * @param creature The creature that was healed
+     * @param amount The healing
+     */
+    static void heal(final Creature creature,
+                     final int      amount)
+    {
+        final HealEvent event;
+        event = new HealEvent();
+
+        if (event.isEnabled())
+        {
+            event.creatureType = typeOf(creature);
+            event.amount       = amount;
+            event.health       = creature.getHealth();
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts timing an attack.
+     *
+     * @return the event to pass to {@link #endAction}
+     */
+    static CombatActionEvent beginAction()
+    {
+        final CombatActionEvent event;
+        event = new CombatActionEvent();
+
+        event.begin();
+
+        return event;
+    }
+
+    /**
+     * Records an attack started with {@link #beginAction()}.
+     *
+     * @param event The event of the attack
+     * @param attacker The attacking creature
+     * @param action The name of the attack
+     * @param target The creature attacked, or null for an attack on an area
+     * @param result The result of the attack
+     * @param damage The damage dealt to all targets
+     */
+    static void endAction(final CombatActionEvent event,
+                          final Creature          attacker,
+                          final String            action,
+                          final Creature          target,
+                          final ActionResult      result,
+                          final int               damage)
+    {
+        if (event.shouldCommit())
+        {
+            event.attackerType = typeOf(attacker);
+            event.action       = action;
+            event.targetType   = target == null ? AREA : typeOf(target);
+            event.succeeded    = result == ActionResult.SUCCESS;
+            event.damage       = damage;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records an exception about to be thrown by a combat method.
+     *
+     * @param creature The creature whose method throws
+     * @param operation The name of the method
+     * @param exception The class of the exception
+     */
+    static void failure(final Creature                   creature,
+                        final String                     operation,
+                        final Class<? extends Throwable> exception)
+    {
+        final CombatFailureEvent event;
+        event = new CombatFailureEvent();
+
+        if (event.isEnabled())
+        {
+            event.creatureType = typeOf(creature);
+            event.operation    = operation;
+            event.exception    = exception.getSimpleName();
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the type name of a creature.
+     *
+     * @param creature The creature
+     * @return the simple name of its class
+     */
+    private static String typeOf(final Creature creature)
+    {
+        return creature.getClass().getSimpleName();
+    }
+}
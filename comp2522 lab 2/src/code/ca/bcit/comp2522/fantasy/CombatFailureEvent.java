@@ -0,0 +1,40 @@
+package ca.bcit.comp2522.fantasy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The CombatFailureEvent class is a Flight Recorder event for an
+ * exception thrown by a combat method. It is off unless a recording
+ * enables it, for example with {@link CombatEvents#enable(jdk.jfr.Recording)}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+@Name(CombatFailureEvent.NAME)
+@Label("Combat Failure")
+@Description("A combat method threw an exception")
+@Category({"Fantasy", "Combat"})
+@Enabled(false)
+@StackTrace(false)
+final class CombatFailureEvent
+        extends jdk.jfr.Event
+{
+    static final String NAME = "ca.bcit.comp2522.fantasy.CombatFailure";
+
+    @Label("Creature Type")
+    String creatureType;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Exception")
+    String exception;
+}
@@ -0,0 +1,144 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * A CombatListener is told about every change of health and resource
+ * of the creature it is set on with {@link Creature#setCombatListener(CombatListener)}.
+ * Amounts are the values that were asked for, before they are capped,
+ * so the same calls replayed with the same rules give the same state.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public interface CombatListener
+{
+    /**
+     * Called after a creature took damage.
+     *
+     * @param creature The creature that took damage
+     * @param damage The damage taken
+     */
+    void onDamage(final Creature creature,
+                  final int      damage);
+
+    /**
+     * Called after a creature was healed.
+     *
+     * @param creature The creature that was healed
+     * @param healAmount The amount healed
+     */
+    void onHeal(final Creature creature,
+                final int      healAmount);
+
+    /**
+     * Called after a creature spent firepower, mana or rage.
+     *
+     * @param creature The creature that spent the resource
+     * @param amount The amount spent
+     */
+    void onResourceSpent(final Creature creature,
+                         final int      amount);
+
+    /**
+     * Called after a creature gained firepower, mana or rage.
+     *
+     * @param creature The creature that gained the resource
+     * @param amount The amount gained
+     */
+    void onResourceRestored(final Creature creature,
+                            final int      amount);
+
+    /**
+     * Called after damage brought a living creature down to no health.
+     * It is called once, right after the {@link #onDamage(Creature, int)}
+     * of the killing blow. The default does nothing.
+     *
+     * @param creature The creature that died
+     */
+    default void onDeath(final Creature creature)
+    {
+    }
+
+    /**
+     * Called after a creature was put back in the state it was created
+     * in with {@link Creature#reset()}. The default does nothing.
+     *
+     * @param creature The creature that was reset
+     */
+    default void onReset(final Creature creature)
+    {
+    }
+
+    /**
+     * Makes a listener that passes every call to two listeners,
+     * first to one and then to the other.
+     *
+     * @param first The listener called first, or null
+     * @param second The listener called second, or null
+     * @return a listener calling both, or the other one if one of them is null
+     */
+    static CombatListener combine(final CombatListener first,
+                                  final CombatListener second)
+    {
+        if (first == null)
+        {
+            return second;
+        }
+
+        if (second == null)
+        {
+            return first;
+        }
+
+        return new CombatListener()
+        {
+            @Override
+            public void onDamage(final Creature creature,
+                                 final int      damage)
+            {
+                first.onDamage(creature, damage);
+                second.onDamage(creature, damage);
+            }
+
+            @Override
+            public void onHeal(final Creature creature,
+                               final int      healAmount)
+            {
+                first.onHeal(creature, healAmount);
+                second.onHeal(creature, healAmount);
+            }
+
+            @Override
+            public void onResourceSpent(final Creature creature,
+                                        final int      amount)
+            {
+                first.onResourceSpent(creature, amount);
+                second.onResourceSpent(creature, amount);
+            }
+
+            @Override
+            public void onResourceRestored(final Creature creature,
+                                           final int      amount)
+            {
+                first.onResourceRestored(creature, amount);
+                second.onResourceRestored(creature, amount);
+            }
+
+            @Override
+            public void onDeath(final Creature creature)
+            {
+                first.onDeath(creature);
+                second.onDeath(creature);
+            }
+
+            @Override
+            public void onReset(final Creature creature)
+            {
+                first.onReset(creature);
+                second.onReset(creature);
+            }
+        };
+    }
+}
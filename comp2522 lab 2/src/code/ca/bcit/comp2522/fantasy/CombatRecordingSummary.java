@@ -0,0 +1,338 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * The CombatRecordingSummary class reads the combat events of a Flight
+ * Recorder recording and adds them up per creature type: the damage
+ * dealt, taken and healed per second, and how often attacks fail for
+ * lack of resource or throw. Events that are not combat events are
+ * skipped, so a recording may also hold the JDK's own events.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class CombatRecordingSummary
+{
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double PERCENT          = 100.0;
+    private static final double NO_RATE          = 0.0;
+
+    private final Map<String, TypeTotals> totals;
+    private       Instant                 first;
+    private       Instant                 last;
+
+    /**
+     * Constructor for the CombatRecordingSummary class.
+     */
+    private CombatRecordingSummary()
+    {
+        this.totals = new TreeMap<>();
+    }
+
+    /**
+     * Reads a recording file.
+     *
+     * @param recording The .jfr file
+     * @return the summary of its combat events
+     * @throws IOException if the file cannot be read or is not a recording
+     * @throws IllegalArgumentException if recording is null
+     */
+    public static CombatRecordingSummary read(final Path recording)
+            throws IOException
+    {
+        if (recording == null)
+        {
+            throw new IllegalArgumentException(
+                    "Recording cannot be null.");
+        }
+
+        final CombatRecordingSummary summary;
+        summary = new CombatRecordingSummary();
+
+        try (RecordingFile file = new RecordingFile(recording))
+        {
+            while (file.hasMoreEvents())
+            {
+                summary.add(file.readEvent());
+            }
+        }
+
+        return summary;
+    }
+
+    /**
+     * Gets the creature types seen in the recording.
+     *
+     * @return the type names, in alphabetical order
+     */
+    public Set<String> getCreatureTypes()
+    {
+        return Collections.unmodifiableSet(totals.keySet());
+    }
+
+    /**
+     * Gets the time from the first combat event to the last.
+     *
+     * @return the time in seconds
+     */
+    public double getSeconds()
+    {
+        if (first == null)
+        {
+            return NO_RATE;
+        }
+
+        return (last.getEpochSecond() - first.getEpochSecond()) +
+               (last.getNano() - first.getNano()) / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Gets the number of attacks tried by a creature type.
+     *
+     * @param type The type name, for example "Dragon"
+     * @return the number of attacks
+     */
+    public long getActions(final String type)
+    {
+        return totalsOf(type).actions;
+    }
+
+    /**
+     * Gets the number of attacks of a creature type that failed for lack of resource.
+     *
+     * @param type The type name
+     * @return the number of failed attacks
+     */
+    public long getFailedActions(final String type)
+    {
+        return totalsOf(type).failedActions;
+    }
+
+    /**
+     * Gets the number of exceptions thrown by combat methods of a creature type.
+     *
+     * @param type The type name
+     * @return the number of exceptions
+     */
+    public long getExceptions(final String type)
+    {
+        return totalsOf(type).exceptions;
+    }
+
+    /**
+     * Gets the damage dealt by a creature type with its attacks.
+     *
+     * @param type The type name
+     * @return the damage dealt
+     */
+    public long getDamageDealt(final String type)
+    {
+        return totalsOf(type).damageDealt;
+    }
+
+    /**
+     * Gets the damage taken by a creature type.
+     *
+     * @param type The type name
+     * @return the damage taken
+     */
+    public long getDamageTaken(final String type)
+    {
+        return totalsOf(type).damageTaken;
+    }
+
+    /**
+     * Gets the healing received by a creature type.
+     *
+     * @param type The type name
+     * @return the healing
+     */
+    public long getHealing(final String type)
+    {
+        return totalsOf(type).healing;
+    }
+
+    /**
+     * Gets the damage dealt by a creature type per second of the recording.
+     *
+     * @param type The type name
+     * @return the damage per second
+     */
+    public double getDamagePerSecond(final String type)
+    {
+        return perSecond(getDamageDealt(type));
+    }
+
+    /**
+     * Gets the share of attacks of a creature type that failed for lack of resource.
+     *
+     * @param type The type name
+     * @return the failure rate, from 0 to 1
+     */
+    public double getFailureRate(final String type)
+    {
+        final TypeTotals typeTotals;
+        typeTotals = totalsOf(type);
+
+        if (typeTotals.actions == 0)
+        {
+            return NO_RATE;
+        }
+
+        return (double) typeTotals.failedActions / typeTotals.actions;
+    }
+
+    /**
+     * Formats the damage-per-second and failure-rate tables.
+     *
+     * @return the tables
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder tables;
+        tables = new StringBuilder();
+
+        tables.append(String.format("Damage per second over %.3f s%n", getSeconds()));
+        tables.append(String.format("%-20s %12s %12s %12s %12s %12s%n",
+                                    "Type", "Dealt", "Dealt/s", "Taken", "Taken/s", "Healed"));
+
+        for (final String type : totals.keySet())
+        {
+            tables.append(String.format("%-20s %12d %12.1f %12d %12.1f %12d%n",
+                                        type,
+                                        getDamageDealt(type),
+                                        getDamagePerSecond(type),
+                                        getDamageTaken(type),
+                                        perSecond(getDamageTaken(type)),
+                                        getHealing(type)));
+        }
+
+        tables.append(String.format("%nFailure rate%n"));
+        tables.append(String.format("%-20s %12s %12s %12s %12s%n",
+                                    "Type", "Attacks", "Failed", "Rate", "Exceptions"));
+
+        for (final String type : totals.keySet())
+        {
+            tables.append(String.format("%-20s %12d %12d %11.2f%% %12d%n",
+                                        type,
+                                        getActions(type),
+                                        getFailedActions(type),
+                                        getFailureRate(type) * PERCENT,
+                                        getExceptions(type)));
+        }
+
+        return tables.toString();
+    }
+
+    /**
+     * Adds one event to the totals, if it is a combat event.
+     *
+     * @param event The event
+     */
+    private void add(final RecordedEvent event)
+    {
+        switch (event.getEventType().getName())
+        {
+            case DamageEvent.NAME:
+                totalsFor(event.getString("creatureType")).damageTaken += event.getInt("damage");
+                break;
+            case HealEvent.NAME:
+                totalsFor(event.getString("creatureType")).healing += event.getInt("amount");
+                break;
+            case CombatActionEvent.NAME:
+                final TypeTotals attacker;
+                attacker = totalsFor(event.getString("attackerType"));
+
+                attacker.actions++;
+                attacker.damageDealt += event.getInt("damage");
+
+                if (!event.getBoolean("succeeded"))
+                {
+                    attacker.failedActions++;
+                }
+                break;
+            case CombatFailureEvent.NAME:
+                totalsFor(event.getString("creatureType")).exceptions++;
+                break;
+            default:
+                return;
+        }
+
+        if (first == null ||
+            event.getStartTime().isBefore(first))
+        {
+            first = event.getStartTime();
+        }
+
+        if (last == null ||
+            event.getEndTime().isAfter(last))
+        {
+            last = event.getEndTime();
+        }
+    }
+
+    /**
+     * Gets the totals of a type, adding them if they are new.
+     *
+     * @param type The type name
+     * @return the totals
+     */
+    private TypeTotals totalsFor(final String type)
+    {
+        return totals.computeIfAbsent(type, name -> new TypeTotals());
+    }
+
+    /**
+     * Gets the totals of a type for a getter.
+     *
+     * @param type The type name
+     * @return the totals, all zero if the type was not seen
+     */
+    private TypeTotals totalsOf(final String type)
+    {
+        final TypeTotals typeTotals;
+        typeTotals = totals.get(type);
+
+        return typeTotals == null ? new TypeTotals() : typeTotals;
+    }
+
+    /**
+     * Divides an amount by the length of the recording.
+     *
+     * @param amount The amount
+     * @return the amount per second, or 0 if the recording has no length
+     */
+    private double perSecond(final long amount)
+    {
+        final double seconds;
+        seconds = getSeconds();
+
+        return seconds == NO_RATE ? NO_RATE : amount / seconds;
+    }
+
+    /**
+     * The totals of one creature type.
+     */
+    private static final class TypeTotals
+    {
+        private long actions;
+        private long failedActions;
+        private long exceptions;
+        private long damageDealt;
+        private long damageTaken;
+        private long healing;
+    }
+}
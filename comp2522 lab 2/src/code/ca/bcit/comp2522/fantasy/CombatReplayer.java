@@ -0,0 +1,534 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The CombatReplayer class rebuilds the state of every creature of a
+ * fight recorded by {@link CombatEventLog}, at the end of any tick.
+ * When it is created it reads the whole log once and keeps a copy of
+ * the state every {@code checkpointInterval} ticks. Jumping to a tick
+ * then starts from the nearest checkpoint before it, so at most
+ * {@code checkpointInterval} ticks of events are replayed.
+ * Health and resources are capped with the same rules as
+ * {@link Creature}, {@link Dragon}, {@link Elf} and {@link Orc}.
+ * Every event is checked once when the replayer is created, so the
+ * replay itself reads the log without checks.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatReplayer
+{
+    private static final int  MINIMUM_CHECKPOINT_INTERVAL = 1;
+    private static final byte NOT_SPAWNED                 = -1;
+
+    private static final int[] MAXIMUM_RESOURCE = {
+            Dragon.MAXIMUM_FIRE_POWER,
+            Elf.MAXIMUM_MANA,
+            Orc.MAXIMUM_RAGE
+    };
+
+    private final byte[] log;
+    private final int    checkpointInterval;
+    private final int    creatureCount;
+
+    private final int[]    checkpointOffsets;
+    private final byte[][] checkpointTypes;
+    private final int[][]  checkpointHealth;
+    private final int[][]  checkpointResources;
+    private final long     tickCount;
+    private final long     eventCount;
+
+    private final byte[] types;
+    private final int[]  health;
+    private final int[]  resources;
+
+    private int  position;
+    private long tick;
+    private long eventsReplayed;
+
+    /**
+     * Constructor for the CombatReplayer class.
+     *
+     * @param log The bytes of a combat event log
+     * @param checkpointInterval The number of ticks between two checkpoints
+     * @throws IllegalArgumentException if the log is not valid
+     */
+    public CombatReplayer(final byte[] log,
+                          final int    checkpointInterval)
+    {
+        if (log == null)
+        {
+            throw new IllegalArgumentException(
+                    "Log cannot be null.");
+        }
+
+        if (checkpointInterval < MINIMUM_CHECKPOINT_INTERVAL)
+        {
+            throw new IllegalArgumentException(
+                    "Checkpoint interval cannot be less than " + MINIMUM_CHECKPOINT_INTERVAL + ".");
+        }
+
+        this.log                = log.clone();
+        this.checkpointInterval = checkpointInterval;
+        this.creatureCount      = countCreatures();
+        this.types              = new byte[creatureCount];
+        this.health             = new int[creatureCount];
+        this.resources          = new int[creatureCount];
+
+        Arrays.fill(types, NOT_SPAWNED);
+
+        final long ticks;
+        final int  checkpoints;
+
+        ticks       = countTicks();
+        checkpoints = (int) (ticks / checkpointInterval) + 1;
+
+        this.checkpointOffsets   = new int[checkpoints];
+        this.checkpointTypes     = new byte[checkpoints][];
+        this.checkpointHealth    = new int[checkpoints][];
+        this.checkpointResources = new int[checkpoints][];
+        this.tickCount           = ticks;
+
+        saveCheckpoint(0);
+
+        for (int i = 1; i < checkpoints; i++)
+        {
+            replayTicks(checkpointInterval);
+            saveCheckpoint(i);
+        }
+
+        replayTicks(ticks - tick);
+
+        this.eventCount = eventsReplayed;
+    }
+
+    /**
+     * Sets the state to the end of the given tick. Tick 0 is the
+     * state before the first tick ended.
+     *
+     * @param targetTick The tick to jump to
+     * @throws IllegalArgumentException if the tick is not in the log
+     */
+    public void seek(final long targetTick)
+    {
+        if (targetTick < 0 ||
+            targetTick > tickCount)
+        {
+            throw new IllegalArgumentException(
+                    "Tick must be between 0 and " + tickCount + ".");
+        }
+
+        final int checkpoint;
+        checkpoint = (int) (targetTick / checkpointInterval);
+
+        System.arraycopy(checkpointTypes[checkpoint], 0, types, 0, creatureCount);
+        System.arraycopy(checkpointHealth[checkpoint], 0, health, 0, creatureCount);
+        System.arraycopy(checkpointResources[checkpoint], 0, resources, 0, creatureCount);
+
+        position = checkpointOffsets[checkpoint];
+        tick     = (long) checkpoint * checkpointInterval;
+
+        replayTicks(targetTick - tick);
+    }
+
+    /**
+     * Gets the tick of the current state.
+     *
+     * @return the current tick
+     */
+    public long getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Gets the number of ticks in the log.
+     *
+     * @return the number of ticks
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    /**
+     * Gets the number of events in the log, including spawns and tick marks.
+     *
+     * @return the number of events
+     */
+    public long getEventCount()
+    {
+        return eventCount;
+    }
+
+    /**
+     * Gets the number of creatures in the log.
+     *
+     * @return the number of creatures
+     */
+    public int getCreatureCount()
+    {
+        return creatureCount;
+    }
+
+    /**
+     * Checks if a creature has been spawned by the current tick.
+     *
+     * @param id The id of the creature
+     * @return true if the creature exists at the current tick, false otherwise
+     */
+    public boolean isSpawned(final int id)
+    {
+        validateId(id);
+
+        return types[id] != NOT_SPAWNED;
+    }
+
+    /**
+     * Gets the type of a creature.
+     *
+     * @param id The id of the creature
+     * @return the type of the creature
+     */
+    public CreatureType getType(final int id)
+    {
+        validateSpawned(id);
+
+        return CreatureType.fromOrdinal(types[id]);
+    }
+
+    /**
+     * Gets the health of a creature at the current tick.
+     *
+     * @param id The id of the creature
+     * @return the health of the creature
+     */
+    public int getHealth(final int id)
+    {
+        validateSpawned(id);
+
+        return health[id];
+    }
+
+    /**
+     * Gets the firepower, mana or rage of a creature at the current tick.
+     *
+     * @param id The id of the creature
+     * @return the resource of the creature
+     */
+    public int getResource(final int id)
+    {
+        validateSpawned(id);
+
+        return resources[id];
+    }
+
+    /**
+     * Replays events until the given number of tick marks have been read.
+     *
+     * @param ticks The number of ticks to replay
+     */
+    private void replayTicks(final long ticks)
+    {
+        final byte[] log;
+        final byte[] types;
+        final int[]  health;
+        final int[]  resources;
+        long         remaining;
+        long         events;
+        int          position;
+
+        log       = this.log;
+        types     = this.types;
+        health    = this.health;
+        resources = this.resources;
+        remaining = ticks;
+        events    = 0;
+        position  = this.position;
+
+        while (remaining > 0)
+        {
+            final byte opcode;
+            opcode = log[position++];
+            events++;
+
+            if (opcode == CombatEventLog.TICK)
+            {
+                remaining--;
+                continue;
+            }
+
+            int id;
+            int shift;
+            byte next;
+
+            id    = 0;
+            shift = 0;
+
+            do
+            {
+                next   = log[position++];
+                id    |= (next & CombatEventLog.VARINT_DATA_MASK) << shift;
+                shift += CombatEventLog.VARINT_DATA_BITS;
+            }
+            while ((next & CombatEventLog.VARINT_MORE_BIT) != 0);
+
+            int amount;
+
+            amount = 0;
+            shift  = 0;
+
+            do
+            {
+                next    = log[position++];
+                amount |= (next & CombatEventLog.VARINT_DATA_MASK) << shift;
+                shift  += CombatEventLog.VARINT_DATA_BITS;
+            }
+            while ((next & CombatEventLog.VARINT_MORE_BIT) != 0);
+
+            switch (opcode)
+            {
+                case CombatEventLog.DAMAGE:
+                    health[id] = Math.max(health[id] - amount, Creature.DEAD_HEALTH);
+                    break;
+                case CombatEventLog.HEAL:
+                    health[id] = Math.min(health[id] + amount, Creature.MAXIMUM_HEALTH);
+                    break;
+                case CombatEventLog.SPEND:
+                    resources[id] -= amount;
+                    break;
+                case CombatEventLog.RESTORE:
+                    resources[id] = Math.min(resources[id] + amount, MAXIMUM_RESOURCE[types[id]]);
+                    break;
+                case CombatEventLog.SPAWN:
+                    // a spawn is followed by the health and the resource
+                    types[id] = (byte) amount;
+                    this.position = position;
+                    health[id]    = readVarint();
+                    resources[id] = readVarint();
+                    position      = this.position;
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown event " + opcode + " in log.");
+            }
+        }
+
+        this.position        = position;
+        this.tick           += ticks;
+        this.eventsReplayed += events;
+    }
+
+    /**
+     * Reads one variable-length integer at the current position.
+     *
+     * @return the number read
+     * @throws IllegalArgumentException if the log ends before the number
+     * does, or the number is negative or longer than {@value CombatEventLog#MAXIMUM_VARINT} bytes
+     */
+    private int readVarint()
+    {
+        int  value;
+        int  shift;
+        int  length;
+        byte next;
+
+        value  = 0;
+        shift  = 0;
+        length = 0;
+
+        do
+        {
+            if (position >= log.length)
+            {
+                throw new IllegalArgumentException(
+                        "Log ends in the middle of an event.");
+            }
+
+            if (length == CombatEventLog.MAXIMUM_VARINT)
+            {
+                throw new IllegalArgumentException(
+                        "Number at byte " + position + " is longer than " + CombatEventLog.MAXIMUM_VARINT + " bytes.");
+            }
+
+            next   = log[position++];
+            value |= (next & CombatEventLog.VARINT_DATA_MASK) << shift;
+            shift += CombatEventLog.VARINT_DATA_BITS;
+            length++;
+        }
+        while ((next & CombatEventLog.VARINT_MORE_BIT) != 0);
+
+        if (value < 0)
+        {
+            throw new IllegalArgumentException(
+                    "Negative number before byte " + position + ".");
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads the whole log once to find the number of creatures,
+     * checking every event on the way: ids are given out in order,
+     * every event is for a creature spawned before it, and every
+     * type is a {@link CreatureType}.
+     *
+     * @return the number of creatures
+     * @throws IllegalArgumentException if an event is not valid
+     */
+    private int countCreatures()
+    {
+        final BitSet spawned;
+        int          creatures;
+
+        spawned   = new BitSet();
+        creatures = 0;
+
+        position = 0;
+
+        while (position < log.length)
+        {
+            final int  start;
+            final byte opcode;
+
+            start  = position;
+            opcode = log[position++];
+
+            if (opcode == CombatEventLog.TICK)
+            {
+                continue;
+            }
+
+            if (opcode < CombatEventLog.SPAWN ||
+                opcode > CombatEventLog.RESTORE)
+            {
+                throw new IllegalArgumentException(
+                        "Unknown event " + opcode + " at byte " + start + ".");
+            }
+
+            final int id;
+            final int amount;
+
+            id     = readVarint();
+            amount = readVarint();
+
+            if (opcode == CombatEventLog.SPAWN)
+            {
+                // ids come in order, so the arrays cannot be made larger than the log needs
+                if (id > creatures)
+                {
+                    throw new IllegalArgumentException(
+                            "Creature " + id + " is spawned before creature " + creatures + " at byte " + start + ".");
+                }
+
+                if (amount >= MAXIMUM_RESOURCE.length)
+                {
+                    throw new IllegalArgumentException(
+                            "Unknown creature type " + amount + " at byte " + start + ".");
+                }
+
+                readVarint();
+                readVarint();
+                spawned.set(id);
+                creatures = Math.max(creatures, id + 1);
+            }
+            else if (!spawned.get(id))
+            {
+                throw new IllegalArgumentException(
+                        "Event for creature " + id + " before it is spawned at byte " + start + ".");
+            }
+        }
+
+        position = 0;
+
+        return creatures;
+    }
+
+    /**
+     * Counts the tick marks of the log. Events after the last
+     * tick mark belong to a tick that never ended and are ignored.
+     *
+     * @return the number of ticks
+     */
+    private long countTicks()
+    {
+        long ticks;
+        ticks = 0;
+
+        position = 0;
+
+        while (position < log.length)
+        {
+            final byte opcode;
+            opcode = log[position++];
+
+            if (opcode == CombatEventLog.TICK)
+            {
+                ticks++;
+                continue;
+            }
+
+            readVarint();
+            readVarint();
+
+            if (opcode == CombatEventLog.SPAWN)
+            {
+                readVarint();
+                readVarint();
+            }
+        }
+
+        position = 0;
+
+        return ticks;
+    }
+
+    /**
+     * Saves a copy of the current state as a checkpoint.
+     *
+     * @param checkpoint The index of the checkpoint
+     */
+    private void saveCheckpoint(final int checkpoint)
+    {
+        checkpointOffsets[checkpoint]   = position;
+        checkpointTypes[checkpoint]     = types.clone();
+        checkpointHealth[checkpoint]    = health.clone();
+        checkpointResources[checkpoint] = resources.clone();
+    }
+
+    /**
+     * Validates the id of a creature.
+     *
+     * @param id The id to validate
+     * @throws IllegalArgumentException if there is no creature with that id
+     */
+    private void validateId(final int id)
+    {
+        if (id < 0 ||
+            id >= creatureCount)
+        {
+            throw new IllegalArgumentException(
+                    "No creature with id " + id + ".");
+        }
+    }
+
+    /**
+     * Validates that a creature exists at the current tick.
+     *
+     * @param id The id to validate
+     * @throws IllegalArgumentException if the creature has not been spawned yet
+     */
+    private void validateSpawned(final int id)
+    {
+        if (!isSpawned(id))
+        {
+            throw new IllegalArgumentException(
+                    "Creature " + id + " has not been spawned at tick " + tick + ".");
+        }
+    }
+}
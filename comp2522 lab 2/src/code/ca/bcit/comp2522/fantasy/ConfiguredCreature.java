@@ -0,0 +1,253 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Date;
+
+/**
+ * The ConfiguredCreature class is a creature whose resource and
+ * abilities come from a {@link CreatureKind} instead of a subclass.
+ * It has one resource, kept between the minimum and maximum of its
+ * kind, that its abilities spend or gain.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class ConfiguredCreature extends Creature
+{
+    static final int NOT_PAID = -1;
+
+    private static final int MINIMUM_RESTORE = 0;
+
+    private static final VarHandle RESOURCE =
+            findVarHandle(MethodHandles.lookup(), ConfiguredCreature.class, "resource");
+
+    private final CreatureKind kind;
+    private final int          minimumResource;
+    private final int          maximumResource;
+    private final int          initialResource;
+    private       int          resource;
+
+    /**
+     * Constructor for the ConfiguredCreature class.
+     *
+     * @param name The name of the creature
+     * @param dateOfBirth The birthdate of the creature
+     * @param health The health of the creature
+     * @param kind The kind of the creature
+     * @param resource The starting resource of the creature
+     * @throws IllegalArgumentException if the kind is null or the resource is out of its range
+     */
+    public ConfiguredCreature(final String       name,
+                              final Date         dateOfBirth,
+                              final int          health,
+                              final CreatureKind kind,
+                              final int          resource)
+    {
+        super(name,
+              dateOfBirth,
+              health);
+
+        if (kind == null)
+        {
+            throw new IllegalArgumentException(
+                    "Kind cannot be null.");
+        }
+
+        if (resource < kind.getMinimumResource() ||
+            resource > kind.getMaximumResource())
+        {
+            throw new IllegalArgumentException(
+                    kind.getResourceName() + " must be between " + kind.getMinimumResource() +
+                    " and " + kind.getMaximumResource() + ".");
+        }
+
+        this.kind            = kind;
+        this.minimumResource = kind.getMinimumResource();
+        this.maximumResource = kind.getMaximumResource();
+        this.initialResource = resource;
+        this.resource        = resource;
+    }
+
+    /**
+     * Gets the kind of the creature.
+     *
+     * @return the kind
+     */
+    public CreatureKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Gets the current resource of the creature.
+     *
+     * @return the resource
+     */
+    public int getResource()
+    {
+        if (isConcurrent())
+        {
+            return (int) RESOURCE.getVolatile(this);
+        }
+
+        return resource;
+    }
+
+    /**
+     * Uses an ability on a target.
+     *
+     * @param ability The ability to use
+     * @param target The creature attacked
+     * @return {@link ActionResult#SUCCESS} if the ability was used, or
+     * {@link ActionResult#NOT_ENOUGH_RESOURCE} if there was not enough resource
+     */
+    public ActionResult use(final Ability  ability,
+                            final Creature target)
+    {
+        return ability.use(this, target);
+    }
+
+    /**
+     * Uses an ability of this creature's kind, found by name.
+     *
+     * @param abilityName The name of the ability
+     * @param target The creature attacked
+     * @return {@link ActionResult#SUCCESS} if the ability was used, or
+     * {@link ActionResult#NOT_ENOUGH_RESOURCE} if there was not enough resource
+     * @throws IllegalArgumentException if the kind has no such ability
+     */
+    public ActionResult use(final String   abilityName,
+                            final Creature target)
+    {
+        return kind.getAbility(abilityName).use(this, target);
+    }
+
+    /**
+     * Restores the resource, up to the maximum of the kind.
+     *
+     * @param amount The amount to restore
+     * @throws IllegalArgumentException if the amount is negative
+     */
+    public void restoreResource(final int amount)
+    {
+        if (amount < MINIMUM_RESTORE)
+        {
+            throw new IllegalArgumentException(
+                    "Amount cannot be less than " + MINIMUM_RESTORE + ".");
+        }
+
+        pay(MINIMUM_RESTORE, amount);
+    }
+
+    /**
+     * Sets the health and the resource back to the values the creature
+     * was created with.
+     */
+    @Override
+    protected void restoreInitialState()
+    {
+        super.restoreInitialState();
+
+        if (isConcurrent())
+        {
+            RESOURCE.setVolatile(this, initialResource);
+        }
+        else
+        {
+            resource = initialResource;
+        }
+    }
+
+    /**
+     * Appends the details of the creature, including inherited
+     * attributes and the resource.
+     *
+     * @param details The builder to append to
+     */
+    @Override
+    public void appendDetails(final StringBuilder details)
+    {
+        super.appendDetails(details);
+
+        details.append(kind.getResourceName());
+        details.append(": ");
+        details.append(getResource());
+        details.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends the kind, the resource name and the resource of the
+     * creature as JSON fields.
+     *
+     * @param json The builder to append to
+     */
+    @Override
+    protected void appendJsonFields(final StringBuilder json)
+    {
+        json.append(",\"kind\":");
+        DetailsWriter.appendJsonString(json, kind.getName());
+        json.append(",\"resourceName\":");
+        DetailsWriter.appendJsonString(json, kind.getResourceName());
+        json.append(",\"resource\":");
+        json.append(getResource());
+    }
+
+    /**
+     * Pays for an ability: checks that the resource is at least the
+     * required amount, then adds the change, kept within the range
+     * of the kind. In concurrent mode this is one atomic step.
+     *
+     * @param required The resource needed
+     * @param change The resource gained, or spent if negative
+     * @return the resource after paying, or {@value NOT_PAID} if there was not enough
+     */
+    int pay(final int required,
+            final int change)
+    {
+        int current;
+        int updated;
+
+        if (isConcurrent())
+        {
+            do
+            {
+                current = (int) RESOURCE.getVolatile(this);
+
+                if (current < required)
+                {
+                    return NOT_PAID;
+                }
+
+                updated = Math.max(minimumResource, Math.min(maximumResource, current + change));
+            }
+            while (!RESOURCE.compareAndSet(this, current, updated));
+        }
+        else
+        {
+            current = resource;
+
+            if (current < required)
+            {
+                return NOT_PAID;
+            }
+
+            updated  = Math.max(minimumResource, Math.min(maximumResource, current + change));
+            resource = updated;
+        }
+
+        if (change < 0)
+        {
+            notifyResourceSpent(-change);
+        }
+        else if (change > 0)
+        {
+            notifyResourceRestored(change);
+        }
+
+        return updated;
+    }
+}
@@ -1,11 +1,18 @@
 package ca.bcit.comp2522.fantasy;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.Date;
 
 /**
  * The Creature class represents a creature with a name, date of birth,
  * and health status. It includes methods to take damage, heal,
  * calculate age, and display details.
+ * A creature shared by several threads must be put in concurrent mode
+ * with {@link #setConcurrent(boolean)} before it is shared; its health
+ * and resource are then updated with atomic compare-and-set loops.
  *
  * @author Minsu Kim
  * @author Hali Imanpanah
@@ -15,18 +22,28 @@ import java.util.Date;
  */
 public class Creature
 {
-    private static final int MINIMUM_HEALTH = 55;
-    private static final int MAXIMUM_HEALTH = 1000;
+    static final int MINIMUM_HEALTH = 55;
+    static final int MAXIMUM_HEALTH = 1000;
+    static final int DEAD_HEALTH    = 0;
+
+    static final String LINE_SEPARATOR = System.lineSeparator();
 
-    private static final int DEAD_HEALTH = 0;
     private static final int MINIMUM_DAMAGE   = 0;
     private static final int MINIMUM_HEALING  = 0;
 
-    private static final int BIRTHDAY_NOT_PASSED_OFFSET = 1;
+    private static final VarHandle HEALTH = findVarHandle(MethodHandles.lookup(), Creature.class, "health");
+
+    private static volatile DayClock dayClock = new DayClock(Clock.systemDefaultZone());
 
-    private final String name;
-    private final Date   dateOfBirth;
-    private       int    health;
+    private final String         name;
+    private final Date           dateOfBirth;
+    private final long           birthEpochDay;
+    private final int            birthYear;
+    private final int            birthMonthDay;
+    private final int            initialHealth;
+    private       int            health;
+    private       CombatListener listener;
+    private       boolean        concurrent;
 
     /**
      * Constructor for the Creature class.
@@ -39,13 +56,108 @@ public class Creature
                     final Date dateOfBirth,
                     final int health)
     {
+        final DayClock  clock;
+        final LocalDate birthDate;
+
+        clock = dayClock;
+
         validateName(name);
-        validateDateOfBirth(dateOfBirth);
+        validateDateOfBirth(dateOfBirth, clock);
         validateHealth(health);
 
-        this.name        = name;
-        this.dateOfBirth = new Date(dateOfBirth.getTime());
-        this.health      = health;
+        birthDate = clock.toLocalDate(dateOfBirth.getTime());
+
+        this.name          = name;
+        this.dateOfBirth   = new Date(dateOfBirth.getTime());
+        this.birthEpochDay = birthDate.toEpochDay();
+        this.birthYear     = birthDate.getYear();
+        this.birthMonthDay = DayClock.packMonthDay(birthDate.getMonthValue(), birthDate.getDayOfMonth());
+        this.initialHealth = health;
+        this.health        = health;
+    }
+
+    /**
+     * Sets the clock that tells creatures the current day. Creatures
+     * already created keep the birth day they got from the clock in use
+     * when they were created.
+     *
+     * @param clock The clock to use, for example a fixed clock in tests
+     * @throws IllegalArgumentException if the clock is null
+     */
+    public static void setClock(final Clock clock)
+    {
+        dayClock = new DayClock(clock);
+    }
+
+    /**
+     * Gets the clock that tells creatures the current day.
+     *
+     * @return the clock in use
+     */
+    public static Clock getClock()
+    {
+        return dayClock.getClock();
+    }
+
+    /**
+     * Calculates the age in full years of many creatures at once.
+     * The current day is read only once for the whole population.
+     *
+     * @param creatures The creatures
+     * @param ages The array that receives the age of every creature, at the same index
+     * @throws IllegalArgumentException if an array is null or ages is shorter than creatures
+     */
+    public static void computeAges(final Creature[] creatures,
+                                   final int[]      ages)
+    {
+        if (creatures == null ||
+            ages == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creatures and ages cannot be null.");
+        }
+
+        if (ages.length < creatures.length)
+        {
+            throw new IllegalArgumentException(
+                    "Ages must have room for " + creatures.length + " creatures.");
+        }
+
+        final DayClock.Today today;
+        today = dayClock.today();
+
+        for (int i = 0; i < creatures.length; i++)
+        {
+            final Creature creature;
+            creature = creatures[i];
+
+            ages[i] = DayClock.ageYears(today, creature.birthYear, creature.birthMonthDay);
+        }
+    }
+
+    /**
+     * Gets the name of the creature.
+     *
+     * @return the name of the creature
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the current health of the creature.
+     *
+     * @return the health of the creature
+     */
+    public int getHealth()
+    {
+        if (concurrent)
+        {
+            return (int) HEALTH.getVolatile(this);
+        }
+
+        return health;
     }
 
     /**
@@ -54,7 +166,7 @@ public class Creature
      */
     public boolean isAlive()
     {
-        return health > DEAD_HEALTH;
+        return getHealth() > DEAD_HEALTH;
     }
 
     /**
@@ -67,15 +179,40 @@ public class Creature
     {
         if (damage < MINIMUM_DAMAGE)
         {
+            CombatEvents.failure(this, CombatEvents.TAKE_DAMAGE, DamageException.class);
+
             throw new DamageException(
                     "Damage cannot be less than " + MINIMUM_DAMAGE + ".");
         }
 
-        health -= damage;
+        final int previous;
+
+        if (concurrent)
+        {
+            previous = changeHealthAtomically(-damage);
+        }
+        else
+        {
+            previous = health;
+            health  -= damage;
+
+            if(health < DEAD_HEALTH)
+            {
+                health = DEAD_HEALTH;
+            }
+        }
+
+        CombatEvents.damage(this, damage);
 
-        if(health < DEAD_HEALTH)
+        if (listener != null)
         {
-            health = DEAD_HEALTH;
+            listener.onDamage(this, damage);
+
+            if (previous > DEAD_HEALTH &&
+                previous - damage <= DEAD_HEALTH)
+            {
+                listener.onDeath(this);
+            }
         }
     }
 
@@ -89,49 +226,209 @@ public class Creature
     {
         if(healAmount < MINIMUM_HEALING)
         {
+            CombatEvents.failure(this, CombatEvents.HEAL, HealingException.class);
+
             throw new HealingException(
                     "Healing amount cannot be less than " + MINIMUM_HEALING + ".");
         }
 
-        health += healAmount;
+        if (concurrent)
+        {
+            changeHealthAtomically(healAmount);
+        }
+        else
+        {
+            health += healAmount;
+
+            if(health > MAXIMUM_HEALTH)
+            {
+                health = MAXIMUM_HEALTH;
+            }
+        }
 
-        if(health > MAXIMUM_HEALTH)
+        CombatEvents.heal(this, healAmount);
+
+        if (listener != null)
         {
-            health = MAXIMUM_HEALTH;
+            listener.onHeal(this, healAmount);
         }
     }
 
     /**
-     * Calculates the creature's age in full years.
+     * Puts the creature back in the state it was created in, so it can
+     * fight again without being created again. The name, date of birth,
+     * listener and concurrent mode are kept, and the listener is told
+     * once the whole state is back. It must not be called while another
+     * thread is using the creature.
+     */
+    public void reset()
+    {
+        restoreInitialState();
+
+        if (listener != null)
+        {
+            listener.onReset(this);
+        }
+    }
+
+    /**
+     * Sets the health back to the health the creature was created with.
+     * Subclasses that keep more state put it back here too.
+     */
+    protected void restoreInitialState()
+    {
+        if (concurrent)
+        {
+            HEALTH.setVolatile(this, initialHealth);
+        }
+        else
+        {
+            health = initialHealth;
+        }
+    }
+
+    /**
+     * Gets the health the creature was created with.
      *
-     * @return The age of the creature in years
+     * @return the initial health
      */
-    public int getAgeYears()
+    int getInitialHealth()
     {
-        final Date now;
-        now = new Date();
+        return initialHealth;
+    }
 
-        int age = now.getYear() - dateOfBirth.getYear();
+    /**
+     * Sets the health of a creature that was just loaded from a snapshot.
+     *
+     * @param health The saved health
+     */
+    void loadHealth(final int health)
+    {
+        this.health = health;
+    }
 
-        // if the birthday for the current year hasn't occurred yet, subtract 1
-        if((now.getMonth() < dateOfBirth.getMonth()) ||
-           (now.getMonth() == dateOfBirth.getMonth() &&
-            now.getDate() < dateOfBirth.getDate()))
+    /**
+     * Turns concurrent mode on or off. In concurrent mode, health and
+     * resource changes are atomic and no update is lost when several
+     * threads attack or heal this creature at the same time. This must
+     * be called before the creature is shared with other threads.
+     * A combat listener is still called by whichever thread made the
+     * change, so it must be thread-safe too.
+     *
+     * @param concurrent true to use atomic updates, false for plain ones
+     */
+    public void setConcurrent(final boolean concurrent)
+    {
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Checks if the creature is in concurrent mode.
+     *
+     * @return true if health and resource changes are atomic, false otherwise
+     */
+    public boolean isConcurrent()
+    {
+        return concurrent;
+    }
+
+    /**
+     * Sets the listener that is told about every change of health
+     * and resource of this creature. To keep a listener that is
+     * already set, pass {@link CombatListener#combine(CombatListener, CombatListener)}
+     * of the old and the new one.
+     *
+     * @param listener The listener, or null for none
+     */
+    public void setCombatListener(final CombatListener listener)
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the listener of this creature.
+     *
+     * @return the listener, or null if there is none
+     */
+    public CombatListener getCombatListener()
+    {
+        return listener;
+    }
+
+    /**
+     * Tells the listener, if any, that this creature spent some of its
+     * firepower, mana or rage.
+     *
+     * @param amount The amount spent
+     */
+    protected void notifyResourceSpent(final int amount)
+    {
+        if (listener != null)
+        {
+            listener.onResourceSpent(this, amount);
+        }
+    }
+
+    /**
+     * Tells the listener, if any, that this creature gained some
+     * firepower, mana or rage.
+     *
+     * @param amount The amount gained, before it is capped at the maximum
+     */
+    protected void notifyResourceRestored(final int amount)
+    {
+        if (listener != null)
         {
-            age -= BIRTHDAY_NOT_PASSED_OFFSET;
+            listener.onResourceRestored(this, amount);
         }
-        return age;
+    }
+
+    /**
+     * Calculates the creature's age in full years.
+     *
+     * @return The age of the creature in years
+     */
+    public int getAgeYears()
+    {
+        return dayClock.ageYears(birthYear, birthMonthDay);
+    }
+
+    /**
+     * Gets the day the creature was born.
+     *
+     * @return the number of days from 1970-01-01 to the date of birth
+     */
+    public long getBirthEpochDay()
+    {
+        return birthEpochDay;
     }
 
     /**
      * Prints the details of the creature, including
      * name, date of birth, age, and current health.
+     * The details are built with {@link #appendDetails(StringBuilder)}
+     * and printed with one call. To print many creatures, a
+     * {@link DetailsWriter} is faster.
      */
     public void getDetails()
     {
         final StringBuilder details;
         details = new StringBuilder();
 
+        appendDetails(details);
+
+        System.out.print(details);
+    }
+
+    /**
+     * Appends the details of the creature as text: the lines
+     * {@link #getDetails()} prints, each ending with a line separator.
+     * Subclasses add their own lines after the ones of the creature.
+     *
+     * @param details The builder to append to
+     */
+    public void appendDetails(final StringBuilder details)
+    {
         details.append("\n");
         details.append("Name: ");
         details.append(name);
@@ -140,9 +437,86 @@ public class Creature
         details.append("\nAge: ");
         details.append(getAgeYears());
         details.append("\nHealth: ");
-        details.append(health);
+        details.append(getHealth());
+        details.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends the details of the creature as one JSON object, without
+     * a line break. The date of birth is written as an ISO date.
+     *
+     * @param json The builder to append to
+     */
+    public void appendJson(final StringBuilder json)
+    {
+        json.append("{\"type\":");
+        DetailsWriter.appendJsonString(json, getClass().getSimpleName());
+        json.append(",\"name\":");
+        DetailsWriter.appendJsonString(json, name);
+        json.append(",\"dateOfBirth\":\"");
+        json.append(LocalDate.ofEpochDay(birthEpochDay));
+        json.append("\",\"age\":");
+        json.append(getAgeYears());
+        json.append(",\"health\":");
+        json.append(getHealth());
+
+        appendJsonFields(json);
+
+        json.append('}');
+    }
+
+    /**
+     * Appends the JSON fields a subclass adds to the ones of the
+     * creature. Every field starts with a comma.
+     *
+     * @param json The builder to append to
+     */
+    protected void appendJsonFields(final StringBuilder json)
+    {
+    }
+
+    /**
+     * Adds a change to the health with a compare-and-set loop, keeping
+     * it between {@value DEAD_HEALTH} and {@value MAXIMUM_HEALTH}.
+     *
+     * @param change The amount to add, negative for damage
+     * @return the health before the change
+     */
+    private int changeHealthAtomically(final int change)
+    {
+        int current;
+        int updated;
+
+        do
+        {
+            current = (int) HEALTH.getVolatile(this);
+            updated = Math.max(DEAD_HEALTH, Math.min(MAXIMUM_HEALTH, current + change));
+        }
+        while (!HEALTH.compareAndSet(this, current, updated));
 
-        System.out.println(details.toString());
+        return current;
+    }
+
+    /**
+     * Finds the handle of an int field, for atomic updates.
+     *
+     * @param lookup A lookup that can see the field
+     * @param owner The class that declares the field
+     * @param field The name of the field
+     * @return the handle of the field
+     */
+    static VarHandle findVarHandle(final MethodHandles.Lookup lookup,
+                                   final Class<?>            owner,
+                                   final String              field)
+    {
+        try
+        {
+            return lookup.findVarHandle(owner, field, int.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
     /**
@@ -165,16 +539,14 @@ public class Creature
      * Validates the creature's date of birth.
      *
      * @param dateOfBirth The date to validate
+     * @param clock The clock that tells the current time
      * @throws IllegalArgumentException if the date is null or in the future
      */
-    private static void validateDateOfBirth(final Date dateOfBirth)
+    private static void validateDateOfBirth(final Date     dateOfBirth,
+                                            final DayClock clock)
     {
-        final Date now;
-
-        now = new Date();
-
         if (dateOfBirth == null ||
-            dateOfBirth.after(now))
+            dateOfBirth.getTime() > clock.millis())
         {
             throw new IllegalArgumentException(
                     "Date of birth cannot be null or in the future.");
@@ -0,0 +1,184 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CreatureKind class describes a kind of creature defined in a
+ * config file instead of a subclass: the name and range of its resource,
+ * and the abilities it can use. It creates {@link ConfiguredCreature}s.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class CreatureKind
+{
+    private static final int MINIMUM_RESOURCE = 0;
+
+    private final String               name;
+    private final String               resourceName;
+    private final int                  minimumResource;
+    private final int                  maximumResource;
+    private final Map<String, Ability> abilities;
+
+    /**
+     * Constructor for the CreatureKind class.
+     *
+     * @param name The name of the kind
+     * @param resourceName The name of the resource, as printed by getDetails
+     * @param minimumResource The lowest the resource can be
+     * @param maximumResource The highest the resource can be
+     * @param abilities The abilities of the kind
+     * @throws IllegalArgumentException if a name is empty or the resource range is not valid
+     */
+    public CreatureKind(final String        name,
+                        final String        resourceName,
+                        final int           minimumResource,
+                        final int           maximumResource,
+                        final List<Ability> abilities)
+    {
+        if (name == null ||
+            name.trim().isEmpty() ||
+            resourceName == null ||
+            resourceName.trim().isEmpty())
+        {
+            throw new IllegalArgumentException(
+                    "Kind and resource names cannot be null or empty.");
+        }
+
+        if (minimumResource < MINIMUM_RESOURCE ||
+            maximumResource < minimumResource)
+        {
+            throw new IllegalArgumentException(
+                    "The resource of " + name + " must be between " + MINIMUM_RESOURCE +
+                    " and a maximum that is not less than its minimum.");
+        }
+
+        if (abilities == null)
+        {
+            throw new IllegalArgumentException(
+                    "Abilities cannot be null.");
+        }
+
+        final Map<String, Ability> byName;
+        byName = new LinkedHashMap<>();
+
+        for (final Ability ability : abilities)
+        {
+            if (ability == null)
+            {
+                throw new IllegalArgumentException(
+                        "Abilities cannot be null.");
+            }
+
+            byName.put(ability.getName(), ability);
+        }
+
+        this.name            = name;
+        this.resourceName    = resourceName;
+        this.minimumResource = minimumResource;
+        this.maximumResource = maximumResource;
+        this.abilities       = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Creates a creature of this kind.
+     *
+     * @param name The name of the creature
+     * @param dateOfBirth The birthdate of the creature
+     * @param health The health of the creature
+     * @param resource The starting resource of the creature
+     * @return the new creature
+     */
+    public ConfiguredCreature create(final String name,
+                                     final Date   dateOfBirth,
+                                     final int    health,
+                                     final int    resource)
+    {
+        return new ConfiguredCreature(name, dateOfBirth, health, this, resource);
+    }
+
+    /**
+     * Gets the name of the kind.
+     *
+     * @return the name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the name of the resource.
+     *
+     * @return the resource name
+     */
+    public String getResourceName()
+    {
+        return resourceName;
+    }
+
+    /**
+     * Gets the lowest the resource can be.
+     *
+     * @return the minimum resource
+     */
+    public int getMinimumResource()
+    {
+        return minimumResource;
+    }
+
+    /**
+     * Gets the highest the resource can be.
+     *
+     * @return the maximum resource
+     */
+    public int getMaximumResource()
+    {
+        return maximumResource;
+    }
+
+    /**
+     * Gets an ability of this kind by name. Look abilities up once and
+     * keep them, rather than looking them up for every attack.
+     *
+     * @param abilityName The name of the ability
+     * @return the ability
+     * @throws IllegalArgumentException if the kind has no such ability
+     */
+    public Ability getAbility(final String abilityName)
+    {
+        final Ability ability;
+        ability = abilities.get(abilityName);
+
+        if (ability == null)
+        {
+            throw new IllegalArgumentException(
+                    name + " has no ability " + abilityName + ".");
+        }
+
+        return ability;
+    }
+
+    /**
+     * Gets the abilities of this kind, by name.
+     *
+     * @return an unmodifiable map of the abilities
+     */
+    public Map<String, Ability> getAbilities()
+    {
+        return abilities;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CreatureKind[" + name + ", abilities=" + abilities.keySet() + "]";
+    }
+}
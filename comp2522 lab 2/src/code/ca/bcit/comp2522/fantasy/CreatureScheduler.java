@@ -0,0 +1,563 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The CreatureScheduler class runs timed regeneration and cooldowns for
+ * many creatures. It is a hashed timing wheel: time moves in ticks, and
+ * every timer is kept in the slot of the tick it is due on, modulo the
+ * number of slots. A tick only looks at one slot, so its cost depends on
+ * the timers in that slot, not on the number of creatures.
+ * Timers are stored in parallel arrays and reused, so scheduling and
+ * firing do not allocate. Timers of creatures that are no longer alive
+ * are dropped when they come due, so regeneration never brings a
+ * creature back to life.
+ * A scheduler is meant to be used by one thread.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CreatureScheduler
+{
+    private static final int MINIMUM_SLOTS    = 1;
+    private static final int MINIMUM_TICKS    = 1;
+    private static final int MINIMUM_AMOUNT   = 0;
+    private static final int INITIAL_TIMERS   = 64;
+    private static final int GROWTH_FACTOR    = 2;
+    private static final int NONE             = -1;
+    private static final int TAKEN_OUT        = -2;
+    private static final int INDEX_BITS       = 32;
+    private static final long INDEX_MASK      = 0xFFFFFFFFL;
+
+    private static final byte FREE                  = 0;
+    private static final byte HEALTH_REGENERATION   = 1;
+    private static final byte RESOURCE_REGENERATION = 2;
+    private static final byte COOLDOWN              = 3;
+
+    private final int[] slotHeads;
+    private final int   slotMask;
+
+    private Creature[]           creatures;
+    private Consumer<Creature>[] callbacks;
+    private byte[]               kinds;
+    private long[]               dueTicks;
+    private int[]                amounts;
+    private int[]                periods;
+    private int[]                generations;
+    private int[]                next;
+    private int[]                previous;
+    private int[]                dueScratch;
+    private int                  freeHead;
+    private int                  used;
+    private int                  size;
+    private long                 currentTick;
+
+    /**
+     * Constructor for the CreatureScheduler class.
+     *
+     * @param slots The number of slots of the wheel, rounded up to a power
+     *              of two. About the most common period works well.
+     * @throws IllegalArgumentException if slots is less than {@value MINIMUM_SLOTS}
+     */
+    @SuppressWarnings("unchecked")
+    public CreatureScheduler(final int slots)
+    {
+        if (slots < MINIMUM_SLOTS)
+        {
+            throw new IllegalArgumentException(
+                    "Slots cannot be less than " + MINIMUM_SLOTS + ".");
+        }
+
+        final int slotCount;
+        slotCount = slots == MINIMUM_SLOTS ? MINIMUM_SLOTS : Integer.highestOneBit(slots - 1) << 1;
+
+        this.slotHeads   = new int[slotCount];
+        this.slotMask    = slotCount - 1;
+        this.creatures   = new Creature[INITIAL_TIMERS];
+        this.callbacks   = (Consumer<Creature>[]) new Consumer<?>[INITIAL_TIMERS];
+        this.kinds       = new byte[INITIAL_TIMERS];
+        this.dueTicks    = new long[INITIAL_TIMERS];
+        this.amounts     = new int[INITIAL_TIMERS];
+        this.periods     = new int[INITIAL_TIMERS];
+        this.generations = new int[INITIAL_TIMERS];
+        this.next        = new int[INITIAL_TIMERS];
+        this.previous    = new int[INITIAL_TIMERS];
+        this.dueScratch  = new int[INITIAL_TIMERS];
+        this.freeHead    = NONE;
+
+        Arrays.fill(slotHeads, NONE);
+    }
+
+    /**
+     * Heals a creature by an amount every few ticks, starting a period from now.
+     *
+     * @param creature The creature to heal
+     * @param amount The health restored each time
+     * @param everyTicks The number of ticks between two heals
+     * @return the handle of the timer, for {@link #cancel(long)}
+     */
+    public long scheduleHealthRegeneration(final Creature creature,
+                                           final int      amount,
+                                           final int      everyTicks)
+    {
+        validateCreature(creature);
+
+        return schedule(creature, null, HEALTH_REGENERATION, amount, everyTicks);
+    }
+
+    /**
+     * Restores the firepower of a {@link Dragon}, the mana of an {@link Elf}
+     * or the resource of a {@link ConfiguredCreature} every few ticks.
+     *
+     * @param creature The creature to restore
+     * @param amount The resource restored each time
+     * @param everyTicks The number of ticks between two restores
+     * @return the handle of the timer, for {@link #cancel(long)}
+     * @throws IllegalArgumentException if the creature has no resource that can be restored
+     */
+    public long scheduleResourceRegeneration(final Creature creature,
+                                             final int      amount,
+                                             final int      everyTicks)
+    {
+        validateCreature(creature);
+
+        if (!(creature instanceof Dragon) &&
+            !(creature instanceof Elf) &&
+            !(creature instanceof ConfiguredCreature))
+        {
+            throw new IllegalArgumentException(
+                    "Only a Dragon, an Elf or a ConfiguredCreature can regenerate a resource.");
+        }
+
+        return schedule(creature, null, RESOURCE_REGENERATION, amount, everyTicks);
+    }
+
+    /**
+     * Starts a cooldown. When it ends, the callback is called once with
+     * the creature, for example to make an ability usable again.
+     *
+     * @param creature The creature whose ability is cooling down
+     * @param ticks The length of the cooldown in ticks
+     * @param onReady The callback called when the cooldown ends
+     * @return the handle of the timer, for {@link #isPending(long)} and {@link #cancel(long)}
+     */
+    public long scheduleCooldown(final Creature           creature,
+                                 final int                ticks,
+                                 final Consumer<Creature> onReady)
+    {
+        validateCreature(creature);
+
+        if (onReady == null)
+        {
+            throw new IllegalArgumentException(
+                    "Callback cannot be null.");
+        }
+
+        return schedule(creature, onReady, COOLDOWN, MINIMUM_AMOUNT, ticks);
+    }
+
+    /**
+     * Checks if a timer is still scheduled.
+     *
+     * @param handle The handle of the timer
+     * @return true if the timer has not fired for the last time or been cancelled, false otherwise
+     */
+    public boolean isPending(final long handle)
+    {
+        return indexOf(handle) != NONE;
+    }
+
+    /**
+     * Cancels a timer.
+     *
+     * @param handle The handle of the timer
+     * @return true if the timer was scheduled, false if it had already ended
+     */
+    public boolean cancel(final long handle)
+    {
+        final int index;
+        index = indexOf(handle);
+
+        if (index == NONE)
+        {
+            return false;
+        }
+
+        // a timer taken out by the current tick is in no slot list any more
+        if (previous[index] != TAKEN_OUT)
+        {
+            unlink(index);
+        }
+
+        release(index);
+
+        return true;
+    }
+
+    /**
+     * Moves time forward by one tick and fires every timer due on it.
+     * Cooldown callbacks may schedule and cancel timers. If a callback
+     * throws, the exception is passed on, and the due timers that have
+     * not fired yet fire on the next tick.
+     *
+     * @return the number of timers fired
+     */
+    public int tick()
+    {
+        currentTick++;
+
+        final int slot;
+        int       dueCount;
+
+        slot     = (int) currentTick & slotMask;
+        dueCount = 0;
+
+        // take the due timers out first, so callbacks can schedule and cancel freely
+        for (int index = slotHeads[slot]; index != NONE; )
+        {
+            final int following;
+            following = next[index];
+
+            if (dueTicks[index] == currentTick)
+            {
+                unlink(index);
+                previous[index]        = TAKEN_OUT;
+                dueScratch[dueCount++] = index;
+            }
+
+            index = following;
+        }
+
+        int fired;
+        int done;
+
+        fired = 0;
+        done  = 0;
+
+        try
+        {
+            while (done < dueCount)
+            {
+                final int index;
+                index = dueScratch[done++];
+
+                // a callback of this tick may have cancelled the timer, and a new timer may have its index
+                if (kinds[index] == FREE ||
+                    previous[index] != TAKEN_OUT)
+                {
+                    continue;
+                }
+
+                if (fire(index))
+                {
+                    fired++;
+                }
+            }
+        }
+        finally
+        {
+            // only reached with timers left if a callback threw
+            for (int i = done; i < dueCount; i++)
+            {
+                final int index;
+                index = dueScratch[i];
+
+                if (kinds[index] != FREE &&
+                    previous[index] == TAKEN_OUT)
+                {
+                    dueTicks[index] = currentTick + 1;
+                    link(index);
+                }
+            }
+        }
+
+        return fired;
+    }
+
+    /**
+     * Gets the current tick.
+     *
+     * @return the number of ticks since the scheduler was created
+     */
+    public long getCurrentTick()
+    {
+        return currentTick;
+    }
+
+    /**
+     * Gets the number of scheduled timers.
+     *
+     * @return the number of timers
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Fires one due timer, and schedules it again if it repeats.
+     *
+     * @param index The timer
+     * @return true if the timer did something, false if its creature had died
+     */
+    private boolean fire(final int index)
+    {
+        final Creature creature;
+        creature = creatures[index];
+
+        if (!creature.isAlive())
+        {
+            release(index);
+            return false;
+        }
+
+        switch (kinds[index])
+        {
+            case HEALTH_REGENERATION:
+                creature.heal(amounts[index]);
+                break;
+            case RESOURCE_REGENERATION:
+                restoreResource(creature, amounts[index]);
+                break;
+            default:
+                final Consumer<Creature> callback;
+                callback = callbacks[index];
+
+                release(index);
+                callback.accept(creature);
+                return true;
+        }
+
+        dueTicks[index] = currentTick + periods[index];
+        link(index);
+
+        return true;
+    }
+
+    /**
+     * Adds a timer.
+     *
+     * @param creature The creature of the timer
+     * @param callback The callback of a cooldown, or null
+     * @param kind The kind of timer
+     * @param amount The amount regenerated
+     * @param ticks The period or length of the timer
+     * @return the handle of the timer
+     */
+    private long schedule(final Creature           creature,
+                          final Consumer<Creature> callback,
+                          final byte               kind,
+                          final int                amount,
+                          final int                ticks)
+    {
+        if (amount < MINIMUM_AMOUNT)
+        {
+            throw new IllegalArgumentException(
+                    "Amount cannot be less than " + MINIMUM_AMOUNT + ".");
+        }
+
+        if (ticks < MINIMUM_TICKS)
+        {
+            throw new IllegalArgumentException(
+                    "Ticks cannot be less than " + MINIMUM_TICKS + ".");
+        }
+
+        final int index;
+        index = allocate();
+
+        creatures[index] = creature;
+        callbacks[index] = callback;
+        kinds[index]     = kind;
+        amounts[index]   = amount;
+        periods[index]   = ticks;
+        dueTicks[index]  = currentTick + ticks;
+
+        link(index);
+
+        return ((long) generations[index] << INDEX_BITS) | index;
+    }
+
+    /**
+     * Finds the timer of a handle.
+     *
+     * @param handle The handle
+     * @return the index of the timer, or {@value NONE} if it has ended
+     */
+    private int indexOf(final long handle)
+    {
+        final int index;
+        final int generation;
+
+        index      = (int) (handle & INDEX_MASK);
+        generation = (int) (handle >>> INDEX_BITS);
+
+        if (index < 0 ||
+            index >= used ||
+            kinds[index] == FREE ||
+            generations[index] != generation)
+        {
+            return NONE;
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds a timer to the front of the list of its slot.
+     *
+     * @param index The timer
+     */
+    private void link(final int index)
+    {
+        final int slot;
+        final int head;
+
+        slot = (int) dueTicks[index] & slotMask;
+        head = slotHeads[slot];
+
+        next[index]     = head;
+        previous[index] = NONE;
+
+        if (head != NONE)
+        {
+            previous[head] = index;
+        }
+
+        slotHeads[slot] = index;
+    }
+
+    /**
+     * Removes a timer from the list of its slot.
+     *
+     * @param index The timer
+     */
+    private void unlink(final int index)
+    {
+        final int before;
+        final int after;
+
+        before = previous[index];
+        after  = next[index];
+
+        if (before == NONE)
+        {
+            slotHeads[(int) dueTicks[index] & slotMask] = after;
+        }
+        else
+        {
+            next[before] = after;
+        }
+
+        if (after != NONE)
+        {
+            previous[after] = before;
+        }
+    }
+
+    /**
+     * Takes a free timer, growing the arrays if needed.
+     *
+     * @return the index of the timer
+     */
+    private int allocate()
+    {
+        final int index;
+
+        if (freeHead != NONE)
+        {
+            index    = freeHead;
+            freeHead = next[index];
+        }
+        else
+        {
+            if (used == creatures.length)
+            {
+                grow();
+            }
+
+            index = used++;
+        }
+
+        size++;
+
+        return index;
+    }
+
+    /**
+     * Puts a timer back on the free list. Its handle stops working.
+     *
+     * @param index The timer, already unlinked from its slot
+     */
+    private void release(final int index)
+    {
+        creatures[index] = null;
+        callbacks[index] = null;
+        kinds[index]     = FREE;
+        next[index]      = freeHead;
+        freeHead         = index;
+        generations[index]++;
+        size--;
+    }
+
+    /**
+     * Doubles the room for timers.
+     */
+    private void grow()
+    {
+        final int capacity;
+        capacity = creatures.length * GROWTH_FACTOR;
+
+        creatures   = Arrays.copyOf(creatures, capacity);
+        callbacks   = Arrays.copyOf(callbacks, capacity);
+        kinds       = Arrays.copyOf(kinds, capacity);
+        dueTicks    = Arrays.copyOf(dueTicks, capacity);
+        amounts     = Arrays.copyOf(amounts, capacity);
+        periods     = Arrays.copyOf(periods, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        next        = Arrays.copyOf(next, capacity);
+        previous    = Arrays.copyOf(previous, capacity);
+        dueScratch  = Arrays.copyOf(dueScratch, capacity);
+    }
+
+    /**
+     * Restores the resource of a creature.
+     *
+     * @param creature A Dragon, Elf or ConfiguredCreature
+     * @param amount The amount to restore
+     */
+    private static void restoreResource(final Creature creature,
+                                        final int      amount)
+    {
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).restoreFirePower(amount);
+        }
+        else if (creature instanceof Elf)
+        {
+            ((Elf) creature).restoreMana(amount);
+        }
+        else
+        {
+            ((ConfiguredCreature) creature).restoreResource(amount);
+        }
+    }
+
+    /**
+     * Validates the creature of a timer.
+     *
+     * @param creature The creature to validate
+     * @throws IllegalArgumentException if the creature is null
+     */
+    private static void validateCreature(final Creature creature)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creature cannot be null.");
+        }
+    }
+}
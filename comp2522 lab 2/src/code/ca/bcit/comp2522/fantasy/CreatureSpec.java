@@ -0,0 +1,167 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+
+/**
+ * The CreatureSpec class describes a creature configuration
+ * (its type, health, starting resource and balance profile) that can
+ * be turned into new {@link Dragon}, {@link Elf} or {@link Orc} objects
+ * as many times as needed, for example once per simulated duel.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CreatureSpec
+{
+    private static final long DEFAULT_BIRTH_MILLIS = 0L;
+
+    private final CreatureType   type;
+    private final int            health;
+    private final int            resource;
+    private final BalanceProfile profile;
+
+    /**
+     * Constructor for the CreatureSpec class. The creatures fight with
+     * {@link BalanceProfile#DEFAULT}.
+     *
+     * @param type The type of creature
+     * @param health The starting health
+     * @param resource The starting firepower, mana or rage, depending on the type
+     */
+    public CreatureSpec(final CreatureType type,
+                        final int          health,
+                        final int          resource)
+    {
+        this(type,
+             health,
+             resource,
+             BalanceProfile.DEFAULT);
+    }
+
+    /**
+     * Constructor for the CreatureSpec class with a balance profile.
+     *
+     * @param type The type of creature
+     * @param health The starting health
+     * @param resource The starting firepower, mana or rage, depending on the type
+     * @param profile The balance profile the creatures fight with
+     */
+    public CreatureSpec(final CreatureType   type,
+                        final int            health,
+                        final int            resource,
+                        final BalanceProfile profile)
+    {
+        if (type == null)
+        {
+            throw new IllegalArgumentException(
+                    "Type cannot be null.");
+        }
+
+        this.type     = type;
+        this.health   = health;
+        this.resource = resource;
+        this.profile  = profile;
+
+        // creating one creature runs all the validation of the constructors
+        create(type.name());
+    }
+
+    /**
+     * Gets the type of the creature.
+     *
+     * @return the type
+     */
+    public CreatureType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Gets the starting health of the creature.
+     *
+     * @return the starting health
+     */
+    public int getHealth()
+    {
+        return health;
+    }
+
+    /**
+     * Gets the starting firepower, mana or rage of the creature.
+     *
+     * @return the starting resource
+     */
+    public int getResource()
+    {
+        return resource;
+    }
+
+    /**
+     * Gets the balance profile the creatures fight with.
+     *
+     * @return the balance profile
+     */
+    public BalanceProfile getProfile()
+    {
+        return profile;
+    }
+
+    /**
+     * Returns a copy of this configuration that fights with another
+     * balance profile.
+     *
+     * @param profile The balance profile
+     * @return the new configuration
+     * @throws IllegalArgumentException if the profile is null
+     */
+    public CreatureSpec withProfile(final BalanceProfile profile)
+    {
+        return new CreatureSpec(type, health, resource, profile);
+    }
+
+    /**
+     * Creates a new creature from this configuration.
+     *
+     * @param name The name of the new creature
+     * @return the new creature
+     */
+    public Creature create(final String name)
+    {
+        final Date dateOfBirth;
+        dateOfBirth = new Date(DEFAULT_BIRTH_MILLIS);
+
+        switch (type)
+        {
+            case DRAGON:
+                return new Dragon(name, dateOfBirth, health, resource, profile);
+            case ELF:
+                return new Elf(name, dateOfBirth, health, resource, profile);
+            default:
+                return new Orc(name, dateOfBirth, health, resource, profile);
+        }
+    }
+
+    /**
+     * Returns a short description such as "DRAGON(health=100, resource=50)".
+     *
+     * @return the description of the configuration
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder description;
+        description = new StringBuilder();
+
+        description.append(type);
+        description.append("(health=");
+        description.append(health);
+        description.append(", resource=");
+        description.append(resource);
+        description.append(")");
+
+        return description.toString();
+    }
+}
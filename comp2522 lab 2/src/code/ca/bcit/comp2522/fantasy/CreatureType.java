@@ -0,0 +1,67 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The CreatureType enum lists the kinds of creatures that can
+ * fight in the fantasy package, so code that works on plain
+ * numbers (simulations, logs, snapshots) can tell them apart.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public enum CreatureType
+{
+    DRAGON,
+    ELF,
+    ORC;
+
+    private static final CreatureType[] VALUES = values();
+
+    /**
+     * Gets the type with the given ordinal, without copying
+     * the array that {@link #values()} returns.
+     *
+     * @param ordinal The ordinal of the type
+     * @return the type with that ordinal
+     * @throws IllegalArgumentException if there is no type with that ordinal
+     */
+    public static CreatureType fromOrdinal(final int ordinal)
+    {
+        if (ordinal < 0 ||
+            ordinal >= VALUES.length)
+        {
+            throw new IllegalArgumentException(
+                    "Unknown creature type: " + ordinal + ".");
+        }
+
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Gets the type of the given creature.
+     *
+     * @param creature The creature to check
+     * @return the type of the creature
+     * @throws IllegalArgumentException if the creature is not a Dragon, Elf or Orc
+     */
+    public static CreatureType of(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return DRAGON;
+        }
+        if (creature instanceof Elf)
+        {
+            return ELF;
+        }
+        if (creature instanceof Orc)
+        {
+            return ORC;
+        }
+
+        throw new IllegalArgumentException(
+                "Creature must be a Dragon, Elf or Orc.");
+    }
+}
@@ -0,0 +1,41 @@
+package ca.bcit.comp2522.fantasy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The DamageEvent class is a Flight Recorder event for a creature
+ * taking damage. It is off unless a recording enables it, for example
+ * with {@link CombatEvents#enable(jdk.jfr.Recording)}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+@Name(DamageEvent.NAME)
+@Label("Damage")
+@Description("A creature took damage")
+@Category({"Fantasy", "Combat"})
+@Enabled(false)
+@StackTrace(false)
+final class DamageEvent
+        extends jdk.jfr.Event
+{
+    static final String NAME = "ca.bcit.comp2522.fantasy.Damage";
+
+    @Label("Creature Type")
+    String creatureType;
+
+    @Label("Damage")
+    int damage;
+
+    @Label("Health")
+    @Description("Health left after the damage")
+    int health;
+}
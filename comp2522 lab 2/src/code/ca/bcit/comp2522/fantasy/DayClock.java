@@ -0,0 +1,204 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * The DayClock class tells the current day from a {@link Clock} and
+ * keeps it until the next midnight, so asking for "today" costs one
+ * read of the clock and one comparison instead of a date calculation.
+ * Dates are packed as a year and a month-day number, so ages can be
+ * computed with integer arithmetic only.
+ * A DayClock can be shared by many threads.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class DayClock
+{
+    private static final int MONTH_SHIFT                = 5;
+    private static final int BIRTHDAY_NOT_PASSED_OFFSET = 1;
+    private static final int ONE_DAY                    = 1;
+
+    private final Clock    clock;
+    private volatile Today today;
+
+    /**
+     * Constructor for the DayClock class.
+     *
+     * @param clock The clock that tells the current time and time zone
+     * @throws IllegalArgumentException if the clock is null
+     */
+    public DayClock(final Clock clock)
+    {
+        if (clock == null)
+        {
+            throw new IllegalArgumentException(
+                    "Clock cannot be null.");
+        }
+
+        this.clock = clock;
+        this.today = new Today(clock);
+    }
+
+    /**
+     * Gets the clock this DayClock reads.
+     *
+     * @return the clock
+     */
+    public Clock getClock()
+    {
+        return clock;
+    }
+
+    /**
+     * Gets the current time of the clock.
+     *
+     * @return the current time in milliseconds since the epoch
+     */
+    public long millis()
+    {
+        return clock.millis();
+    }
+
+    /**
+     * Gets the current day.
+     *
+     * @return the number of days since 1970-01-01
+     */
+    public long getEpochDay()
+    {
+        return today().epochDay;
+    }
+
+    /**
+     * Gets the year of the current day.
+     *
+     * @return the current year
+     */
+    public int getYear()
+    {
+        return today().year;
+    }
+
+    /**
+     * Calculates an age in full years on the current day.
+     *
+     * @param birthYear The year of birth
+     * @param birthMonthDay The month and day of birth, packed with {@link #packMonthDay(int, int)}
+     * @return the age in years
+     */
+    public int ageYears(final int birthYear,
+                        final int birthMonthDay)
+    {
+        return ageYears(today(), birthYear, birthMonthDay);
+    }
+
+    /**
+     * Gets the local date of an instant in the time zone of the clock.
+     *
+     * @param epochMillis The instant in milliseconds since the epoch
+     * @return the local date
+     */
+    LocalDate toLocalDate(final long epochMillis)
+    {
+        return Instant.ofEpochMilli(epochMillis).atZone(clock.getZone()).toLocalDate();
+    }
+
+    /**
+     * Gets the current day, reading the calendar again only if
+     * the clock has left the day that was cached.
+     *
+     * @return the current day
+     */
+    Today today()
+    {
+        final Today cached;
+        final long  now;
+
+        cached = today;
+        now    = clock.millis();
+
+        if (now >= cached.startMillis &&
+            now < cached.nextDayMillis)
+        {
+            return cached;
+        }
+
+        final Today current;
+        current = new Today(clock);
+
+        today = current;
+
+        return current;
+    }
+
+    /**
+     * Packs a month and a day into one number that sorts like the dates do.
+     *
+     * @param month The month, 1 to 12
+     * @param day The day of the month
+     * @return the packed month and day
+     */
+    static int packMonthDay(final int month,
+                            final int day)
+    {
+        return (month << MONTH_SHIFT) | day;
+    }
+
+    /**
+     * Calculates an age in full years on a given day.
+     *
+     * @param today The day the age is calculated on
+     * @param birthYear The year of birth
+     * @param birthMonthDay The packed month and day of birth
+     * @return the age in years
+     */
+    static int ageYears(final Today today,
+                        final int   birthYear,
+                        final int   birthMonthDay)
+    {
+        int age;
+        age = today.year - birthYear;
+
+        // if the birthday for the current year hasn't occurred yet, subtract 1
+        if (today.monthDay < birthMonthDay)
+        {
+            age -= BIRTHDAY_NOT_PASSED_OFFSET;
+        }
+
+        return age;
+    }
+
+    /**
+     * One day of the clock, with the instants it starts and ends at.
+     */
+    static final class Today
+    {
+        private final long epochDay;
+        private final int  year;
+        private final int  monthDay;
+        private final long startMillis;
+        private final long nextDayMillis;
+
+        private Today(final Clock clock)
+        {
+            final ZoneId    zone;
+            final LocalDate date;
+
+            zone = clock.getZone();
+            date = LocalDate.now(clock);
+
+            this.epochDay      = date.toEpochDay();
+            this.year          = date.getYear();
+            this.monthDay      = packMonthDay(date.getMonthValue(), date.getDayOfMonth());
+            this.startMillis   = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            this.nextDayMillis = date.plusDays(ONE_DAY).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The DetailsFormat enum tells a {@link DetailsWriter} how to write
+ * the details of creatures.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public enum DetailsFormat
+{
+    /**
+     * The text {@link Creature#getDetails()} prints.
+     */
+    TEXT,
+
+    /**
+     * One JSON object per line, as written by {@link Creature#appendJson(StringBuilder)}.
+     */
+    JSON_LINES
+}
@@ -0,0 +1,261 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The DetailsWriter class writes the details of many creatures to one
+ * sink, as text or as JSON lines. The details are built in a buffer
+ * that is reused for every creature and written out in large chunks, so
+ * a whole arena costs a few writes instead of a few synchronized console
+ * writes per creature. {@link #writeAll(Iterable)} flushes the sink once
+ * per batch; {@link #write(Creature)} only flushes when asked to.
+ * A DetailsWriter is not thread-safe.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class DetailsWriter
+        implements Closeable,
+                   Flushable
+{
+    private static final int    DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int    MINIMUM_BUFFER_SIZE = 1;
+    private static final char   JSON_LINE_END       = '\n';
+    private static final char   QUOTE               = '"';
+    private static final char   BACKSLASH           = '\\';
+    private static final char   FIRST_PRINTABLE     = ' ';
+    private static final String UNICODE_ESCAPE      = "\\u";
+    private static final int    HEX_DIGITS          = 4;
+    private static final int    HEX_RADIX           = 16;
+    private static final int    BITS_PER_HEX_DIGIT  = 4;
+    private static final int    HEX_DIGIT_MASK      = 0xF;
+
+    private final Writer        out;
+    private final DetailsFormat format;
+    private final StringBuilder buffer;
+    private final char[]        chunk;
+
+    /**
+     * Constructor for the DetailsWriter class, with a 64 KiB buffer.
+     *
+     * @param out The sink, for example a file writer
+     * @param format The format of the details
+     */
+    public DetailsWriter(final Writer        out,
+                         final DetailsFormat format)
+    {
+        this(out,
+             format,
+             DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for the DetailsWriter class that writes UTF-8 to a stream.
+     *
+     * @param out The sink, for example {@code System.out}
+     * @param format The format of the details
+     */
+    public DetailsWriter(final OutputStream  out,
+                         final DetailsFormat format)
+    {
+        this(out == null ? null : new OutputStreamWriter(out, StandardCharsets.UTF_8),
+             format,
+             DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for the DetailsWriter class.
+     *
+     * @param out The sink
+     * @param format The format of the details
+     * @param bufferSize The number of characters buffered before they are written to the sink
+     * @throws IllegalArgumentException if out or format is null, or bufferSize is less
+     * than {@value MINIMUM_BUFFER_SIZE}
+     */
+    public DetailsWriter(final Writer        out,
+                         final DetailsFormat format,
+                         final int           bufferSize)
+    {
+        if (out == null ||
+            format == null)
+        {
+            throw new IllegalArgumentException(
+                    "Sink and format cannot be null.");
+        }
+
+        if (bufferSize < MINIMUM_BUFFER_SIZE)
+        {
+            throw new IllegalArgumentException(
+                    "Buffer size cannot be less than " + MINIMUM_BUFFER_SIZE + ".");
+        }
+
+        this.out    = out;
+        this.format = format;
+        this.buffer = new StringBuilder(bufferSize);
+        this.chunk  = new char[bufferSize];
+    }
+
+    /**
+     * Writes the details of one creature. They reach the sink when the
+     * buffer is full, or on {@link #flush()} or {@link #close()}.
+     *
+     * @param creature The creature
+     * @throws IOException if the sink cannot be written
+     * @throws IllegalArgumentException if the creature is null
+     */
+    public void write(final Creature creature)
+            throws IOException
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creature cannot be null.");
+        }
+
+        if (format == DetailsFormat.TEXT)
+        {
+            creature.appendDetails(buffer);
+        }
+        else
+        {
+            creature.appendJson(buffer);
+            buffer.append(JSON_LINE_END);
+        }
+
+        if (buffer.length() >= chunk.length)
+        {
+            drain();
+        }
+    }
+
+    /**
+     * Writes the details of many creatures and flushes the sink once.
+     *
+     * @param creatures The creatures
+     * @throws IOException if the sink cannot be written
+     * @throws IllegalArgumentException if creatures or one of them is null
+     */
+    public void writeAll(final Iterable<? extends Creature> creatures)
+            throws IOException
+    {
+        if (creatures == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creatures cannot be null.");
+        }
+
+        for (final Creature creature : creatures)
+        {
+            write(creature);
+        }
+
+        flush();
+    }
+
+    /**
+     * Writes everything buffered to the sink and flushes it.
+     *
+     * @throws IOException if the sink cannot be written
+     */
+    @Override
+    public void flush()
+            throws IOException
+    {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the sink.
+     *
+     * @throws IOException if the sink cannot be written or closed
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        try
+        {
+            drain();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Appends a string as a JSON string literal, with quotes, and with
+     * quotes, backslashes and control characters escaped.
+     *
+     * @param json The builder to append to
+     * @param value The string
+     */
+    static void appendJsonString(final StringBuilder json,
+                                 final String        value)
+    {
+        json.append(QUOTE);
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            final char c;
+            c = value.charAt(i);
+
+            if (c == QUOTE ||
+                c == BACKSLASH)
+            {
+                json.append(BACKSLASH);
+                json.append(c);
+            }
+            else if (c < FIRST_PRINTABLE)
+            {
+                json.append(UNICODE_ESCAPE);
+
+                for (int digit = HEX_DIGITS - 1; digit >= 0; digit--)
+                {
+                    json.append(Character.forDigit((c >> (digit * BITS_PER_HEX_DIGIT)) & HEX_DIGIT_MASK,
+                                                   HEX_RADIX));
+                }
+            }
+            else
+            {
+                json.append(c);
+            }
+        }
+
+        json.append(QUOTE);
+    }
+
+    /**
+     * Writes the buffer to the sink in chunks, without flushing it,
+     * and empties the buffer.
+     *
+     * @throws IOException if the sink cannot be written
+     */
+    private void drain()
+            throws IOException
+    {
+        final int length;
+        length = buffer.length();
+
+        for (int start = 0; start < length; start += chunk.length)
+        {
+            final int end;
+            end = Math.min(length, start + chunk.length);
+
+            buffer.getChars(start, end, chunk, 0);
+            out.write(chunk, 0, end - start);
+        }
+
+        buffer.setLength(0);
+    }
+}
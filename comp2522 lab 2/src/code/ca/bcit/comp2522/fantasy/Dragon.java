@@ -1,5 +1,7 @@
 package ca.bcit.comp2522.fantasy;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Date;
 
 /**
@@ -18,13 +20,21 @@ import java.util.Date;
  */
 public class Dragon extends Creature {
 
-    private static final int MINIMUM_FIRE_POWER   = 0;
-    private static final int MAXIMUM_FIRE_POWER   = 100;
+    static final int MINIMUM_FIRE_POWER   = 0;
+    static final int MAXIMUM_FIRE_POWER   = 100;
 
-    private static final int FIRE_POWER_DECREMENT = 10;
-    private static final int BREATHE_FIRE_DAMAGE  = 20;
+    static final int FIRE_POWER_DECREMENT = 10;
+    static final int BREATHE_FIRE_DAMAGE  = 20;
 
-    private int firePower;
+    private static final LowFirePowerException NOT_ENOUGH_FIRE_POWER =
+            new LowFirePowerException("Not enough firePower to breathe fire! ", false);
+
+    private static final VarHandle FIRE_POWER =
+            findVarHandle(MethodHandles.lookup(), Dragon.class, "firePower");
+
+    private final BalanceProfile profile;
+    private final int            initialFirePower;
+    private       int            firePower;
 
     /**
      * Constructor for the Dragon class.
@@ -38,44 +48,200 @@ public class Dragon extends Creature {
                   final Date dateOfBirth,
                   final int health,
                   final int firePower)
+    {
+        this(name,
+             dateOfBirth,
+             health,
+             firePower,
+             BalanceProfile.DEFAULT);
+    }
+
+    /**
+     * Constructor for the Dragon class with its own balance profile.
+     *
+     * @param name The name of the dragon
+     * @param dateOfBirth The birthdate of the dragon
+     * @param health The health of the dragon
+     * @param firePower The initial firepower of the dragon
+     * @param profile The damage and firepower cost of its fire
+     */
+    public Dragon(final String         name,
+                  final Date           dateOfBirth,
+                  final int            health,
+                  final int            firePower,
+                  final BalanceProfile profile)
     {
         super(name,
               dateOfBirth,
               health);
 
         validateFirePower(firePower);
+        validateProfile(profile);
 
-        this.firePower = firePower;
+        this.profile          = profile;
+        this.initialFirePower = firePower;
+        this.firePower        = firePower;
     }
 
     /**
-     * Prints details of the dragon, including inherited fields
+     * Gets the current firepower of the dragon.
+     *
+     * @return the firepower of the dragon
+     */
+    public int getFirePower()
+    {
+        if (isConcurrent())
+        {
+            return (int) FIRE_POWER.getVolatile(this);
+        }
+
+        return firePower;
+    }
+
+    /**
+     * Gets the balance profile the dragon fights with.
+     *
+     * @return the balance profile
+     */
+    public BalanceProfile getBalanceProfile()
+    {
+        return profile;
+    }
+
+    /**
+     * Appends details of the dragon, including inherited fields
      * from Creature and firePower.
+     *
+     * @param details The builder to append to
+     */
+    @Override
+    public void appendDetails(final StringBuilder details)
+    {
+        super.appendDetails(details);
+
+        details.append("Fire Power: ");
+        details.append(getFirePower());
+        details.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends the firepower of the dragon as a JSON field.
+     *
+     * @param json The builder to append to
      */
     @Override
-    public void getDetails()
+    protected void appendJsonFields(final StringBuilder json)
     {
-        super.getDetails();
-        System.out.println("Fire Power: " + firePower);
+        json.append(",\"firePower\":");
+        json.append(getFirePower());
     }
 
     /**
      * Allows the dragon to breathe fire at another Creature.
      * Consumes firepower and reduces the target's health.
+     * The exception thrown is shared and has no stack trace,
+     * so failing is cheap.
      *
      * @param target The Creature to attack with fire
-     * @throws LowFirePowerException if firePower is lower than {@value FIRE_POWER_DECREMENT}
+     * @throws LowFirePowerException if firePower is lower than the firepower cost of its balance profile
      */
     public void breatheFire(final Creature target)
             throws LowFirePowerException
     {
-        if (firePower < FIRE_POWER_DECREMENT)
+        if (tryBreatheFire(target) != ActionResult.SUCCESS)
+        {
+            CombatEvents.failure(this, CombatEvents.BREATHE_FIRE, LowFirePowerException.class);
+
+            throw NOT_ENOUGH_FIRE_POWER;
+        }
+    }
+
+    /**
+     * Tries to breathe fire at another Creature without throwing
+     * when there is not enough firepower.
+     *
+     * @param target The Creature to attack with fire
+     * @return {@link ActionResult#SUCCESS} if the fire was breathed, or
+     * {@link ActionResult#NOT_ENOUGH_RESOURCE} if firePower is lower than the firepower cost of its balance profile
+     */
+    public ActionResult tryBreatheFire(final Creature target)
+    {
+        final CombatActionEvent event;
+        final int               damage;
+
+        event  = CombatEvents.beginAction();
+        damage = profile.getBreatheFireDamage();
+
+        if (!spendFirePower())
+        {
+            CombatEvents.endAction(event, this, CombatEvents.BREATHE_FIRE, target,
+                                   ActionResult.NOT_ENOUGH_RESOURCE, CombatEvents.NO_DAMAGE);
+
+            return ActionResult.NOT_ENOUGH_RESOURCE;
+        }
+        target.takeDamage(damage);
+
+        CombatEvents.endAction(event, this, CombatEvents.BREATHE_FIRE, target,
+                               ActionResult.SUCCESS, damage);
+
+        return ActionResult.SUCCESS;
+    }
+
+    /**
+     * Allows the dragon to breathe fire around itself on a battlefield.
+     * Consumes firepower once and damages every other living creature
+     * within the radius. Only the cells near the dragon are searched.
+     *
+     * @param battlefield The grid that holds this dragon and the targets
+     * @param radius The radius of the fire around the dragon
+     * @return the number of creatures hit
+     * @throws LowFirePowerException if firePower is lower than the firepower cost of its balance profile
+     * @throws IllegalArgumentException if this dragon is not on the battlefield, or the
+     * radius is negative or not finite
+     */
+    public int breatheFire(final SpatialGrid battlefield,
+                           final double      radius)
+            throws LowFirePowerException
+    {
+        final double x;
+        final double y;
+        final int    damage;
+
+        final CombatActionEvent event;
+
+        // checked before any firepower is spent
+        SpatialGrid.validateRadius(radius);
+
+        x      = battlefield.getX(this);
+        y      = battlefield.getY(this);
+        damage = profile.getBreatheFireDamage();
+        event  = CombatEvents.beginAction();
+
+        if (!spendFirePower())
         {
-            throw new LowFirePowerException (
-                    "Not enough firePower to breathe fire! ");
+            CombatEvents.endAction(event, this, CombatEvents.BREATHE_FIRE, null,
+                                   ActionResult.NOT_ENOUGH_RESOURCE, CombatEvents.NO_DAMAGE);
+            CombatEvents.failure(this, CombatEvents.BREATHE_FIRE, LowFirePowerException.class);
+
+            throw NOT_ENOUGH_FIRE_POWER;
         }
-        firePower -= FIRE_POWER_DECREMENT;
-        target.takeDamage(BREATHE_FIRE_DAMAGE);
+
+        final int[] hits;
+        hits = new int[1];
+
+        battlefield.forEachWithin(x, y, radius, target ->
+        {
+            if (target != this)
+            {
+                target.takeDamage(damage);
+                hits[0]++;
+            }
+        });
+
+        CombatEvents.endAction(event, this, CombatEvents.BREATHE_FIRE, null,
+                               ActionResult.SUCCESS, hits[0] * damage);
+
+        return hits[0];
     }
 
     /**
@@ -92,12 +258,109 @@ public class Dragon extends Creature {
                     "Amount cannot be less than " + MINIMUM_FIRE_POWER + ".");
         }
 
-        firePower += amount;
+        if (isConcurrent())
+        {
+            int current;
+            int updated;
+
+            do
+            {
+                current = (int) FIRE_POWER.getVolatile(this);
+                updated = Math.min(MAXIMUM_FIRE_POWER, current + amount);
+            }
+            while (!FIRE_POWER.compareAndSet(this, current, updated));
+        }
+        else
+        {
+            firePower += amount;
+
+            if(firePower > MAXIMUM_FIRE_POWER)
+            {
+                firePower = MAXIMUM_FIRE_POWER;
+            }
+        }
+
+        notifyResourceRestored(amount);
+    }
+
+    /**
+     * Sets the health and the firepower back to the values the Dragon was
+     * created with.
+     */
+    @Override
+    protected void restoreInitialState()
+    {
+        super.restoreInitialState();
+
+        if (isConcurrent())
+        {
+            FIRE_POWER.setVolatile(this, initialFirePower);
+        }
+        else
+        {
+            firePower = initialFirePower;
+        }
+    }
+
+    /**
+     * Gets the firepower the Dragon was created with.
+     *
+     * @return the initial firepower
+     */
+    int getInitialFirePower()
+    {
+        return initialFirePower;
+    }
+
+    /**
+     * Sets the firepower of a Dragon that was just loaded from a snapshot.
+     *
+     * @param firePower The saved firepower
+     */
+    void loadFirePower(final int firePower)
+    {
+        this.firePower = firePower;
+    }
+
+    /**
+     * Spends the firepower of one breath, if there is enough.
+     * In concurrent mode the check and the decrement are one atomic step.
+     *
+     * @return true if the firepower was spent, false if there was not enough
+     */
+    private boolean spendFirePower()
+    {
+        final int cost;
+        cost = profile.getFirePowerCost();
 
-        if(firePower > MAXIMUM_FIRE_POWER)
+        if (isConcurrent())
         {
-            firePower = MAXIMUM_FIRE_POWER;
+            int current;
+
+            do
+            {
+                current = (int) FIRE_POWER.getVolatile(this);
+
+                if (current < cost)
+                {
+                    return false;
+                }
+            }
+            while (!FIRE_POWER.compareAndSet(this, current, current - cost));
+        }
+        else
+        {
+            if (firePower < cost)
+            {
+                return false;
+            }
+
+            firePower -= cost;
         }
+
+        notifyResourceSpent(cost);
+
+        return true;
     }
 
     /**
@@ -126,6 +389,21 @@ public class Dragon extends Creature {
                     errorMessages.toString());
         }
     }
+
+    /**
+     * Validates the balance profile of the dragon.
+     *
+     * @param profile The profile to validate
+     * @throws IllegalArgumentException if the profile is null
+     */
+    private static void validateProfile(final BalanceProfile profile)
+    {
+        if (profile == null)
+        {
+            throw new IllegalArgumentException(
+                    "Balance profile cannot be null.");
+        }
+    }
 }
 
 
@@ -0,0 +1,186 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Duel class fights two creatures against each other, turn by turn,
+ * until one of them dies or the turn limit is reached.
+ * On its turn a creature attacks with its own action if it can hit
+ * and has enough resource. A dragon or elf without enough resource
+ * recovers a random amount instead, and an orc without enough rage waits.
+ * All the randomness comes from the {@link SplittableRandom} that is
+ * passed in, so the same seed always gives the same fight.
+ * One Duel object is meant to be used by one thread at a time.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class Duel
+{
+    /**
+     * Result of a fight won by the first creature.
+     */
+    public static final int FIRST_WINS  = 1;
+
+    /**
+     * Result of a fight won by the second creature.
+     */
+    public static final int SECOND_WINS = 2;
+
+    /**
+     * Result of a fight that reached the turn limit.
+     */
+    public static final int DRAW        = 0;
+
+    static final int MINIMUM_RECOVERY      = 1;
+    static final int MAXIMUM_FIRE_RECOVERY = 20;
+    static final int MAXIMUM_MANA_RECOVERY = 10;
+
+    private static final int    MINIMUM_TURNS = 1;
+    private static final double HIT_CHANCE    = 0.85;
+
+    private final int maximumTurns;
+    private       int turns;
+
+    /**
+     * Constructor for the Duel class.
+     *
+     * @param maximumTurns The number of turns after which the fight is a draw
+     */
+    public Duel(final int maximumTurns)
+    {
+        if (maximumTurns < MINIMUM_TURNS)
+        {
+            throw new IllegalArgumentException(
+                    "Maximum turns cannot be less than " + MINIMUM_TURNS + ".");
+        }
+
+        this.maximumTurns = maximumTurns;
+    }
+
+    /**
+     * Fights two creatures. A coin flip decides who moves first.
+     *
+     * @param first The first creature
+     * @param second The second creature
+     * @param random The source of randomness for this fight
+     * @return {@value FIRST_WINS}, {@value SECOND_WINS} or {@value DRAW}
+     */
+    public int fight(final Creature         first,
+                     final Creature         second,
+                     final SplittableRandom random)
+    {
+        Creature attacker;
+        Creature defender;
+
+        if (random.nextBoolean())
+        {
+            attacker = first;
+            defender = second;
+        }
+        else
+        {
+            attacker = second;
+            defender = first;
+        }
+
+        turns = 0;
+
+        while (first.isAlive() &&
+               second.isAlive() &&
+               turns < maximumTurns)
+        {
+            takeTurn(attacker, defender, random);
+            turns++;
+
+            final Creature next;
+            next     = attacker;
+            attacker = defender;
+            defender = next;
+        }
+
+        if (!second.isAlive() && first.isAlive())
+        {
+            return FIRST_WINS;
+        }
+        if (!first.isAlive() && second.isAlive())
+        {
+            return SECOND_WINS;
+        }
+
+        return DRAW;
+    }
+
+    /**
+     * Gets the number of turns of the last fight.
+     *
+     * @return the number of turns
+     */
+    public int getTurns()
+    {
+        return turns;
+    }
+
+    /**
+     * Uses the attack of any Dragon, Elf or Orc on a target.
+     *
+     * @param attacker The attacking creature
+     * @param target The creature being attacked
+     * @return the result of the attack
+     */
+    public static ActionResult attack(final Creature attacker,
+                                      final Creature target)
+    {
+        if (attacker instanceof Dragon)
+        {
+            return ((Dragon) attacker).tryBreatheFire(target);
+        }
+        if (attacker instanceof Elf)
+        {
+            return ((Elf) attacker).tryCastSpell(target);
+        }
+        if (attacker instanceof Orc)
+        {
+            return ((Orc) attacker).tryBerserk(target);
+        }
+
+        throw new IllegalArgumentException(
+                "Attacker must be a Dragon, Elf or Orc.");
+    }
+
+    /**
+     * Plays one turn of the attacker.
+     *
+     * @param attacker The creature whose turn it is
+     * @param defender The other creature
+     * @param random The source of randomness
+     */
+    private static void takeTurn(final Creature         attacker,
+                                 final Creature         defender,
+                                 final SplittableRandom random)
+    {
+        if (random.nextDouble() >= HIT_CHANCE)
+        {
+            return;
+        }
+
+        if (attack(attacker, defender) == ActionResult.SUCCESS)
+        {
+            return;
+        }
+
+        if (attacker instanceof Dragon)
+        {
+            ((Dragon) attacker).restoreFirePower(
+                    random.nextInt(MINIMUM_RECOVERY, MAXIMUM_FIRE_RECOVERY + 1));
+        }
+        else if (attacker instanceof Elf)
+        {
+            ((Elf) attacker).restoreMana(
+                    random.nextInt(MINIMUM_RECOVERY, MAXIMUM_MANA_RECOVERY + 1));
+        }
+    }
+}
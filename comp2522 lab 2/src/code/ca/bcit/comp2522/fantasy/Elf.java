@@ -1,5 +1,7 @@
 package ca.bcit.comp2522.fantasy;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Date;
 
 /**
@@ -20,13 +22,21 @@ import java.util.Date;
  */
 public class Elf extends Creature
 {
-    private static final int MINIMUM_MANA        = 0;
-    private static final int MAXIMUM_MANA        = 50;
+    static final int MINIMUM_MANA        = 0;
+    static final int MAXIMUM_MANA        = 50;
 
-    private static final int MANA_COST_PER_SPELL = 5;
-    private static final int SPELL_DAMAGE        = 10;
+    static final int MANA_COST_PER_SPELL = 5;
+    static final int SPELL_DAMAGE        = 10;
 
-    private int mana;
+    private static final LowManaException NOT_ENOUGH_MANA =
+            new LowManaException("The mana cannot be less than " + MANA_COST_PER_SPELL + ".", false);
+
+    private static final VarHandle MANA =
+            findVarHandle(MethodHandles.lookup(), Elf.class, "mana");
+
+    private final BalanceProfile profile;
+    private final int            initialMana;
+    private       int            mana;
 
     /**
      * Constructor for the Elf class.
@@ -41,46 +51,144 @@ public class Elf extends Creature
                final Date dateOfBirth,
                final int health,
                final int mana)
+    {
+        this(name,
+             dateOfBirth,
+             health,
+             mana,
+             BalanceProfile.DEFAULT);
+    }
+
+    /**
+     * Constructor for the Elf class with its own balance profile.
+     *
+     * @param name The name of the Elf
+     * @param dateOfBirth The birthdate of the Elf
+     * @param health The health value of the Elf
+     * @param mana The initial mana value of the Elf
+     * @param profile The damage and mana cost of its spells
+     */
+    public Elf(final String         name,
+               final Date           dateOfBirth,
+               final int            health,
+               final int            mana,
+               final BalanceProfile profile)
     {
         super(name,
               dateOfBirth,
               health);
 
         validateMana(mana);
+        validateProfile(profile);
 
-        this.mana = mana;
+        this.profile     = profile;
+        this.initialMana = mana;
+        this.mana        = mana;
+    }
+
+    /**
+     * Gets the current mana of the Elf.
+     *
+     * @return the mana of the Elf
+     */
+    public int getMana()
+    {
+        if (isConcurrent())
+        {
+            return (int) MANA.getVolatile(this);
+        }
+
+        return mana;
+    }
+
+    /**
+     * Gets the balance profile the Elf fights with.
+     *
+     * @return the balance profile
+     */
+    public BalanceProfile getBalanceProfile()
+    {
+        return profile;
     }
 
     /**
-     * Prints the details of the Elf, including inherited
+     * Appends the details of the Elf, including inherited
      * attributes and the mana value.
+     *
+     * @param details The builder to append to
      */
     @Override
-    public void getDetails()
+    public void appendDetails(final StringBuilder details)
     {
-        super.getDetails();
-        System.out.println("Mana: " + mana);
+        super.appendDetails(details);
+
+        details.append("Mana: ");
+        details.append(getMana());
+        details.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends the mana of the Elf as a JSON field.
+     *
+     * @param json The builder to append to
+     */
+    @Override
+    protected void appendJsonFields(final StringBuilder json)
+    {
+        json.append(",\"mana\":");
+        json.append(getMana());
     }
 
     /**
      * Allows the Elf to cast a spell on a target Creature.
      * Consumes mana and inflicts damage on the target.
+     * The exception thrown is shared and has no stack trace,
+     * so failing is cheap.
      *
      * @param target The Creature being attacked
-     * @throws LowManaException if mana is less than {@value MANA_COST_PER_SPELL}
+     * @throws LowManaException if mana is less than the mana cost of its balance profile
      */
     public void castSpell(final Creature target)
             throws LowManaException
     {
-        if(mana < MANA_COST_PER_SPELL)
+        if(tryCastSpell(target) != ActionResult.SUCCESS)
+        {
+            CombatEvents.failure(this, CombatEvents.CAST_SPELL, LowManaException.class);
+
+            throw NOT_ENOUGH_MANA;
+        }
+    }
+
+    /**
+     * Tries to cast a spell on a target Creature without throwing
+     * when there is not enough mana.
+     *
+     * @param target The Creature being attacked
+     * @return {@link ActionResult#SUCCESS} if the spell was cast, or
+     * {@link ActionResult#NOT_ENOUGH_RESOURCE} if mana is less than the mana cost of its balance profile
+     */
+    public ActionResult tryCastSpell(final Creature target)
+    {
+        final CombatActionEvent event;
+        final int               damage;
+
+        event  = CombatEvents.beginAction();
+        damage = profile.getSpellDamage();
+
+        if(!spendMana())
         {
-            throw new LowManaException(
-                    "The mana cannot be less than " + MANA_COST_PER_SPELL + ".");
+            CombatEvents.endAction(event, this, CombatEvents.CAST_SPELL, target,
+                                   ActionResult.NOT_ENOUGH_RESOURCE, CombatEvents.NO_DAMAGE);
+
+            return ActionResult.NOT_ENOUGH_RESOURCE;
         }
 
-        mana -= MANA_COST_PER_SPELL;
+        target.takeDamage(damage);
+
+        CombatEvents.endAction(event, this, CombatEvents.CAST_SPELL, target,
+                               ActionResult.SUCCESS, damage);
 
-        target.takeDamage(SPELL_DAMAGE);
+        return ActionResult.SUCCESS;
     }
 
 
@@ -98,12 +206,109 @@ public class Elf extends Creature
                     "Restore amount cannot be less than " + MINIMUM_MANA + ".");
         }
 
-        mana += amount;
+        if(isConcurrent())
+        {
+            int current;
+            int updated;
+
+            do
+            {
+                current = (int) MANA.getVolatile(this);
+                updated = Math.min(MAXIMUM_MANA, current + amount);
+            }
+            while(!MANA.compareAndSet(this, current, updated));
+        }
+        else
+        {
+            mana += amount;
+
+            if(mana > MAXIMUM_MANA)
+            {
+                mana = MAXIMUM_MANA;
+            }
+        }
+
+        notifyResourceRestored(amount);
+    }
+
+    /**
+     * Sets the health and the mana back to the values the Elf was
+     * created with.
+     */
+    @Override
+    protected void restoreInitialState()
+    {
+        super.restoreInitialState();
+
+        if(isConcurrent())
+        {
+            MANA.setVolatile(this, initialMana);
+        }
+        else
+        {
+            mana = initialMana;
+        }
+    }
+
+    /**
+     * Gets the mana the Elf was created with.
+     *
+     * @return the initial mana
+     */
+    int getInitialMana()
+    {
+        return initialMana;
+    }
+
+    /**
+     * Sets the mana of an Elf that was just loaded from a snapshot.
+     *
+     * @param mana The saved mana
+     */
+    void loadMana(final int mana)
+    {
+        this.mana = mana;
+    }
+
+    /**
+     * Spends the mana of one spell, if there is enough.
+     * In concurrent mode the check and the decrement are one atomic step.
+     *
+     * @return true if the mana was spent, false if there was not enough
+     */
+    private boolean spendMana()
+    {
+        final int cost;
+        cost = profile.getManaCost();
+
+        if(isConcurrent())
+        {
+            int current;
+
+            do
+            {
+                current = (int) MANA.getVolatile(this);
 
-        if(mana > MAXIMUM_MANA)
+                if(current < cost)
+                {
+                    return false;
+                }
+            }
+            while(!MANA.compareAndSet(this, current, current - cost));
+        }
+        else
         {
-            mana = MAXIMUM_MANA;
+            if(mana < cost)
+            {
+                return false;
+            }
+
+            mana -= cost;
         }
+
+        notifyResourceSpent(cost);
+
+        return true;
     }
 
     /**
@@ -131,4 +336,19 @@ public class Elf extends Creature
                     errorMessages.toString());
         }
     }
+
+    /**
+     * Validates the balance profile of the Elf.
+     *
+     * @param profile The profile to validate
+     * @throws IllegalArgumentException if the profile is null
+     */
+    private static void validateProfile(final BalanceProfile profile)
+    {
+        if(profile == null)
+        {
+            throw new IllegalArgumentException(
+                    "Balance profile cannot be null.");
+        }
+    }
 }
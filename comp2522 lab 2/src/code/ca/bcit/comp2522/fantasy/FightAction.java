@@ -0,0 +1,50 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The FightAction enum lists what a creature can do on its turn in a
+ * {@link FightState}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public enum FightAction
+{
+    /**
+     * Breathe fire, cast a spell or go berserk, spending the resource it costs.
+     */
+    ATTACK,
+
+    /**
+     * Restore firepower or mana instead of attacking.
+     */
+    RECOVER,
+
+    /**
+     * Do nothing. Only allowed when no other action is.
+     */
+    WAIT;
+
+    private static final FightAction[] VALUES = values();
+
+    /**
+     * Gets the action with an ordinal.
+     *
+     * @param ordinal The ordinal of the action
+     * @return the action
+     * @throws IllegalArgumentException if no action has the ordinal
+     */
+    public static FightAction fromOrdinal(final int ordinal)
+    {
+        if (ordinal < 0 ||
+            ordinal >= VALUES.length)
+        {
+            throw new IllegalArgumentException(
+                    "Unknown fight action: " + ordinal + ".");
+        }
+
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,525 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The FightSearch class picks the best action of a duel with a negamax
+ * search and alpha-beta pruning over {@link FightState}s. Scores are
+ * for the mover: a win scores {@value WIN_SCORE} minus the turns it
+ * takes, a loss the opposite, and a state at the search horizon scores
+ * the mover's health minus the opponent's.
+ * Results are kept in a transposition table shared by all threads. An
+ * entry is two longs, the state XOR the data and the data itself, so a
+ * reader that sees half of another thread's write finds a key that does
+ * not match and ignores the entry. No locks are taken.
+ * The search runs on several threads at once: every thread searches the
+ * whole tree, starting at a different depth and trying actions in a
+ * different order, and they share what they find through the table.
+ * The first thread's answer is returned.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class FightSearch
+{
+    /**
+     * Score of a fight won right away.
+     */
+    public static final int WIN_SCORE = 30_000;
+
+    private static final int WIN_BOUND  = WIN_SCORE - FightState.MAXIMUM_TURNS;
+    private static final int INFINITY   = WIN_SCORE + 1;
+    private static final int DRAW_SCORE = 0;
+
+    private static final int  MINIMUM_TABLE_BITS = 1;
+    private static final int  MAXIMUM_TABLE_BITS = 24;
+    private static final int  MINIMUM_THREADS    = 1;
+    private static final int  MINIMUM_DEPTH      = 1;
+    private static final int  LONGS_PER_ENTRY    = 2;
+    private static final int  STOP_CHECK_MASK    = 1023;
+    private static final long HASH_MULTIPLIER    = 0x9E3779B97F4A7C15L;
+
+    private static final int  SCORE_OFFSET = 1 << 15;
+    private static final int  DEPTH_SHIFT  = 16;
+    private static final int  BOUND_SHIFT  = 26;
+    private static final int  ACTION_SHIFT = 28;
+    private static final long SCORE_MASK   = 0xFFFFL;
+    private static final long DEPTH_MASK   = 0x3FFL;
+    private static final long FIELD_MASK   = 0x3L;
+    private static final long EMPTY        = 0L;
+
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    private static final FightAction[] ACTIONS   = FightAction.values();
+    private static final int           NO_ACTION = ACTIONS.length;
+
+    private final AtomicLongArray table;
+    private final int             tableMask;
+    private final int             threads;
+
+    /**
+     * Constructor for the FightSearch class.
+     *
+     * @param tableBits The log2 of the number of entries of the transposition table
+     * @param threads The number of threads that search at once
+     * @throws IllegalArgumentException if tableBits or threads is out of range
+     */
+    public FightSearch(final int tableBits,
+                       final int threads)
+    {
+        if (tableBits < MINIMUM_TABLE_BITS ||
+            tableBits > MAXIMUM_TABLE_BITS)
+        {
+            throw new IllegalArgumentException(
+                    "Table bits must be between " + MINIMUM_TABLE_BITS + " and " + MAXIMUM_TABLE_BITS + ".");
+        }
+
+        if (threads < MINIMUM_THREADS)
+        {
+            throw new IllegalArgumentException(
+                    "Threads cannot be less than " + MINIMUM_THREADS + ".");
+        }
+
+        this.table     = new AtomicLongArray(LONGS_PER_ENTRY << tableBits);
+        this.tableMask = (1 << tableBits) - 1;
+        this.threads   = threads;
+    }
+
+    /**
+     * Checks if a score is a win the mover cannot miss.
+     *
+     * @param score The score
+     * @return true if the mover wins whatever the opponent does, false otherwise
+     */
+    public static boolean isWin(final int score)
+    {
+        return score > WIN_BOUND;
+    }
+
+    /**
+     * Checks if a score is a loss the mover cannot avoid.
+     *
+     * @param score The score
+     * @return true if the mover loses whatever it does, false otherwise
+     */
+    public static boolean isLoss(final int score)
+    {
+        return score < -WIN_BOUND;
+    }
+
+    /**
+     * Searches on the common pool.
+     *
+     * @param state The packed state of a fight that is not over
+     * @param depth The number of turns to search ahead
+     * @return the best action and the cost of the search
+     */
+    public FightSearchResult search(final long state,
+                                    final int  depth)
+    {
+        return search(state, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches with the calling thread and helpers on a pool.
+     *
+     * @param state The packed state of a fight that is not over
+     * @param depth The number of turns to search ahead
+     * @param pool The pool that runs the helper threads
+     * @return the best action and the cost of the search
+     * @throws IllegalArgumentException if the fight is over, depth is out of range or pool is null
+     */
+    public FightSearchResult search(final long         state,
+                                    final int          depth,
+                                    final ForkJoinPool pool)
+    {
+        if (FightState.isOver(state))
+        {
+            throw new IllegalArgumentException(
+                    "The fight is already over.");
+        }
+
+        if (depth < MINIMUM_DEPTH ||
+            depth > FightState.MAXIMUM_TURNS)
+        {
+            throw new IllegalArgumentException(
+                    "Depth must be between " + MINIMUM_DEPTH + " and " + FightState.MAXIMUM_TURNS + ".");
+        }
+
+        if (pool == null)
+        {
+            throw new IllegalArgumentException(
+                    "Pool cannot be null.");
+        }
+
+        final Worker[]              workers;
+        final List<ForkJoinTask<?>> helpers;
+        final long                  start;
+        long                        nodes;
+
+        workers = new Worker[threads];
+        helpers = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++)
+        {
+            workers[i] = new Worker(i);
+        }
+
+        start = System.nanoTime();
+
+        for (int i = 1; i < threads; i++)
+        {
+            final Worker helper;
+            helper = workers[i];
+
+            helpers.add(pool.submit(() -> helper.iterate(state, depth)));
+        }
+
+        workers[0].iterate(state, depth);
+
+        for (int i = 1; i < threads; i++)
+        {
+            workers[i].stopped = true;
+        }
+
+        nodes = 0;
+
+        for (final ForkJoinTask<?> helper : helpers)
+        {
+            helper.join();
+        }
+
+        for (final Worker worker : workers)
+        {
+            nodes += worker.nodes;
+        }
+
+        return new FightSearchResult(ACTIONS[workers[0].rootAction],
+                                     workers[0].rootScore,
+                                     depth,
+                                     nodes,
+                                     System.nanoTime() - start);
+    }
+
+    /**
+     * Empties the transposition table. It must not be called during a search.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < table.length(); i++)
+        {
+            table.setPlain(i, EMPTY);
+        }
+    }
+
+    /**
+     * Looks a state up in the table.
+     *
+     * @param state The packed state
+     * @return the data of its entry, or {@value EMPTY} if there is none
+     */
+    private long probe(final long state)
+    {
+        final int  slot;
+        final long key;
+        final long data;
+
+        slot = slotOf(state);
+        key  = table.getOpaque(slot);
+        data = table.getOpaque(slot + 1);
+
+        if ((key ^ data) != state)
+        {
+            return EMPTY;
+        }
+
+        return data;
+    }
+
+    /**
+     * Stores a result in the table, replacing what was there.
+     *
+     * @param state The packed state
+     * @param depth The depth the state was searched to
+     * @param bound Whether the score is exact or a bound
+     * @param action The best action
+     * @param score The score, adjusted with {@link #toTable(int, int)}
+     */
+    private void store(final long state,
+                       final int  depth,
+                       final int  bound,
+                       final int  action,
+                       final int  score)
+    {
+        final int  slot;
+        final long data;
+
+        slot = slotOf(state);
+        data = (score + SCORE_OFFSET) |
+               (long) depth << DEPTH_SHIFT |
+               (long) bound << BOUND_SHIFT |
+               (long) action << ACTION_SHIFT;
+
+        table.setOpaque(slot, state ^ data);
+        table.setOpaque(slot + 1, data);
+    }
+
+    /**
+     * Gets the first of the two longs of the entry of a state.
+     *
+     * @param state The packed state
+     * @return the index in the table
+     */
+    private int slotOf(final long state)
+    {
+        return ((int) ((state * HASH_MULTIPLIER) >>> Integer.SIZE) & tableMask) * LONGS_PER_ENTRY;
+    }
+
+    /**
+     * Makes a win or loss score count turns from the stored state
+     * instead of from the root, so it is right wherever the state is found again.
+     *
+     * @param score The score
+     * @param ply The number of turns from the root
+     * @return the score to store
+     */
+    private static int toTable(final int score,
+                               final int ply)
+    {
+        if (isWin(score))
+        {
+            return score + ply;
+        }
+        if (isLoss(score))
+        {
+            return score - ply;
+        }
+
+        return score;
+    }
+
+    /**
+     * Undoes {@link #toTable(int, int)}.
+     *
+     * @param score The stored score
+     * @param ply The number of turns from the root
+     * @return the score seen from the root
+     */
+    private static int fromTable(final int score,
+                                 final int ply)
+    {
+        if (isWin(score))
+        {
+            return score - ply;
+        }
+        if (isLoss(score))
+        {
+            return score + ply;
+        }
+
+        return score;
+    }
+
+    /**
+     * One thread of the search.
+     */
+    private final class Worker
+    {
+        private final    int     id;
+        private          long    nodes;
+        private          int     rootAction;
+        private          int     rootScore;
+        private          boolean aborted;
+        private volatile boolean stopped;
+
+        /**
+         * Constructor for the Worker class.
+         *
+         * @param id The number of the thread; 0 is the one whose answer counts
+         */
+        private Worker(final int id)
+        {
+            this.id         = id;
+            this.rootAction = NO_ACTION;
+        }
+
+        /**
+         * Searches one more turn ahead each time, until the depth is
+         * reached or the first thread is done. Helpers start one turn
+         * deeper every other thread, so they fill the table ahead of it.
+         *
+         * @param state The packed state
+         * @param depth The depth to reach
+         */
+        private void iterate(final long state,
+                             final int  depth)
+        {
+            for (int d = MINIMUM_DEPTH + (id & 1); d <= depth && !aborted; d++)
+            {
+                negamax(state, d, -INFINITY, INFINITY, 0);
+            }
+        }
+
+        /**
+         * Scores a state for its mover.
+         *
+         * @param state The packed state
+         * @param depth The number of turns left to search
+         * @param alpha The score the mover is already sure of
+         * @param beta The score above which the opponent will avoid this state
+         * @param ply The number of turns from the root
+         * @return the score
+         */
+        private int negamax(final long state,
+                            final int  depth,
+                            final int  alpha,
+                            final int  beta,
+                            final int  ply)
+        {
+            nodes++;
+
+            if (id != 0 &&
+                (nodes & STOP_CHECK_MASK) == 0 &&
+                stopped)
+            {
+                aborted = true;
+            }
+
+            if (aborted)
+            {
+                return DRAW_SCORE;
+            }
+
+            if (FightState.getMoverHealth(state) == Creature.DEAD_HEALTH)
+            {
+                return -(WIN_SCORE - ply);
+            }
+
+            if (FightState.getTurnsLeft(state) == 0)
+            {
+                return DRAW_SCORE;
+            }
+
+            if (depth == 0)
+            {
+                return FightState.getMoverHealth(state) - FightState.getOpponentHealth(state);
+            }
+
+            final long entry;
+            int        tableAction;
+            int        low;
+
+            entry       = probe(state);
+            tableAction = NO_ACTION;
+            low         = alpha;
+
+            if (entry != EMPTY)
+            {
+                tableAction = (int) ((entry >>> ACTION_SHIFT) & FIELD_MASK);
+
+                if (ply > 0 &&
+                    ((entry >>> DEPTH_SHIFT) & DEPTH_MASK) >= depth)
+                {
+                    final int score;
+                    final int bound;
+
+                    score = fromTable((int) (entry & SCORE_MASK) - SCORE_OFFSET, ply);
+                    bound = (int) ((entry >>> BOUND_SHIFT) & FIELD_MASK);
+
+                    if (bound == EXACT ||
+                        bound == LOWER && score >= beta ||
+                        bound == UPPER && score <= alpha)
+                    {
+                        return score;
+                    }
+                }
+            }
+
+            int bestScore;
+            int bestAction;
+
+            bestScore  = -INFINITY;
+            bestAction = NO_ACTION;
+
+            // the table's action first, then the others in an order that differs per thread
+            for (int k = 0; k <= ACTIONS.length; k++)
+            {
+                final int action;
+
+                if (k == 0)
+                {
+                    action = tableAction;
+                }
+                else
+                {
+                    action = (k - 1 + id) % ACTIONS.length;
+                }
+
+                if (action == NO_ACTION ||
+                    k > 0 && action == tableAction ||
+                    !FightState.isLegal(state, ACTIONS[action]))
+                {
+                    continue;
+                }
+
+                final int score;
+                score = -negamax(FightState.apply(state, ACTIONS[action]), depth - 1, -beta, -low, ply + 1);
+
+                if (aborted)
+                {
+                    return DRAW_SCORE;
+                }
+
+                if (score > bestScore)
+                {
+                    bestScore  = score;
+                    bestAction = action;
+                }
+
+                if (score > low)
+                {
+                    low = score;
+                }
+
+                if (low >= beta)
+                {
+                    break;
+                }
+            }
+
+            final int bound;
+
+            if (bestScore <= alpha)
+            {
+                bound = UPPER;
+            }
+            else if (bestScore >= beta)
+            {
+                bound = LOWER;
+            }
+            else
+            {
+                bound = EXACT;
+            }
+
+            store(state, depth, bound, bestAction, toTable(bestScore, ply));
+
+            if (ply == 0)
+            {
+                rootAction = bestAction;
+                rootScore  = bestScore;
+            }
+
+            return bestScore;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The FightSearchResult class holds the action a {@link FightSearch}
+ * chose and what it cost to find it.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class FightSearchResult
+{
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final FightAction action;
+    private final int         score;
+    private final int         depth;
+    private final long        nodes;
+    private final long        nanos;
+
+    /**
+     * Constructor for the FightSearchResult class.
+     *
+     * @param action The best action found
+     * @param score The score of the action for the mover
+     * @param depth The number of turns searched ahead
+     * @param nodes The number of states visited by all threads
+     * @param nanos The time the search took
+     */
+    FightSearchResult(final FightAction action,
+                      final int         score,
+                      final int         depth,
+                      final long        nodes,
+                      final long        nanos)
+    {
+        this.action = action;
+        this.score  = score;
+        this.depth  = depth;
+        this.nodes  = nodes;
+        this.nanos  = nanos;
+    }
+
+    /**
+     * Gets the best action found.
+     *
+     * @return the action
+     */
+    public FightAction getAction()
+    {
+        return action;
+    }
+
+    /**
+     * Gets the score of the best action. {@link FightSearch#isWin(int)}
+     * tells if the score is a win the mover cannot miss.
+     *
+     * @return the score for the mover
+     */
+    public int getScore()
+    {
+        return score;
+    }
+
+    /**
+     * Gets the number of turns searched ahead.
+     *
+     * @return the depth
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Gets the number of states visited by all threads.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Gets the time the search took.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    /**
+     * Gets the speed of the search.
+     *
+     * @return the number of nodes visited per second
+     */
+    public double getNodesPerSecond()
+    {
+        return nanos == 0 ? 0 : nodes * NANOS_PER_SECOND / nanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s (score %d, depth %d, %d nodes, %.0f nodes/s)",
+                             action,
+                             score,
+                             depth,
+                             nodes,
+                             getNodesPerSecond());
+    }
+}
@@ -0,0 +1,346 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The FightState class packs the state of a duel between two Dragons,
+ * Elves or Orcs into one long, and plays actions on it. The state is
+ * always seen from the creature whose turn it is, the mover; after an
+ * action the two creatures swap places. The bits are:
+ * <pre>
+ *  0 - 9   mover health          19 - 28  opponent health
+ * 10 - 16  mover resource        29 - 35  opponent resource
+ * 17 - 18  mover type            36 - 37  opponent type
+ * 38 - 47  turns left
+ * </pre>
+ * Attacks always hit and recovery restores the average of what a
+ * {@link Duel} restores, so the same action always gives the same state.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class FightState
+{
+    /**
+     * The largest number of turns a state can count.
+     */
+    public static final int MAXIMUM_TURNS = 1023;
+
+    static final int FIRE_RECOVERY = (Duel.MINIMUM_RECOVERY + Duel.MAXIMUM_FIRE_RECOVERY) / 2;
+    static final int MANA_RECOVERY = (Duel.MINIMUM_RECOVERY + Duel.MAXIMUM_MANA_RECOVERY) / 2;
+
+    private static final int HEALTH_BITS   = 10;
+    private static final int RESOURCE_BITS = 7;
+    private static final int TYPE_BITS     = 2;
+    private static final int SIDE_BITS     = HEALTH_BITS + RESOURCE_BITS + TYPE_BITS;
+    private static final int TURNS_BITS    = 10;
+
+    private static final int RESOURCE_SHIFT = HEALTH_BITS;
+    private static final int TYPE_SHIFT     = HEALTH_BITS + RESOURCE_BITS;
+    private static final int TURNS_SHIFT    = SIDE_BITS * 2;
+
+    private static final int  HEALTH_MASK   = (1 << HEALTH_BITS) - 1;
+    private static final int  RESOURCE_MASK = (1 << RESOURCE_BITS) - 1;
+    private static final int  TYPE_MASK     = (1 << TYPE_BITS) - 1;
+    private static final long SIDE_MASK     = (1L << SIDE_BITS) - 1;
+    private static final int  TURNS_MASK    = (1 << TURNS_BITS) - 1;
+
+    private static final int DRAGON = CreatureType.DRAGON.ordinal();
+    private static final int ELF    = CreatureType.ELF.ordinal();
+
+    private static final int MINIMUM_TURNS = 0;
+
+    /**
+     * Constructor for the FightState class. It only has static methods.
+     */
+    private FightState()
+    {
+    }
+
+    /**
+     * Packs the state of two creatures.
+     *
+     * @param mover The creature whose turn it is
+     * @param opponent The other creature
+     * @param turnsLeft The number of turns before the fight is a draw
+     * @return the packed state
+     * @throws IllegalArgumentException if a creature is not a Dragon, Elf or Orc,
+     *                                  or turnsLeft is out of range
+     */
+    public static long of(final Creature mover,
+                          final Creature opponent,
+                          final int      turnsLeft)
+    {
+        if (mover == null ||
+            opponent == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creatures cannot be null.");
+        }
+
+        if (turnsLeft < MINIMUM_TURNS ||
+            turnsLeft > MAXIMUM_TURNS)
+        {
+            throw new IllegalArgumentException(
+                    "Turns left must be between " + MINIMUM_TURNS + " and " + MAXIMUM_TURNS + ".");
+        }
+
+        return packSide(mover) |
+               packSide(opponent) << SIDE_BITS |
+               (long) turnsLeft << TURNS_SHIFT;
+    }
+
+    /**
+     * Gets the health of the mover.
+     *
+     * @param state The packed state
+     * @return the health
+     */
+    public static int getMoverHealth(final long state)
+    {
+        return (int) state & HEALTH_MASK;
+    }
+
+    /**
+     * Gets the firepower, mana or rage of the mover.
+     *
+     * @param state The packed state
+     * @return the resource
+     */
+    public static int getMoverResource(final long state)
+    {
+        return (int) (state >>> RESOURCE_SHIFT) & RESOURCE_MASK;
+    }
+
+    /**
+     * Gets the type of the mover.
+     *
+     * @param state The packed state
+     * @return the type
+     */
+    public static CreatureType getMoverType(final long state)
+    {
+        return CreatureType.fromOrdinal((int) (state >>> TYPE_SHIFT) & TYPE_MASK);
+    }
+
+    /**
+     * Gets the health of the opponent.
+     *
+     * @param state The packed state
+     * @return the health
+     */
+    public static int getOpponentHealth(final long state)
+    {
+        return getMoverHealth(state >>> SIDE_BITS);
+    }
+
+    /**
+     * Gets the firepower, mana or rage of the opponent.
+     *
+     * @param state The packed state
+     * @return the resource
+     */
+    public static int getOpponentResource(final long state)
+    {
+        return getMoverResource(state >>> SIDE_BITS);
+    }
+
+    /**
+     * Gets the type of the opponent.
+     *
+     * @param state The packed state
+     * @return the type
+     */
+    public static CreatureType getOpponentType(final long state)
+    {
+        return getMoverType(state >>> SIDE_BITS);
+    }
+
+    /**
+     * Gets the number of turns before the fight is a draw.
+     *
+     * @param state The packed state
+     * @return the turns left
+     */
+    public static int getTurnsLeft(final long state)
+    {
+        return (int) (state >>> TURNS_SHIFT) & TURNS_MASK;
+    }
+
+    /**
+     * Checks if the fight is over, because a creature died or no turns are left.
+     *
+     * @param state The packed state
+     * @return true if the fight is over, false otherwise
+     */
+    public static boolean isOver(final long state)
+    {
+        return getMoverHealth(state) == Creature.DEAD_HEALTH ||
+               getOpponentHealth(state) == Creature.DEAD_HEALTH ||
+               getTurnsLeft(state) == MINIMUM_TURNS;
+    }
+
+    /**
+     * Checks if the mover may take an action.
+     *
+     * @param state The packed state
+     * @param action The action
+     * @return true if the action is allowed, false otherwise
+     */
+    public static boolean isLegal(final long        state,
+                                  final FightAction action)
+    {
+        switch (action)
+        {
+            case ATTACK:
+                return canAttack(state);
+            case RECOVER:
+                return canRecover(state);
+            default:
+                return !canAttack(state) && !canRecover(state);
+        }
+    }
+
+    /**
+     * Plays an action of the mover. The opponent becomes the mover of
+     * the new state, and one turn is used.
+     *
+     * @param state The packed state, of a fight that is not over
+     * @param action A legal action
+     * @return the new state
+     */
+    public static long apply(final long        state,
+                             final FightAction action)
+    {
+        final int type;
+        int       resource;
+        int       damage;
+
+        type     = (int) (state >>> TYPE_SHIFT) & TYPE_MASK;
+        resource = getMoverResource(state);
+        damage   = 0;
+
+        if (action == FightAction.ATTACK)
+        {
+            if (type == DRAGON)
+            {
+                resource -= Dragon.FIRE_POWER_DECREMENT;
+                damage    = Dragon.BREATHE_FIRE_DAMAGE;
+            }
+            else if (type == ELF)
+            {
+                resource -= Elf.MANA_COST_PER_SPELL;
+                damage    = Elf.SPELL_DAMAGE;
+            }
+            else
+            {
+                resource = Math.min(Orc.MAXIMUM_RAGE, resource + Orc.RAGE_INCREMENT);
+                damage   = resource > Orc.DOUBLE_DAMAGE_RAGE ?
+                           Orc.BERSERK_DAMAGE * Orc.DOUBLE_DAMAGE :
+                           Orc.BERSERK_DAMAGE;
+            }
+        }
+        else if (action == FightAction.RECOVER)
+        {
+            resource = type == DRAGON ?
+                       Math.min(Dragon.MAXIMUM_FIRE_POWER, resource + FIRE_RECOVERY) :
+                       Math.min(Elf.MAXIMUM_MANA, resource + MANA_RECOVERY);
+        }
+
+        final long mover;
+        final long opponent;
+
+        mover    = state & SIDE_MASK & ~((long) RESOURCE_MASK << RESOURCE_SHIFT) |
+                   (long) resource << RESOURCE_SHIFT;
+        opponent = (state >>> SIDE_BITS) & SIDE_MASK & ~HEALTH_MASK |
+                   Math.max(Creature.DEAD_HEALTH, getOpponentHealth(state) - damage);
+
+        return opponent |
+               mover << SIDE_BITS |
+               (long) (getTurnsLeft(state) - 1) << TURNS_SHIFT;
+    }
+
+    /**
+     * Checks if the mover has enough resource to attack.
+     *
+     * @param state The packed state
+     * @return true if the mover can attack, false otherwise
+     */
+    private static boolean canAttack(final long state)
+    {
+        final int type;
+        final int resource;
+
+        type     = (int) (state >>> TYPE_SHIFT) & TYPE_MASK;
+        resource = getMoverResource(state);
+
+        if (type == DRAGON)
+        {
+            return resource >= Dragon.FIRE_POWER_DECREMENT;
+        }
+        if (type == ELF)
+        {
+            return resource >= Elf.MANA_COST_PER_SPELL;
+        }
+
+        return resource >= Orc.MINIMUM_BERSERK_RAGE;
+    }
+
+    /**
+     * Checks if the mover can restore its resource.
+     *
+     * @param state The packed state
+     * @return true if the mover is a Dragon or Elf that is not full, false otherwise
+     */
+    private static boolean canRecover(final long state)
+    {
+        final int type;
+        final int resource;
+
+        type     = (int) (state >>> TYPE_SHIFT) & TYPE_MASK;
+        resource = getMoverResource(state);
+
+        if (type == DRAGON)
+        {
+            return resource < Dragon.MAXIMUM_FIRE_POWER;
+        }
+        if (type == ELF)
+        {
+            return resource < Elf.MAXIMUM_MANA;
+        }
+
+        return false;
+    }
+
+    /**
+     * Packs the health, resource and type of one creature.
+     *
+     * @param creature A Dragon, Elf or Orc
+     * @return the packed side
+     */
+    private static long packSide(final Creature creature)
+    {
+        final CreatureType type;
+        final int          resource;
+
+        type = CreatureType.of(creature);
+
+        switch (type)
+        {
+            case DRAGON:
+                resource = ((Dragon) creature).getFirePower();
+                break;
+            case ELF:
+                resource = ((Elf) creature).getMana();
+                break;
+            default:
+                resource = ((Orc) creature).getRage();
+                break;
+        }
+
+        return creature.getHealth() |
+               (long) resource << RESOURCE_SHIFT |
+               (long) type.ordinal() << TYPE_SHIFT;
+    }
+}
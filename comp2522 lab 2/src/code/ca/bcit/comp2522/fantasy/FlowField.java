@@ -0,0 +1,240 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+
+/**
+ * The FlowField class tells every tile of a {@link TerrainMap} which
+ * neighbouring tile is one step closer to a target tile. It is built
+ * with one breadth-first search outward from the target, so every
+ * creature heading for the same target shares it, and a step costs one
+ * array read instead of a path search per creature.
+ * A flow field describes the map as it was when the field was built;
+ * {@link #getVersion()} tells which version that was.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public final class FlowField
+{
+    /**
+     * Distance of a tile from which the target cannot be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final int[] STEP_X = {1, -1, 0, 0};
+    private static final int[] STEP_Y = {0, 0, 1, -1};
+
+    private final int   width;
+    private final int   height;
+    private final int   target;
+    private final long  version;
+    private final int[] next;
+    private final int[] distance;
+
+    /**
+     * Constructor for the FlowField class. Moves are to the four tiles
+     * that share an edge, and every move costs the same.
+     *
+     * @param map The map
+     * @param targetX The column of the target tile
+     * @param targetY The row of the target tile
+     * @throws IllegalArgumentException if the target is not on the map
+     */
+    FlowField(final TerrainMap map,
+              final int        targetX,
+              final int        targetY)
+    {
+        this.width    = map.getWidth();
+        this.height   = map.getHeight();
+        this.target   = map.tile(targetX, targetY);
+        this.version  = map.getVersion();
+        this.next     = new int[width * height];
+        this.distance = new int[width * height];
+
+        Arrays.fill(next, UNREACHABLE);
+        Arrays.fill(distance, UNREACHABLE);
+
+        if (!map.isBlocked(target))
+        {
+            search(map);
+        }
+    }
+
+    /**
+     * Gets the column of the target tile.
+     *
+     * @return the column of the target
+     */
+    public int getTargetX()
+    {
+        return target % width;
+    }
+
+    /**
+     * Gets the row of the target tile.
+     *
+     * @return the row of the target
+     */
+    public int getTargetY()
+    {
+        return target / width;
+    }
+
+    /**
+     * Gets the version of the map this flow field was built for.
+     *
+     * @return the version of the map
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Gets the number of steps from a tile to the target.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return the number of steps, or {@value UNREACHABLE} if the target cannot be reached
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    public int getDistance(final int x,
+                           final int y)
+    {
+        return distance[tile(x, y)];
+    }
+
+    /**
+     * Gets the column of the tile to step to from a tile. The target
+     * steps to itself.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return the column of the next tile, or {@value UNREACHABLE} if the target cannot be reached
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    public int getNextX(final int x,
+                        final int y)
+    {
+        final int step;
+        step = next[tile(x, y)];
+
+        return step == UNREACHABLE ? UNREACHABLE : step % width;
+    }
+
+    /**
+     * Gets the row of the tile to step to from a tile. The target
+     * steps to itself.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return the row of the next tile, or {@value UNREACHABLE} if the target cannot be reached
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    public int getNextY(final int x,
+                        final int y)
+    {
+        final int step;
+        step = next[tile(x, y)];
+
+        return step == UNREACHABLE ? UNREACHABLE : step / width;
+    }
+
+    /**
+     * Gets the index of the tile to step to from a tile, without checks.
+     *
+     * @param tile The index of the tile
+     * @return the index of the next tile, or {@value UNREACHABLE}
+     */
+    int nextTile(final int tile)
+    {
+        return next[tile];
+    }
+
+    /**
+     * Fills the distances and the next tiles with a breadth-first search
+     * from the target. A tile reached from a neighbour steps back to that
+     * neighbour, which is one step closer.
+     *
+     * @param map The map
+     */
+    private void search(final TerrainMap map)
+    {
+        final int[] queue;
+        int         head;
+        int         tail;
+
+        queue = new int[width * height];
+        head  = 0;
+        tail  = 0;
+
+        next[target]     = target;
+        distance[target] = 0;
+        queue[tail++]    = target;
+
+        while (head < tail)
+        {
+            final int tile;
+            final int x;
+            final int y;
+
+            tile = queue[head++];
+            x    = tile % width;
+            y    = tile / width;
+
+            for (int direction = 0; direction < STEP_X.length; direction++)
+            {
+                final int neighbourX;
+                final int neighbourY;
+
+                neighbourX = x + STEP_X[direction];
+                neighbourY = y + STEP_Y[direction];
+
+                if (neighbourX < 0 ||
+                    neighbourX >= width ||
+                    neighbourY < 0 ||
+                    neighbourY >= height)
+                {
+                    continue;
+                }
+
+                final int neighbour;
+                neighbour = neighbourY * width + neighbourX;
+
+                if (distance[neighbour] == UNREACHABLE &&
+                    !map.isBlocked(neighbour))
+                {
+                    next[neighbour]     = tile;
+                    distance[neighbour] = distance[tile] + 1;
+                    queue[tail++]       = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the index of a tile.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return the index of the tile
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    private int tile(final int x,
+                     final int y)
+    {
+        if (x < 0 ||
+            x >= width ||
+            y < 0 ||
+            y >= height)
+        {
+            throw new IllegalArgumentException(
+                    "Tile (" + x + ", " + y + ") is not on the map.");
+        }
+
+        return y * width + x;
+    }
+}
@@ -0,0 +1,41 @@
+package ca.bcit.comp2522.fantasy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The HealEvent class is a Flight Recorder event for a creature
+ * being healed. It is off unless a recording enables it, for example
+ * with {@link CombatEvents#enable(jdk.jfr.Recording)}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+@Name(HealEvent.NAME)
+@Label("Heal")
+@Description("A creature was healed")
+@Category({"Fantasy", "Combat"})
+@Enabled(false)
+@StackTrace(false)
+final class HealEvent
+        extends jdk.jfr.Event
+{
+    static final String NAME = "ca.bcit.comp2522.fantasy.Heal";
+
+    @Label("Creature Type")
+    String creatureType;
+
+    @Label("Amount")
+    int amount;
+
+    @Label("Health")
+    @Description("Health after the healing")
+    int health;
+}
@@ -22,4 +22,17 @@ public class LowFirePowerException
     {
         super(message);
     }
+
+    /**
+     * LowFirePowerException constructor that can leave out the stack trace,
+     * for a shared instance that is thrown many times.
+     * @param message The message to display
+     *                when the exception is thrown.
+     * @param writableStackTrace false to skip filling in the stack trace
+     */
+    LowFirePowerException(final String  message,
+                          final boolean writableStackTrace)
+    {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
 }
@@ -0,0 +1,28 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * A MatchListener is told about every match a {@link Matchmaker} has
+ * fought. It is called on the worker thread that ran the match, so it
+ * must be thread-safe. It may queue the creatures again.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public interface MatchListener
+{
+    /**
+     * Called after a match was fought.
+     *
+     * @param first The creature that waited longer
+     * @param second The creature that arrived last
+     * @param result {@link Duel#FIRST_WINS}, {@link Duel#SECOND_WINS} or {@link Duel#DRAW}
+     * @param turns The number of turns the match took
+     */
+    void onMatchFinished(final Creature first,
+                         final Creature second,
+                         final int      result,
+                         final int      turns);
+}
@@ -0,0 +1,491 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Matchmaker class pairs creatures for faction battles. A creature
+ * is put in a health band of a fixed width, and it fights the creature
+ * of another type in the same band that has waited the longest. Every
+ * band has one lock-free queue per type, so a creature only looks at a
+ * couple of queue heads and pairing takes O(1) amortized time. The
+ * matches are fought on a pool of worker threads, and the time
+ * creatures wait and the number of matches are counted with adders that
+ * any thread can update without contention.
+ * A creature must not be submitted again before its match has finished.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class Matchmaker
+        implements AutoCloseable
+{
+    private static final int    MINIMUM_BAND_WIDTH = 1;
+    private static final int    MINIMUM_WORKERS    = 1;
+    private static final int    MINIMUM_TURNS      = 1;
+    private static final int    WAITING            = 0;
+    private static final int    TAKEN              = 1;
+    private static final int    MATCHED            = 2;
+    private static final int    PAIR               = 2;
+    private static final long   NO_MATCHES         = 0L;
+    private static final long   AWAIT_SECONDS      = 1L;
+    private static final double NANOS_PER_SECOND   = 1e9;
+
+    private static final int TYPES = CreatureType.values().length;
+
+    private static final VarHandle STATE =
+            Creature.findVarHandle(MethodHandles.lookup(), Ticket.class, "state");
+
+    private final int                                 bandWidth;
+    private final int                                 maximumTurns;
+    private final List<ConcurrentLinkedQueue<Ticket>> queues;
+    private final ExecutorService                     workers;
+    private final MatchListener                       listener;
+    private final SplittableRandom                    seeds;
+    private final ThreadLocal<SplittableRandom>       randoms;
+    private final long                                startNanos;
+    private final LongAdder                           submitted;
+    private final LongAdder                           matched;
+    private final LongAdder                           finished;
+    private final LongAdder                           totalWaitNanos;
+    private final LongAccumulator                     maximumWaitNanos;
+    private final LongAdder                           totalTurns;
+    private volatile boolean                          closed;
+
+    /**
+     * Constructor for the Matchmaker class.
+     *
+     * @param bandWidth The width of a health band; creatures only fight creatures in the same band
+     * @param workers The number of threads that fight the matches
+     * @param maximumTurns The number of turns after which a match is a draw
+     * @param seed The seed of the random numbers of the matches
+     * @param listener The listener told about every finished match, or null for none
+     * @throws IllegalArgumentException if a number is out of range
+     */
+    public Matchmaker(final int           bandWidth,
+                      final int           workers,
+                      final int           maximumTurns,
+                      final long          seed,
+                      final MatchListener listener)
+    {
+        if (bandWidth < MINIMUM_BAND_WIDTH ||
+            bandWidth > Creature.MAXIMUM_HEALTH)
+        {
+            throw new IllegalArgumentException(
+                    "Band width must be between " + MINIMUM_BAND_WIDTH + " and " + Creature.MAXIMUM_HEALTH + ".");
+        }
+
+        if (workers < MINIMUM_WORKERS)
+        {
+            throw new IllegalArgumentException(
+                    "Workers cannot be less than " + MINIMUM_WORKERS + ".");
+        }
+
+        if (maximumTurns < MINIMUM_TURNS)
+        {
+            throw new IllegalArgumentException(
+                    "Maximum turns cannot be less than " + MINIMUM_TURNS + ".");
+        }
+
+        final int buckets;
+        buckets = (Creature.MAXIMUM_HEALTH / bandWidth + 1) * TYPES;
+
+        this.bandWidth        = bandWidth;
+        this.maximumTurns     = maximumTurns;
+        this.queues           = new ArrayList<>(buckets);
+        this.workers          = Executors.newFixedThreadPool(workers);
+        this.listener         = listener;
+        this.seeds            = new SplittableRandom(seed);
+        this.randoms          = ThreadLocal.withInitial(this::splitSeed);
+        this.startNanos       = System.nanoTime();
+        this.submitted        = new LongAdder();
+        this.matched          = new LongAdder();
+        this.finished         = new LongAdder();
+        this.totalWaitNanos   = new LongAdder();
+        this.maximumWaitNanos = new LongAccumulator(Math::max, 0L);
+        this.totalTurns       = new LongAdder();
+
+        for (int i = 0; i < buckets; i++)
+        {
+            queues.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Queues a creature for a match. If a creature of another type is
+     * waiting in the same health band, the two are matched at once and
+     * their match is handed to a worker; otherwise the creature waits.
+     *
+     * @param creature The Dragon, Elf or Orc to queue
+     * @throws IllegalArgumentException if the creature is null, dead or of another class
+     * @throws IllegalStateException if the matchmaker is closed
+     */
+    public void submit(final Creature creature)
+    {
+        if (creature == null ||
+            !creature.isAlive())
+        {
+            throw new IllegalArgumentException(
+                    "Only living creatures can queue for a match.");
+        }
+
+        if (closed)
+        {
+            throw new IllegalStateException(
+                    "The matchmaker is closed.");
+        }
+
+        final int    band;
+        final int    type;
+        final Ticket ticket;
+        Ticket       opponent;
+
+        band   = creature.getHealth() / bandWidth;
+        type   = CreatureType.of(creature).ordinal();
+        ticket = new Ticket(creature, band * TYPES + type);
+
+        submitted.increment();
+
+        opponent = pollOpponent(band, type);
+
+        if (opponent != null)
+        {
+            // the ticket was never queued, so no other thread can take it
+            dispatch(opponent, ticket);
+            return;
+        }
+
+        queues.get(ticket.bucket).offer(ticket);
+
+        while (true)
+        {
+            // an opponent may have queued while this creature was being queued, and missed it
+            opponent = pollOpponent(band, type);
+
+            if (opponent == null)
+            {
+                return;
+            }
+
+            if (STATE.compareAndSet(ticket, WAITING, TAKEN))
+            {
+                dispatch(opponent, ticket);
+                return;
+            }
+
+            // this creature was taken in the meantime; the opponent waits again
+            release(opponent);
+
+            // two creatures that took each other both gave the other back, so look again
+            if (awaitDecision(ticket) == MATCHED)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of creatures submitted.
+     *
+     * @return the number of creatures submitted
+     */
+    public long getSubmitted()
+    {
+        return submitted.sum();
+    }
+
+    /**
+     * Gets the number of matches made.
+     *
+     * @return the number of matches handed to the workers
+     */
+    public long getMatched()
+    {
+        return matched.sum();
+    }
+
+    /**
+     * Gets the number of matches fought to the end.
+     *
+     * @return the number of finished matches
+     */
+    public long getFinished()
+    {
+        return finished.sum();
+    }
+
+    /**
+     * Gets the number of creatures waiting for an opponent. The count is
+     * exact only when no creature is being submitted.
+     *
+     * @return the number of waiting creatures
+     */
+    public long getWaiting()
+    {
+        return getSubmitted() - getMatched() * PAIR;
+    }
+
+    /**
+     * Gets the average time a matched creature waited for its opponent.
+     * The creature that arrived last waited no time.
+     *
+     * @return the average wait in nanoseconds
+     */
+    public double getAverageWaitNanos()
+    {
+        final long matches;
+        matches = getMatched();
+
+        return matches == NO_MATCHES ? 0.0 : (double) totalWaitNanos.sum() / (matches * PAIR);
+    }
+
+    /**
+     * Gets the longest time a matched creature waited for its opponent.
+     *
+     * @return the longest wait in nanoseconds
+     */
+    public long getMaximumWaitNanos()
+    {
+        return maximumWaitNanos.get();
+    }
+
+    /**
+     * Gets the average number of turns of a finished match.
+     *
+     * @return the average number of turns
+     */
+    public double getAverageTurns()
+    {
+        final long matches;
+        matches = getFinished();
+
+        return matches == NO_MATCHES ? 0.0 : (double) totalTurns.sum() / matches;
+    }
+
+    /**
+     * Gets the number of matches finished per second since the matchmaker was created.
+     *
+     * @return the throughput in matches per second
+     */
+    public double getMatchesPerSecond()
+    {
+        return getFinished() * NANOS_PER_SECOND / (System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Stops taking creatures and waits for the matches already made to
+     * finish. Creatures still waiting for an opponent are not fought.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        workers.shutdown();
+
+        try
+        {
+            while (!workers.awaitTermination(AWAIT_SECONDS, TimeUnit.SECONDS))
+            {
+                // matches are short; keep waiting
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the waiting creature of another type in a band that has
+     * waited the longest. Tickets taken by another thread are skipped.
+     *
+     * @param band The health band
+     * @param type The ordinal of the type of the creature looking for an opponent
+     * @return the ticket of the opponent, or null if no opponent is waiting
+     */
+    private Ticket pollOpponent(final int band,
+                                final int type)
+    {
+        while (true)
+        {
+            ConcurrentLinkedQueue<Ticket> oldest;
+            long                          oldestNanos;
+
+            oldest      = null;
+            oldestNanos = 0L;
+
+            for (int other = 0; other < TYPES; other++)
+            {
+                if (other == type)
+                {
+                    continue;
+                }
+
+                final ConcurrentLinkedQueue<Ticket> queue;
+                final Ticket                        head;
+
+                queue = queues.get(band * TYPES + other);
+                head  = queue.peek();
+
+                if (head != null &&
+                    (oldest == null || head.queuedNanos - oldestNanos < 0))
+                {
+                    oldest      = queue;
+                    oldestNanos = head.queuedNanos;
+                }
+            }
+
+            if (oldest == null)
+            {
+                return null;
+            }
+
+            final Ticket ticket;
+            ticket = oldest.poll();
+
+            if (ticket != null &&
+                STATE.compareAndSet(ticket, WAITING, TAKEN))
+            {
+                return ticket;
+            }
+        }
+    }
+
+    /**
+     * Hands a match to a worker and records it. If the matchmaker was
+     * closed meanwhile, both creatures wait again and nothing is recorded.
+     *
+     * @param waited The ticket of the creature that was waiting
+     * @param arrived The ticket of the creature that found it
+     * @throws IllegalStateException if the matchmaker was closed meanwhile
+     */
+    private void dispatch(final Ticket waited,
+                          final Ticket arrived)
+    {
+        final long wait;
+
+        try
+        {
+            workers.execute(() -> fight(waited.creature, arrived.creature));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // no match is fought after closing, so a ticket queued twice here is never taken twice
+            release(waited);
+            release(arrived);
+
+            throw new IllegalStateException(
+                    "The matchmaker is closed.", e);
+        }
+
+        STATE.setVolatile(waited, MATCHED);
+        STATE.setVolatile(arrived, MATCHED);
+
+        wait = System.nanoTime() - waited.queuedNanos;
+
+        matched.increment();
+        totalWaitNanos.add(wait);
+        maximumWaitNanos.accumulate(wait);
+    }
+
+    /**
+     * Puts a taken ticket back in its queue.
+     *
+     * @param ticket The ticket to wait again
+     */
+    private void release(final Ticket ticket)
+    {
+        STATE.setVolatile(ticket, WAITING);
+        queues.get(ticket.bucket).offer(ticket);
+    }
+
+    /**
+     * Waits until the thread that took a ticket has either matched it or
+     * given it back. That thread decides right after taking it.
+     *
+     * @param ticket The ticket taken by another thread
+     * @return {@value MATCHED} if it was matched, {@value WAITING} if it waits again
+     */
+    private static int awaitDecision(final Ticket ticket)
+    {
+        int state;
+        state = (int) STATE.getVolatile(ticket);
+
+        while (state == TAKEN)
+        {
+            Thread.onSpinWait();
+            state = (int) STATE.getVolatile(ticket);
+        }
+
+        return state;
+    }
+
+    /**
+     * Fights a match on a worker thread.
+     *
+     * @param first The creature that waited
+     * @param second The creature that arrived last
+     */
+    private void fight(final Creature first,
+                       final Creature second)
+    {
+        final Duel duel;
+        final int  result;
+
+        duel   = new Duel(maximumTurns);
+        result = duel.fight(first, second, randoms.get());
+
+        finished.increment();
+        totalTurns.add(duel.getTurns());
+
+        if (listener != null)
+        {
+            listener.onMatchFinished(first, second, result, duel.getTurns());
+        }
+    }
+
+    /**
+     * Splits the seed for a worker thread that fights its first match.
+     *
+     * @return the random numbers of the worker
+     */
+    private synchronized SplittableRandom splitSeed()
+    {
+        return seeds.split();
+    }
+
+    /**
+     * A creature waiting in a queue. A ticket is taken by one thread
+     * only, with a compare-and-set of its state, so a creature that sits
+     * in a queue after it was taken is skipped. The thread that took it
+     * then either matches it or gives it back to wait again.
+     */
+    private static final class Ticket
+    {
+        private final Creature creature;
+        private final int      bucket;
+        private final long     queuedNanos;
+        private       int      state;
+
+        private Ticket(final Creature creature,
+                       final int      bucket)
+        {
+            this.creature    = creature;
+            this.bucket      = bucket;
+            this.queuedNanos = System.nanoTime();
+        }
+    }
+}
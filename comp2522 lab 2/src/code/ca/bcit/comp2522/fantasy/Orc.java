@@ -1,5 +1,7 @@
 package ca.bcit.comp2522.fantasy;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Date;
 
 /**
@@ -21,17 +23,27 @@ import java.util.Date;
  */
 public class Orc extends Creature
 {
-    private static final int MINIMUM_RAGE   = 0;
-    private static final int MAXIMUM_RAGE   = 30;
-    private static final int RAGE_INCREMENT = 5;
+    static final int MINIMUM_RAGE   = 0;
+    static final int MAXIMUM_RAGE   = 30;
+    static final int RAGE_INCREMENT = 5;
 
-    private static final int BERSERK_DAMAGE       = 15;
-    private static final int MINIMUM_BERSERK_RAGE = 5;
+    static final int BERSERK_DAMAGE       = 15;
+    static final int MINIMUM_BERSERK_RAGE = 5;
 
-    private static final int DOUBLE_DAMAGE_RAGE = 20;
-    private static final int DOUBLE_DAMAGE      = 2;
+    static final int DOUBLE_DAMAGE_RAGE = 20;
+    static final int DOUBLE_DAMAGE      = 2;
 
-    private int rage;
+    private static final LowRageException NOT_ENOUGH_RAGE =
+            new LowRageException("Rage cannot be less than " + MINIMUM_BERSERK_RAGE + ".", false);
+
+    private static final VarHandle RAGE =
+            findVarHandle(MethodHandles.lookup(), Orc.class, "rage");
+
+    private static final int NOT_RAISED = -1;
+
+    private final BalanceProfile profile;
+    private final int            initialRage;
+    private       int            rage;
 
     /**
      * Constructor for the Orc class.
@@ -46,31 +58,100 @@ public class Orc extends Creature
                final Date dateOfBirth,
                final int health,
                final int rage)
+    {
+        this(name,
+             dateOfBirth,
+             health,
+             rage,
+             BalanceProfile.DEFAULT);
+    }
+
+    /**
+     * Constructor for the Orc class with its own balance profile.
+     *
+     * @param name The name of the Orc
+     * @param dateOfBirth The birthdate of the Orc
+     * @param health The health value of the Orc
+     * @param rage The initial rage value of the Orc
+     * @param profile The berserk damage and rage increment of the Orc
+     */
+    public Orc(final String         name,
+               final Date           dateOfBirth,
+               final int            health,
+               final int            rage,
+               final BalanceProfile profile)
     {
         super(name,
               dateOfBirth,
               health);
 
         validateRage(rage);
+        validateProfile(profile);
 
-        this.rage = rage;
+        this.profile     = profile;
+        this.initialRage = rage;
+        this.rage        = rage;
+    }
+
+    /**
+     * Gets the current rage of the Orc.
+     *
+     * @return the rage of the Orc
+     */
+    public int getRage()
+    {
+        if(isConcurrent())
+        {
+            return (int) RAGE.getVolatile(this);
+        }
+
+        return rage;
+    }
+
+    /**
+     * Gets the balance profile the Orc fights with.
+     *
+     * @return the balance profile
+     */
+    public BalanceProfile getBalanceProfile()
+    {
+        return profile;
     }
 
     /**
-     * Prints the details of the Orc, including inherited
+     * Appends the details of the Orc, including inherited
      * attributes and the rage value.
+     *
+     * @param details The builder to append to
+     */
+    @Override
+    public void appendDetails(final StringBuilder details)
+    {
+        super.appendDetails(details);
+
+        details.append("Rage: ");
+        details.append(getRage());
+        details.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends the rage of the Orc as a JSON field.
+     *
+     * @param json The builder to append to
      */
     @Override
-    public void getDetails()
+    protected void appendJsonFields(final StringBuilder json)
     {
-        super.getDetails();
-        System.out.println("Rage: " + rage);
+        json.append(",\"rage\":");
+        json.append(getRage());
     }
 
     /**
      * Allows the Orc to go berserk and attack a target Creature.
      * Rage increases after using berserk, and if the rage is above
      * a threshold, the Orc deals {@value DOUBLE_DAMAGE} times.
+     * The exception thrown is shared and has no stack trace,
+     * so failing is cheap.
      *
      * @param target The Creature being attacked
      * @throws LowRageException if rage is less than {@value MINIMUM_BERSERK_RAGE}
@@ -78,29 +159,142 @@ public class Orc extends Creature
     public void berserk(final Creature target)
             throws LowRageException
     {
-        if(rage < MINIMUM_BERSERK_RAGE)
+        if(tryBerserk(target) != ActionResult.SUCCESS)
+        {
+            CombatEvents.failure(this, CombatEvents.BERSERK, LowRageException.class);
+
+            throw NOT_ENOUGH_RAGE;
+        }
+    }
+
+    /**
+     * Tries to go berserk and attack a target Creature without throwing
+     * when there is not enough rage.
+     *
+     * @param target The Creature being attacked
+     * @return {@link ActionResult#SUCCESS} if the Orc went berserk, or
+     * {@link ActionResult#NOT_ENOUGH_RESOURCE} if rage is less than {@value MINIMUM_BERSERK_RAGE}
+     */
+    public ActionResult tryBerserk(final Creature target)
+    {
+        final CombatActionEvent event;
+        final int               raised;
+        final int               damage;
+
+        event  = CombatEvents.beginAction();
+        raised = raiseRage();
+
+        if(raised == NOT_RAISED)
         {
-            throw new LowRageException(
-                    "Rage cannot be less than " + MINIMUM_BERSERK_RAGE + ".");
+            CombatEvents.endAction(event, this, CombatEvents.BERSERK, target,
+                                   ActionResult.NOT_ENOUGH_RESOURCE, CombatEvents.NO_DAMAGE);
+
+            return ActionResult.NOT_ENOUGH_RESOURCE;
         }
 
-        rage += RAGE_INCREMENT;
+        notifyResourceRestored(profile.getRageIncrement());
 
-        if(rage > MAXIMUM_RAGE)
+        if(raised > DOUBLE_DAMAGE_RAGE)
         {
-            rage = MAXIMUM_RAGE;
+            damage = profile.getBerserkDamage() * DOUBLE_DAMAGE;
+        }
+        else
+        {
+            damage = profile.getBerserkDamage();
         }
 
-        if(rage > DOUBLE_DAMAGE_RAGE)
+        target.takeDamage(damage);
+
+        CombatEvents.endAction(event, this, CombatEvents.BERSERK, target,
+                               ActionResult.SUCCESS, damage);
+
+        return ActionResult.SUCCESS;
+    }
+
+    /**
+     * Sets the health and the rage back to the values the Orc was
+     * created with.
+     */
+    @Override
+    protected void restoreInitialState()
+    {
+        super.restoreInitialState();
+
+        if(isConcurrent())
         {
-            target.takeDamage(
-                    BERSERK_DAMAGE * DOUBLE_DAMAGE);
+            RAGE.setVolatile(this, initialRage);
         }
         else
         {
-            target.takeDamage(
-                    BERSERK_DAMAGE);
+            rage = initialRage;
+        }
+    }
+
+    /**
+     * Gets the rage the Orc was created with.
+     *
+     * @return the initial rage
+     */
+    int getInitialRage()
+    {
+        return initialRage;
+    }
+
+    /**
+     * Sets the rage of an Orc that was just loaded from a snapshot.
+     *
+     * @param rage The saved rage
+     */
+    void loadRage(final int rage)
+    {
+        this.rage = rage;
+    }
+
+    /**
+     * Raises the rage for one berserk attack, if there is enough rage.
+     * In concurrent mode the check and the raise are one atomic step.
+     *
+     * @return the new rage, or {@value NOT_RAISED} if there was not enough rage
+     */
+    private int raiseRage()
+    {
+        final int increment;
+        increment = profile.getRageIncrement();
+
+        if(isConcurrent())
+        {
+            int current;
+            int updated;
+
+            do
+            {
+                current = (int) RAGE.getVolatile(this);
+
+                if(current < MINIMUM_BERSERK_RAGE)
+                {
+                    return NOT_RAISED;
+                }
+
+                updated = Math.min(MAXIMUM_RAGE, current + increment);
+            }
+            while(!RAGE.compareAndSet(this, current, updated));
+
+            return updated;
+        }
+
+        if(rage < MINIMUM_BERSERK_RAGE)
+        {
+            return NOT_RAISED;
+        }
+
+        rage += increment;
+
+        if(rage > MAXIMUM_RAGE)
+        {
+            rage = MAXIMUM_RAGE;
         }
+
+        return rage;
     }
 
     /**
@@ -127,4 +321,19 @@ public class Orc extends Creature
                     errorMessages.toString());
         }
     }
+
+    /**
+     * Validates the balance profile of the Orc.
+     *
+     * @param profile The profile to validate
+     * @throws IllegalArgumentException if the profile is null
+     */
+    private static void validateProfile(final BalanceProfile profile)
+    {
+        if(profile == null)
+        {
+            throw new IllegalArgumentException(
+                    "Balance profile cannot be null.");
+        }
+    }
 }
@@ -0,0 +1,227 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The PairingStats class counts the results of many duels between
+ * two creature configurations: wins on each side, draws and turns.
+ * Each worker thread fills its own PairingStats, and the results
+ * are merged with {@link #merge(PairingStats)} at the end, so no
+ * counter is ever shared between threads.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class PairingStats
+{
+    /**
+     * The z value of a 95% confidence interval.
+     */
+    public static final double Z_95 = 1.959964;
+
+    private static final int    NO_DUELS   = 0;
+    private static final double HALF       = 0.5;
+    private static final double SQUARE     = 2.0;
+    private static final double FOUR       = 4.0;
+
+    private final CreatureSpec first;
+    private final CreatureSpec second;
+
+    private long firstWins;
+    private long secondWins;
+    private long draws;
+    private long totalTurns;
+
+    /**
+     * Constructor for the PairingStats class.
+     *
+     * @param first The first configuration of the pairing
+     * @param second The second configuration of the pairing
+     */
+    public PairingStats(final CreatureSpec first,
+                        final CreatureSpec second)
+    {
+        this.first  = first;
+        this.second = second;
+    }
+
+    /**
+     * Records the result of one duel.
+     *
+     * @param result {@link Duel#FIRST_WINS}, {@link Duel#SECOND_WINS} or {@link Duel#DRAW}
+     * @param turns The number of turns the duel took
+     */
+    public void record(final int result,
+                       final int turns)
+    {
+        if (result == Duel.FIRST_WINS)
+        {
+            firstWins++;
+        }
+        else if (result == Duel.SECOND_WINS)
+        {
+            secondWins++;
+        }
+        else
+        {
+            draws++;
+        }
+
+        totalTurns += turns;
+    }
+
+    /**
+     * Adds the counts of another PairingStats of the same pairing to this one.
+     *
+     * @param other The stats to add
+     */
+    public void merge(final PairingStats other)
+    {
+        firstWins  += other.firstWins;
+        secondWins += other.secondWins;
+        draws      += other.draws;
+        totalTurns += other.totalTurns;
+    }
+
+    /**
+     * Gets the first configuration of the pairing.
+     *
+     * @return the first configuration
+     */
+    public CreatureSpec getFirst()
+    {
+        return first;
+    }
+
+    /**
+     * Gets the second configuration of the pairing.
+     *
+     * @return the second configuration
+     */
+    public CreatureSpec getSecond()
+    {
+        return second;
+    }
+
+    /**
+     * Gets the number of duels won by the first configuration.
+     *
+     * @return the wins of the first configuration
+     */
+    public long getFirstWins()
+    {
+        return firstWins;
+    }
+
+    /**
+     * Gets the number of duels won by the second configuration.
+     *
+     * @return the wins of the second configuration
+     */
+    public long getSecondWins()
+    {
+        return secondWins;
+    }
+
+    /**
+     * Gets the number of duels that ended in a draw.
+     *
+     * @return the number of draws
+     */
+    public long getDraws()
+    {
+        return draws;
+    }
+
+    /**
+     * Gets the number of duels recorded.
+     *
+     * @return the number of duels
+     */
+    public long getDuels()
+    {
+        return firstWins + secondWins + draws;
+    }
+
+    /**
+     * Gets the average number of turns per duel.
+     *
+     * @return the average number of turns
+     */
+    public double getAverageTurns()
+    {
+        final long duels;
+        duels = getDuels();
+
+        return duels == NO_DUELS ? NO_DUELS : (double) totalTurns / duels;
+    }
+
+    /**
+     * Gets the share of duels won by the first configuration,
+     * counting a draw as half a win.
+     *
+     * @return the win rate of the first configuration, from 0.0 to 1.0
+     */
+    public double getFirstWinRate()
+    {
+        final long duels;
+        duels = getDuels();
+
+        return duels == NO_DUELS ? HALF : (firstWins + draws * HALF) / duels;
+    }
+
+    /**
+     * Gets the Wilson score interval of the win rate of the first configuration.
+     *
+     * @param z The z value of the confidence level, such as {@link #Z_95}
+     * @return an array with the lower and the upper bound of the interval
+     */
+    public double[] getFirstWinRateInterval(final double z)
+    {
+        final long   duels;
+        final double rate;
+        final double zSquared;
+        final double denominator;
+        final double centre;
+        final double margin;
+
+        duels = getDuels();
+
+        if (duels == NO_DUELS)
+        {
+            return new double[] {0.0, 1.0};
+        }
+
+        rate        = getFirstWinRate();
+        zSquared    = z * z;
+        denominator = 1.0 + zSquared / duels;
+        centre      = (rate + zSquared / (SQUARE * duels)) / denominator;
+        margin      = z * Math.sqrt(rate * (1.0 - rate) / duels + zSquared / (FOUR * duels * duels)) / denominator;
+
+        return new double[] {centre - margin, centre + margin};
+    }
+
+    /**
+     * Returns one line describing the pairing, the win rate with its
+     * 95% confidence interval, the draws and the average fight length.
+     *
+     * @return the description of the results
+     */
+    @Override
+    public String toString()
+    {
+        final double[] interval;
+        interval = getFirstWinRateInterval(Z_95);
+
+        return String.format("%s vs %s: win rate %.4f [%.4f, %.4f], draws %d, duels %d, avg turns %.2f",
+                             first,
+                             second,
+                             getFirstWinRate(),
+                             interval[0],
+                             interval[1],
+                             draws,
+                             getDuels(),
+                             getAverageTurns());
+    }
+}
@@ -0,0 +1,298 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The Pathfinder class moves creatures on a {@link SpatialGrid} toward a
+ * target tile of a {@link TerrainMap}, around the blocked tiles. It
+ * builds one {@link FlowField} per target and keeps it until the map
+ * changes, so a crowd chasing the same target pays for one search, and
+ * each creature then takes its step in O(1).
+ * Positions on the grid are in the same units as the tiles: tile (x, y)
+ * covers the square from (x * tileSize, y * tileSize) to
+ * ((x + 1) * tileSize, (y + 1) * tileSize). Creatures walk from the
+ * centre of one tile to the centre of the next.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class Pathfinder
+{
+    private static final double MINIMUM_TILE_SIZE  = 0.0;
+    private static final double MINIMUM_DISTANCE   = 0.0;
+    private static final int    MINIMUM_CACHE_SIZE = 1;
+    private static final double HALF               = 0.5;
+    private static final float  LOAD_FACTOR        = 0.75f;
+
+    private final TerrainMap              map;
+    private final double                  tileSize;
+    private final Map<Integer, FlowField> fields;
+    private long                          cachedVersion;
+    private long                          fieldsBuilt;
+    private long                          cacheHits;
+
+    /**
+     * Constructor for the Pathfinder class.
+     *
+     * @param map The map the creatures walk on
+     * @param tileSize The width and height of one tile on the grid
+     * @param cacheSize The number of flow fields to keep; the one used least recently is dropped first
+     * @throws IllegalArgumentException if map is null, tileSize is not greater than
+     * {@value MINIMUM_TILE_SIZE} or cacheSize is less than {@value MINIMUM_CACHE_SIZE}
+     */
+    public Pathfinder(final TerrainMap map,
+                      final double     tileSize,
+                      final int        cacheSize)
+    {
+        if (map == null)
+        {
+            throw new IllegalArgumentException(
+                    "Map cannot be null.");
+        }
+
+        if (!(tileSize > MINIMUM_TILE_SIZE))
+        {
+            throw new IllegalArgumentException(
+                    "Tile size must be greater than " + MINIMUM_TILE_SIZE + ".");
+        }
+
+        if (cacheSize < MINIMUM_CACHE_SIZE)
+        {
+            throw new IllegalArgumentException(
+                    "Cache size cannot be less than " + MINIMUM_CACHE_SIZE + ".");
+        }
+
+        this.map           = map;
+        this.tileSize      = tileSize;
+        this.cachedVersion = map.getVersion();
+        this.fields        = new LinkedHashMap<>(cacheSize, LOAD_FACTOR, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, FlowField> eldest)
+            {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the flow field toward a target tile, building it only if it is
+     * not cached for the current version of the map.
+     *
+     * @param targetX The column of the target tile
+     * @param targetY The row of the target tile
+     * @return the flow field toward the target
+     * @throws IllegalArgumentException if the target is not on the map
+     */
+    public FlowField getFlowField(final int targetX,
+                                  final int targetY)
+    {
+        final int target;
+        target = map.tile(targetX, targetY);
+
+        if (cachedVersion != map.getVersion())
+        {
+            fields.clear();
+            cachedVersion = map.getVersion();
+        }
+
+        FlowField field;
+        field = fields.get(target);
+
+        if (field == null)
+        {
+            field = new FlowField(map, targetX, targetY);
+            fields.put(target, field);
+            fieldsBuilt++;
+        }
+        else
+        {
+            cacheHits++;
+        }
+
+        return field;
+    }
+
+    /**
+     * Moves a creature on a grid toward a target tile.
+     *
+     * @param grid The grid the creature is on
+     * @param creature The creature to move
+     * @param targetX The column of the target tile
+     * @param targetY The row of the target tile
+     * @param distance The farthest the creature may move
+     * @return true if the creature moved, false if it is at the centre of
+     * the target, off the map or cannot reach the target
+     * @throws IllegalArgumentException if an argument is null, the creature is
+     * not on the grid, the target is not on the map or distance is negative
+     */
+    public boolean moveToward(final SpatialGrid grid,
+                              final Creature    creature,
+                              final int         targetX,
+                              final int         targetY,
+                              final double      distance)
+    {
+        validateMove(grid, distance);
+
+        return step(grid, creature, getFlowField(targetX, targetY), distance);
+    }
+
+    /**
+     * Moves many creatures on a grid toward the same target tile. The
+     * flow field is looked up once for all of them.
+     *
+     * @param grid The grid the creatures are on
+     * @param creatures The creatures to move
+     * @param targetX The column of the target tile
+     * @param targetY The row of the target tile
+     * @param distance The farthest each creature may move
+     * @return the number of creatures that moved
+     * @throws IllegalArgumentException if an argument is null, a creature is
+     * not on the grid, the target is not on the map or distance is negative
+     */
+    public int moveAllToward(final SpatialGrid                  grid,
+                             final Iterable<? extends Creature> creatures,
+                             final int                          targetX,
+                             final int                          targetY,
+                             final double                       distance)
+    {
+        validateMove(grid, distance);
+
+        if (creatures == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creatures cannot be null.");
+        }
+
+        final FlowField field;
+        int             moved;
+
+        field = getFlowField(targetX, targetY);
+        moved = 0;
+
+        for (final Creature creature : creatures)
+        {
+            if (step(grid, creature, field, distance))
+            {
+                moved++;
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Gets the number of flow fields built since the pathfinder was created.
+     *
+     * @return the number of flow fields built
+     */
+    public long getFieldsBuilt()
+    {
+        return fieldsBuilt;
+    }
+
+    /**
+     * Gets the number of times a cached flow field was used.
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    /**
+     * Moves one creature along a flow field, toward the centre of the next
+     * tile, or of the target tile once it is on it.
+     *
+     * @param grid The grid the creature is on
+     * @param creature The creature to move
+     * @param field The flow field
+     * @param distance The farthest the creature may move
+     * @return true if the creature moved, false otherwise
+     */
+    private boolean step(final SpatialGrid grid,
+                         final Creature    creature,
+                         final FlowField   field,
+                         final double      distance)
+    {
+        final double x;
+        final double y;
+        final int    tileX;
+        final int    tileY;
+
+        x     = grid.getX(creature);
+        y     = grid.getY(creature);
+        tileX = (int) Math.floor(x / tileSize);
+        tileY = (int) Math.floor(y / tileSize);
+
+        if (!map.contains(tileX, tileY))
+        {
+            return false;
+        }
+
+        final int next;
+        next = field.nextTile(map.tile(tileX, tileY));
+
+        if (next == FlowField.UNREACHABLE)
+        {
+            return false;
+        }
+
+        final double waypointX;
+        final double waypointY;
+        final double dx;
+        final double dy;
+        final double remaining;
+
+        waypointX = (next % map.getWidth() + HALF) * tileSize;
+        waypointY = (next / map.getWidth() + HALF) * tileSize;
+        dx        = waypointX - x;
+        dy        = waypointY - y;
+        remaining = Math.sqrt(dx * dx + dy * dy);
+
+        if (remaining == MINIMUM_DISTANCE)
+        {
+            return false;
+        }
+
+        // the segment stays inside the current tile and the next one, which together are a rectangle
+        if (remaining <= distance)
+        {
+            grid.move(creature, waypointX, waypointY);
+        }
+        else
+        {
+            grid.move(creature, x + dx * distance / remaining, y + dy * distance / remaining);
+        }
+
+        return true;
+    }
+
+    /**
+     * Validates the grid and the distance of a move.
+     *
+     * @param grid The grid
+     * @param distance The farthest a creature may move
+     * @throws IllegalArgumentException if grid is null or distance is negative
+     */
+    private static void validateMove(final SpatialGrid grid,
+                                     final double      distance)
+    {
+        if (grid == null)
+        {
+            throw new IllegalArgumentException(
+                    "Grid cannot be null.");
+        }
+
+        if (!(distance >= MINIMUM_DISTANCE))
+        {
+            throw new IllegalArgumentException(
+                    "Distance cannot be less than " + MINIMUM_DISTANCE + ".");
+        }
+    }
+}
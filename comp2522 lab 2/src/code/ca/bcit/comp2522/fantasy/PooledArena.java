@@ -0,0 +1,147 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The PooledArena class hands out creatures for fight after fight without
+ * creating new ones. Every configuration has a pool of creatures. A
+ * creature taken from the pool is reset to the state it was created in,
+ * and {@link #releaseAll()} gives every creature of the last fight back.
+ * New creatures are only created when a pool is empty, so after the
+ * first fights no more creatures, dates or validation are needed.
+ * An arena is meant to be used by one thread; give every thread its own.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class PooledArena
+{
+    private static final int INITIAL_IN_USE = 4;
+    private static final int GROWTH_FACTOR  = 2;
+
+    private final List<CreatureSpec>   specs;
+    private final List<List<Creature>> pools;
+    private       Creature[]           inUse;
+    private       int[]                inUseSpecs;
+    private       int                  inUseCount;
+    private       int                  createdCount;
+
+    /**
+     * Constructor for the PooledArena class.
+     *
+     * @param specs The configurations of the creatures the arena hands out
+     * @throws IllegalArgumentException if specs is null or holds null
+     */
+    public PooledArena(final List<CreatureSpec> specs)
+    {
+        if (specs == null)
+        {
+            throw new IllegalArgumentException(
+                    "Configurations cannot be null.");
+        }
+
+        for (final CreatureSpec spec : specs)
+        {
+            if (spec == null)
+            {
+                throw new IllegalArgumentException(
+                        "Configurations cannot be null.");
+            }
+        }
+
+        this.specs      = new ArrayList<>(specs);
+        this.pools      = new ArrayList<>(specs.size());
+        this.inUse      = new Creature[INITIAL_IN_USE];
+        this.inUseSpecs = new int[INITIAL_IN_USE];
+
+        for (int i = 0; i < specs.size(); i++)
+        {
+            pools.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Takes a creature of a configuration, in the state it was created in.
+     *
+     * @param specIndex The index of the configuration in the list given to the constructor
+     * @return a creature that no one else is using until {@link #releaseAll()}
+     * @throws IllegalArgumentException if there is no configuration at that index
+     */
+    public Creature acquire(final int specIndex)
+    {
+        if (specIndex < 0 ||
+            specIndex >= specs.size())
+        {
+            throw new IllegalArgumentException(
+                    "No configuration at index " + specIndex + ".");
+        }
+
+        final List<Creature> pool;
+        final Creature       creature;
+
+        pool = pools.get(specIndex);
+
+        if (pool.isEmpty())
+        {
+            creature = specs.get(specIndex).create(specs.get(specIndex).getType().name());
+            createdCount++;
+        }
+        else
+        {
+            creature = pool.remove(pool.size() - 1);
+            creature.reset();
+        }
+
+        if (inUseCount == inUse.length)
+        {
+            inUse      = Arrays.copyOf(inUse, inUse.length * GROWTH_FACTOR);
+            inUseSpecs = Arrays.copyOf(inUseSpecs, inUseSpecs.length * GROWTH_FACTOR);
+        }
+
+        inUse[inUseCount]      = creature;
+        inUseSpecs[inUseCount] = specIndex;
+        inUseCount++;
+
+        return creature;
+    }
+
+    /**
+     * Gives every creature taken since the last call back to its pool.
+     * The creatures must not be used after this.
+     */
+    public void releaseAll()
+    {
+        for (int i = 0; i < inUseCount; i++)
+        {
+            pools.get(inUseSpecs[i]).add(inUse[i]);
+            inUse[i] = null;
+        }
+
+        inUseCount = 0;
+    }
+
+    /**
+     * Gets the number of creatures taken and not released yet.
+     *
+     * @return the number of creatures in use
+     */
+    public int getInUseCount()
+    {
+        return inUseCount;
+    }
+
+    /**
+     * Gets the number of creatures the arena has ever created.
+     *
+     * @return the number of creatures created
+     */
+    public int getCreatedCount()
+    {
+        return createdCount;
+    }
+}
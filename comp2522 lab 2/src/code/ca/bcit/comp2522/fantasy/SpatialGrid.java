@@ -0,0 +1,516 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The SpatialGrid class keeps the positions of creatures on a battlefield
+ * and finds the creatures near a point without looking at all of them.
+ * The battlefield is split into square cells of the same size, and every
+ * creature is stored in the cell that holds its position. A query only
+ * looks at the cells that overlap the search circle, so the cost depends
+ * on the number of creatures found, not on the size of the battlefield.
+ * The grid is updated as creatures move, and creatures that are no longer
+ * alive are removed from their cell as soon as a query finds them.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class SpatialGrid
+{
+    private static final double MINIMUM_CELL_SIZE = 0.0;
+    private static final double MINIMUM_RADIUS    = 0.0;
+    private static final int    CELL_BITS         = 32;
+    private static final long   CELL_MASK         = 0xFFFFFFFFL;
+
+    private final double                    cellSize;
+    private final Map<Long, List<Creature>> cells;
+    private final Map<Creature, Position>   positions;
+
+    /**
+     * Constructor for the SpatialGrid class.
+     *
+     * @param cellSize The width and height of one cell. A good value is
+     *                 about the radius of the most common query.
+     * @throws IllegalArgumentException if cellSize is not greater than {@value MINIMUM_CELL_SIZE}
+     */
+    public SpatialGrid(final double cellSize)
+    {
+        if (!(cellSize > MINIMUM_CELL_SIZE))
+        {
+            throw new IllegalArgumentException(
+                    "Cell size must be greater than " + MINIMUM_CELL_SIZE + ".");
+        }
+
+        this.cellSize  = cellSize;
+        this.cells     = new HashMap<>();
+        this.positions = new IdentityHashMap<>();
+    }
+
+    /**
+     * Places a creature on the battlefield, or moves it if it is already there.
+     *
+     * @param creature The creature to place
+     * @param x The x coordinate of the creature
+     * @param y The y coordinate of the creature
+     */
+    public void place(final Creature creature,
+                      final double   x,
+                      final double   y)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creature cannot be null.");
+        }
+
+        validateCoordinate(x);
+        validateCoordinate(y);
+
+        final Position position;
+        position = positions.get(creature);
+
+        if (position == null)
+        {
+            final Position added;
+            added = new Position(x, y, cellKey(x, y));
+
+            positions.put(creature, added);
+            addToCell(creature, added);
+        }
+        else
+        {
+            move(creature, position, x, y);
+        }
+    }
+
+    /**
+     * Moves a creature that is already on the battlefield. Only the old
+     * and the new cell are touched, and only if the creature changes cell.
+     *
+     * @param creature The creature to move
+     * @param x The new x coordinate
+     * @param y The new y coordinate
+     * @throws IllegalArgumentException if the creature is not on the battlefield
+     */
+    public void move(final Creature creature,
+                     final double   x,
+                     final double   y)
+    {
+        validateCoordinate(x);
+        validateCoordinate(y);
+
+        move(creature, getPosition(creature), x, y);
+    }
+
+    /**
+     * Removes a creature from the battlefield.
+     *
+     * @param creature The creature to remove
+     * @return true if the creature was on the battlefield, false otherwise
+     */
+    public boolean remove(final Creature creature)
+    {
+        final Position position;
+        position = positions.remove(creature);
+
+        if (position == null)
+        {
+            return false;
+        }
+
+        removeFromCell(position);
+
+        return true;
+    }
+
+    /**
+     * Checks if a creature is on the battlefield.
+     *
+     * @param creature The creature to check
+     * @return true if the creature is on the battlefield, false otherwise
+     */
+    public boolean contains(final Creature creature)
+    {
+        return positions.containsKey(creature);
+    }
+
+    /**
+     * Gets the x coordinate of a creature.
+     *
+     * @param creature The creature on the battlefield
+     * @return the x coordinate
+     */
+    public double getX(final Creature creature)
+    {
+        return getPosition(creature).x;
+    }
+
+    /**
+     * Gets the y coordinate of a creature.
+     *
+     * @param creature The creature on the battlefield
+     * @return the y coordinate
+     */
+    public double getY(final Creature creature)
+    {
+        return getPosition(creature).y;
+    }
+
+    /**
+     * Gets the number of creatures on the battlefield.
+     *
+     * @return the number of creatures
+     */
+    public int size()
+    {
+        return positions.size();
+    }
+
+    /**
+     * Calls the action for every living creature within the radius of a point.
+     * Creatures that are no longer alive are removed from the grid.
+     * The action must not add, move or remove creatures of this grid.
+     * When the circle covers more cells than the grid has in use, only
+     * the cells in use are looked at, so a large radius costs no more
+     * than a scan of the grid.
+     *
+     * @param x The x coordinate of the centre
+     * @param y The y coordinate of the centre
+     * @param radius The radius of the search circle
+     * @param action The action to call for every creature found
+     * @return the number of creatures found
+     * @throws IllegalArgumentException if the radius is negative or not finite,
+     * or a coordinate is not finite
+     */
+    public int forEachWithin(final double             x,
+                             final double             y,
+                             final double             radius,
+                             final Consumer<Creature> action)
+    {
+        validateRadius(radius);
+        validateCoordinate(x);
+        validateCoordinate(y);
+
+        final long           minimumCellX;
+        final long           maximumCellX;
+        final long           minimumCellY;
+        final long           maximumCellY;
+        final double         radiusSquared;
+        final List<Creature> dead;
+        int                  found;
+
+        // long indexes, so the loops end even when a cell index is Integer.MAX_VALUE
+        minimumCellX  = cellIndex(x - radius);
+        maximumCellX  = cellIndex(x + radius);
+        minimumCellY  = cellIndex(y - radius);
+        maximumCellY  = cellIndex(y + radius);
+        radiusSquared = radius * radius;
+        dead          = new ArrayList<>();
+        found         = 0;
+
+        if ((double) (maximumCellX - minimumCellX + 1) * (maximumCellY - minimumCellY + 1) > cells.size())
+        {
+            for (final Map.Entry<Long, List<Creature>> entry : cells.entrySet())
+            {
+                final long key;
+                final long cellX;
+                final long cellY;
+
+                key   = entry.getKey();
+                cellX = (int) (key >> CELL_BITS);
+                cellY = (int) key;
+
+                if (cellX >= minimumCellX &&
+                    cellX <= maximumCellX &&
+                    cellY >= minimumCellY &&
+                    cellY <= maximumCellY)
+                {
+                    found += visitCell(entry.getValue(), x, y, radiusSquared, action, dead);
+                }
+            }
+        }
+        else
+        {
+            for (long cellX = minimumCellX; cellX <= maximumCellX; cellX++)
+            {
+                for (long cellY = minimumCellY; cellY <= maximumCellY; cellY++)
+                {
+                    final List<Creature> cell;
+                    cell = cells.get(cellKey((int) cellX, (int) cellY));
+
+                    if (cell != null)
+                    {
+                        found += visitCell(cell, x, y, radiusSquared, action, dead);
+                    }
+                }
+            }
+        }
+
+        // removed after the loops, so no cell list or map changes while it is being walked
+        for (final Creature creature : dead)
+        {
+            remove(creature);
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds every living creature within the radius of a point.
+     *
+     * @param x The x coordinate of the centre
+     * @param y The y coordinate of the centre
+     * @param radius The radius of the search circle
+     * @return the creatures found
+     */
+    public List<Creature> findWithin(final double x,
+                                     final double y,
+                                     final double radius)
+    {
+        final List<Creature> found;
+        found = new ArrayList<>();
+
+        forEachWithin(x, y, radius, found::add);
+
+        return found;
+    }
+
+    /**
+     * Calls the action for every living creature of one cell within the
+     * search circle, and collects the creatures that are no longer alive.
+     *
+     * @param cell The creatures of the cell
+     * @param x The x coordinate of the centre
+     * @param y The y coordinate of the centre
+     * @param radiusSquared The square of the radius of the search circle
+     * @param action The action to call for every creature found
+     * @param dead The list the dead creatures are added to
+     * @return the number of creatures found
+     */
+    private int visitCell(final List<Creature>     cell,
+                          final double             x,
+                          final double             y,
+                          final double             radiusSquared,
+                          final Consumer<Creature> action,
+                          final List<Creature>     dead)
+    {
+        int found;
+        found = 0;
+
+        for (int i = 0; i < cell.size(); i++)
+        {
+            final Creature creature;
+            creature = cell.get(i);
+
+            if (!creature.isAlive())
+            {
+                dead.add(creature);
+                continue;
+            }
+
+            final Position position;
+            final double   dx;
+            final double   dy;
+
+            position = positions.get(creature);
+            dx       = position.x - x;
+            dy       = position.y - y;
+
+            if (dx * dx + dy * dy <= radiusSquared)
+            {
+                action.accept(creature);
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Moves a creature to a new position, changing cell only when needed.
+     *
+     * @param creature The creature to move
+     * @param position The current position of the creature
+     * @param x The new x coordinate
+     * @param y The new y coordinate
+     */
+    private void move(final Creature creature,
+                      final Position position,
+                      final double   x,
+                      final double   y)
+    {
+        final long key;
+        key = cellKey(x, y);
+
+        position.x = x;
+        position.y = y;
+
+        if (key != position.cellKey)
+        {
+            removeFromCell(position);
+            position.cellKey = key;
+            addToCell(creature, position);
+        }
+    }
+
+    /**
+     * Adds a creature to the end of the list of its cell.
+     *
+     * @param creature The creature to add
+     * @param position The position of the creature
+     */
+    private void addToCell(final Creature creature,
+                           final Position position)
+    {
+        final List<Creature> cell;
+        cell = cells.computeIfAbsent(position.cellKey, key -> new ArrayList<>());
+
+        position.indexInCell = cell.size();
+        cell.add(creature);
+    }
+
+    /**
+     * Removes a creature from its cell by moving the last creature
+     * of the cell into its place, so no other entry has to shift.
+     *
+     * @param position The position of the creature to remove
+     */
+    private void removeFromCell(final Position position)
+    {
+        final List<Creature> cell;
+        final int            lastIndex;
+        final Creature       last;
+
+        cell      = cells.get(position.cellKey);
+        lastIndex = cell.size() - 1;
+        last      = cell.remove(lastIndex);
+
+        if (position.indexInCell != lastIndex)
+        {
+            cell.set(position.indexInCell, last);
+            positions.get(last).indexInCell = position.indexInCell;
+        }
+
+        if (cell.isEmpty())
+        {
+            cells.remove(position.cellKey);
+        }
+    }
+
+    /**
+     * Gets the position of a creature on the battlefield.
+     *
+     * @param creature The creature
+     * @return the position of the creature
+     * @throws IllegalArgumentException if the creature is not on the battlefield
+     */
+    private Position getPosition(final Creature creature)
+    {
+        final Position position;
+        position = positions.get(creature);
+
+        if (position == null)
+        {
+            throw new IllegalArgumentException(
+                    "Creature is not on the battlefield.");
+        }
+
+        return position;
+    }
+
+    /**
+     * Gets the index of the cell column or row that holds a coordinate.
+     *
+     * @param coordinate The coordinate
+     * @return the index of the cell
+     */
+    private int cellIndex(final double coordinate)
+    {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Gets the key of the cell that holds a point.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return the key of the cell
+     */
+    private long cellKey(final double x,
+                         final double y)
+    {
+        return cellKey(cellIndex(x), cellIndex(y));
+    }
+
+    /**
+     * Packs the column and row of a cell into one key.
+     *
+     * @param cellX The column of the cell
+     * @param cellY The row of the cell
+     * @return the key of the cell
+     */
+    private static long cellKey(final int cellX,
+                                final int cellY)
+    {
+        return ((long) cellX << CELL_BITS) | (cellY & CELL_MASK);
+    }
+
+    /**
+     * Validates the radius of a search circle.
+     *
+     * @param radius The radius to validate
+     * @throws IllegalArgumentException if the radius is negative or not finite
+     */
+    static void validateRadius(final double radius)
+    {
+        if (!(radius >= MINIMUM_RADIUS) ||
+            !Double.isFinite(radius))
+        {
+            throw new IllegalArgumentException(
+                    "Radius must be a finite number of at least " + MINIMUM_RADIUS + ".");
+        }
+    }
+
+    /**
+     * Validates a coordinate.
+     *
+     * @param coordinate The coordinate to validate
+     * @throws IllegalArgumentException if the coordinate is not a finite number
+     */
+    private static void validateCoordinate(final double coordinate)
+    {
+        if (!Double.isFinite(coordinate))
+        {
+            throw new IllegalArgumentException(
+                    "Coordinates must be finite numbers.");
+        }
+    }
+
+    /**
+     * The position of one creature, and where it is stored in its cell.
+     */
+    private static final class Position
+    {
+        private double x;
+        private double y;
+        private long   cellKey;
+        private int    indexInCell;
+
+        private Position(final double x,
+                         final double y,
+                         final long   cellKey)
+        {
+            this.x       = x;
+            this.y       = y;
+            this.cellKey = cellKey;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The StatusEffectType enum lists the effects that {@link StatusEffects}
+ * applies to the creatures of an {@link ArenaSimulation} on every tick.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public enum StatusEffectType
+{
+    /**
+     * The creature takes the magnitude as damage on every tick.
+     */
+    BURN,
+
+    /**
+     * The creature takes the magnitude as damage on every tick. It is
+     * kept apart from burn so each can be cleared on its own.
+     */
+    POISON,
+
+    /**
+     * A living creature is healed by the magnitude on every tick.
+     */
+    REGENERATION,
+
+    /**
+     * The creature cannot attack. The magnitude is not used.
+     */
+    STUN
+}
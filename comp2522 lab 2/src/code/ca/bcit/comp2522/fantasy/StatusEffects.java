@@ -0,0 +1,412 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+
+/**
+ * The StatusEffects class holds the burn, poison, regeneration and stun
+ * effects on the creatures of an {@link ArenaSimulation}. There is no
+ * object per effect: every effect type has its own columns of target
+ * indexes, magnitudes and remaining ticks, and a tick runs once down each
+ * column. Effects that run out, and effects that find their creature
+ * dead, are dropped in the same pass by moving the effects that stay to
+ * the front of their columns.
+ * On every tick burn and poison are applied first, then regeneration,
+ * then stun, so a creature killed by damage is not healed in the same
+ * tick. A creature can have any number of effects of the same type.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class StatusEffects
+{
+    private static final int MINIMUM_CAPACITY  = 1;
+    private static final int MINIMUM_DURATION  = 1;
+    private static final int MINIMUM_MAGNITUDE = 0;
+    private static final int GROWTH_FACTOR     = 2;
+    private static final int NO_TARGET         = -1;
+    private static final int LAST_TICK         = 1;
+    private static final int WORD_SHIFT        = 6;
+
+    private static final int BURN         = StatusEffectType.BURN.ordinal();
+    private static final int POISON       = StatusEffectType.POISON.ordinal();
+    private static final int REGENERATION = StatusEffectType.REGENERATION.ordinal();
+    private static final int STUN         = StatusEffectType.STUN.ordinal();
+
+    private final Column[] columns;
+    private int            maximumTarget;
+
+    /**
+     * Constructor for the StatusEffects class.
+     *
+     * @param capacity The number of effects of each type to make room for
+     * @throws IllegalArgumentException if capacity is less than {@value MINIMUM_CAPACITY}
+     */
+    public StatusEffects(final int capacity)
+    {
+        if (capacity < MINIMUM_CAPACITY)
+        {
+            throw new IllegalArgumentException(
+                    "Capacity cannot be less than " + MINIMUM_CAPACITY + ".");
+        }
+
+        this.columns       = new Column[StatusEffectType.values().length];
+        this.maximumTarget = NO_TARGET;
+
+        for (int i = 0; i < columns.length; i++)
+        {
+            columns[i] = new Column(capacity);
+        }
+    }
+
+    /**
+     * Adds an effect on a creature.
+     *
+     * @param type The type of the effect
+     * @param target The index of the creature in the arena
+     * @param magnitude The damage or healing per tick; not used for a stun
+     * @param duration The number of ticks the effect lasts
+     * @throws DamageException if the magnitude of a burn or poison is negative
+     * @throws HealingException if the magnitude of a regeneration is negative
+     * @throws IllegalArgumentException if type is null, target is negative or
+     * duration is less than {@value MINIMUM_DURATION}
+     */
+    public void add(final StatusEffectType type,
+                    final int              target,
+                    final int              magnitude,
+                    final int              duration)
+    {
+        if (type == null)
+        {
+            throw new IllegalArgumentException(
+                    "Effect type cannot be null.");
+        }
+
+        if (target < 0)
+        {
+            throw new IllegalArgumentException(
+                    "Target cannot be negative.");
+        }
+
+        if (duration < MINIMUM_DURATION)
+        {
+            throw new IllegalArgumentException(
+                    "Duration cannot be less than " + MINIMUM_DURATION + ".");
+        }
+
+        if (magnitude < MINIMUM_MAGNITUDE)
+        {
+            if (type == StatusEffectType.REGENERATION)
+            {
+                throw new HealingException(
+                        "Healing amount cannot be less than " + MINIMUM_MAGNITUDE + ".");
+            }
+
+            if (type != StatusEffectType.STUN)
+            {
+                throw new DamageException(
+                        "Damage cannot be less than " + MINIMUM_MAGNITUDE + ".");
+            }
+        }
+
+        final int stored;
+
+        // more than the maximum health never matters, and it cannot overflow a heal
+        stored = type == StatusEffectType.STUN ?
+                 MINIMUM_MAGNITUDE :
+                 Math.min(magnitude, Creature.MAXIMUM_HEALTH);
+
+        columns[type.ordinal()].add(target, stored, duration);
+        maximumTarget = Math.max(maximumTarget, target);
+    }
+
+    /**
+     * Removes every effect of one type.
+     *
+     * @param type The type of the effects to remove
+     * @throws IllegalArgumentException if type is null
+     */
+    public void clear(final StatusEffectType type)
+    {
+        if (type == null)
+        {
+            throw new IllegalArgumentException(
+                    "Effect type cannot be null.");
+        }
+
+        columns[type.ordinal()].size = 0;
+    }
+
+    /**
+     * Removes every effect.
+     */
+    public void clear()
+    {
+        for (final Column column : columns)
+        {
+            column.size = 0;
+        }
+
+        maximumTarget = NO_TARGET;
+    }
+
+    /**
+     * Gets the number of active effects of one type.
+     *
+     * @param type The type of the effects
+     * @return the number of active effects of that type
+     * @throws IllegalArgumentException if type is null
+     */
+    public int size(final StatusEffectType type)
+    {
+        if (type == null)
+        {
+            throw new IllegalArgumentException(
+                    "Effect type cannot be null.");
+        }
+
+        return columns[type.ordinal()].size;
+    }
+
+    /**
+     * Gets the number of active effects of every type.
+     *
+     * @return the number of active effects
+     */
+    public int size()
+    {
+        int size;
+        size = 0;
+
+        for (final Column column : columns)
+        {
+            size += column.size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Applies one tick of every effect to a health column, and sets the
+     * bit of every stunned creature in a mask. The mask is not cleared
+     * first.
+     *
+     * @param health The health of the creatures
+     * @param creatures The number of creatures in the health array
+     * @param stunned The bitmask of stunned creatures, at least
+     * {@link BulkHealth#words(int) BulkHealth.words(creatures)} long
+     * @return the number of creatures the effects killed
+     * @throws IllegalArgumentException if an effect targets a creature past the end
+     */
+    int tick(final int[]  health,
+             final int    creatures,
+             final long[] stunned)
+    {
+        if (maximumTarget >= creatures)
+        {
+            throw new IllegalArgumentException(
+                    "No creature with index " + maximumTarget + ".");
+        }
+
+        int died;
+        died = 0;
+
+        died += damage(columns[BURN], health);
+        died += damage(columns[POISON], health);
+
+        regenerate(columns[REGENERATION], health);
+        stun(columns[STUN], health, stunned);
+
+        return died;
+    }
+
+    /**
+     * Applies one tick of burn or poison and drops the effects that end.
+     *
+     * @param column The effects
+     * @param health The health of the creatures
+     * @return the number of creatures killed
+     */
+    private static int damage(final Column column,
+                              final int[]  health)
+    {
+        final int[] targets;
+        final int[] magnitudes;
+        final int   size;
+        int         kept;
+        int         died;
+
+        targets    = column.targets;
+        magnitudes = column.magnitudes;
+        size       = column.size;
+        kept       = 0;
+        died       = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            final int target;
+            final int before;
+
+            target = targets[i];
+            before = health[target];
+
+            if (before <= Creature.DEAD_HEALTH)
+            {
+                continue;
+            }
+
+            final int after;
+            after = Math.max(before - magnitudes[i], Creature.DEAD_HEALTH);
+
+            health[target] = after;
+
+            if (after == Creature.DEAD_HEALTH)
+            {
+                died++;
+            }
+            else
+            {
+                kept = column.keep(i, kept);
+            }
+        }
+
+        column.size = kept;
+
+        return died;
+    }
+
+    /**
+     * Applies one tick of regeneration and drops the effects that end.
+     * Dead creatures are not healed, and their effects are dropped.
+     *
+     * @param column The effects
+     * @param health The health of the creatures
+     */
+    private static void regenerate(final Column column,
+                                   final int[]  health)
+    {
+        final int[] targets;
+        final int[] magnitudes;
+        final int   size;
+        int         kept;
+
+        targets    = column.targets;
+        magnitudes = column.magnitudes;
+        size       = column.size;
+        kept       = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            final int target;
+            final int before;
+
+            target = targets[i];
+            before = health[target];
+
+            if (before > Creature.DEAD_HEALTH)
+            {
+                health[target] = Math.min(before + magnitudes[i], Creature.MAXIMUM_HEALTH);
+                kept           = column.keep(i, kept);
+            }
+        }
+
+        column.size = kept;
+    }
+
+    /**
+     * Marks the creatures stunned in this tick and drops the effects that end.
+     *
+     * @param column The effects
+     * @param health The health of the creatures
+     * @param stunned The bitmask of stunned creatures
+     */
+    private static void stun(final Column column,
+                             final int[]  health,
+                             final long[] stunned)
+    {
+        final int[] targets;
+        final int   size;
+        int         kept;
+
+        targets = column.targets;
+        size    = column.size;
+        kept    = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            final int target;
+            target = targets[i];
+
+            if (health[target] > Creature.DEAD_HEALTH)
+            {
+                stunned[target >>> WORD_SHIFT] |= 1L << target;
+                kept = column.keep(i, kept);
+            }
+        }
+
+        column.size = kept;
+    }
+
+    /**
+     * The target, magnitude and remaining ticks of every effect of one type.
+     */
+    private static final class Column
+    {
+        private int[] targets;
+        private int[] magnitudes;
+        private int[] remaining;
+        private int   size;
+
+        private Column(final int capacity)
+        {
+            this.targets    = new int[capacity];
+            this.magnitudes = new int[capacity];
+            this.remaining  = new int[capacity];
+        }
+
+        private void add(final int target,
+                         final int magnitude,
+                         final int duration)
+        {
+            if (size == targets.length)
+            {
+                final int capacity;
+                capacity = targets.length * GROWTH_FACTOR;
+
+                targets    = Arrays.copyOf(targets, capacity);
+                magnitudes = Arrays.copyOf(magnitudes, capacity);
+                remaining  = Arrays.copyOf(remaining, capacity);
+            }
+
+            targets[size]    = target;
+            magnitudes[size] = magnitude;
+            remaining[size]  = duration;
+            size++;
+        }
+
+        /**
+         * Counts down an effect that was applied, and moves it to the
+         * next kept place unless this was its last tick.
+         *
+         * @param from The index of the effect
+         * @param kept The number of effects kept so far
+         * @return the number of effects kept with this one
+         */
+        private int keep(final int from,
+                         final int kept)
+        {
+            if (remaining[from] == LAST_TICK)
+            {
+                return kept;
+            }
+
+            targets[kept]    = targets[from];
+            magnitudes[kept] = magnitudes[from];
+            remaining[kept]  = remaining[from] - 1;
+
+            return kept + 1;
+        }
+    }
+}
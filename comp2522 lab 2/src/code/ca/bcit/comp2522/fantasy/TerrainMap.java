@@ -0,0 +1,166 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * The TerrainMap class is a grid of square tiles that creatures can walk
+ * on or that are blocked. Tile (x, y) has the index {@code y * width + x}.
+ * Every change to the map increases its version, so a {@link Pathfinder}
+ * knows when the flow fields it has cached are out of date.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class TerrainMap
+{
+    private static final int MINIMUM_SIZE = 1;
+
+    private final int       width;
+    private final int       height;
+    private final boolean[] blocked;
+    private long            version;
+
+    /**
+     * Constructor for the TerrainMap class. Every tile is open.
+     *
+     * @param width The number of tiles in a row
+     * @param height The number of tiles in a column
+     * @throws IllegalArgumentException if width or height is less than {@value MINIMUM_SIZE}
+     * or the map has more tiles than an array can hold
+     */
+    public TerrainMap(final int width,
+                      final int height)
+    {
+        if (width < MINIMUM_SIZE ||
+            height < MINIMUM_SIZE)
+        {
+            throw new IllegalArgumentException(
+                    "Width and height cannot be less than " + MINIMUM_SIZE + ".");
+        }
+
+        if ((long) width * height > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                    "A map of " + width + " by " + height + " tiles is too large.");
+        }
+
+        this.width   = width;
+        this.height  = height;
+        this.blocked = new boolean[width * height];
+    }
+
+    /**
+     * Blocks or opens a tile. The version only changes if the tile does.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @param blocked true to block the tile, false to open it
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    public void setBlocked(final int     x,
+                           final int     y,
+                           final boolean blocked)
+    {
+        final int tile;
+        tile = tile(x, y);
+
+        if (this.blocked[tile] != blocked)
+        {
+            this.blocked[tile] = blocked;
+            version++;
+        }
+    }
+
+    /**
+     * Checks if a tile is blocked.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return true if the tile is blocked, false otherwise
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    public boolean isBlocked(final int x,
+                             final int y)
+    {
+        return blocked[tile(x, y)];
+    }
+
+    /**
+     * Checks if a tile is on the map.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return true if the tile is on the map, false otherwise
+     */
+    public boolean contains(final int x,
+                            final int y)
+    {
+        return x >= 0 &&
+               x < width &&
+               y >= 0 &&
+               y < height;
+    }
+
+    /**
+     * Gets the number of tiles in a row.
+     *
+     * @return the width of the map
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Gets the number of tiles in a column.
+     *
+     * @return the height of the map
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Gets the version of the map, which increases every time a tile is
+     * blocked or opened.
+     *
+     * @return the version of the map
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Checks if a tile is blocked, by index and without checks.
+     *
+     * @param tile The index of the tile
+     * @return true if the tile is blocked, false otherwise
+     */
+    boolean isBlocked(final int tile)
+    {
+        return blocked[tile];
+    }
+
+    /**
+     * Gets the index of a tile.
+     *
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return the index of the tile
+     * @throws IllegalArgumentException if the tile is not on the map
+     */
+    int tile(final int x,
+             final int y)
+    {
+        if (!contains(x, y))
+        {
+            throw new IllegalArgumentException(
+                    "Tile (" + x + ", " + y + ") is not on the map.");
+        }
+
+        return y * width + x;
+    }
+}
@@ -0,0 +1,276 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Tournament class runs a Monte Carlo tournament: every pair of
+ * creature configurations fights the same number of duels, and the
+ * results give a win rate with a confidence interval per pairing.
+ * The duels are split over a fork-join pool. Every task splits its own
+ * {@link SplittableRandom} before forking, so the random numbers each
+ * duel sees depend only on the seed, never on the number of threads.
+ * Every leaf task counts into its own {@link PairingStats} objects,
+ * only for the pairings its duels belong to, and when two tasks are
+ * joined only the pairing they share, if any, is merged. Every leaf
+ * task also reuses its creatures through a {@link PooledArena}, so
+ * duels do not create new creatures.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class Tournament
+{
+    private static final int MINIMUM_SPECS       = 2;
+    private static final int MINIMUM_DUELS       = 1;
+    private static final int MINIMUM_TURNS       = 1;
+    private static final int DUELS_PER_LEAF_TASK = 4096;
+    private static final int HALF                = 2;
+
+    private final List<CreatureSpec> specs;
+    private final int[]              pairingFirst;
+    private final int[]              pairingSecond;
+    private final int                duelsPerPairing;
+    private final int                maximumTurns;
+    private final long               seed;
+
+    /**
+     * Constructor for the Tournament class.
+     *
+     * @param specs The creature configurations that take part
+     * @param duelsPerPairing The number of duels between every two configurations
+     * @param maximumTurns The number of turns after which a duel is a draw
+     * @param seed The seed of the random numbers
+     */
+    public Tournament(final List<CreatureSpec> specs,
+                      final int                duelsPerPairing,
+                      final int                maximumTurns,
+                      final long               seed)
+    {
+        if (specs == null ||
+            specs.size() < MINIMUM_SPECS)
+        {
+            throw new IllegalArgumentException(
+                    "A tournament needs at least " + MINIMUM_SPECS + " configurations.");
+        }
+
+        for (final CreatureSpec spec : specs)
+        {
+            if (spec == null)
+            {
+                throw new IllegalArgumentException(
+                        "Configurations cannot be null.");
+            }
+        }
+
+        if (duelsPerPairing < MINIMUM_DUELS)
+        {
+            throw new IllegalArgumentException(
+                    "Duels per pairing cannot be less than " + MINIMUM_DUELS + ".");
+        }
+
+        if (maximumTurns < MINIMUM_TURNS)
+        {
+            throw new IllegalArgumentException(
+                    "Maximum turns cannot be less than " + MINIMUM_TURNS + ".");
+        }
+
+        final int pairings;
+        pairings = specs.size() * (specs.size() - 1) / HALF;
+
+        this.specs           = new ArrayList<>(specs);
+        this.pairingFirst    = new int[pairings];
+        this.pairingSecond   = new int[pairings];
+        this.duelsPerPairing = duelsPerPairing;
+        this.maximumTurns    = maximumTurns;
+        this.seed            = seed;
+
+        int pairing;
+        pairing = 0;
+
+        for (int i = 0; i < specs.size(); i++)
+        {
+            for (int j = i + 1; j < specs.size(); j++)
+            {
+                pairingFirst[pairing]  = i;
+                pairingSecond[pairing] = j;
+                pairing++;
+            }
+        }
+    }
+
+    /**
+     * Runs the tournament on the common fork-join pool.
+     *
+     * @return the stats of every pairing
+     */
+    public List<PairingStats> run()
+    {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the tournament on the given pool.
+     *
+     * @param pool The pool that runs the duels
+     * @return the stats of every pairing
+     */
+    public List<PairingStats> run(final ForkJoinPool pool)
+    {
+        final long               totalDuels;
+        final PairingStats[]     stats;
+        final List<PairingStats> results;
+
+        totalDuels = (long) pairingFirst.length * duelsPerPairing;
+        stats      = pool.invoke(new DuelTask(0, totalDuels, new SplittableRandom(seed)));
+        results    = new ArrayList<>(stats.length);
+
+        for (final PairingStats pairingStats : stats)
+        {
+            results.add(pairingStats);
+        }
+
+        return results;
+    }
+
+    /**
+     * Creates empty stats for a range of pairings.
+     *
+     * @param firstPairing The first pairing, inclusive
+     * @param lastPairing The last pairing, inclusive
+     * @return one PairingStats per pairing of the range, the first one at index 0
+     */
+    private PairingStats[] newStats(final int firstPairing,
+                                    final int lastPairing)
+    {
+        final PairingStats[] stats;
+        stats = new PairingStats[lastPairing - firstPairing + 1];
+
+        for (int i = 0; i < stats.length; i++)
+        {
+            stats[i] = new PairingStats(specs.get(pairingFirst[firstPairing + i]),
+                                        specs.get(pairingSecond[firstPairing + i]));
+        }
+
+        return stats;
+    }
+
+    /**
+     * Gets the pairing a duel belongs to.
+     *
+     * @param duel The number of the duel
+     * @return the pairing of the duel
+     */
+    private int pairingOf(final long duel)
+    {
+        return (int) (duel / duelsPerPairing);
+    }
+
+    /**
+     * A fork-join task that runs a range of duels. Duel number {@code n}
+     * belongs to pairing {@code n / duelsPerPairing}. A task returns the
+     * stats of the pairings its range touches, starting with the pairing
+     * of its first duel. Tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class DuelTask
+            extends RecursiveTask<PairingStats[]>
+    {
+        private final long             from;
+        private final long             to;
+        private final SplittableRandom random;
+
+        private DuelTask(final long             from,
+                         final long             to,
+                         final SplittableRandom random)
+        {
+            this.from   = from;
+            this.to     = to;
+            this.random = random;
+        }
+
+        @Override
+        protected PairingStats[] compute()
+        {
+            if (to - from <= DUELS_PER_LEAF_TASK)
+            {
+                return runDuels();
+            }
+
+            final long     middle;
+            final DuelTask left;
+            final DuelTask right;
+
+            middle = (from + to) >>> 1;
+            left   = new DuelTask(from, middle, random.split());
+            right  = new DuelTask(middle, to, random);
+
+            left.fork();
+
+            final PairingStats[] rightStats;
+            final PairingStats[] leftStats;
+
+            rightStats = right.compute();
+            leftStats  = left.join();
+
+            final int            offset;
+            final PairingStats[] stats;
+
+            // the right half starts at or after the last pairing of the left half; at most one pairing is shared
+            offset = pairingOf(middle) - pairingOf(from);
+            stats  = Arrays.copyOf(leftStats, offset + rightStats.length);
+
+            for (int i = 0; i < rightStats.length; i++)
+            {
+                if (stats[offset + i] == null)
+                {
+                    stats[offset + i] = rightStats[i];
+                }
+                else
+                {
+                    stats[offset + i].merge(rightStats[i]);
+                }
+            }
+
+            return stats;
+        }
+
+        private PairingStats[] runDuels()
+        {
+            final int            firstPairing;
+            final PairingStats[] stats;
+            final Duel           duel;
+            final PooledArena    arena;
+
+            firstPairing = pairingOf(from);
+            stats        = newStats(firstPairing, pairingOf(to - 1));
+            duel  = new Duel(maximumTurns);
+            arena = new PooledArena(specs);
+
+            for (long n = from; n < to; n++)
+            {
+                final int      pairing;
+                final Creature first;
+                final Creature second;
+                final int      result;
+
+                pairing = pairingOf(n);
+                first   = arena.acquire(pairingFirst[pairing]);
+                second  = arena.acquire(pairingSecond[pairing]);
+                result  = duel.fight(first, second, random);
+
+                stats[pairing - firstPairing].record(result, duel.getTurns());
+                arena.releaseAll();
+            }
+
+            return stats;
+        }
+    }
+}
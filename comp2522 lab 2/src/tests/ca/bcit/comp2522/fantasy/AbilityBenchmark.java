@@ -0,0 +1,180 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Compares the direct attack methods of {@link Dragon}, {@link Elf} and
+ * {@link Orc} with the same attacks loaded from {@code abilities.properties}
+ * and used through {@link ConfiguredCreature}. Both sides run the same
+ * sequence of attacks and restores, and must deal the same total damage.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class AbilityBenchmark
+{
+    private static final int ACTIONS        = 10_000_000;
+    private static final int ROUNDS         = 5;
+    private static final int RESTORE_EVERY  = 3;
+    private static final int RESTORE_AMOUNT = 10;
+    private static final int HEALTH         = 1000;
+
+    public static void main(final String[] args)
+    {
+        final Map<String, CreatureKind> kinds;
+        kinds = AbilityBook.loadDefaults();
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            System.out.println("=== Round " + round + " ===");
+
+            compare("dragon", runDragon(), runConfigured(kinds.get("dragon"), "breatheFire", 0));
+            compare("elf   ", runElf(), runConfigured(kinds.get("elf"), "castSpell", 0));
+            compare("orc   ", runOrc(), runConfigured(kinds.get("orc"), "berserk", Orc.MINIMUM_BERSERK_RAGE));
+        }
+    }
+
+    private static long[] runDragon()
+    {
+        final Dragon   dragon;
+        final Creature target;
+        final long     start;
+        long           damage;
+
+        dragon = new Dragon("Dragon", new Date(0L), HEALTH, 0);
+        target = newTarget();
+        damage = 0;
+        start  = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            if (i % RESTORE_EVERY == 0)
+            {
+                dragon.restoreFirePower(RESTORE_AMOUNT);
+            }
+
+            damage += attack(target, dragon.tryBreatheFire(target) == ActionResult.SUCCESS);
+        }
+
+        return new long[] {System.nanoTime() - start, damage};
+    }
+
+    private static long[] runElf()
+    {
+        final Elf      elf;
+        final Creature target;
+        final long     start;
+        long           damage;
+
+        elf    = new Elf("Elf", new Date(0L), HEALTH, 0);
+        target = newTarget();
+        damage = 0;
+        start  = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            if (i % RESTORE_EVERY == 0)
+            {
+                elf.restoreMana(RESTORE_AMOUNT);
+            }
+
+            damage += attack(target, elf.tryCastSpell(target) == ActionResult.SUCCESS);
+        }
+
+        return new long[] {System.nanoTime() - start, damage};
+    }
+
+    private static long[] runOrc()
+    {
+        final Orc      orc;
+        final Creature target;
+        final long     start;
+        long           damage;
+
+        orc    = new Orc("Orc", new Date(0L), HEALTH, Orc.MINIMUM_BERSERK_RAGE);
+        target = newTarget();
+        damage = 0;
+        start  = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            damage += attack(target, orc.tryBerserk(target) == ActionResult.SUCCESS);
+        }
+
+        return new long[] {System.nanoTime() - start, damage};
+    }
+
+    private static long[] runConfigured(final CreatureKind kind,
+                                        final String       abilityName,
+                                        final int          startingResource)
+    {
+        final ConfiguredCreature creature;
+        final Ability            ability;
+        final Creature           target;
+        final boolean            restores;
+        final long               start;
+        long                     damage;
+
+        creature = kind.create(kind.getName(), new Date(0L), HEALTH, startingResource);
+        ability  = kind.getAbility(abilityName);
+        target   = newTarget();
+        restores = ability.getCost() > 0;
+        damage   = 0;
+        start    = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            if (restores &&
+                i % RESTORE_EVERY == 0)
+            {
+                creature.restoreResource(RESTORE_AMOUNT);
+            }
+
+            damage += attack(target, creature.use(ability, target) == ActionResult.SUCCESS);
+        }
+
+        return new long[] {System.nanoTime() - start, damage};
+    }
+
+    /* Returns the damage just dealt and heals the target back to full. */
+    private static int attack(final Creature target,
+                              final boolean  success)
+    {
+        if (!success)
+        {
+            return 0;
+        }
+
+        final int damage;
+        damage = HEALTH - target.getHealth();
+
+        target.heal(damage);
+
+        return damage;
+    }
+
+    private static void compare(final String label,
+                                final long[] direct,
+                                final long[] configured)
+    {
+        if (direct[1] != configured[1])
+        {
+            throw new IllegalStateException(
+                    label.trim() + " dealt " + direct[1] + " directly but " + configured[1] + " configured.");
+        }
+
+        System.out.printf("%s direct: %5.2f ns/action   configured: %5.2f ns/action%n",
+                          label,
+                          (double) direct[0] / ACTIONS,
+                          (double) configured[0] / ACTIONS);
+    }
+
+    private static Creature newTarget()
+    {
+        return new Creature("Target", new Date(0L), HEALTH);
+    }
+}
@@ -0,0 +1,179 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the cost of a failed action at a high failure rate:
+ * throwing a new exception with a stack trace (the old behaviour),
+ * throwing the shared stackless exception of {@link Dragon#breatheFire(Creature)},
+ * and checking the result of {@link Dragon#tryBreatheFire(Creature)}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class ActionFailureBenchmark
+{
+    private static final int    ACTIONS        = 2_000_000;
+    private static final int    ROUNDS         = 5;
+    private static final double FAILURE_RATE   = 0.9;
+    private static final int    RESTORE_AMOUNT = 10;
+    private static final int    HEAL_AMOUNT    = 1000;
+    private static final long   SEED           = 42L;
+
+    public static void main(final String[] args)
+    {
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            System.out.println("=== Round " + round + " (failure rate " + FAILURE_RATE + ") ===");
+            report("new exception with stack trace", runFreshException());
+            report("shared stackless exception    ", runSharedException());
+            report("tryBreatheFire result         ", runTryApi());
+        }
+    }
+
+    private static long runFreshException()
+    {
+        final Dragon           dragon;
+        final Creature         target;
+        final SplittableRandom random;
+        final long             start;
+        int                    failures;
+
+        dragon   = newDragon();
+        target   = newTarget();
+        random   = new SplittableRandom(SEED);
+        failures = 0;
+        start    = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            prepare(dragon, target, random);
+
+            try
+            {
+                // the old breatheFire created a new exception on every failure
+                if (dragon.getFirePower() < Dragon.FIRE_POWER_DECREMENT)
+                {
+                    throw new LowFirePowerException(
+                            "Not enough firePower to breathe fire! ");
+                }
+                dragon.breatheFire(target);
+            }
+            catch (LowFirePowerException e)
+            {
+                failures++;
+            }
+        }
+
+        return finish(start, failures);
+    }
+
+    private static long runSharedException()
+    {
+        final Dragon           dragon;
+        final Creature         target;
+        final SplittableRandom random;
+        final long             start;
+        int                    failures;
+
+        dragon   = newDragon();
+        target   = newTarget();
+        random   = new SplittableRandom(SEED);
+        failures = 0;
+        start    = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            prepare(dragon, target, random);
+
+            try
+            {
+                dragon.breatheFire(target);
+            }
+            catch (LowFirePowerException e)
+            {
+                failures++;
+            }
+        }
+
+        return finish(start, failures);
+    }
+
+    private static long runTryApi()
+    {
+        final Dragon           dragon;
+        final Creature         target;
+        final SplittableRandom random;
+        final long             start;
+        int                    failures;
+
+        dragon   = newDragon();
+        target   = newTarget();
+        random   = new SplittableRandom(SEED);
+        failures = 0;
+        start    = System.nanoTime();
+
+        for (int i = 0; i < ACTIONS; i++)
+        {
+            prepare(dragon, target, random);
+
+            if (dragon.tryBreatheFire(target) != ActionResult.SUCCESS)
+            {
+                failures++;
+            }
+        }
+
+        return finish(start, failures);
+    }
+
+    /* Gives the dragon just enough firepower for one attack, except at the failure rate. */
+    private static void prepare(final Dragon           dragon,
+                                final Creature         target,
+                                final SplittableRandom random)
+    {
+        if (random.nextDouble() >= FAILURE_RATE)
+        {
+            dragon.restoreFirePower(RESTORE_AMOUNT);
+        }
+        if (!target.isAlive())
+        {
+            target.heal(HEAL_AMOUNT);
+        }
+    }
+
+    private static long finish(final long start,
+                               final int  failures)
+    {
+        final long elapsed;
+        elapsed = System.nanoTime() - start;
+
+        if (failures == 0)
+        {
+            throw new IllegalStateException("Expected failures.");
+        }
+
+        return elapsed;
+    }
+
+    private static void report(final String label,
+                               final long   elapsedNanos)
+    {
+        System.out.printf("%s: %6.1f ns/action%n",
+                          label,
+                          (double) elapsedNanos / ACTIONS);
+    }
+
+    private static Dragon newDragon()
+    {
+        return new Dragon("Dragon", new Date(0L), 1000, 0);
+    }
+
+    private static Creature newTarget()
+    {
+        return new Creature("Target", new Date(0L), 1000);
+    }
+}
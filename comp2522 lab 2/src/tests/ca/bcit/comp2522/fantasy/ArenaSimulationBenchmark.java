@@ -0,0 +1,316 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Runs the same battle of a million dragons, elves and orcs, each one
+ * attacking the next, in two ways: with Creature objects and their
+ * tryBreatheFire, tryCastSpell and tryBerserk, and with an
+ * {@link ArenaSimulation}. Both must end with the same health and
+ * resource for every creature and the same number of successful and
+ * failed attacks. The arena must reach
+ * {@value TARGET_ACTIONS_PER_SECOND} actions per second. A creature
+ * hurt below the health of a new creature, or dead, must still be
+ * copied into an arena as it is, and a creature with its own balance
+ * profile must be refused.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class ArenaSimulationBenchmark
+{
+    private static final int    CREATURES                 = 1_000_000;
+    private static final int    ROUNDS                    = 5;
+    private static final int    TICKS                     = 20;
+    private static final int    TYPES                     = 3;
+    private static final long   SEED                      = 42L;
+    private static final long   TARGET_ACTIONS_PER_SECOND = 10_000_000L;
+    private static final double NANOS_PER_SECOND          = 1e9;
+    private static final double NANOS_PER_MILLI           = 1e6;
+    private static final double MILLION                   = 1e6;
+    private static final int    HURT_HEALTH               = 40;
+    private static final int    TUNED_DAMAGE              = 25;
+
+    public static void main(final String[] args)
+    {
+        final int[] types;
+        final int[] health;
+        final int[] resources;
+
+        types     = new int[CREATURES];
+        health    = new int[CREATURES];
+        resources = new int[CREATURES];
+
+        checkCopiesHurtCreatures();
+        checkRefusesTunedCreatures();
+        randomCreatures(types, health, resources);
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final Creature[]      creatures;
+            final ArenaSimulation arena;
+            final long[]          objectActions;
+            final long            objectNanos;
+            final long            arenaNanos;
+            final long            arenaActions;
+            final double          actionsPerSecond;
+            long                  begin;
+
+            creatures = createCreatures(types, health, resources);
+            arena     = createArena(creatures);
+
+            begin         = System.nanoTime();
+            objectActions = runObjects(creatures);
+            objectNanos   = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            arena.run(TICKS);
+            arenaNanos = System.nanoTime() - begin;
+
+            check(creatures, objectActions, arena);
+
+            arenaActions     = arena.getSuccessfulActions() + arena.getFailedActions();
+            actionsPerSecond = arenaActions * NANOS_PER_SECOND / arenaNanos;
+
+            if (actionsPerSecond < TARGET_ACTIONS_PER_SECOND)
+            {
+                throw new IllegalStateException(
+                        "The arena ran " + (long) actionsPerSecond + " actions per second, below the target.");
+            }
+
+            System.out.printf("Round %d: %d actions (%d failed) in %d ticks%n",
+                              round, arenaActions, arena.getFailedActions(), TICKS);
+            System.out.printf("  objects %8.1f ms %7.1f M actions/s%n",
+                              objectNanos / NANOS_PER_MILLI,
+                              arenaActions * NANOS_PER_SECOND / objectNanos / MILLION);
+            System.out.printf("  arena   %8.1f ms %7.1f M actions/s (target %d M)%n",
+                              arenaNanos / NANOS_PER_MILLI,
+                              actionsPerSecond / MILLION,
+                              (long) (TARGET_ACTIONS_PER_SECOND / MILLION));
+        }
+    }
+
+    /* Copying is not creating, so a creature below the minimum health of a new one is accepted. */
+    private static void checkCopiesHurtCreatures()
+    {
+        final Creature        hurt;
+        final Creature        dead;
+        final ArenaSimulation arena;
+
+        hurt  = new Dragon("Dragon", new Date(0L), Creature.MINIMUM_HEALTH, Dragon.MAXIMUM_FIRE_POWER);
+        dead  = new Orc("Orc", new Date(0L), Creature.MINIMUM_HEALTH, Orc.MAXIMUM_RAGE);
+        arena = new ArenaSimulation(1);
+
+        hurt.takeDamage(Creature.MINIMUM_HEALTH - HURT_HEALTH);
+        dead.takeDamage(Creature.MAXIMUM_HEALTH);
+
+        if (arena.getHealth(arena.add(hurt)) != HURT_HEALTH ||
+            arena.isAlive(arena.add(dead)))
+        {
+            throw new IllegalStateException(
+                    "A hurt or dead creature was not copied as it is.");
+        }
+    }
+
+    /* The arena attacks with the default numbers, so a creature tuned otherwise cannot be copied. */
+    private static void checkRefusesTunedCreatures()
+    {
+        final Creature        tuned;
+        final ArenaSimulation arena;
+
+        tuned = new Elf("Elf", new Date(0L), Creature.MINIMUM_HEALTH, Elf.MAXIMUM_MANA,
+                        BalanceProfile.DEFAULT.withSpellDamage(TUNED_DAMAGE));
+        arena = new ArenaSimulation(1);
+
+        try
+        {
+            arena.add(tuned);
+        }
+        catch (IllegalArgumentException e)
+        {
+            if (arena.size() != 0)
+            {
+                throw new IllegalStateException(
+                        "A refused creature was still added.");
+            }
+
+            return;
+        }
+
+        throw new IllegalStateException(
+                "A creature with its own balance profile was copied into an arena.");
+    }
+
+    private static void randomCreatures(final int[] types,
+                                        final int[] health,
+                                        final int[] resources)
+    {
+        final SplittableRandom random;
+        random = new SplittableRandom(SEED);
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            types[i]  = random.nextInt(TYPES);
+            health[i] = random.nextInt(Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH + 1);
+
+            if (types[i] == CreatureType.DRAGON.ordinal())
+            {
+                resources[i] = random.nextInt(Dragon.MAXIMUM_FIRE_POWER + 1);
+            }
+            else if (types[i] == CreatureType.ELF.ordinal())
+            {
+                resources[i] = random.nextInt(Elf.MAXIMUM_MANA + 1);
+            }
+            else
+            {
+                resources[i] = random.nextInt(Orc.MAXIMUM_RAGE + 1);
+            }
+        }
+    }
+
+    private static Creature[] createCreatures(final int[] types,
+                                              final int[] health,
+                                              final int[] resources)
+    {
+        final Creature[] creatures;
+        final Date       birth;
+
+        creatures = new Creature[CREATURES];
+        birth     = new Date(0L);
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            if (types[i] == CreatureType.DRAGON.ordinal())
+            {
+                creatures[i] = new Dragon("Dragon", birth, health[i], resources[i]);
+            }
+            else if (types[i] == CreatureType.ELF.ordinal())
+            {
+                creatures[i] = new Elf("Elf", birth, health[i], resources[i]);
+            }
+            else
+            {
+                creatures[i] = new Orc("Orc", birth, health[i], resources[i]);
+            }
+        }
+
+        return creatures;
+    }
+
+    private static ArenaSimulation createArena(final Creature[] creatures)
+    {
+        final ArenaSimulation arena;
+        arena = new ArenaSimulation(CREATURES);
+
+        for (final Creature creature : creatures)
+        {
+            arena.add(creature);
+        }
+
+        arena.targetNextCreature();
+
+        return arena;
+    }
+
+    /* Every living creature attacks the next one if it is alive, in index order; returns successes and failures. */
+    private static long[] runObjects(final Creature[] creatures)
+    {
+        long succeeded;
+        long failed;
+
+        succeeded = 0;
+        failed    = 0;
+
+        for (int tick = 0; tick < TICKS; tick++)
+        {
+            for (int i = 0; i < creatures.length; i++)
+            {
+                final Creature attacker;
+                final Creature target;
+
+                attacker = creatures[i];
+                target   = creatures[(i + 1) % creatures.length];
+
+                if (!attacker.isAlive() ||
+                    !target.isAlive())
+                {
+                    continue;
+                }
+
+                if (attack(attacker, target) == ActionResult.SUCCESS)
+                {
+                    succeeded++;
+                }
+                else
+                {
+                    failed++;
+                }
+            }
+        }
+
+        return new long[] {succeeded, failed};
+    }
+
+    private static ActionResult attack(final Creature attacker,
+                                       final Creature target)
+    {
+        if (attacker instanceof Dragon)
+        {
+            return ((Dragon) attacker).tryBreatheFire(target);
+        }
+
+        if (attacker instanceof Elf)
+        {
+            return ((Elf) attacker).tryCastSpell(target);
+        }
+
+        return ((Orc) attacker).tryBerserk(target);
+    }
+
+    private static void check(final Creature[]      creatures,
+                              final long[]          objectActions,
+                              final ArenaSimulation arena)
+    {
+        if (objectActions[0] != arena.getSuccessfulActions() ||
+            objectActions[1] != arena.getFailedActions())
+        {
+            throw new IllegalStateException(
+                    "Objects made " + objectActions[0] + " and failed " + objectActions[1] +
+                    " attacks, the arena " + arena.getSuccessfulActions() + " and " + arena.getFailedActions() + ".");
+        }
+
+        for (int i = 0; i < creatures.length; i++)
+        {
+            final int expected;
+            final int actual;
+
+            if (creatures[i] instanceof Dragon)
+            {
+                expected = ((Dragon) creatures[i]).getFirePower();
+                actual   = arena.getFirePower(i);
+            }
+            else if (creatures[i] instanceof Elf)
+            {
+                expected = ((Elf) creatures[i]).getMana();
+                actual   = arena.getMana(i);
+            }
+            else
+            {
+                expected = ((Orc) creatures[i]).getRage();
+                actual   = arena.getRage(i);
+            }
+
+            if (creatures[i].getHealth() != arena.getHealth(i) ||
+                expected != actual)
+            {
+                throw new IllegalStateException(
+                        "Creature " + i + " has " + arena.getHealth(i) + "/" + actual +
+                        " in the arena, not " + creatures[i].getHealth() + "/" + expected + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Saves a world of a million creatures with {@link ArenaSnapshot} and
+ * measures how long it takes to save it, to load it, to read one field
+ * of every record and to create every creature again. Every creature
+ * created from the snapshot must have the state and the balance profile
+ * of the one saved, and must return to its first state when reset.
+ * A record damaged after saving must be reported with an
+ * IllegalStateException when it is read.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class ArenaSnapshotBenchmark
+{
+    private static final int  CREATURES    = 1_000_000;
+    private static final int  ROUNDS       = 5;
+    private static final int  HEALTH       = 500;
+    private static final int  RESOURCE     = 20;
+    private static final int  MAXIMUM_HIT  = 300;
+    private static final long SEED         = 42L;
+    private static final long BIRTH_DAY    = 10_000L;
+    private static final int  TYPES        = 3;
+    private static final int  TUNED_EVERY  = 7;
+    private static final int  TUNED_DAMAGE = 25;
+    private static final int  TUNED_COST   = 3;
+
+    // the layout of the first record, as described by ArenaSnapshot
+    private static final int FIRST_RECORD        = 16;
+    private static final int TYPE_FIELD          = 0;
+    private static final int NAME_OFFSET_FIELD   = 4;
+    private static final int NAME_LENGTH_FIELD   = 8;
+    private static final int HEALTH_FIELD        = 16;
+    private static final int PROFILE_INDEX_FIELD = 32;
+    private static final int INT_BYTES           = 4;
+    private static final int UNKNOWN_TYPE        = 9;
+    private static final int TOO_MUCH_HEALTH     = 100_000;
+    private static final int PAST_THE_END        = 1 << 20;
+
+    private static final BalanceProfile TUNED = BalanceProfile.DEFAULT.withBreatheFireDamage(TUNED_DAMAGE)
+                                                                      .withSpellDamage(TUNED_DAMAGE)
+                                                                      .withBerserkDamage(TUNED_DAMAGE)
+                                                                      .withManaCost(TUNED_COST);
+
+    public static void main(final String[] args)
+            throws IOException
+    {
+        final List<Creature> world;
+        final Path           file;
+
+        world = newWorld();
+        file  = Files.createTempFile("arena", ".snapshot");
+
+        try
+        {
+            for (int round = 1; round <= ROUNDS; round++)
+            {
+                final long          saveStart;
+                final long          loadStart;
+                final long          scanStart;
+                final long          createStart;
+                final long          end;
+                final ArenaSnapshot snapshot;
+                long                totalHealth;
+
+                System.out.println("=== Round " + round + " ===");
+
+                saveStart = System.nanoTime();
+                ArenaSnapshot.save(file, world);
+
+                loadStart = System.nanoTime();
+                snapshot  = ArenaSnapshot.load(file);
+
+                scanStart   = System.nanoTime();
+                totalHealth = 0;
+
+                for (int i = 0; i < snapshot.size(); i++)
+                {
+                    totalHealth += snapshot.getHealth(i);
+                }
+
+                createStart = System.nanoTime();
+
+                for (int i = 0; i < snapshot.size(); i++)
+                {
+                    snapshot.get(i);
+                }
+
+                end = System.nanoTime();
+
+                check(world, snapshot, totalHealth);
+
+                System.out.printf("save: %6.1f ms   load: %6.3f ms   read health: %6.1f ms   create all: %6.1f ms   (%d bytes)%n",
+                                  (loadStart - saveStart) / 1e6,
+                                  (scanStart - loadStart) / 1e6,
+                                  (createStart - scanStart) / 1e6,
+                                  (end - createStart) / 1e6,
+                                  Files.size(file));
+            }
+
+            checkDamagedRecords(file);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /* Damages one field of the first of two records at a time; the second record must still be read. */
+    private static void checkDamagedRecords(final Path file)
+            throws IOException
+    {
+        final List<Creature> pair;
+        pair = List.of(new Dragon("Dragon", new Date(0L), HEALTH, RESOURCE),
+                       new Orc("Orc", new Date(0L), HEALTH, RESOURCE, TUNED));
+
+        rejectsDamage(file, pair, TYPE_FIELD, UNKNOWN_TYPE);
+        rejectsDamage(file, pair, TYPE_FIELD, -1);
+        rejectsDamage(file, pair, NAME_OFFSET_FIELD, PAST_THE_END);
+        rejectsDamage(file, pair, NAME_OFFSET_FIELD, 0);
+        rejectsDamage(file, pair, NAME_LENGTH_FIELD, -1);
+        rejectsDamage(file, pair, NAME_LENGTH_FIELD, PAST_THE_END);
+        rejectsDamage(file, pair, HEALTH_FIELD, TOO_MUCH_HEALTH);
+        rejectsDamage(file, pair, PROFILE_INDEX_FIELD, pair.size());
+        rejectsDamage(file, pair, PROFILE_INDEX_FIELD, -1);
+    }
+
+    private static void rejectsDamage(final Path           file,
+                                      final List<Creature> creatures,
+                                      final int            field,
+                                      final int            value)
+            throws IOException
+    {
+        final ArenaSnapshot snapshot;
+
+        ArenaSnapshot.save(file, creatures);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+        {
+            channel.write(ByteBuffer.allocate(INT_BYTES).putInt(0, value), FIRST_RECORD + field);
+        }
+
+        snapshot = ArenaSnapshot.load(file);
+
+        if (!snapshot.get(1).getName().equals(creatures.get(1).getName()))
+        {
+            throw new IllegalStateException(
+                    "A damaged record spoiled the next one.");
+        }
+
+        try
+        {
+            snapshot.get(0);
+        }
+        catch (IllegalStateException e)
+        {
+            return;
+        }
+
+        throw new IllegalStateException(
+                "Field " + field + " of a record was set to " + value + " and the record was still read.");
+    }
+
+    /* Creates Dragons, Elves and Orcs, some with a tuned profile, and damages them so their state differs from the first one. */
+    private static List<Creature> newWorld()
+    {
+        final List<Creature>   world;
+        final SplittableRandom random;
+        final Date             birth;
+
+        world  = new ArrayList<>(CREATURES);
+        random = new SplittableRandom(SEED);
+        birth  = Date.from(LocalDate.ofEpochDay(BIRTH_DAY)
+                                   .atStartOfDay(Creature.getClock().getZone())
+                                   .toInstant());
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            final Creature       creature;
+            final BalanceProfile profile;
+
+            profile = i % TUNED_EVERY == 0 ? TUNED : BalanceProfile.DEFAULT;
+
+            switch (i % TYPES)
+            {
+                case 0:
+                    creature = new Dragon("Dragon " + i, birth, HEALTH, RESOURCE, profile);
+                    break;
+                case 1:
+                    creature = new Elf("Elf " + i, birth, HEALTH, RESOURCE, profile);
+                    break;
+                default:
+                    creature = new Orc("Orc " + i, birth, HEALTH, RESOURCE, profile);
+                    break;
+            }
+
+            creature.takeDamage(random.nextInt(MAXIMUM_HIT));
+            world.add(creature);
+        }
+
+        return world;
+    }
+
+    private static void check(final List<Creature> world,
+                              final ArenaSnapshot  snapshot,
+                              final long           totalHealth)
+    {
+        long expectedHealth;
+        expectedHealth = 0;
+
+        for (int i = 0; i < world.size(); i++)
+        {
+            final Creature saved;
+            final Creature loaded;
+
+            saved  = world.get(i);
+            loaded = snapshot.get(i);
+
+            expectedHealth += saved.getHealth();
+
+            if (!saved.getName().equals(loaded.getName()) ||
+                saved.getBirthEpochDay() != loaded.getBirthEpochDay() ||
+                saved.getHealth() != loaded.getHealth() ||
+                CreatureType.of(saved) != CreatureType.of(loaded) ||
+                !profileOf(saved).equals(profileOf(loaded)))
+            {
+                throw new IllegalStateException(
+                        "Creature " + i + " was not restored.");
+            }
+
+            loaded.reset();
+
+            if (loaded.getHealth() != HEALTH)
+            {
+                throw new IllegalStateException(
+                        "Creature " + i + " did not reset to its first health.");
+            }
+        }
+
+        if (totalHealth != expectedHealth)
+        {
+            throw new IllegalStateException(
+                    "Expected a total health of " + expectedHealth + " but read " + totalHealth + ".");
+        }
+    }
+
+    private static BalanceProfile profileOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getBalanceProfile();
+        }
+
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getBalanceProfile();
+        }
+
+        return ((Orc) creature).getBalanceProfile();
+    }
+}
@@ -0,0 +1,104 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a balance sweep: a small grid around the default profile and a
+ * random search, every profile fighting a tournament of thousands of
+ * duels. The sweep runs on one thread and on the common pool, the two
+ * runs must find the same results, and the Pareto front of fairness
+ * against fight length is printed.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class BalanceSweepBenchmark
+{
+    private static final int    DUELS_PER_PAIRING = 2_000;
+    private static final int    MAXIMUM_TURNS     = 200;
+    private static final int    RANDOM_PROFILES   = 64;
+    private static final long   SEED              = 42L;
+    private static final int    SINGLE_THREAD     = 1;
+    private static final double NANOS_PER_SECOND  = 1e9;
+
+    private static final int[] FIRE_DAMAGES    = {15, 20, 25};
+    private static final int[] SPELL_DAMAGES   = {10, 14};
+    private static final int[] BERSERK_DAMAGES = {10, 15};
+    private static final int[] RAGE_INCREMENTS = {3, 5};
+
+    private static final List<CreatureSpec> SPECS = List.of(
+            new CreatureSpec(CreatureType.DRAGON, 400, 50),
+            new CreatureSpec(CreatureType.ELF, 400, 50),
+            new CreatureSpec(CreatureType.ORC, 400, 5));
+
+    public static void main(final String[] args)
+    {
+        final BalanceSweep         sweep;
+        final List<BalanceProfile> profiles;
+        final ForkJoinPool         pool;
+        final List<BalanceResult>  single;
+        final List<BalanceResult>  parallel;
+        final long                 singleNanos;
+        final long                 parallelNanos;
+        long                       start;
+
+        sweep    = new BalanceSweep(SPECS, DUELS_PER_PAIRING, MAXIMUM_TURNS, SEED);
+        profiles = new ArrayList<>(BalanceSweep.grid(BalanceProfile.DEFAULT,
+                                                     FIRE_DAMAGES,
+                                                     SPELL_DAMAGES,
+                                                     BERSERK_DAMAGES,
+                                                     RAGE_INCREMENTS));
+
+        profiles.addAll(BalanceSweep.random(BalanceProfile.DEFAULT, RANDOM_PROFILES, SEED));
+
+        // warm up, so neither timed run pays for compiling the duel code
+        sweep.evaluate(profiles);
+
+        pool        = new ForkJoinPool(SINGLE_THREAD);
+        start       = System.nanoTime();
+        single      = sweep.evaluate(profiles, pool);
+        singleNanos = System.nanoTime() - start;
+
+        pool.shutdown();
+
+        start         = System.nanoTime();
+        parallel      = sweep.evaluate(profiles);
+        parallelNanos = System.nanoTime() - start;
+
+        for (int i = 0; i < profiles.size(); i++)
+        {
+            if (single.get(i).getImbalance() != parallel.get(i).getImbalance() ||
+                single.get(i).getAverageTurns() != parallel.get(i).getAverageTurns())
+            {
+                throw new IllegalStateException(
+                        "Profile " + profiles.get(i) + " gave different results on different pools.");
+            }
+        }
+
+        System.out.printf("%d profiles, %d duels each%n",
+                          profiles.size(),
+                          (long) DUELS_PER_PAIRING * parallel.get(0).getPairings().size());
+        System.out.printf("1 thread: %.2f s   %d threads: %.2f s%n",
+                          singleNanos / NANOS_PER_SECOND,
+                          ForkJoinPool.commonPool().getParallelism(),
+                          parallelNanos / NANOS_PER_SECOND);
+        System.out.println("Default: " + parallel.get(profiles.indexOf(BalanceProfile.DEFAULT)));
+
+        for (final PairingStats stats : parallel.get(profiles.indexOf(BalanceProfile.DEFAULT)).getPairings())
+        {
+            System.out.println("  " + stats);
+        }
+
+        System.out.println("Pareto front:");
+
+        for (final BalanceResult result : BalanceSweep.paretoFront(parallel))
+        {
+            System.out.println("  " + result);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Puts load on a {@link BattleServer} from the same machine. Every
+ * client thread opens one session and plays fights in it, taking the
+ * turns of both players, until it has sent its share of actions. The
+ * time from sending an action to reading its reply is recorded, and the
+ * sessions the server held at once, the throughput and the latency
+ * percentiles are reported. Any ERROR reply fails the test. Before the
+ * load, a session sent a line longer than
+ * {@value BattleSession#MAXIMUM_LINE_LENGTH} characters must answer
+ * with ERROR and end.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class BattleServerLoadTest
+{
+    private static final int      SESSIONS            = 500;
+    private static final int      ACTIONS_PER_SESSION = 1_000;
+    private static final String   FIGHT               = "FIGHT DRAGON 300 50 ELF 300 20";
+    private static final String   RECOVERY            = "20";
+    private static final int      FIRST_PLAYER        = 1;
+    private static final int      PLAYER_SUM          = 3;
+    private static final double[] PERCENTILES         = {50, 90, 99, 99.9};
+    private static final double   PERCENT             = 100.0;
+    private static final double   NANOS_PER_MICRO     = 1e3;
+    private static final double   NANOS_PER_SECOND    = 1e9;
+
+    public static void main(final String[] args)
+            throws IOException, InterruptedException
+    {
+        try (BattleServer server = new BattleServer(0))
+        {
+            final long[][]       latencies;
+            final Thread[]       clients;
+            final CountDownLatch connected;
+            final long           start;
+            final long           elapsed;
+            final long[]         all;
+
+            server.start();
+            checkLongLineEndsSession(server.getPort());
+
+            latencies = new long[SESSIONS][];
+            clients   = new Thread[SESSIONS];
+            connected = new CountDownLatch(SESSIONS);
+
+            for (int i = 0; i < SESSIONS; i++)
+            {
+                final int client;
+                client = i;
+
+                clients[i] = new Thread(() -> latencies[client] = play(server.getPort(), connected));
+            }
+
+            start = System.nanoTime();
+
+            for (final Thread client : clients)
+            {
+                client.start();
+            }
+
+            for (final Thread client : clients)
+            {
+                client.join();
+            }
+
+            elapsed = System.nanoTime() - start;
+            all     = merge(latencies);
+
+            Arrays.sort(all);
+
+            System.out.printf("%s threads, %d sessions at once, %d sessions in total%n",
+                              server.usesVirtualThreads() ? "virtual" : "platform",
+                              server.getPeakSessions(),
+                              server.getTotalSessions());
+            System.out.printf("%d actions in %.2f s, %.0f actions/s%n",
+                              all.length,
+                              elapsed / NANOS_PER_SECOND,
+                              all.length * NANOS_PER_SECOND / elapsed);
+
+            for (final double percentile : PERCENTILES)
+            {
+                System.out.printf("p%-5s %8.1f us%n",
+                                  percentile,
+                                  all[(int) Math.min(all.length - 1, Math.ceil(all.length * percentile / PERCENT) - 1)] /
+                                  NANOS_PER_MICRO);
+            }
+
+            System.out.printf("max    %8.1f us%n", all[all.length - 1] / NANOS_PER_MICRO);
+        }
+    }
+
+    /* Plays fights in one session and returns the latency of every action. */
+    private static long[] play(final int            port,
+                               final CountDownLatch connected)
+    {
+        final long[] latencies;
+        latencies = new long[ACTIONS_PER_SESSION];
+
+        try (Socket         socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in     = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer         out    = new BufferedWriter(new OutputStreamWriter(
+                     socket.getOutputStream(), StandardCharsets.UTF_8)))
+        {
+            int player;
+
+            socket.setTcpNoDelay(true);
+
+            // wait until every session is open, so they all overlap
+            connected.countDown();
+            connected.await();
+
+            send(in, out, FIGHT);
+            player = FIRST_PLAYER;
+
+            for (int i = 0; i < ACTIONS_PER_SESSION; i++)
+            {
+                final long   start;
+                final String reply;
+
+                start        = System.nanoTime();
+                reply        = send(in, out, "ATTACK " + player);
+                latencies[i] = System.nanoTime() - start;
+
+                if (reply.startsWith(BattleSession.WIN))
+                {
+                    send(in, out, FIGHT);
+                    player = FIRST_PLAYER;
+                }
+                else if (reply.equals(BattleSession.NO_RESOURCE))
+                {
+                    send(in, out, "RECOVER " + player + " " + RECOVERY);
+                    player = PLAYER_SUM - player;
+                }
+                else
+                {
+                    player = PLAYER_SUM - player;
+                }
+            }
+
+            send(in, out, "QUIT");
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Session failed.", e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return latencies;
+    }
+
+    /* Sends one character past the limit, with no line break, so the server reads all of it before closing. */
+    private static void checkLongLineEndsSession(final int port)
+            throws IOException
+    {
+        try (Socket         socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in     = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer         out    = new BufferedWriter(new OutputStreamWriter(
+                     socket.getOutputStream(), StandardCharsets.UTF_8)))
+        {
+            final String reply;
+
+            out.write("A".repeat(BattleSession.MAXIMUM_LINE_LENGTH + 1));
+            out.flush();
+
+            reply = in.readLine();
+
+            if (reply == null ||
+                !reply.startsWith(BattleSession.ERROR) ||
+                in.readLine() != null)
+            {
+                throw new IllegalStateException(
+                        "A line that is too long got " + reply + " and did not end the session.");
+            }
+        }
+    }
+
+    private static String send(final BufferedReader in,
+                               final Writer         out,
+                               final String         command)
+            throws IOException
+    {
+        final String reply;
+
+        out.write(command);
+        out.write('\n');
+        out.flush();
+
+        reply = in.readLine();
+
+        if (reply == null ||
+            reply.startsWith(BattleSession.ERROR))
+        {
+            throw new IllegalStateException(
+                    command + " got " + reply + ".");
+        }
+
+        return reply;
+    }
+
+    private static long[] merge(final long[][] latencies)
+    {
+        final long[] all;
+        int          size;
+
+        size = 0;
+
+        for (final long[] session : latencies)
+        {
+            size += session.length;
+        }
+
+        all  = new long[size];
+        size = 0;
+
+        for (final long[] session : latencies)
+        {
+            System.arraycopy(session, 0, all, size, session.length);
+            size += session.length;
+        }
+
+        return all;
+    }
+}
@@ -0,0 +1,80 @@
+package ca.bcit.comp2522.fantasy;
+
+/**
+ * Checks two rules of the {@link BattleSession} protocol without a
+ * server: an Orc without enough rage can WAIT to give the turn away
+ * instead of being stuck, and a FIGHT with a bad second player is
+ * rejected without replacing the first player of the running fight.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class BattleSessionTest
+{
+    private static final String OK = BattleSession.OK;
+
+    public static void main(final String[] args)
+    {
+        stuckOrcCanWait();
+        badFightKeepsPlayers();
+
+        System.out.println("BattleSession checks passed.");
+    }
+
+    /* An Orc below the berserk rage can neither attack nor recover, so it has to wait. */
+    private static void stuckOrcCanWait()
+    {
+        final BattleSession session;
+        session = new BattleSession(null, null);
+
+        expect(session, "FIGHT ORC 300 0 ELF 300 20", OK);
+        expect(session, "ATTACK 1", BattleSession.NO_RESOURCE);
+        expectError(session, "RECOVER 1 5");
+        expectError(session, "WAIT 2");
+        expect(session, "WAIT 1", OK);
+        expect(session, "ATTACK 2", OK + " 290");
+        expect(session, "WAIT 1", OK);
+        expectError(session, "WAIT 1");
+    }
+
+    /* The second player is invalid, so the first fight must still be the one in the session. */
+    private static void badFightKeepsPlayers()
+    {
+        final BattleSession session;
+        session = new BattleSession(null, null);
+
+        expect(session, "FIGHT DRAGON 300 50 ELF 300 20", OK);
+        expectError(session, "FIGHT ORC 400 10 ELF 1 20");
+        expect(session, "STATUS", OK + " 300 50 300 20");
+    }
+
+    private static void expect(final BattleSession session,
+                               final String        command,
+                               final String        reply)
+    {
+        final String actual;
+        actual = session.handle(command);
+
+        if (!actual.equals(reply))
+        {
+            throw new IllegalStateException(
+                    command + " was answered with \"" + actual + "\", not \"" + reply + "\".");
+        }
+    }
+
+    private static void expectError(final BattleSession session,
+                                    final String        command)
+    {
+        final String actual;
+        actual = session.handle(command);
+
+        if (!actual.startsWith(BattleSession.ERROR))
+        {
+            throw new IllegalStateException(
+                    command + " was answered with \"" + actual + "\", not an error.");
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Applies poison ticks and healing pulses to a million creatures in
+ * three ways: takeDamage and heal on every Creature object, a plain
+ * loop over a health array that branches on every creature, and
+ * {@link BulkHealth}. The array loop and BulkHealth must end with the
+ * same health and find the same deaths; the objects must end with the
+ * same health too.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class BulkHealthBenchmark
+{
+    private static final int    CREATURES       = 1_000_000;
+    private static final int    ROUNDS          = 5;
+    private static final int    TICKS           = 40;
+    private static final int    POISON          = 9;
+    private static final int    HEALING         = 4;
+    private static final long   SEED            = 42L;
+    private static final int    WORD_SHIFT      = 6;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    public static void main(final String[] args)
+    {
+        final int[] start;
+        start = randomHealth();
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final Creature[] creatures;
+            final int[]      branching;
+            final int[]      bulk;
+            final long[]     branchingDead;
+            final long[]     bulkDead;
+            final long       objectNanos;
+            final long       branchingNanos;
+            final long       bulkNanos;
+            int              died;
+            long             begin;
+
+            creatures     = createCreatures(start);
+            branching     = start.clone();
+            bulk          = start.clone();
+            branchingDead = new long[BulkHealth.words(CREATURES)];
+            bulkDead      = new long[BulkHealth.words(CREATURES)];
+            died          = 0;
+
+            begin = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                for (final Creature creature : creatures)
+                {
+                    creature.takeDamage(POISON);
+                }
+
+                for (final Creature creature : creatures)
+                {
+                    if (creature.isAlive())
+                    {
+                        creature.heal(HEALING);
+                    }
+                }
+            }
+
+            objectNanos = System.nanoTime() - begin;
+            begin       = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                damageBranching(branching, POISON, branchingDead);
+                healBranching(branching, HEALING);
+            }
+
+            branchingNanos = System.nanoTime() - begin;
+            begin          = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                died += BulkHealth.applyDamage(bulk, 0, CREATURES, POISON, bulkDead);
+                BulkHealth.applyHealing(bulk, 0, CREATURES, HEALING);
+            }
+
+            bulkNanos = System.nanoTime() - begin;
+
+            check(creatures, branching, bulk, branchingDead, bulkDead, died);
+
+            System.out.printf("Round %d: %d ticks of %d creatures, %d died%n", round, TICKS, CREATURES, died);
+            System.out.printf("  objects    %8.1f ms%n", objectNanos / NANOS_PER_MILLI);
+            System.out.printf("  branching  %8.1f ms%n", branchingNanos / NANOS_PER_MILLI);
+            System.out.printf("  BulkHealth %8.1f ms%n", bulkNanos / NANOS_PER_MILLI);
+        }
+    }
+
+    private static int[] randomHealth()
+    {
+        final SplittableRandom random;
+        final int[]            health;
+
+        random = new SplittableRandom(SEED);
+        health = new int[CREATURES];
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            health[i] = random.nextInt(Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH + 1);
+        }
+
+        return health;
+    }
+
+    private static Creature[] createCreatures(final int[] health)
+    {
+        final Creature[] creatures;
+        final Date       birth;
+
+        creatures = new Creature[health.length];
+        birth     = new Date(0L);
+
+        for (int i = 0; i < health.length; i++)
+        {
+            creatures[i] = new Creature("Creature " + i, birth, health[i]);
+        }
+
+        return creatures;
+    }
+
+    /* Damage the way takeDamage does it, one creature and one branch at a time. */
+    private static void damageBranching(final int[]  health,
+                                        final int    damage,
+                                        final long[] newlyDead)
+    {
+        for (int i = 0; i < health.length; i++)
+        {
+            final boolean wasAlive;
+            wasAlive = health[i] > Creature.DEAD_HEALTH;
+
+            health[i] -= damage;
+
+            if (health[i] < Creature.DEAD_HEALTH)
+            {
+                health[i] = Creature.DEAD_HEALTH;
+            }
+
+            if (wasAlive &&
+                health[i] == Creature.DEAD_HEALTH)
+            {
+                newlyDead[i >>> WORD_SHIFT] |= 1L << i;
+            }
+        }
+    }
+
+    private static void healBranching(final int[] health,
+                                      final int   amount)
+    {
+        for (int i = 0; i < health.length; i++)
+        {
+            if (health[i] > Creature.DEAD_HEALTH)
+            {
+                health[i] += amount;
+
+                if (health[i] > Creature.MAXIMUM_HEALTH)
+                {
+                    health[i] = Creature.MAXIMUM_HEALTH;
+                }
+            }
+        }
+    }
+
+    private static void check(final Creature[] creatures,
+                              final int[]      branching,
+                              final int[]      bulk,
+                              final long[]     branchingDead,
+                              final long[]     bulkDead,
+                              final int        died)
+    {
+        if (!Arrays.equals(branching, bulk) ||
+            !Arrays.equals(branchingDead, bulkDead))
+        {
+            throw new IllegalStateException(
+                    "BulkHealth does not match the branching loop.");
+        }
+
+        int dead;
+        dead = 0;
+
+        for (int i = 0; i < creatures.length; i++)
+        {
+            if (creatures[i].getHealth() != bulk[i])
+            {
+                throw new IllegalStateException(
+                        "Creature " + i + " has " + creatures[i].getHealth() + " health, not " + bulk[i] + ".");
+            }
+
+            if (BulkHealth.isSet(bulkDead, i))
+            {
+                dead++;
+            }
+        }
+
+        if (dead != died)
+        {
+            throw new IllegalStateException(
+                    died + " deaths were reported but " + dead + " bits are set.");
+        }
+    }
+}
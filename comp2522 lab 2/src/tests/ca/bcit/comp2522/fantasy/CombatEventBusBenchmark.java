@@ -0,0 +1,193 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the cost that a {@link CombatEventBus} adds to combat.
+ * The same damage and heal loop runs on an unwatched creature and on a
+ * watched one, with a tick ended every {@value EVENTS_PER_TICK} events.
+ * A subscriber counts what it receives, and the counts must match the
+ * events produced, also when several threads fight at once, and the
+ * buffers of those threads must be dropped once they have ended.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatEventBusBenchmark
+{
+    private static final int ITERATIONS      = 10_000_000;
+    private static final int ROUNDS          = 5;
+    private static final int EVENTS_PER_TICK = 10_000;
+    private static final int CAPACITY        = 16_384;
+    private static final int HEALTH          = 1000;
+    private static final int HIT             = 1;
+    private static final int THREADS         = 4;
+
+    public static void main(final String[] args)
+            throws InterruptedException
+    {
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final long      unwatched;
+            final LongAdder received;
+            final long      watched;
+
+            System.out.println("=== Round " + round + " ===");
+
+            unwatched = runLoop(new Creature("Target", new Date(0L), HEALTH), null);
+            received  = new LongAdder();
+            watched   = runLoop(new Creature("Target", new Date(0L), HEALTH), newBus(received));
+
+            check(received.sum(), (long) ITERATIONS * 2);
+
+            System.out.printf("unwatched: %5.2f ns/event   watched: %5.2f ns/event (includes delivery)%n",
+                              (double) unwatched / (ITERATIONS * 2),
+                              (double) watched / (ITERATIONS * 2));
+
+            runThreads();
+        }
+    }
+
+    private static long runLoop(final Creature       target,
+                                final CombatEventBus bus)
+    {
+        final long start;
+
+        if (bus != null)
+        {
+            bus.watch(target);
+        }
+
+        start = System.nanoTime();
+
+        for (int i = 1; i <= ITERATIONS; i++)
+        {
+            target.takeDamage(HIT);
+            target.heal(HIT);
+
+            if (bus != null &&
+                i % (EVENTS_PER_TICK / 2) == 0)
+            {
+                bus.endTick();
+            }
+        }
+
+        if (bus != null)
+        {
+            bus.endTick();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /* Every thread kills its own creature, so each thread must also produce one death. */
+    private static void runThreads()
+            throws InterruptedException
+    {
+        final LongAdder      received;
+        final LongAdder      deaths;
+        final CombatEventBus bus;
+        final Thread[]       threads;
+        final long           start;
+
+        received = new LongAdder();
+        deaths   = new LongAdder();
+        bus      = newBus(received);
+        threads  = new Thread[THREADS];
+
+        bus.subscribe(batch ->
+        {
+            for (int i = 0; i < batch.size(); i++)
+            {
+                if (batch.getType(i) == CombatEventType.DEATH)
+                {
+                    deaths.increment();
+                }
+            }
+        });
+
+        for (int t = 0; t < THREADS; t++)
+        {
+            final Creature creature;
+            creature = new Creature("Fighter " + t, new Date(0L), HEALTH);
+
+            bus.watch(creature);
+
+            threads[t] = new Thread(() ->
+            {
+                for (int i = 0; i < ITERATIONS / THREADS; i++)
+                {
+                    creature.heal(HIT);
+                    creature.takeDamage(HIT);
+                }
+
+                creature.takeDamage(HEALTH);
+            });
+        }
+
+        start = System.nanoTime();
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        while (isAnyAlive(threads))
+        {
+            bus.endTick();
+        }
+
+        bus.endTick();
+
+        check(received.sum(), (long) ITERATIONS / THREADS * 2 * THREADS + THREADS * 2);
+        check(deaths.sum(), THREADS);
+
+        if (bus.getBufferCount() != 0)
+        {
+            throw new IllegalStateException(
+                    bus.getBufferCount() + " buffers of ended threads are still kept.");
+        }
+
+        System.out.printf("%d threads: %5.2f ns/event, %d events delivered%n",
+                          THREADS,
+                          (double) (System.nanoTime() - start) / received.sum(),
+                          received.sum());
+    }
+
+    private static CombatEventBus newBus(final LongAdder received)
+    {
+        final CombatEventBus bus;
+        bus = new CombatEventBus(CAPACITY);
+
+        bus.subscribe(batch -> received.add(batch.size()));
+
+        return bus;
+    }
+
+    private static boolean isAnyAlive(final Thread[] threads)
+    {
+        for (final Thread thread : threads)
+        {
+            if (thread.isAlive())
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void check(final long actual,
+                              final long expected)
+    {
+        if (actual != expected)
+        {
+            throw new IllegalStateException(
+                    "Expected " + expected + " events but got " + actual + ".");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Checks that a creature the {@link CombatEventLog} cannot record is
+ * rejected without using up an id, so the creatures registered after
+ * it still replay, and that a listener told about a reset already sees
+ * the whole reset state, also for a {@link ConfiguredCreature}.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatEventLogTest
+{
+    private static final int HEALTH              = 300;
+    private static final int RESOURCE            = 20;
+    private static final int SPENT               = 5;
+    private static final int CHECKPOINT_INTERVAL = 1;
+    private static final int NOT_SEEN            = -1;
+
+    public static void main(final String[] args)
+    {
+        rejectedCreatureKeepsIds();
+        resetIsSeenWhole();
+
+        System.out.println("CombatEventLog checks passed.");
+    }
+
+    /* A Dragon, a ConfiguredCreature the log refuses and an Orc must give ids 0 and 1. */
+    private static void rejectedCreatureKeepsIds()
+    {
+        final CombatEventLog log;
+        final Creature       dragon;
+        final Creature       orc;
+        final int            dragonId;
+        final int            orcId;
+        final CombatReplayer replayer;
+
+        log    = new CombatEventLog();
+        dragon = new Dragon("Dragon", new Date(0L), HEALTH, RESOURCE);
+        orc    = new Orc("Orc", new Date(0L), HEALTH, RESOURCE);
+
+        dragonId = log.register(dragon);
+
+        rejects(log, createConfigured());
+        rejects(log, null);
+
+        orcId = log.register(orc);
+
+        dragon.takeDamage(SPENT);
+        log.endTick();
+
+        replayer = new CombatReplayer(log.toByteArray(), CHECKPOINT_INTERVAL);
+        replayer.seek(replayer.getTickCount());
+
+        if (dragonId != 0 ||
+            orcId != 1 ||
+            log.getCreatureCount() != 2 ||
+            replayer.getHealth(dragonId) != HEALTH - SPENT ||
+            replayer.getType(orcId) != CreatureType.ORC)
+        {
+            throw new IllegalStateException(
+                    "A rejected creature left a gap in the ids; the Orc got id " + orcId + ".");
+        }
+    }
+
+    /* Every kind of creature must have its resource back before the listener hears of the reset. */
+    private static void resetIsSeenWhole()
+    {
+        final List<Creature> creatures;
+
+        creatures = List.of(new Dragon("Dragon", new Date(0L), HEALTH, RESOURCE),
+                            new Elf("Elf", new Date(0L), HEALTH, RESOURCE),
+                            new Orc("Orc", new Date(0L), HEALTH, RESOURCE),
+                            createConfigured());
+
+        for (final Creature creature : creatures)
+        {
+            final int[] seen;
+            seen = new int[] {NOT_SEEN};
+
+            creature.setCombatListener(new CombatListener()
+            {
+                @Override
+                public void onDamage(final Creature target,
+                                     final int      damage)
+                {
+                }
+
+                @Override
+                public void onHeal(final Creature target,
+                                   final int      healAmount)
+                {
+                }
+
+                @Override
+                public void onResourceSpent(final Creature target,
+                                            final int      amount)
+                {
+                }
+
+                @Override
+                public void onResourceRestored(final Creature target,
+                                               final int      amount)
+                {
+                }
+
+                @Override
+                public void onReset(final Creature target)
+                {
+                    seen[0] = resourceOf(target);
+                }
+            });
+
+            spend(creature);
+            creature.reset();
+
+            if (seen[0] != RESOURCE)
+            {
+                throw new IllegalStateException(
+                        creature.getName() + " told its listener about a reset with resource " + seen[0] + ".");
+            }
+        }
+    }
+
+    private static ConfiguredCreature createConfigured()
+    {
+        final CreatureKind kind;
+        kind = AbilityBook.loadDefaults().values().iterator().next();
+
+        return kind.create("Configured", new Date(0L), HEALTH,
+                           Math.max(kind.getMinimumResource(), Math.min(kind.getMaximumResource(), RESOURCE)));
+    }
+
+    /* Moves the resource away from its starting value. */
+    private static void spend(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).tryBreatheFire(creature);
+        }
+        else if (creature instanceof Elf)
+        {
+            ((Elf) creature).tryCastSpell(creature);
+        }
+        else if (creature instanceof Orc)
+        {
+            ((Orc) creature).tryBerserk(creature);
+        }
+        else
+        {
+            ((ConfiguredCreature) creature).pay(SPENT, -SPENT);
+        }
+    }
+
+    private static int resourceOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getFirePower();
+        }
+
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getMana();
+        }
+
+        if (creature instanceof Orc)
+        {
+            return ((Orc) creature).getRage();
+        }
+
+        return ((ConfiguredCreature) creature).getResource();
+    }
+
+    private static void rejects(final CombatEventLog log,
+                                final Creature       creature)
+    {
+        try
+        {
+            log.register(creature);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return;
+        }
+
+        throw new IllegalStateException(
+                "The log registered " + creature + ".");
+    }
+}
@@ -0,0 +1,159 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import jdk.jfr.Recording;
+
+/**
+ * Measures what the combat Flight Recorder events cost. The same duels
+ * run with no recording, while a recording with every combat event
+ * enabled is running, and again after it stopped. Dragons that try to
+ * breathe fire without firepower add some exceptions to the recording.
+ * The recording is then summarized with {@link CombatRecordingSummary},
+ * whose totals must match what the duels did.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatEventsBenchmark
+{
+    private static final int  DUELS          = 200_000;
+    private static final int  ROUNDS         = 3;
+    private static final int  MAXIMUM_TURNS  = 200;
+    private static final int  FAILED_BREATHS = 1_000;
+    private static final long SEED           = 42L;
+
+    private static final List<CreatureSpec> SPECS = List.of(
+            new CreatureSpec(CreatureType.DRAGON, 300, 50),
+            new CreatureSpec(CreatureType.ELF, 400, 50),
+            new CreatureSpec(CreatureType.ORC, 350, 5));
+
+    public static void main(final String[] args)
+            throws IOException
+    {
+        final Path file;
+        file = Files.createTempFile("combat", ".jfr");
+
+        try
+        {
+            for (int round = 1; round <= ROUNDS; round++)
+            {
+                final long                   off;
+                final long                   on;
+                final long                   offAgain;
+                final CombatRecordingSummary summary;
+
+                System.out.println("=== Round " + round + " ===");
+
+                off = runDuels();
+
+                try (Recording recording = new Recording())
+                {
+                    CombatEvents.enable(recording);
+                    recording.start();
+
+                    on = runDuels();
+                    failBreaths();
+
+                    recording.stop();
+                    recording.dump(file);
+                }
+
+                offAgain = runDuels();
+                summary  = CombatRecordingSummary.read(file);
+
+                check(summary);
+
+                System.out.printf("events off: %6.1f ns/duel   recording: %8.1f ns/duel   off again: %6.1f ns/duel%n",
+                                  (double) off / DUELS,
+                                  (double) on / DUELS,
+                                  (double) offAgain / DUELS);
+                System.out.println(summary);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /* Every creature type fights every other one in turn; returns elapsed nanoseconds. */
+    private static long runDuels()
+    {
+        final Duel             duel;
+        final PooledArena      arena;
+        final SplittableRandom random;
+        final long             start;
+
+        duel   = new Duel(MAXIMUM_TURNS);
+        arena  = new PooledArena(SPECS);
+        random = new SplittableRandom(SEED);
+        start  = System.nanoTime();
+
+        for (int i = 0; i < DUELS; i++)
+        {
+            duel.fight(arena.acquire(i % SPECS.size()),
+                       arena.acquire((i + 1) % SPECS.size()),
+                       random);
+            arena.releaseAll();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static void failBreaths()
+    {
+        final Dragon   dragon;
+        final Creature target;
+
+        dragon = (Dragon) new CreatureSpec(CreatureType.DRAGON, 300, 0).create("Tired");
+        target = SPECS.get(1).create("Target");
+
+        for (int i = 0; i < FAILED_BREATHS; i++)
+        {
+            try
+            {
+                dragon.breatheFire(target);
+                throw new IllegalStateException(
+                        "A dragon without firepower breathed fire.");
+            }
+            catch (LowFirePowerException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    private static void check(final CombatRecordingSummary summary)
+    {
+        long dealt;
+        long taken;
+
+        dealt = 0;
+        taken = 0;
+
+        for (final String type : summary.getCreatureTypes())
+        {
+            dealt += summary.getDamageDealt(type);
+            taken += summary.getDamageTaken(type);
+        }
+
+        if (dealt != taken)
+        {
+            throw new IllegalStateException(
+                    "Attacks dealt " + dealt + " damage but creatures took " + taken + ".");
+        }
+
+        if (summary.getExceptions("Dragon") != FAILED_BREATHS)
+        {
+            throw new IllegalStateException(
+                    "Expected " + FAILED_BREATHS + " exceptions but got " + summary.getExceptions("Dragon") + ".");
+        }
+    }
+}
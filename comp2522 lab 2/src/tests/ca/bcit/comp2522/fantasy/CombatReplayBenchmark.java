@@ -0,0 +1,311 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Records millions of combat events from creatures taken out of a
+ * {@link PooledArena} into a {@link CombatEventLog}, then measures how
+ * many events per second a {@link CombatReplayer} replays, against the
+ * target of {@value TARGET_EVENTS_PER_SECOND} events per second.
+ * Creatures are reset by the arena between matches, so the log also
+ * holds respawns. The state replayed at the end of every match must be
+ * the state the creatures had, and logs that are cut short, use an id
+ * that was never spawned or name an unknown type must be rejected with
+ * an IllegalArgumentException.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CombatReplayBenchmark
+{
+    private static final int    MATCHES                  = 2_000;
+    private static final int    TICKS_PER_MATCH          = 500;
+    private static final int    ACTIONS_PER_TICK         = 12;
+    private static final int    ROUNDS                   = 5;
+    private static final int    CHECKPOINT_INTERVAL      = 1_000;
+    private static final int    ACTION_KINDS             = 4;
+    private static final int    MAXIMUM_HIT              = 30;
+    private static final int    MAXIMUM_RESTORE          = 10;
+    private static final long   SEED                     = 42L;
+    private static final long   TARGET_EVENTS_PER_SECOND = 10_000_000L;
+    private static final double NANOS_PER_SECOND         = 1e9;
+    private static final double NANOS_PER_MILLI          = 1e6;
+    private static final double MILLION                  = 1e6;
+    private static final int    HIT                      = 5;
+    private static final int    BAD_TYPE                 = 9;
+    private static final int    NEVER_SPAWNED            = 3;
+    private static final int    SPAWN_HEALTH             = 100;
+    private static final int    SPAWN_RESOURCE           = 10;
+
+    private static final List<CreatureSpec> SPECS = List.of(
+            new CreatureSpec(CreatureType.DRAGON, 800, 80),
+            new CreatureSpec(CreatureType.ELF, 700, 40),
+            new CreatureSpec(CreatureType.ORC, 900, 10));
+
+    public static void main(final String[] args)
+    {
+        final CombatEventLog log;
+        final List<Creature> creatures;
+        final List<Long>     expectedTicks;
+        final List<int[][]>  expectedStates;
+        final byte[]         bytes;
+
+        log            = new CombatEventLog();
+        creatures      = new ArrayList<>();
+        expectedTicks  = new ArrayList<>();
+        expectedStates = new ArrayList<>();
+
+        record(log, creatures, expectedTicks, expectedStates);
+
+        bytes = log.toByteArray();
+
+        System.out.printf("%d creatures, %d ticks, %d bytes%n",
+                          log.getCreatureCount(), log.getTickCount(), bytes.length);
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final long           start;
+            final CombatReplayer replayer;
+            final long           loaded;
+            final CombatReplayer unbroken;
+            final long           replayStart;
+            final long           replayed;
+            final double         eventsPerSecond;
+
+            start    = System.nanoTime();
+            replayer = new CombatReplayer(bytes, CHECKPOINT_INTERVAL);
+            loaded   = System.nanoTime() - start;
+
+            check(replayer, expectedTicks, expectedStates);
+
+            // with no checkpoint after tick 0, seeking to the last tick replays every event once
+            unbroken = new CombatReplayer(bytes, Integer.MAX_VALUE);
+
+            replayStart     = System.nanoTime();
+            unbroken.seek(unbroken.getTickCount());
+            replayed        = System.nanoTime() - replayStart;
+            eventsPerSecond = unbroken.getEventCount() * NANOS_PER_SECOND / replayed;
+
+            check(unbroken, expectedTicks.subList(expectedTicks.size() - 1, expectedTicks.size()),
+                  expectedStates.subList(expectedStates.size() - 1, expectedStates.size()));
+
+            if (eventsPerSecond < TARGET_EVENTS_PER_SECOND)
+            {
+                throw new IllegalStateException(
+                        "Replayed " + (long) eventsPerSecond + " events per second, below the target.");
+            }
+
+            System.out.printf("Round %d: %d events, load %6.1f ms, replay %6.1f ms, %5.1f M events/s (target %d M)%n",
+                              round,
+                              replayer.getEventCount(),
+                              loaded / NANOS_PER_MILLI,
+                              replayed / NANOS_PER_MILLI,
+                              eventsPerSecond / MILLION,
+                              (long) (TARGET_EVENTS_PER_SECOND / MILLION));
+        }
+
+        checkRejected();
+
+        System.out.println("CombatReplayer checks passed.");
+    }
+
+    /* Plays every match with pooled creatures and saves their state at the end of each match. */
+    private static void record(final CombatEventLog log,
+                               final List<Creature> creatures,
+                               final List<Long>     expectedTicks,
+                               final List<int[][]>  expectedStates)
+    {
+        final PooledArena            arena;
+        final SplittableRandom       random;
+        final Map<Creature, Integer> ids;
+        final Creature[]             fighters;
+
+        arena    = new PooledArena(SPECS);
+        random   = new SplittableRandom(SEED);
+        ids      = new IdentityHashMap<>();
+        fighters = new Creature[SPECS.size() * 2];
+
+        for (int match = 0; match < MATCHES; match++)
+        {
+            for (int i = 0; i < fighters.length; i++)
+            {
+                fighters[i] = arena.acquire(i % SPECS.size());
+
+                // a pooled creature is only registered once; later resets are recorded as respawns
+                if (!ids.containsKey(fighters[i]))
+                {
+                    ids.put(fighters[i], log.register(fighters[i]));
+                    creatures.add(fighters[i]);
+                }
+            }
+
+            for (int tick = 0; tick < TICKS_PER_MATCH; tick++)
+            {
+                for (int action = 0; action < ACTIONS_PER_TICK; action++)
+                {
+                    act(random, fighters[random.nextInt(fighters.length)], fighters[random.nextInt(fighters.length)]);
+                }
+
+                log.endTick();
+            }
+
+            expectedTicks.add(log.getTickCount());
+            expectedStates.add(states(creatures));
+
+            arena.releaseAll();
+        }
+    }
+
+    private static void act(final SplittableRandom random,
+                            final Creature         actor,
+                            final Creature         target)
+    {
+        switch (random.nextInt(ACTION_KINDS))
+        {
+            case 0:
+                target.takeDamage(random.nextInt(MAXIMUM_HIT));
+                break;
+            case 1:
+                target.heal(random.nextInt(MAXIMUM_HIT));
+                break;
+            case 2:
+                restore(actor, random.nextInt(MAXIMUM_RESTORE));
+                break;
+            default:
+                attack(actor, target);
+                break;
+        }
+    }
+
+    private static void restore(final Creature creature,
+                                final int      amount)
+    {
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).restoreFirePower(amount);
+        }
+        else if (creature instanceof Elf)
+        {
+            ((Elf) creature).restoreMana(amount);
+        }
+    }
+
+    private static void attack(final Creature actor,
+                               final Creature target)
+    {
+        if (actor instanceof Dragon)
+        {
+            ((Dragon) actor).tryBreatheFire(target);
+        }
+        else if (actor instanceof Elf)
+        {
+            ((Elf) actor).tryCastSpell(target);
+        }
+        else
+        {
+            ((Orc) actor).tryBerserk(target);
+        }
+    }
+
+    /* Returns the health and the resource of every creature, by id. */
+    private static int[][] states(final List<Creature> creatures)
+    {
+        final int[][] states;
+        states = new int[creatures.size()][];
+
+        for (int id = 0; id < creatures.size(); id++)
+        {
+            states[id] = new int[] {creatures.get(id).getHealth(), resource(creatures.get(id))};
+        }
+
+        return states;
+    }
+
+    private static int resource(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getFirePower();
+        }
+
+        if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getMana();
+        }
+
+        return ((Orc) creature).getRage();
+    }
+
+    private static void check(final CombatReplayer replayer,
+                              final List<Long>     expectedTicks,
+                              final List<int[][]>  expectedStates)
+    {
+        for (int match = 0; match < expectedTicks.size(); match++)
+        {
+            final long    tick;
+            final int[][] states;
+
+            tick   = expectedTicks.get(match);
+            states = expectedStates.get(match);
+
+            replayer.seek(tick);
+
+            for (int id = 0; id < states.length; id++)
+            {
+                if (replayer.getHealth(id) != states[id][0] ||
+                    replayer.getResource(id) != states[id][1])
+                {
+                    throw new IllegalStateException(
+                            "Creature " + id + " at tick " + tick + " replayed as " +
+                            replayer.getHealth(id) + "/" + replayer.getResource(id) + ", not " +
+                            states[id][0] + "/" + states[id][1] + ".");
+                }
+            }
+        }
+    }
+
+    private static void checkRejected()
+    {
+        final CombatEventLog log;
+        final Creature       elf;
+        final byte[]         complete;
+
+        log = new CombatEventLog();
+        elf = SPECS.get(1).create("Elf");
+
+        log.register(elf);
+        elf.takeDamage(HIT);
+
+        // without its last byte, the damage event has no amount
+        complete = log.toByteArray();
+
+        rejects("cut short", Arrays.copyOf(complete, complete.length - 1));
+        rejects("never spawned", new byte[] {CombatEventLog.DAMAGE, NEVER_SPAWNED, 1});
+        rejects("unknown type", new byte[] {CombatEventLog.SPAWN, 0, BAD_TYPE, SPAWN_HEALTH, SPAWN_RESOURCE});
+        rejects("spawned out of order", new byte[] {CombatEventLog.SPAWN, NEVER_SPAWNED, 0, SPAWN_HEALTH, SPAWN_RESOURCE});
+    }
+
+    private static void rejects(final String problem,
+                                final byte[] bytes)
+    {
+        try
+        {
+            new CombatReplayer(bytes, CHECKPOINT_INTERVAL);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return;
+        }
+
+        throw new IllegalStateException(
+                "A log that is " + problem + " was accepted.");
+    }
+}
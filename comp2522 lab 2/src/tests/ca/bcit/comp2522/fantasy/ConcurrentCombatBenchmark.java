@@ -0,0 +1,107 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures many attackers hitting one target at the same time.
+ * Every attacker deals one point of damage and heals one point, over
+ * and over, so the target must end with the health it started with.
+ * In plain mode updates are lost and the final health drifts; in
+ * concurrent mode every update is kept, and the benchmark reports
+ * the cost of the compare-and-set loops as the number of threads grows.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class ConcurrentCombatBenchmark
+{
+    private static final int   UPDATES_PER_THREAD = 2_000_000;
+    private static final int   ROUNDS             = 3;
+    private static final int   STARTING_HEALTH    = 500;
+    private static final int   HIT                = 1;
+    private static final int[] THREAD_COUNTS      = {1, 2, 4, 8};
+
+    public static void main(final String[] args)
+            throws InterruptedException
+    {
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            System.out.println("=== Round " + round + " ===");
+
+            for (final int threads : THREAD_COUNTS)
+            {
+                run("plain     ", false, threads);
+                run("concurrent", true, threads);
+            }
+        }
+    }
+
+    private static void run(final String  label,
+                            final boolean concurrent,
+                            final int     threads)
+            throws InterruptedException
+    {
+        final Creature       target;
+        final CountDownLatch start;
+        final Thread[]       attackers;
+        final long           begin;
+        final long           elapsed;
+        final long           updates;
+
+        target    = new Creature("Target", new Date(0L), STARTING_HEALTH);
+        start     = new CountDownLatch(1);
+        attackers = new Thread[threads];
+
+        target.setConcurrent(concurrent);
+
+        for (int i = 0; i < threads; i++)
+        {
+            attackers[i] = new Thread(() ->
+            {
+                awaitStart(start);
+
+                for (int n = 0; n < UPDATES_PER_THREAD; n++)
+                {
+                    target.takeDamage(HIT);
+                    target.heal(HIT);
+                }
+            });
+            attackers[i].start();
+        }
+
+        begin = System.nanoTime();
+        start.countDown();
+
+        for (final Thread attacker : attackers)
+        {
+            attacker.join();
+        }
+
+        elapsed = System.nanoTime() - begin;
+        updates = (long) threads * UPDATES_PER_THREAD * 2;
+
+        System.out.printf("%s %d threads: %6.1f ns/update, %7.1f M updates/s, final health %d (expected %d)%n",
+                          label,
+                          threads,
+                          (double) elapsed / updates,
+                          updates * 1e3 / elapsed,
+                          target.getHealth(),
+                          STARTING_HEALTH);
+    }
+
+    private static void awaitStart(final CountDownLatch start)
+    {
+        try
+        {
+            start.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Compares a {@link CreatureScheduler} with a tick that scans every
+ * creature to find the ones whose regeneration or cooldown is due.
+ * Both sides get the same creatures, periods and cooldowns from the same
+ * random numbers, and must end with the same number of fired timers and
+ * the same total of firepower and mana.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CreatureSchedulerBenchmark
+{
+    private static final int  CREATURES          = 300_000;
+    private static final int  TICKS              = 2_000;
+    private static final int  ROUNDS             = 5;
+    private static final int  SLOTS              = 256;
+    private static final int  MINIMUM_PERIOD     = 20;
+    private static final int  MAXIMUM_PERIOD     = 200;
+    private static final int  COOLDOWNS_PER_TICK = 500;
+    private static final int  MAXIMUM_COOLDOWN   = 600;
+    private static final int  HEALTH             = 100;
+    private static final int  REGENERATION       = 1;
+    private static final int  NO_COOLDOWN        = -1;
+    private static final long SEED               = 42L;
+
+    private static long cooldownsEnded;
+
+    public static void main(final String[] args)
+    {
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final long[] wheel;
+            final long[] scan;
+
+            System.out.println("=== Round " + round + " ===");
+
+            wheel = runWheel();
+            scan  = runScan();
+
+            if (wheel[1] != scan[1] ||
+                wheel[2] != scan[2])
+            {
+                throw new IllegalStateException(
+                        "The wheel fired " + wheel[1] + " timers for a total of " + wheel[2] +
+                        " but the scan fired " + scan[1] + " for a total of " + scan[2] + ".");
+            }
+
+            System.out.printf("timing wheel: %9.1f ns/tick   scan all: %9.1f ns/tick   (%d timers fired)%n",
+                              (double) wheel[0] / TICKS,
+                              (double) scan[0] / TICKS,
+                              wheel[1]);
+        }
+    }
+
+    /* Returns elapsed nanoseconds, timers fired and the total resource left. */
+    private static long[] runWheel()
+    {
+        final Creature[]        creatures;
+        final CreatureScheduler scheduler;
+        final SplittableRandom  random;
+        final long              start;
+        long                    fired;
+
+        creatures = newCreatures();
+        scheduler = new CreatureScheduler(SLOTS);
+        random    = new SplittableRandom(SEED);
+
+        cooldownsEnded = 0;
+
+        for (final Creature creature : creatures)
+        {
+            scheduler.scheduleResourceRegeneration(creature,
+                                                   REGENERATION,
+                                                   random.nextInt(MINIMUM_PERIOD, MAXIMUM_PERIOD + 1));
+        }
+
+        fired = 0;
+        start = System.nanoTime();
+
+        for (int tick = 0; tick < TICKS; tick++)
+        {
+            for (int i = 0; i < COOLDOWNS_PER_TICK; i++)
+            {
+                scheduler.scheduleCooldown(creatures[random.nextInt(CREATURES)],
+                                           random.nextInt(1, MAXIMUM_COOLDOWN + 1),
+                                           creature -> cooldownsEnded++);
+            }
+
+            fired += scheduler.tick();
+        }
+
+        return new long[] {System.nanoTime() - start, fired, totalResource(creatures) + cooldownsEnded};
+    }
+
+    /* The same work, with the next due tick of every creature kept in arrays. */
+    private static long[] runScan()
+    {
+        final Creature[]       creatures;
+        final int[]            periods;
+        final long[]           nextRegeneration;
+        final long[]           cooldownEnds;
+        final SplittableRandom random;
+        final long             start;
+        long                   fired;
+        long                   ended;
+
+        creatures        = newCreatures();
+        periods          = new int[CREATURES];
+        nextRegeneration = new long[CREATURES];
+        random           = new SplittableRandom(SEED);
+        ended            = 0;
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            periods[i]          = random.nextInt(MINIMUM_PERIOD, MAXIMUM_PERIOD + 1);
+            nextRegeneration[i] = periods[i];
+        }
+
+        // a creature may have several cooldowns, so they get their own table
+        cooldownEnds = new long[COOLDOWNS_PER_TICK * (MAXIMUM_COOLDOWN + 1)];
+        Arrays.fill(cooldownEnds, NO_COOLDOWN);
+
+        fired = 0;
+        start = System.nanoTime();
+
+        for (long tick = 1; tick <= TICKS; tick++)
+        {
+            for (int i = 0; i < COOLDOWNS_PER_TICK; i++)
+            {
+                random.nextInt(CREATURES);
+                cooldownEnds[(int) ((tick * COOLDOWNS_PER_TICK + i) % cooldownEnds.length)] =
+                        tick - 1 + random.nextInt(1, MAXIMUM_COOLDOWN + 1);
+            }
+
+            for (int i = 0; i < CREATURES; i++)
+            {
+                if (nextRegeneration[i] == tick)
+                {
+                    restore(creatures[i]);
+                    nextRegeneration[i] += periods[i];
+                    fired++;
+                }
+            }
+
+            for (int i = 0; i < cooldownEnds.length; i++)
+            {
+                if (cooldownEnds[i] == tick)
+                {
+                    cooldownEnds[i] = NO_COOLDOWN;
+                    ended++;
+                    fired++;
+                }
+            }
+        }
+
+        return new long[] {System.nanoTime() - start, fired, totalResource(creatures) + ended};
+    }
+
+    private static Creature[] newCreatures()
+    {
+        final Creature[] creatures;
+        final Date       birth;
+
+        creatures = new Creature[CREATURES];
+        birth     = new Date(0L);
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            if (i % 2 == 0)
+            {
+                creatures[i] = new Dragon("Dragon " + i, birth, HEALTH, Dragon.MINIMUM_FIRE_POWER);
+            }
+            else
+            {
+                creatures[i] = new Elf("Elf " + i, birth, HEALTH, Elf.MINIMUM_MANA);
+            }
+        }
+
+        return creatures;
+    }
+
+    private static void restore(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).restoreFirePower(REGENERATION);
+        }
+        else
+        {
+            ((Elf) creature).restoreMana(REGENERATION);
+        }
+    }
+
+    private static long totalResource(final Creature[] creatures)
+    {
+        long total;
+        total = 0;
+
+        for (final Creature creature : creatures)
+        {
+            if (creature instanceof Dragon)
+            {
+                total += ((Dragon) creature).getFirePower();
+            }
+            else
+            {
+                total += ((Elf) creature).getMana();
+            }
+        }
+
+        return total;
+    }
+}
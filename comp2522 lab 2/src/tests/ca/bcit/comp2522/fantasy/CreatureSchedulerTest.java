@@ -0,0 +1,189 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+
+/**
+ * Checks what cooldown callbacks of a {@link CreatureScheduler} may do to
+ * the timers due on the same tick: cancel one and schedule another in the
+ * same slot, cancel one and get its index back for a new timer, and throw
+ * an exception. Every check throws an IllegalStateException if the
+ * scheduler loses, fires early or keeps a timer it should not.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class CreatureSchedulerTest
+{
+    private static final int SLOTS      = 8;
+    private static final int FIRST_TICK = 1;
+    private static final int LATER      = 20;
+    private static final int HEALTH     = 100;
+    private static final int RAGE       = 10;
+    private static final int NOT_FIRED  = -1;
+
+    public static void main(final String[] args)
+    {
+        cancelAndScheduleInSameSlot();
+        cancelAndReuseIndex();
+        throwingCallback();
+
+        System.out.println("CreatureScheduler callback checks passed.");
+    }
+
+    /* The first callback schedules a cooldown that lands in the same slot, then cancels the other due timer. */
+    private static void cancelAndScheduleInSameSlot()
+    {
+        final CreatureScheduler scheduler;
+        final Creature          orc;
+        final long[]            handles;
+        final long[]            firedOn;
+
+        scheduler = new CreatureScheduler(SLOTS);
+        orc       = createOrc();
+        handles   = new long[2];
+        firedOn   = new long[] {NOT_FIRED, NOT_FIRED};
+
+        for (int i = 0; i < handles.length; i++)
+        {
+            final int timer;
+            timer = i;
+
+            handles[i] = scheduler.scheduleCooldown(orc, FIRST_TICK, creature ->
+            {
+                firedOn[timer] = scheduler.getCurrentTick();
+
+                scheduler.scheduleCooldown(creature, SLOTS, later -> firedOn[timer] = scheduler.getCurrentTick());
+                scheduler.cancel(handles[handles.length - 1 - timer]);
+            });
+        }
+
+        for (int tick = 0; tick < LATER; tick++)
+        {
+            scheduler.tick();
+        }
+
+        // exactly one of the two fired on tick 1, and its new cooldown fired a wheel later
+        if (firedOn[0] != NOT_FIRED &&
+            firedOn[1] != NOT_FIRED)
+        {
+            throw new IllegalStateException(
+                    "A cancelled cooldown fired.");
+        }
+
+        if (Math.max(firedOn[0], firedOn[1]) != FIRST_TICK + SLOTS ||
+            scheduler.size() != 0)
+        {
+            throw new IllegalStateException(
+                    "A cooldown scheduled from a callback was lost; " + scheduler.size() + " timers left.");
+        }
+    }
+
+    /* A timer scheduled after a cancel reuses the cancelled index and must not fire on this tick. */
+    private static void cancelAndReuseIndex()
+    {
+        final CreatureScheduler scheduler;
+        final Creature          orc;
+        final long[]            handles;
+        final long[]            reusedFiredOn;
+
+        scheduler     = new CreatureScheduler(SLOTS);
+        orc           = createOrc();
+        handles       = new long[2];
+        reusedFiredOn = new long[] {NOT_FIRED};
+
+        for (int i = 0; i < handles.length; i++)
+        {
+            final int timer;
+            timer = i;
+
+            handles[i] = scheduler.scheduleCooldown(orc, FIRST_TICK, creature ->
+            {
+                if (scheduler.cancel(handles[handles.length - 1 - timer]))
+                {
+                    scheduler.scheduleCooldown(creature, FIRST_TICK, later -> reusedFiredOn[0] = scheduler.getCurrentTick());
+                }
+            });
+        }
+
+        scheduler.tick();
+
+        if (reusedFiredOn[0] != NOT_FIRED ||
+            scheduler.size() != 1)
+        {
+            throw new IllegalStateException(
+                    "A timer that reused a cancelled index fired on the tick it was scheduled.");
+        }
+
+        scheduler.tick();
+
+        if (reusedFiredOn[0] != FIRST_TICK + 1 ||
+            scheduler.size() != 0)
+        {
+            throw new IllegalStateException(
+                    "A timer that reused a cancelled index did not fire on time.");
+        }
+    }
+
+    /* The other due timer must survive a callback that throws, and fire on the next tick. */
+    private static void throwingCallback()
+    {
+        final CreatureScheduler scheduler;
+        final Creature          orc;
+        final int[]             calls;
+        final long[]            handles;
+        boolean                 thrown;
+
+        scheduler = new CreatureScheduler(SLOTS);
+        orc       = createOrc();
+        calls     = new int[1];
+        handles   = new long[2];
+        thrown    = false;
+
+        for (int i = 0; i < handles.length; i++)
+        {
+            handles[i] = scheduler.scheduleCooldown(orc, FIRST_TICK, creature ->
+            {
+                calls[0]++;
+
+                if (calls[0] == 1)
+                {
+                    throw new IllegalArgumentException("callback failed");
+                }
+            });
+        }
+
+        try
+        {
+            scheduler.tick();
+        }
+        catch (IllegalArgumentException e)
+        {
+            thrown = true;
+        }
+
+        if (!thrown ||
+            scheduler.size() != 1 ||
+            !(scheduler.isPending(handles[0]) ^ scheduler.isPending(handles[1])))
+        {
+            throw new IllegalStateException(
+                    "The timer left by a throwing callback is not pending.");
+        }
+
+        scheduler.tick();
+
+        if (calls[0] != handles.length ||
+            scheduler.size() != 0)
+        {
+            throw new IllegalStateException(
+                    "The timer left by a throwing callback did not fire on the next tick.");
+        }
+    }
+
+    private static Creature createOrc()
+    {
+        return new Orc("Orc", new Date(0L), HEALTH, RAGE);
+    }
+}
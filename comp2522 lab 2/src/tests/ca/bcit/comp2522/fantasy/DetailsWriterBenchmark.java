@@ -0,0 +1,262 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compares ways of dumping the details of a large arena. The sink
+ * counts bytes, writes and flushes and drops the bytes, and it is
+ * wrapped like the console: a small buffer in a PrintStream that
+ * flushes on every line. The old getDetails printed two or more lines
+ * per creature, the new one prints once per creature, and a
+ * {@link DetailsWriter} writes the whole arena as text or JSON lines
+ * with one flush; the console PrintStream still flushes after each
+ * 8 KiB write of the encoder. The text of the DetailsWriter must be the same
+ * bytes getDetails prints.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class DetailsWriterBenchmark
+{
+    private static final int    CREATURES       = 100_000;
+    private static final int    ROUNDS          = 5;
+    private static final int    CHECKED         = 30;
+    private static final int    CONSOLE_BUFFER  = 128;
+    private static final int    HEALTH          = 500;
+    private static final int    RESOURCE        = 20;
+    private static final int    TYPES           = 3;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    public static void main(final String[] args)
+            throws IOException
+    {
+        final List<Creature> creatures;
+        final CountingSink   sink;
+        final PrintStream    console;
+        final PrintStream    standardOutput;
+
+        creatures      = createArena();
+        sink           = new CountingSink();
+        console        = new PrintStream(new BufferedOutputStream(sink, CONSOLE_BUFFER), true);
+        standardOutput = System.out;
+
+        checkSameText(creatures.subList(0, CHECKED));
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            long start;
+
+            standardOutput.println("=== Round " + round + " ===");
+
+            System.setOut(console);
+
+            try
+            {
+                sink.reset();
+                start = System.nanoTime();
+
+                for (final Creature creature : creatures)
+                {
+                    printLikeBefore(creature, console);
+                }
+
+                report(standardOutput, "old getDetails", System.nanoTime() - start, sink);
+
+                sink.reset();
+                start = System.nanoTime();
+
+                for (final Creature creature : creatures)
+                {
+                    creature.getDetails();
+                }
+
+                report(standardOutput, "getDetails", System.nanoTime() - start, sink);
+            }
+            finally
+            {
+                System.setOut(standardOutput);
+            }
+
+            for (final DetailsFormat format : DetailsFormat.values())
+            {
+                final DetailsWriter writer;
+                writer = new DetailsWriter(console, format);
+
+                sink.reset();
+                start = System.nanoTime();
+
+                writer.writeAll(creatures);
+
+                report(standardOutput, "DetailsWriter " + format, System.nanoTime() - start, sink);
+            }
+        }
+
+        standardOutput.println();
+        standardOutput.println("First JSON line:");
+
+        final StringBuilder json;
+        json = new StringBuilder();
+
+        creatures.get(0).appendJson(json);
+        standardOutput.println(json);
+    }
+
+    private static List<Creature> createArena()
+    {
+        final List<Creature> creatures;
+        final Date           birth;
+
+        creatures = new ArrayList<>(CREATURES);
+        birth     = new Date(0L);
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            switch (i % TYPES)
+            {
+                case 0:
+                    creatures.add(new Dragon("Dragon \"" + i + "\"", birth, HEALTH, RESOURCE));
+                    break;
+                case 1:
+                    creatures.add(new Elf("Elf " + i, birth, HEALTH, RESOURCE));
+                    break;
+                default:
+                    creatures.add(new Orc("Orc " + i, birth, HEALTH, RESOURCE));
+                    break;
+            }
+        }
+
+        return creatures;
+    }
+
+    /* What getDetails did before it used appendDetails: one println for the creature, one for the subclass. */
+    private static void printLikeBefore(final Creature    creature,
+                                        final PrintStream out)
+    {
+        final StringBuilder details;
+        details = new StringBuilder();
+
+        details.append("\n");
+        details.append("Name: ");
+        details.append(creature.getName());
+        details.append("\nDate Of Birth: ");
+        details.append(new Date(0L));
+        details.append("\nAge: ");
+        details.append(creature.getAgeYears());
+        details.append("\nHealth: ");
+        details.append(creature.getHealth());
+
+        out.println(details.toString());
+
+        if (creature instanceof Dragon)
+        {
+            out.println("Fire Power: " + ((Dragon) creature).getFirePower());
+        }
+        else if (creature instanceof Elf)
+        {
+            out.println("Mana: " + ((Elf) creature).getMana());
+        }
+        else
+        {
+            out.println("Rage: " + ((Orc) creature).getRage());
+        }
+    }
+
+    private static void checkSameText(final List<Creature> creatures)
+            throws IOException
+    {
+        final PrintStream           standardOutput;
+        final ByteArrayOutputStream printed;
+        final ByteArrayOutputStream written;
+
+        standardOutput = System.out;
+        printed        = new ByteArrayOutputStream();
+        written        = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+
+        try
+        {
+            for (final Creature creature : creatures)
+            {
+                creature.getDetails();
+            }
+        }
+        finally
+        {
+            System.setOut(standardOutput);
+        }
+
+        try (DetailsWriter writer = new DetailsWriter(written, DetailsFormat.TEXT))
+        {
+            writer.writeAll(creatures);
+        }
+
+        if (!printed.toString(StandardCharsets.UTF_8).equals(written.toString(StandardCharsets.UTF_8)))
+        {
+            throw new IllegalStateException(
+                    "DetailsWriter text is not what getDetails prints.");
+        }
+    }
+
+    private static void report(final PrintStream  out,
+                               final String       label,
+                               final long         nanos,
+                               final CountingSink sink)
+    {
+        out.printf("%-26s %8.1f ms %10d bytes %8d writes %8d flushes%n",
+                   label,
+                   nanos / NANOS_PER_MILLI,
+                   sink.bytes,
+                   sink.writes,
+                   sink.flushes);
+    }
+
+    /* Drops every byte, counting bytes, writes and flushes. */
+    private static final class CountingSink
+            extends OutputStream
+    {
+        private long bytes;
+        private long writes;
+        private long flushes;
+
+        @Override
+        public void write(final int b)
+        {
+            bytes++;
+            writes++;
+        }
+
+        @Override
+        public void write(final byte[] b,
+                          final int    off,
+                          final int    len)
+        {
+            bytes += len;
+            writes++;
+        }
+
+        @Override
+        public void flush()
+        {
+            flushes++;
+        }
+
+        private void reset()
+        {
+            bytes   = 0;
+            writes  = 0;
+            flushes = 0;
+        }
+    }
+}
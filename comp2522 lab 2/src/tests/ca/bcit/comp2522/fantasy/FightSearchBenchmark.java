@@ -0,0 +1,94 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the speed of a {@link FightSearch} in nodes per second, with
+ * one thread and with more threads sharing the transposition table.
+ * Every search gets a new transposition table, so every search does the
+ * same work from the start. Every search must pick a legal action and
+ * agree with the single-threaded search on whether the mover can force a win.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class FightSearchBenchmark
+{
+    private static final int   ROUNDS     = 3;
+    private static final int   DEPTH      = 300;
+    private static final int   TURNS      = 400;
+    private static final int   TABLE_BITS = 22;
+    private static final int[] THREADS    = {1, 2, 4, 8};
+
+    public static void main(final String[] args)
+    {
+        final long[] states;
+
+        states = new long[] {
+                FightState.of(new Dragon("Dragon", new Date(0L), 1000, 50),
+                              new Elf("Elf", new Date(0L), 1000, 50),
+                              TURNS),
+                FightState.of(new Orc("Orc", new Date(0L), 900, 5),
+                              new Dragon("Dragon", new Date(0L), 1000, 0),
+                              TURNS),
+                FightState.of(new Elf("Elf", new Date(0L), 1000, 10),
+                              new Orc("Orc", new Date(0L), 600, 20),
+                              TURNS)
+        };
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            System.out.println("=== Round " + round + " ===");
+
+            for (final long state : states)
+            {
+                FightSearchResult single;
+                single = null;
+
+                System.out.println(FightState.getMoverType(state) + " vs " + FightState.getOpponentType(state) + ":");
+
+                for (final int threads : THREADS)
+                {
+                    final ForkJoinPool      pool;
+                    final FightSearchResult result;
+
+                    pool   = new ForkJoinPool(threads);
+                    result = new FightSearch(TABLE_BITS, threads).search(state, DEPTH, pool);
+
+                    pool.shutdown();
+
+                    if (single == null)
+                    {
+                        single = result;
+                    }
+
+                    check(state, single, result);
+
+                    System.out.printf("  %d threads: %s%n", threads, result);
+                }
+            }
+        }
+    }
+
+    private static void check(final long              state,
+                              final FightSearchResult single,
+                              final FightSearchResult result)
+    {
+        if (!FightState.isLegal(state, result.getAction()))
+        {
+            throw new IllegalStateException(
+                    result.getAction() + " is not a legal action.");
+        }
+
+        if (FightSearch.isWin(single.getScore()) != FightSearch.isWin(result.getScore()) ||
+            FightSearch.isLoss(single.getScore()) != FightSearch.isLoss(result.getScore()))
+        {
+            throw new IllegalStateException(
+                    "Searches disagree: " + single + " and " + result + ".");
+        }
+    }
+}
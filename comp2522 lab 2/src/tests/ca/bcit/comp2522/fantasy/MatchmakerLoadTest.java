@@ -0,0 +1,234 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Puts load on a {@link Matchmaker}. Producer threads submit random
+ * dragons, elves and orcs of every health, and the listener counts
+ * the creatures fought twice and the matches between two creatures of
+ * the same type; there must be none. After the matchmaker is closed,
+ * every match made must have been fought, and every creature must have
+ * been matched or still be waiting. This must also hold when the
+ * matchmaker is closed while producers are still submitting.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class MatchmakerLoadTest
+{
+    private static final int    PRODUCERS              = 4;
+    private static final int    CREATURES_PER_PRODUCER = 50_000;
+    private static final int    BAND_WIDTH             = 50;
+    private static final int    WORKERS                = 4;
+    private static final int    MAXIMUM_TURNS          = 200;
+    private static final int    RESOURCE               = 20;
+    private static final long   SEED                   = 42L;
+    private static final double NANOS_PER_MICRO        = 1e3;
+    private static final double NANOS_PER_MILLI        = 1e6;
+    private static final long   CLOSE_AFTER_MILLIS     = 20L;
+
+    public static void main(final String[] args)
+            throws InterruptedException
+    {
+        final Set<Creature> fought;
+        final LongAdder     draws;
+        final LongAdder     mistakes;
+        final Thread[]      producers;
+        final Matchmaker    matchmaker;
+        final long          start;
+        final long          elapsed;
+
+        fought    = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        draws     = new LongAdder();
+        mistakes  = new LongAdder();
+        producers = new Thread[PRODUCERS];
+
+        matchmaker = new Matchmaker(BAND_WIDTH,
+                                    WORKERS,
+                                    MAXIMUM_TURNS,
+                                    SEED,
+                                    (first, second, result, turns) -> check(fought, draws, mistakes, first, second, result));
+
+        for (int i = 0; i < PRODUCERS; i++)
+        {
+            final long seed;
+            seed = SEED + i;
+
+            producers[i] = new Thread(() -> produce(matchmaker, seed));
+        }
+
+        start = System.nanoTime();
+
+        for (final Thread producer : producers)
+        {
+            producer.start();
+        }
+
+        for (final Thread producer : producers)
+        {
+            producer.join();
+        }
+
+        matchmaker.close();
+
+        elapsed = System.nanoTime() - start;
+
+        if (matchmaker.getFinished() != matchmaker.getMatched())
+        {
+            throw new IllegalStateException(
+                    matchmaker.getMatched() + " matches were made but " + matchmaker.getFinished() + " were fought.");
+        }
+
+        if (matchmaker.getSubmitted() != (long) PRODUCERS * CREATURES_PER_PRODUCER ||
+            matchmaker.getWaiting() < 0 ||
+            fought.size() != matchmaker.getMatched() * 2 ||
+            mistakes.sum() != 0)
+        {
+            throw new IllegalStateException(
+                    "Creatures were lost or matched twice.");
+        }
+
+        System.out.printf("%d creatures submitted by %d threads in %.1f ms%n",
+                          matchmaker.getSubmitted(),
+                          PRODUCERS,
+                          elapsed / NANOS_PER_MILLI);
+        System.out.printf("%d matches, %d draws, %d creatures still waiting%n",
+                          matchmaker.getMatched(),
+                          draws.sum(),
+                          matchmaker.getWaiting());
+        System.out.printf("%.0f matches per second, %.1f turns per match%n",
+                          matchmaker.getMatchesPerSecond(),
+                          matchmaker.getAverageTurns());
+        System.out.printf("queue wait: average %.1f us, maximum %.1f us%n",
+                          matchmaker.getAverageWaitNanos() / NANOS_PER_MICRO,
+                          matchmaker.getMaximumWaitNanos() / NANOS_PER_MICRO);
+
+        checkCloseDuringSubmit();
+    }
+
+    /* Producers submit until the matchmaker refuses them, so some submits race with close. */
+    private static void checkCloseDuringSubmit()
+            throws InterruptedException
+    {
+        final Set<Creature> fought;
+        final LongAdder     mistakes;
+        final Thread[]      producers;
+        final Matchmaker    matchmaker;
+
+        fought    = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        mistakes  = new LongAdder();
+        producers = new Thread[PRODUCERS];
+
+        matchmaker = new Matchmaker(BAND_WIDTH,
+                                    WORKERS,
+                                    MAXIMUM_TURNS,
+                                    SEED,
+                                    (first, second, result, turns) -> check(fought, new LongAdder(), mistakes, first, second, result));
+
+        for (int i = 0; i < PRODUCERS; i++)
+        {
+            final long seed;
+            seed = SEED + i;
+
+            producers[i] = new Thread(() ->
+            {
+                try
+                {
+                    while (true)
+                    {
+                        produce(matchmaker, seed);
+                    }
+                }
+                catch (IllegalStateException e)
+                {
+                    // the matchmaker is closed
+                }
+            });
+            producers[i].start();
+        }
+
+        Thread.sleep(CLOSE_AFTER_MILLIS);
+        matchmaker.close();
+
+        for (final Thread producer : producers)
+        {
+            producer.join();
+        }
+
+        if (matchmaker.getFinished() != matchmaker.getMatched() ||
+            fought.size() != matchmaker.getMatched() * 2 ||
+            matchmaker.getWaiting() < 0 ||
+            mistakes.sum() != 0)
+        {
+            throw new IllegalStateException(
+                    matchmaker.getMatched() + " matches were made while closing but " +
+                    matchmaker.getFinished() + " were fought.");
+        }
+
+        System.out.printf("closed during submits: %d creatures, %d matches, all fought%n",
+                          matchmaker.getSubmitted(),
+                          matchmaker.getMatched());
+    }
+
+    private static void produce(final Matchmaker matchmaker,
+                                final long       seed)
+    {
+        final SplittableRandom random;
+        final Date             birth;
+
+        random = new SplittableRandom(seed);
+        birth  = new Date(0L);
+
+        for (int i = 0; i < CREATURES_PER_PRODUCER; i++)
+        {
+            final int      health;
+            final Creature creature;
+
+            health = random.nextInt(Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH + 1);
+
+            switch (random.nextInt(CreatureType.values().length))
+            {
+                case 0:
+                    creature = new Dragon("Dragon " + seed + "-" + i, birth, health, RESOURCE);
+                    break;
+                case 1:
+                    creature = new Elf("Elf " + seed + "-" + i, birth, health, RESOURCE);
+                    break;
+                default:
+                    creature = new Orc("Orc " + seed + "-" + i, birth, health, RESOURCE);
+                    break;
+            }
+
+            matchmaker.submit(creature);
+        }
+    }
+
+    /* Runs on the worker threads, where an exception would only end the task, so mistakes are counted. */
+    private static void check(final Set<Creature> fought,
+                              final LongAdder     draws,
+                              final LongAdder     mistakes,
+                              final Creature      first,
+                              final Creature      second,
+                              final int           result)
+    {
+        if (!fought.add(first) ||
+            !fought.add(second) ||
+            first.getClass() == second.getClass())
+        {
+            mistakes.increment();
+        }
+
+        if (result == Duel.DRAW)
+        {
+            draws.increment();
+        }
+    }
+}
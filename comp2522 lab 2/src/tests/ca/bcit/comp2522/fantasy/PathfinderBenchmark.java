@@ -0,0 +1,326 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Moves hundreds of orcs across a map with random walls toward the same
+ * target, one tile per tick, in two ways: every orc runs its own
+ * breadth-first path search on every tick, or all of them follow the
+ * flow field a {@link Pathfinder} builds once. Every orc must end the
+ * same number of steps from the target either way. A wall is then put
+ * down, which must make the pathfinder build exactly one new field.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class PathfinderBenchmark
+{
+    private static final int    SIZE            = 128;
+    private static final double WALL_CHANCE     = 0.2;
+    private static final int    ORCS            = 500;
+    private static final int    ROUNDS          = 5;
+    private static final int    TICKS           = 30;
+    private static final double TILE_SIZE       = 1.0;
+    private static final double SPEED           = TILE_SIZE;
+    private static final double HALF            = 0.5;
+    private static final int    CACHE_SIZE      = 4;
+    private static final int    HEALTH          = 500;
+    private static final int    RAGE            = 20;
+    private static final long   SEED            = 42L;
+    private static final int    NOT_FOUND       = -1;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private static final int[] STEP_X = {1, -1, 0, 0};
+    private static final int[] STEP_Y = {0, 0, 1, -1};
+
+    public static void main(final String[] args)
+    {
+        final SplittableRandom random;
+        final TerrainMap       map;
+        final int              target;
+        final FlowField        reference;
+        final int[]            starts;
+
+        random = new SplittableRandom(SEED);
+        map    = new TerrainMap(SIZE, SIZE);
+        target = SIZE / 2 * SIZE + SIZE / 2;
+
+        for (int y = 0; y < SIZE; y++)
+        {
+            for (int x = 0; x < SIZE; x++)
+            {
+                map.setBlocked(x, y, random.nextDouble() < WALL_CHANCE);
+            }
+        }
+
+        map.setBlocked(target % SIZE, target / SIZE, false);
+
+        reference = new Pathfinder(map, TILE_SIZE, CACHE_SIZE).getFlowField(target % SIZE, target / SIZE);
+        starts    = reachableStarts(reference, random);
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final SpatialGrid    searchGrid;
+            final SpatialGrid    flowGrid;
+            final List<Creature> searchOrcs;
+            final List<Creature> flowOrcs;
+            final Pathfinder     pathfinder;
+            final Search         search;
+            final long           searchNanos;
+            final long           flowNanos;
+            long                 begin;
+
+            searchGrid = new SpatialGrid(TILE_SIZE);
+            flowGrid   = new SpatialGrid(TILE_SIZE);
+            searchOrcs = placeOrcs(searchGrid, starts);
+            flowOrcs   = placeOrcs(flowGrid, starts);
+            pathfinder = new Pathfinder(map, TILE_SIZE, CACHE_SIZE);
+            search     = new Search(map);
+
+            begin = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                for (final Creature orc : searchOrcs)
+                {
+                    search.step(searchGrid, orc, target);
+                }
+            }
+
+            searchNanos = System.nanoTime() - begin;
+            begin       = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                pathfinder.moveAllToward(flowGrid, flowOrcs, target % SIZE, target / SIZE, SPEED);
+            }
+
+            flowNanos = System.nanoTime() - begin;
+
+            check(reference, starts, searchGrid, searchOrcs, flowGrid, flowOrcs);
+            checkRebuild(map, pathfinder, target);
+
+            System.out.printf("Round %d: %d orcs, %d ticks on a %dx%d map%n", round, ORCS, TICKS, SIZE, SIZE);
+            System.out.printf("  search per orc %8.1f ms%n", searchNanos / NANOS_PER_MILLI);
+            System.out.printf("  flow field     %8.1f ms (%d built, %d cache hits)%n",
+                              flowNanos / NANOS_PER_MILLI,
+                              pathfinder.getFieldsBuilt(),
+                              pathfinder.getCacheHits());
+        }
+    }
+
+    private static int[] reachableStarts(final FlowField        field,
+                                         final SplittableRandom random)
+    {
+        final int[] starts;
+        int         found;
+
+        starts = new int[ORCS];
+        found  = 0;
+
+        while (found < ORCS)
+        {
+            final int x;
+            final int y;
+
+            x = random.nextInt(SIZE);
+            y = random.nextInt(SIZE);
+
+            if (field.getDistance(x, y) > TICKS)
+            {
+                starts[found++] = y * SIZE + x;
+            }
+        }
+
+        return starts;
+    }
+
+    private static List<Creature> placeOrcs(final SpatialGrid grid,
+                                            final int[]       starts)
+    {
+        final List<Creature> orcs;
+        final Date           birth;
+
+        orcs  = new ArrayList<>(starts.length);
+        birth = new Date(0L);
+
+        for (int i = 0; i < starts.length; i++)
+        {
+            final Creature orc;
+            orc = new Orc("Orc " + i, birth, HEALTH, RAGE);
+
+            grid.place(orc, centre(starts[i] % SIZE), centre(starts[i] / SIZE));
+            orcs.add(orc);
+        }
+
+        return orcs;
+    }
+
+    private static double centre(final int tile)
+    {
+        return (tile + HALF) * TILE_SIZE;
+    }
+
+    private static void check(final FlowField      reference,
+                              final int[]          starts,
+                              final SpatialGrid    searchGrid,
+                              final List<Creature> searchOrcs,
+                              final SpatialGrid    flowGrid,
+                              final List<Creature> flowOrcs)
+    {
+        for (int i = 0; i < starts.length; i++)
+        {
+            final int expected;
+            final int searched;
+            final int flowed;
+
+            expected = reference.getDistance(starts[i] % SIZE, starts[i] / SIZE) - TICKS;
+            searched = distance(reference, searchGrid, searchOrcs.get(i));
+            flowed   = distance(reference, flowGrid, flowOrcs.get(i));
+
+            if (searched != expected ||
+                flowed != expected)
+            {
+                throw new IllegalStateException(
+                        "Orc " + i + " is " + searched + " and " + flowed + " steps away, not " + expected + ".");
+            }
+        }
+    }
+
+    private static int distance(final FlowField   field,
+                                final SpatialGrid grid,
+                                final Creature    orc)
+    {
+        return field.getDistance((int) Math.floor(grid.getX(orc) / TILE_SIZE),
+                                 (int) Math.floor(grid.getY(orc) / TILE_SIZE));
+    }
+
+    /* A wall that changes the map must cost one new field, and the next lookups must hit the cache again. */
+    private static void checkRebuild(final TerrainMap map,
+                                     final Pathfinder pathfinder,
+                                     final int        target)
+    {
+        final long built;
+        final int  wallX;
+        final int  wallY;
+
+        built = pathfinder.getFieldsBuilt();
+        wallX = 0;
+        wallY = 0;
+
+        map.setBlocked(wallX, wallY, !map.isBlocked(wallX, wallY));
+
+        pathfinder.getFlowField(target % SIZE, target / SIZE);
+        pathfinder.getFlowField(target % SIZE, target / SIZE);
+
+        map.setBlocked(wallX, wallY, !map.isBlocked(wallX, wallY));
+
+        if (pathfinder.getFieldsBuilt() != built + 1)
+        {
+            throw new IllegalStateException(
+                    "A map change built " + (pathfinder.getFieldsBuilt() - built) + " fields.");
+        }
+    }
+
+    /* The search every orc runs on its own: breadth-first from the orc until it reaches the target. */
+    private static final class Search
+    {
+        private final TerrainMap map;
+        private final int[]      queue;
+        private final int[]      parent;
+        private final int[]      visited;
+        private int              stamp;
+
+        private Search(final TerrainMap map)
+        {
+            this.map     = map;
+            this.queue   = new int[SIZE * SIZE];
+            this.parent  = new int[SIZE * SIZE];
+            this.visited = new int[SIZE * SIZE];
+        }
+
+        private void step(final SpatialGrid grid,
+                          final Creature    orc,
+                          final int         target)
+        {
+            final int start;
+            int       tile;
+
+            start = map.tile((int) Math.floor(grid.getX(orc) / TILE_SIZE),
+                             (int) Math.floor(grid.getY(orc) / TILE_SIZE));
+            tile  = search(start, target);
+
+            if (tile == NOT_FOUND ||
+                tile == start)
+            {
+                return;
+            }
+
+            // walk back from the target to the tile right after the start
+            while (parent[tile] != start)
+            {
+                tile = parent[tile];
+            }
+
+            grid.move(orc, centre(tile % SIZE), centre(tile / SIZE));
+        }
+
+        private int search(final int start,
+                           final int target)
+        {
+            int head;
+            int tail;
+
+            stamp++;
+            head = 0;
+            tail = 0;
+
+            visited[start] = stamp;
+            queue[tail++]  = start;
+
+            while (head < tail)
+            {
+                final int tile;
+                tile = queue[head++];
+
+                if (tile == target)
+                {
+                    return tile;
+                }
+
+                for (int direction = 0; direction < STEP_X.length; direction++)
+                {
+                    final int x;
+                    final int y;
+
+                    x = tile % SIZE + STEP_X[direction];
+                    y = tile / SIZE + STEP_Y[direction];
+
+                    if (!map.contains(x, y))
+                    {
+                        continue;
+                    }
+
+                    final int neighbour;
+                    neighbour = y * SIZE + x;
+
+                    if (visited[neighbour] != stamp &&
+                        !map.isBlocked(neighbour))
+                    {
+                        visited[neighbour] = stamp;
+                        parent[neighbour]  = tile;
+                        queue[tail++]      = neighbour;
+                    }
+                }
+            }
+
+            return NOT_FOUND;
+        }
+    }
+}
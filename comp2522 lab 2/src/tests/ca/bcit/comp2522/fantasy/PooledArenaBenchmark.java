@@ -0,0 +1,139 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the allocation rate of duels that create fresh creatures
+ * every time with duels that reuse creatures from a {@link PooledArena}.
+ * The bytes allocated by the benchmark thread are read from the JVM's
+ * thread bean, and the number of garbage collections is shown as well.
+ * Both sides play the same duels with the same random numbers and must
+ * get the same number of wins.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class PooledArenaBenchmark
+{
+    private static final int  DUELS         = 2_000_000;
+    private static final int  ROUNDS        = 5;
+    private static final int  MAXIMUM_TURNS = 200;
+    private static final long SEED          = 42L;
+
+    private static final List<CreatureSpec> SPECS = List.of(
+            new CreatureSpec(CreatureType.DRAGON, 300, 50),
+            new CreatureSpec(CreatureType.ELF, 400, 50));
+
+    public static void main(final String[] args)
+    {
+        final com.sun.management.ThreadMXBean threads;
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final long[] fresh;
+            final long[] pooled;
+
+            System.out.println("=== Round " + round + " ===");
+
+            fresh  = measure(threads, false);
+            pooled = measure(threads, true);
+
+            if (fresh[3] != pooled[3])
+            {
+                throw new IllegalStateException(
+                        "Fresh creatures won " + fresh[3] + " duels but pooled ones won " + pooled[3] + ".");
+            }
+
+            report("fresh creatures ", fresh);
+            report("pooled creatures", pooled);
+        }
+    }
+
+    /* Returns elapsed nanoseconds, allocated bytes, collections and first-creature wins. */
+    private static long[] measure(final com.sun.management.ThreadMXBean threads,
+                                  final boolean                         usePool)
+    {
+        final long             threadId;
+        final Duel             duel;
+        final PooledArena      arena;
+        final SplittableRandom random;
+        final long             startBytes;
+        final long             startCollections;
+        final long             start;
+        long                   wins;
+
+        threadId         = Thread.currentThread().getId();
+        duel             = new Duel(MAXIMUM_TURNS);
+        arena            = new PooledArena(SPECS);
+        random           = new SplittableRandom(SEED);
+        wins             = 0;
+        startCollections = collections();
+        startBytes       = threads.getThreadAllocatedBytes(threadId);
+        start            = System.nanoTime();
+
+        for (int i = 0; i < DUELS; i++)
+        {
+            final Creature first;
+            final Creature second;
+
+            if (usePool)
+            {
+                first  = arena.acquire(0);
+                second = arena.acquire(1);
+            }
+            else
+            {
+                first  = SPECS.get(0).create("First");
+                second = SPECS.get(1).create("Second");
+            }
+
+            if (duel.fight(first, second, random) == Duel.FIRST_WINS)
+            {
+                wins++;
+            }
+
+            if (usePool)
+            {
+                arena.releaseAll();
+            }
+        }
+
+        return new long[] {
+                System.nanoTime() - start,
+                threads.getThreadAllocatedBytes(threadId) - startBytes,
+                collections() - startCollections,
+                wins
+        };
+    }
+
+    private static long collections()
+    {
+        long total;
+        total = 0;
+
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+
+        return total;
+    }
+
+    private static void report(final String label,
+                               final long[] result)
+    {
+        System.out.printf("%s: %7.1f ns/duel, %7.1f bytes/duel, %8.1f MB/s allocated, %d collections%n",
+                          label,
+                          (double) result[0] / DUELS,
+                          (double) result[1] / DUELS,
+                          result[1] * 1e3 / result[0],
+                          result[2]);
+    }
+}
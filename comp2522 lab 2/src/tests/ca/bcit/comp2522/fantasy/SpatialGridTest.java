@@ -0,0 +1,171 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Checks {@link SpatialGrid#findWithin(double, double, double)} against
+ * a scan of every creature, for small radii and for radii far larger
+ * than the battlefield, and checks that dead creatures are removed and
+ * that an infinite or NaN radius is rejected. Large radii must only cost
+ * a pass over the cells in use.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class SpatialGridTest
+{
+    private static final int      CREATURES       = 2_000;
+    private static final double   FIELD_SIZE      = 500.0;
+    private static final double   CELL_SIZE       = 1.0;
+    private static final double[] RADII           = {0.0, 3.0, 40.0, 2_000.0, 1e9, Double.MAX_VALUE};
+    private static final int      QUERIES         = 20;
+    private static final int      HEALTH          = 100;
+    private static final int      FIRE_POWER      = 50;
+    private static final int      KILLED          = 10;
+    private static final long     SEED            = 42L;
+    private static final long     MAXIMUM_NANOS   = 100_000_000L;
+    private static final double   NANOS_PER_MILLI = 1e6;
+
+    public static void main(final String[] args)
+    {
+        final SplittableRandom random;
+        final SpatialGrid      grid;
+        final List<Creature>   creatures;
+        final List<double[]>   positions;
+
+        random    = new SplittableRandom(SEED);
+        grid      = new SpatialGrid(CELL_SIZE);
+        creatures = new ArrayList<>();
+        positions = new ArrayList<>();
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            final Creature creature;
+            final double[] position;
+
+            creature = new Dragon("Dragon " + i, new Date(0L), HEALTH, FIRE_POWER);
+            position = new double[] {random.nextDouble(FIELD_SIZE), random.nextDouble(FIELD_SIZE)};
+
+            grid.place(creature, position[0], position[1]);
+            creatures.add(creature);
+            positions.add(position);
+        }
+
+        for (int i = 0; i < KILLED; i++)
+        {
+            creatures.get(i).takeDamage(HEALTH);
+        }
+
+        for (final double radius : RADII)
+        {
+            long elapsed;
+            elapsed = 0L;
+
+            for (int query = 0; query < QUERIES; query++)
+            {
+                final double         x;
+                final double         y;
+                final long           start;
+                final List<Creature> found;
+
+                x     = random.nextDouble(FIELD_SIZE);
+                y     = random.nextDouble(FIELD_SIZE);
+                start = System.nanoTime();
+                found = grid.findWithin(x, y, radius);
+
+                elapsed += System.nanoTime() - start;
+
+                check(found, creatures, positions, x, y, radius);
+            }
+
+            if (radius > FIELD_SIZE &&
+                elapsed > MAXIMUM_NANOS)
+            {
+                throw new IllegalStateException(
+                        "Radius " + radius + " took " + elapsed / NANOS_PER_MILLI + " ms.");
+            }
+
+            System.out.printf("radius %-10.3g %8.2f ms for %d queries%n", radius, elapsed / NANOS_PER_MILLI, QUERIES);
+        }
+
+        if (grid.size() != CREATURES - KILLED)
+        {
+            throw new IllegalStateException(
+                    "Dead creatures were not removed; " + grid.size() + " are on the grid.");
+        }
+
+        rejects(grid, Double.POSITIVE_INFINITY);
+        rejects(grid, Double.NaN);
+        rejects(grid, -1.0);
+
+        System.out.println("SpatialGrid checks passed.");
+    }
+
+    private static void check(final List<Creature> found,
+                              final List<Creature> creatures,
+                              final List<double[]> positions,
+                              final double         x,
+                              final double         y,
+                              final double         radius)
+    {
+        final Set<Creature> foundSet;
+        int                 expected;
+
+        foundSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        expected = 0;
+
+        foundSet.addAll(found);
+
+        for (int i = 0; i < creatures.size(); i++)
+        {
+            final double dx;
+            final double dy;
+
+            dx = positions.get(i)[0] - x;
+            dy = positions.get(i)[1] - y;
+
+            if (creatures.get(i).isAlive() &&
+                dx * dx + dy * dy <= radius * radius)
+            {
+                expected++;
+
+                if (!foundSet.contains(creatures.get(i)))
+                {
+                    throw new IllegalStateException(
+                            creatures.get(i).getName() + " was not found within " + radius + ".");
+                }
+            }
+        }
+
+        if (found.size() != expected)
+        {
+            throw new IllegalStateException(
+                    found.size() + " creatures were found within " + radius + ", not " + expected + ".");
+        }
+    }
+
+    private static void rejects(final SpatialGrid grid,
+                                final double      radius)
+    {
+        try
+        {
+            grid.findWithin(0.0, 0.0, radius);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return;
+        }
+
+        throw new IllegalStateException(
+                "Radius " + radius + " was accepted.");
+    }
+}
@@ -0,0 +1,285 @@
+package ca.bcit.comp2522.fantasy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Runs a million burn, poison, regeneration and stun effects on a
+ * quarter of a million creatures in two ways: a list of effect objects
+ * per Creature, applied with takeDamage and heal, and the columns of
+ * {@link StatusEffects} applied to an {@link ArenaSimulation}. Both
+ * must end with the same health, the same deaths, the same number of
+ * effects left and the same stunned creatures.
+ *
+ * @author Minsu Kim
+ * @author Hali Imanpanah
+ * @author Esin Sahutoglu
+ *
+ * @version 1.0
+ */
+public class StatusEffectsBenchmark
+{
+    private static final int    CREATURES        = 250_000;
+    private static final int    EFFECTS          = 1_000_000;
+    private static final int    ROUNDS           = 5;
+    private static final int    TICKS            = 50;
+    private static final int    MAXIMUM_DAMAGE   = 3;
+    private static final int    MAXIMUM_HEALING  = 4;
+    private static final int    MINIMUM_DURATION = 20;
+    private static final int    MAXIMUM_DURATION = 120;
+    private static final int    MANA             = 20;
+    private static final long   SEED             = 42L;
+    private static final double NANOS_PER_MILLI  = 1e6;
+
+    private static final StatusEffectType[] TYPES = StatusEffectType.values();
+
+    public static void main(final String[] args)
+    {
+        final int[]    health;
+        final Effect[] effects;
+
+        health  = new int[CREATURES];
+        effects = new Effect[EFFECTS];
+
+        randomize(health, effects);
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            final Creature[]      creatures;
+            final List<Effect>[]  lists;
+            final ArenaSimulation arena;
+            final StatusEffects   columns;
+            final boolean[]       stunned;
+            final long            objectNanos;
+            final long            columnNanos;
+            int                   objectDeaths;
+            int                   columnDeaths;
+            long                  begin;
+
+            creatures    = new Creature[CREATURES];
+            lists        = createLists(health, effects, creatures);
+            arena        = new ArenaSimulation(CREATURES);
+            columns      = new StatusEffects(EFFECTS / TYPES.length);
+            stunned      = new boolean[CREATURES];
+            objectDeaths = 0;
+            columnDeaths = 0;
+
+            for (final int value : health)
+            {
+                arena.addElf(value, MANA);
+            }
+
+            for (final Effect effect : effects)
+            {
+                columns.add(effect.type, effect.target, effect.magnitude, effect.remaining);
+            }
+
+            begin = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                objectDeaths += tickObjects(creatures, lists, stunned);
+            }
+
+            objectNanos = System.nanoTime() - begin;
+            begin       = System.nanoTime();
+
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                columnDeaths += arena.applyEffects(columns);
+            }
+
+            columnNanos = System.nanoTime() - begin;
+
+            check(creatures, lists, stunned, objectDeaths, arena, columns, columnDeaths);
+
+            System.out.printf("Round %d: %d ticks of %d effects, %d died, %d effects left%n",
+                              round,
+                              TICKS,
+                              EFFECTS,
+                              columnDeaths,
+                              columns.size());
+            System.out.printf("  effect objects %8.1f ms%n", objectNanos / NANOS_PER_MILLI);
+            System.out.printf("  StatusEffects  %8.1f ms%n", columnNanos / NANOS_PER_MILLI);
+        }
+    }
+
+    private static void randomize(final int[]    health,
+                                  final Effect[] effects)
+    {
+        final SplittableRandom random;
+        random = new SplittableRandom(SEED);
+
+        for (int i = 0; i < health.length; i++)
+        {
+            health[i] = random.nextInt(Creature.MINIMUM_HEALTH, Creature.MAXIMUM_HEALTH + 1);
+        }
+
+        for (int i = 0; i < effects.length; i++)
+        {
+            final StatusEffectType type;
+            final int              magnitude;
+
+            type      = TYPES[random.nextInt(TYPES.length)];
+            magnitude = type == StatusEffectType.REGENERATION ?
+                        random.nextInt(MAXIMUM_HEALING + 1) :
+                        random.nextInt(MAXIMUM_DAMAGE + 1);
+
+            effects[i] = new Effect(type,
+                                    random.nextInt(health.length),
+                                    magnitude,
+                                    random.nextInt(MINIMUM_DURATION, MAXIMUM_DURATION + 1));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Effect>[] createLists(final int[]      health,
+                                              final Effect[]   effects,
+                                              final Creature[] creatures)
+    {
+        final List<Effect>[] lists;
+        final Date           birth;
+
+        lists = (List<Effect>[]) new List<?>[health.length];
+        birth = new Date(0L);
+
+        for (int i = 0; i < health.length; i++)
+        {
+            creatures[i] = new Elf("Elf " + i, birth, health[i], MANA);
+            lists[i]     = new ArrayList<>();
+        }
+
+        for (final Effect effect : effects)
+        {
+            lists[effect.target].add(new Effect(effect.type, effect.target, effect.magnitude, effect.remaining));
+        }
+
+        return lists;
+    }
+
+    /* One tick the object way: every creature walks its own list once per effect type, in the order StatusEffects uses. */
+    private static int tickObjects(final Creature[]     creatures,
+                                   final List<Effect>[] lists,
+                                   final boolean[]      stunned)
+    {
+        int died;
+        died = 0;
+
+        for (int i = 0; i < creatures.length; i++)
+        {
+            final Creature creature;
+            final boolean  wasAlive;
+
+            creature   = creatures[i];
+            wasAlive   = creature.isAlive();
+            stunned[i] = false;
+
+            for (final StatusEffectType type : TYPES)
+            {
+                final Iterator<Effect> iterator;
+                iterator = lists[i].iterator();
+
+                while (iterator.hasNext())
+                {
+                    final Effect effect;
+                    effect = iterator.next();
+
+                    if (effect.type != type)
+                    {
+                        continue;
+                    }
+
+                    if (!creature.isAlive())
+                    {
+                        iterator.remove();
+                        continue;
+                    }
+
+                    switch (type)
+                    {
+                        case BURN:
+                        case POISON:
+                            creature.takeDamage(effect.magnitude);
+                            break;
+                        case REGENERATION:
+                            creature.heal(effect.magnitude);
+                            break;
+                        default:
+                            stunned[i] = true;
+                            break;
+                    }
+
+                    effect.remaining--;
+
+                    if (effect.remaining == 0 ||
+                        !creature.isAlive())
+                    {
+                        iterator.remove();
+                    }
+                }
+            }
+
+            if (wasAlive &&
+                !creature.isAlive())
+            {
+                died++;
+            }
+        }
+
+        return died;
+    }
+
+    private static void check(final Creature[]      creatures,
+                              final List<Effect>[]  lists,
+                              final boolean[]       stunned,
+                              final int             objectDeaths,
+                              final ArenaSimulation arena,
+                              final StatusEffects   columns,
+                              final int             columnDeaths)
+    {
+        int left;
+        left = 0;
+
+        for (int i = 0; i < creatures.length; i++)
+        {
+            if (creatures[i].getHealth() != arena.getHealth(i) ||
+                stunned[i] != arena.isStunned(i))
+            {
+                throw new IllegalStateException(
+                        "Creature " + i + " differs: " + creatures[i].getHealth() + " and " + arena.getHealth(i) + ".");
+            }
+
+            left += lists[i].size();
+        }
+
+        if (objectDeaths != columnDeaths ||
+            left != columns.size())
+        {
+            throw new IllegalStateException(
+                    "Deaths " + objectDeaths + " and " + columnDeaths + ", effects left " + left + " and " + columns.size() + ".");
+        }
+    }
+
+    /* The object the columns replace: one per effect, in a list per creature. */
+    private static final class Effect
+    {
+        private final StatusEffectType type;
+        private final int              target;
+        private final int              magnitude;
+        private int                    remaining;
+
+        private Effect(final StatusEffectType type,
+                       final int              target,
+                       final int              magnitude,
+                       final int              remaining)
+        {
+            this.type      = type;
+            this.target    = target;
+            this.magnitude = magnitude;
+            this.remaining = remaining;
+        }
+    }
+}